@@ -17,32 +17,29 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 
 package org.jetuml;
 
 import static org.jetuml.application.ApplicationResources.RESOURCES;
 
 import java.io.File;
-import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
 
 import org.jetuml.application.UserPreferences;
 import org.jetuml.application.Version;
-import org.jetuml.diagram.Diagram;
+import org.jetuml.diagnostics.FlightRecording;
 import org.jetuml.geom.Rectangle;
-import org.jetuml.gui.DeserializationErrorAlert;
 import org.jetuml.gui.EditorFrame;
 import org.jetuml.gui.GuiUtils;
+import org.jetuml.gui.InteractionRecorder;
 import org.jetuml.gui.tips.TipDialog;
-import org.jetuml.persistence.DeserializationException;
-import org.jetuml.persistence.PersistenceService;
 
 import javafx.application.Application;
 import javafx.application.HostServices;
 import javafx.scene.Scene;
-import javafx.scene.control.Alert;
 import javafx.scene.image.Image;
 import javafx.stage.Stage;
 
@@ -57,7 +54,9 @@ public final class JetUML extends Application
 	private static HostServices aHostServices; // Required to open a browser page.
 	
 	/**
-	 * @param pArgs Not used.
+	 * @param pArgs The file to open, optionally preceded by --record=FILE
+	 *     to record the session with Flight Recorder, and by --trace=DIRECTORY
+	 *     to record the interactions with each diagram in a trace file of DIRECTORY.
 	 */
 	public static void main(String[] pArgs)
 	{
@@ -69,38 +68,22 @@ public final class JetUML extends Application
 	public void start(Stage pStage) throws Exception 
 	{
 		aHostServices = getHostServices();
+		String recording = getParameters().getNamed().get("record");
+		if( recording != null )
+		{
+			FlightRecording.start(Path.of(recording));
+		}
+		String traces = getParameters().getNamed().get("trace");
+		if( traces != null )
+		{
+			InteractionRecorder.recordIn(Path.of(traces));
+		}
 		setStageBoundaries(pStage);
 
 		pStage.setTitle(RESOURCES.getString("application.name"));
 		pStage.getIcons().add(new Image(RESOURCES.getString("application.icon")));
 
-		Optional<Diagram> diagramToOpen = Optional.empty();
-		Optional<File> fileToOpen = getFileToOpenIfPresent();
-		
-		/* For simplicity, the code below does not set up a stage just to serve
-		 * as a parent for the Alert dialog. The only consequence is that if
-		 * this dialog appears, a default "Java" icon will be shown in the OS
-		 * taskbar instead of the JetUML-branded icon. To show the JetUML
-		 * icon, the code needs to be extended to create an empty stage
-		 * and ensure the dialog shows up in the middle of the screen, before
-		 * exiting.
-		 */
-		try
-		{
-			if( fileToOpen.isPresent())
-			{
-				diagramToOpen = Optional.of(PersistenceService.read(fileToOpen.get()));
-			}
-		}
-		catch( IOException | DeserializationException exception )
-		{
-			Alert alert = new DeserializationErrorAlert(exception);
-			alert.showAndWait();
-			System.exit(0);
-		}
-		
 		EditorFrame editor = new EditorFrame(pStage);
-		diagramToOpen.ifPresent(diagram -> editor.setOpenFileAsDiagram(fileToOpen.get(), diagram));
 		pStage.setScene(new Scene(editor));
 		
 		pStage.getScene().getStylesheets().add(getClass().getResource("JetUML.css").toExternalForm());
@@ -111,6 +94,9 @@ public final class JetUML extends Application
 			((EditorFrame)((Stage)pWindowEvent.getSource()).getScene().getRoot()).exit();
 		});
 		pStage.show();
+		// The file is loaded in the background, so that the window appears immediately
+		getFileToOpenIfPresent().ifPresent(editor::open);
+		editor.recoverAutosavedDiagrams();
 		
 		if(UserPreferences.instance().getBoolean(UserPreferences.BooleanPreference.showTips))
 		{
@@ -0,0 +1,394 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.application;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+
+import org.jetuml.annotations.Immutable;
+import org.jetuml.annotations.Singleton;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.JsonEncoder;
+import org.jetuml.persistence.OperationJournal;
+
+/**
+ * Records the successive states of the open diagrams in operation journals,
+ * so that unsaved work can be recovered if the application terminates abnormally.
+ *
+ * Recording the state of a diagram only marks its journal as dirty. Once per batch
+ * delay, each dirty diagram is duplicated by an executor that runs in the thread that 
+ * owns the diagram. The duplicate is then encoded, and all file operations performed,
+ * by a single background thread, followed by a single synchronization of the journal
+ * with the storage device.
+ *
+ * Autosaving is a best-effort service: a journal that cannot be written
+ * is abandoned without notifying the user, who can still save the diagram explicitly.
+ */
+@Singleton
+public final class AutosaveService
+{
+	private static final AutosaveService INSTANCE = new AutosaveService();
+	private static final Path DEFAULT_DIRECTORY = Path.of(System.getProperty("user.home"), ".jetuml", "autosave");
+	private static final long BATCH_DELAY = 500; // milliseconds
+	private static final long SHUTDOWN_TIMEOUT = 2000; // milliseconds
+
+	private final ScheduledThreadPoolExecutor aWriter = new ScheduledThreadPoolExecutor(1, runnable ->
+	{
+		Thread thread = new Thread(runnable, "JetUML Autosave");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final Set<Journal> aJournals = new HashSet<>();
+	private final Path aDirectory;
+
+	/**
+	 * The journal of a single diagram. A journal is only created on disk
+	 * when the first state of its diagram is recorded.
+	 */
+	public final class Journal
+	{
+		private final String aName = UUID.randomUUID().toString();
+		private final Executor aDiagramThread;
+		private Optional<Diagram> aDirtyDiagram = Optional.empty();
+		private boolean aFlushScheduled = false;
+		private Optional<OperationJournal> aJournal = Optional.empty(); // Only accessed by the writer thread
+		private final List<String> aSuperseded = new ArrayList<>(); // Only accessed by the writer thread
+
+		private Journal(Executor pDiagramThread)
+		{
+			aDiagramThread = pDiagramThread;
+		}
+
+		/**
+		 * Marks this journal as dirty. The state of pDiagram is recorded once
+		 * at the end of the current batch, however many times it was recorded.
+		 *
+		 * @param pDiagram The diagram whose state to record.
+		 * @pre pDiagram != null
+		 */
+		public void record(Diagram pDiagram)
+		{
+			assert pDiagram != null;
+			synchronized(this)
+			{
+				aDirtyDiagram = Optional.of(pDiagram);
+				if( !aFlushScheduled )
+				{
+					aFlushScheduled = true;
+					aWriter.schedule(() -> aDiagramThread.execute(this::snapshot), BATCH_DELAY, MILLISECONDS);
+				}
+			}
+		}
+
+		/**
+		 * Deletes the journal of pRecovery once the first state of this journal 
+		 * is written, or this journal is discarded. Until then, the diagram of 
+		 * pRecovery can still be recovered at the next start of the application.
+		 *
+		 * @param pRecovery A diagram recovered from a previous session, whose 
+		 *     current state is recorded in this journal.
+		 * @pre pRecovery != null
+		 */
+		public void supersede(Recovery pRecovery)
+		{
+			assert pRecovery != null;
+			aWriter.execute(() -> aSuperseded.add(pRecovery.name()));
+		}
+
+		/**
+		 * Discards all the recorded states, for example because the diagram
+		 * was saved or closed. States recorded after this call start a new journal.
+		 */
+		public void discard()
+		{
+			synchronized(this)
+			{
+				aDirtyDiagram = Optional.empty();
+			}
+			aWriter.execute(this::delete);
+		}
+
+		/*
+		 * Duplicates the latest recorded state, if any, and hands the duplicate over 
+		 * to the writer thread. Runs in the thread that owns the diagram.
+		 */
+		private void snapshot()
+		{
+			Optional<Diagram> diagram;
+			synchronized(this)
+			{
+				diagram = aDirtyDiagram;
+				aDirtyDiagram = Optional.empty();
+				aFlushScheduled = false;
+			}
+			if( diagram.isEmpty() )
+			{
+				return;
+			}
+			Diagram snapshot = diagram.get().duplicate();
+			try
+			{
+				aWriter.execute(() -> flush(snapshot));
+			}
+			catch(RejectedExecutionException exception)
+			{
+				// The service was shut down while the diagram was being duplicated
+			}
+		}
+
+		/*
+		 * Encodes pSnapshot and appends its state, then synchronizes the journal once.
+		 * Runs in the writer thread.
+		 */
+		private void flush(Diagram pSnapshot)
+		{
+			String state = JsonEncoder.encode(pSnapshot).toString();
+			try
+			{
+				if( aJournal.isEmpty() )
+				{
+					aJournal = Optional.of(new OperationJournal(aDirectory, aName, state));
+				}
+				else
+				{
+					aJournal.get().append(state);
+				}
+				aJournal.get().synchronize();
+				deleteSuperseded();
+			}
+			catch(IOException exception)
+			{
+				delete();
+			}
+		}
+
+		/*
+		 * Deletes the journals superseded by this one. Runs in the writer thread.
+		 */
+		private void deleteSuperseded()
+		{
+			for( String name : aSuperseded )
+			{
+				try
+				{
+					OperationJournal.delete(aDirectory, name);
+				}
+				catch(IOException exception)
+				{
+					// Best effort: the journal will be offered for recovery at the next start
+				}
+			}
+			aSuperseded.clear();
+		}
+
+		/*
+		 * Deletes the files of this journal. Runs in the writer thread.
+		 */
+		private void delete()
+		{
+			try
+			{
+				if( aJournal.isPresent() )
+				{
+					aJournal.get().delete();
+				}
+				else
+				{
+					OperationJournal.delete(aDirectory, aName);
+				}
+			}
+			catch(IOException exception)
+			{
+				// Best effort: leftover files will be offered for recovery at the next start
+			}
+			aJournal = Optional.empty();
+			deleteSuperseded();
+		}
+	}
+
+	/**
+	 * A diagram recovered from the journal left behind by a previous
+	 * execution of the application.
+	 */
+	@Immutable
+	public static final class Recovery
+	{
+		private final String aName;
+		private final String aEncoding;
+
+		private Recovery(String pName, String pEncoding)
+		{
+			aName = pName;
+			aEncoding = pEncoding;
+		}
+
+		/**
+		 * @return The name of the journal the diagram was recovered from.
+		 */
+		public String name()
+		{
+			return aName;
+		}
+
+		/**
+		 * @return The JSON encoding of the last recorded state of the diagram.
+		 */
+		public String encoding()
+		{
+			return aEncoding;
+		}
+	}
+
+	private AutosaveService()
+	{
+		this(DEFAULT_DIRECTORY);
+	}
+
+	/*
+	 * Creates a service that keeps its journals in pDirectory. Only used directly by tests.
+	 */
+	AutosaveService(Path pDirectory)
+	{
+		aDirectory = pDirectory;
+		// Pending batches are obsolete once the service is shut down.
+		aWriter.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+	}
+
+	/**
+	 * @return The Singleton instance of the AutosaveService.
+	 */
+	public static AutosaveService instance()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * @param pDiagramThread An executor that runs tasks in the thread that owns the 
+	 *     diagram, in which the recorded states are duplicated.
+	 * @return A new, empty, journal.
+	 * @pre pDiagramThread != null
+	 */
+	public Journal createJournal(Executor pDiagramThread)
+	{
+		assert pDiagramThread != null;
+		Journal journal = new Journal(pDiagramThread);
+		synchronized(aJournals)
+		{
+			aJournals.add(journal);
+		}
+		return journal;
+	}
+
+	/**
+	 * Discards pJournal and stops tracking it.
+	 *
+	 * @param pJournal The journal to close.
+	 * @pre pJournal != null
+	 */
+	public void close(Journal pJournal)
+	{
+		assert pJournal != null;
+		pJournal.discard();
+		synchronized(aJournals)
+		{
+			aJournals.remove(pJournal);
+		}
+	}
+
+	/**
+	 * Reconstructs the last recorded state of all the diagrams whose journals were
+	 * left behind by a previous execution of the application. Journals still in use 
+	 * by another instance of the application are ignored. The journals of the recovered
+	 * diagrams are kept until they are superseded by the journal of a new diagram, see 
+	 * Journal.supersede. Journals from which nothing can be recovered are deleted.
+	 *
+	 * @return The recovered diagrams.
+	 */
+	public List<Recovery> recover()
+	{
+		List<Recovery> result = new ArrayList<>();
+		try
+		{
+			for( String name : OperationJournal.list(aDirectory) )
+			{
+				if( isOwnJournal(name) || OperationJournal.isInUse(aDirectory, name) )
+				{
+					continue;
+				}
+				Optional<String> encoding = OperationJournal.recover(aDirectory, name);
+				if( encoding.isPresent() )
+				{
+					result.add(new Recovery(name, encoding.get()));
+				}
+				else
+				{
+					OperationJournal.delete(aDirectory, name);
+				}
+			}
+		}
+		catch(IOException exception)
+		{
+			// Best effort: return whatever could be recovered
+		}
+		return result;
+	}
+
+	private boolean isOwnJournal(String pName)
+	{
+		synchronized(aJournals)
+		{
+			return aJournals.stream().anyMatch(journal -> journal.aName.equals(pName));
+		}
+	}
+
+	/**
+	 * Discards all the journals and waits for the background thread to
+	 * terminate. To be called when the application exits normally.
+	 */
+	public void shutdown()
+	{
+		synchronized(aJournals)
+		{
+			aJournals.forEach(Journal::discard);
+			aJournals.clear();
+		}
+		aWriter.shutdown();
+		try
+		{
+			aWriter.awaitTermination(SHUTDOWN_TIMEOUT, MILLISECONDS);
+		}
+		catch(InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -25,11 +25,14 @@ import static java.util.stream.Collectors.toSet;
 import static java.util.stream.StreamSupport.stream;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.Predicate;
 
 import org.jetuml.annotations.Singleton;
+import org.jetuml.diagnostics.ClipboardEvent;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -58,6 +61,10 @@ import org.jetuml.geom.Point;
  * 
  * Currently pasting into a sequence diagram is not permitted as the semantics are 
  * ambiguous.
+ * 
+ * Copying and getting the elements take time proportional to the number of nodes
+ * and edges involved: the edges are reconnected to the cloned nodes through a map 
+ * from each original node, including children, to its clone.
  */
 @Singleton
 public final class Clipboard 
@@ -93,11 +100,20 @@ public final class Clipboard
 	public void copy(Iterable<DiagramElement> pSelection)
 	{
 		assert pSelection != null;
+		ClipboardEvent event = new ClipboardEvent();
+		event.begin();
 		clear();
-		aEdges.addAll(copyEdges(pSelection));
-		aNodes.addAll(copyNodes(aEdges, pSelection));
-		removeDanglingEdges();
+		Map<Node, Node> clones = new IdentityHashMap<>();
+		aNodes.addAll(copyNodes(pSelection, clones));
+		aEdges.addAll(reassignEdges(copyEdges(pSelection), clones));
 		removeDanglingReferencesToParents();
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setAction("copy");
+			event.setElements(pSelection);
+			event.commit();
+		}
 	}
 	
 	/**
@@ -105,8 +121,9 @@ public final class Clipboard
 	 */
 	public Iterable<DiagramElement> getElements()
 	{
-		List<Edge> clonedEdges = copyEdges(new ArrayList<>(aEdges));
-		List<Node> clonedNodes = copyNodes(clonedEdges, new ArrayList<>(aNodes));
+		Map<Node, Node> clones = new IdentityHashMap<>();
+		List<Node> clonedNodes = copyNodes(aNodes, clones);
+		List<Edge> clonedEdges = reassignEdges(copyEdges(aEdges), clones);
 		List<DiagramElement> result = new ArrayList<>();
 		result.addAll(clonedEdges);
 		result.addAll(clonedNodes);
@@ -125,7 +142,7 @@ public final class Clipboard
 	/*
 	 * Makes a clone of every edges in pSelection and copies it into the clipboard	 
 	 */
-	private static List<Edge> copyEdges(Iterable<DiagramElement> pSelection)
+	private static List<Edge> copyEdges(Iterable<? extends DiagramElement> pSelection)
 	{
 		return stream(pSelection.spliterator(), false)
 			.filter(Edge.class::isInstance)
@@ -153,104 +170,66 @@ public final class Clipboard
 	}
 	
 	/*
-	 * Makes a clone of every node in pSelection, copies it into the clipboard,
-	 * and reassigns its edges
+	 * Makes a clone of every node in pSelection, and records in pClones 
+	 * the clone of each of these nodes and of their descendants.
 	 */
-	private List<Node> copyNodes(List<Edge> pEdges, Iterable<DiagramElement> pSelection)
+	private static List<Node> copyNodes(Iterable<? extends DiagramElement> pSelection, Map<Node, Node> pClones)
 	{
 		List<Node> result = new ArrayList<>();
 		for( DiagramElement element : pSelection )
 		{
 			if( element instanceof Node )
 			{
-				if( missingParent( (Node)element ))
+				if( missingParent( (Node)element, pClones ))
 				{
 					continue;
 				}
 				Node cloned = ((Node) element).clone();
 				result.add(cloned);
-				reassignEdges(pEdges, (Node)element, cloned);
+				mapClones((Node)element, cloned, pClones);
 			}
 		}
 		return result;
 	}
 	
-	private void removeDanglingEdges()
-	{
-		List<Edge> toDelete = new ArrayList<>();
-		for( Edge edge : aEdges )
-		{
-			if( !recursivelyContains(edge.start()) || !recursivelyContains(edge.end()))
-			{
-				toDelete.add(edge);
-			}
-		}
-		for( Edge edge : toDelete )
-		{
-			aEdges.remove(edge);
-		}
-	}
-	
-	private boolean recursivelyContains(Node pNode)
-	{
-		for( Node node : aNodes )
-		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
-		}
-		return false;
-	}
-	
-	private boolean recursivelyContains(Node pNode, List<Node> pNodes)
+	private static void mapClones(Node pOld, Node pNew, Map<Node, Node> pClones)
 	{
-		for( Node node : pNodes )
+		pClones.put(pOld, pNew);
+		List<Node> oldChildren = pOld.getChildren();
+		List<Node> newChildren = pNew.getChildren();
+		for( int i = 0; i < oldChildren.size(); i++ )
 		{
-			if( node == pNode )
-			{
-				return true;
-			}
-			else if( recursivelyContains(pNode, node.getChildren()) )
-			{
-				return true;
-			}
+			mapClones(oldChildren.get(i), newChildren.get(i), pClones);
 		}
-		return false;
 	}
 	
-	private void reassignEdges(List<Edge> pEdges, Node pOld, Node pNew)
+	/*
+	 * Connects each edge in pEdges to the clones of its nodes, and returns
+	 * the edges whose nodes both have a clone. The others would be dangling.
+	 */
+	private static List<Edge> reassignEdges(List<Edge> pEdges, Map<Node, Node> pClones)
 	{
+		List<Edge> result = new ArrayList<>();
 		for( Edge edge : pEdges )
 		{
-			if( edge.start() == pOld )
+			Node start = pClones.get(edge.start());
+			Node end = pClones.get(edge.end());
+			if( start != null && end != null )
 			{
-				edge.connect(pNew, edge.end());
+				edge.connect(start, end);
+				result.add(edge);
 			}
-			if( edge.end() == pOld)
-			{
-				edge.connect(edge.start(), pNew);
-			}
-		}
-		List<Node> oldChildren = pOld.getChildren();
-		List<Node> newChildren = pNew.getChildren();
-		for( int i = 0; i < oldChildren.size(); i++ )
-		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
 		}
+		return result;
 	}
 	
 	/*
-	 * Returns true if pNode needs a parent that isn't in 
-	 * the clipboard.
+	 * Returns true if pNode needs a parent that isn't copied 
+	 * with it.
 	 */
-	private boolean missingParent(Node pNode)
+	private static boolean missingParent(Node pNode, Map<Node, Node> pClones)
 	{
-		return pNode.requiresParent() && !aNodes.contains(pNode.getParent()) ;
+		return pNode.requiresParent() && !pClones.containsKey(pNode.getParent());
 	}
 	
 	/*
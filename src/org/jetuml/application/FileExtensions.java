@@ -36,14 +36,18 @@ import javafx.stage.FileChooser.ExtensionFilter;
 
 /**
  * A utility class to create and access diagram extension 
- * filters used by the file chooser.
+ * filters used by the file chooser. Diagram files can be 
+ * compressed, in which case their name ends with the compressed
+ * extension, for example "Diagram.class.jet.gz".
  */
 public final class FileExtensions
 {
 	private static final String EXTENSION_JET = ".jet";
+	private static final String EXTENSION_COMPRESSED = ".gz";
 	
 	private static final ExtensionFilter FILTER_APPLICATION = 
-			new ExtensionFilter(RESOURCES.getString("application.file.name"), "*" + EXTENSION_JET);
+			new ExtensionFilter(RESOURCES.getString("application.file.name"), 
+					"*" + EXTENSION_JET, "*" + EXTENSION_JET + EXTENSION_COMPRESSED);
 	private static final ExtensionFilter FILTER_ALL = 
 			new ExtensionFilter(RESOURCES.getString("application.file.all"), "*.*");
 	
@@ -57,7 +61,8 @@ public final class FileExtensions
 		for( DiagramType diagramType : DiagramType.values() )
 		{
 			map.put(diagramType,  new ExtensionFilter(diagramType.getFileNameDescription(), 
-					"*" + diagramType.getFileExtension() + EXTENSION_JET));
+					"*" + diagramType.getFileExtension() + EXTENSION_JET,
+					"*" + diagramType.getFileExtension() + EXTENSION_JET + EXTENSION_COMPRESSED));
 		}
 		return map;
 	}
@@ -65,7 +70,8 @@ public final class FileExtensions
 	/**
 	 * @return An unmodifiable list of all filters applicable to the application. This list
 	 *     includes one filter for each diagram type, the general filter for all file 
-	 *     types, and the "application" filter for all diagram file types. Never null.
+	 *     types, and the "application" filter for all diagram file types. The filters
+	 *     of diagram files match both uncompressed and compressed files. Never null.
 	 */
 	public static List<ExtensionFilter> all()
 	{
@@ -101,12 +107,28 @@ public final class FileExtensions
 	public static File clipApplicationExtension(File pFile)
 	{
 		assert pFile != null;
-		if( !pFile.getAbsolutePath().endsWith(EXTENSION_JET))
+		String extension = EXTENSION_JET;
+		if( isCompressed(pFile) )
+		{
+			extension = EXTENSION_JET + EXTENSION_COMPRESSED;
+		}
+		if( !pFile.getAbsolutePath().endsWith(extension))
 		{
 			return pFile;
 		}
 		return new File(pFile.getAbsolutePath()
-				.substring(0, pFile.getAbsolutePath().length() - EXTENSION_JET.length()));
+				.substring(0, pFile.getAbsolutePath().length() - extension.length()));
+	}
+	
+	/**
+	 * @param pFile The file to check.
+	 * @return True if the name of pFile has the compressed extension.
+	 * @pre pFile != null
+	 */
+	public static boolean isCompressed(File pFile)
+	{
+		assert pFile != null;
+		return pFile.getName().endsWith(EXTENSION_COMPRESSED);
 	}
 }
 	
@@ -0,0 +1,282 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.application;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.jetuml.annotations.Immutable;
+import org.jetuml.annotations.Singleton;
+import org.jetuml.diagnostics.SaveEvent;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.PersistenceService.Format;
+
+/**
+ * Saves diagrams to files in a background thread, so that the user interface
+ * remains responsive while large diagrams are encoded and written.
+ *
+ * Saves are executed one at a time, in the order they are requested. The service
+ * remembers a hash of the content last written to each file: if a diagram is saved
+ * again without any change to its encoding, and the file was not modified in
+ * the meantime, the file is not rewritten.
+ *
+ * Each save is recorded as a Flight Recorder event, with the number of bytes
+ * written and whether the write was skipped.
+ */
+@Singleton
+public final class SaveService
+{
+	private static final SaveService INSTANCE = new SaveService();
+	private static final String HASH_ALGORITHM = "SHA-256";
+	private static final long SHUTDOWN_TIMEOUT = 10000; // milliseconds
+
+	private final ExecutorService aWriter = Executors.newSingleThreadExecutor(runnable ->
+	{
+		Thread thread = new Thread(runnable, "JetUML Save");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final Map<Path, FileStamp> aStamps = new HashMap<>(); // Only accessed by the writer thread
+
+	/**
+	 * The outcome of a save that completed normally.
+	 */
+	@Immutable
+	public static final class SaveReport
+	{
+		private final File aFile;
+		private final int aBytes;
+		private final Duration aDuration;
+		private final boolean aSkipped;
+
+		private SaveReport(File pFile, int pBytes, Duration pDuration, boolean pSkipped)
+		{
+			aFile = pFile;
+			aBytes = pBytes;
+			aDuration = pDuration;
+			aSkipped = pSkipped;
+		}
+
+		/**
+		 * @return The file the diagram was saved to.
+		 */
+		public File file()
+		{
+			return aFile;
+		}
+
+		/**
+		 * @return The number of bytes written, 0 if the save was skipped.
+		 */
+		public int bytes()
+		{
+			return aBytes;
+		}
+
+		/**
+		 * @return The time elapsed between the start of the encoding and the
+		 *     end of the write.
+		 */
+		public Duration duration()
+		{
+			return aDuration;
+		}
+
+		/**
+		 * @return True if the file already had the content to save and
+		 *     was not rewritten.
+		 */
+		public boolean skipped()
+		{
+			return aSkipped;
+		}
+
+		@Override
+		public String toString()
+		{
+			return String.format("%s: %d bytes in %d ms%s", aFile.getName(), aBytes, aDuration.toMillis(),
+					aSkipped ? " (unchanged)" : "");
+		}
+	}
+
+	/*
+	 * What is known about a file just after the service wrote to it.
+	 */
+	private static final class FileStamp
+	{
+		private final byte[] aHash;
+		private final long aSize;
+		private final FileTime aLastModified;
+
+		FileStamp(byte[] pHash, Path pPath) throws IOException
+		{
+			aHash = pHash;
+			aSize = Files.size(pPath);
+			aLastModified = Files.getLastModifiedTime(pPath);
+		}
+
+		/*
+		 * @return True if pPath still has the content described by this stamp,
+		 * and this content has hash pHash.
+		 */
+		boolean matches(byte[] pHash, Path pPath)
+		{
+			try
+			{
+				return Arrays.equals(aHash, pHash) && Files.size(pPath) == aSize &&
+						Files.getLastModifiedTime(pPath).equals(aLastModified);
+			}
+			catch(IOException exception)
+			{
+				return false; // The file was deleted or cannot be accessed
+			}
+		}
+	}
+
+	private SaveService() {}
+
+	/**
+	 * @return The Singleton instance of the SaveService.
+	 */
+	public static SaveService instance()
+	{
+		return INSTANCE;
+	}
+
+	/**
+	 * Schedules pDiagram to be saved to pFile. Because the diagram is encoded in the
+	 * background, it must not be modified after this call: callers that continue
+	 * to edit a diagram should pass a duplicate.
+	 *
+	 * @param pDiagram The diagram to save.
+	 * @param pFile The file to save it to.
+	 * @return A future completed with a report of the save, or completed exceptionally
+	 *     with an UncheckedIOException if the file could not be written.
+	 * @pre pDiagram != null && pFile != null
+	 */
+	public CompletableFuture<SaveReport> save(Diagram pDiagram, File pFile)
+	{
+		return save(pDiagram, pFile, Format.JSON);
+	}
+
+	/**
+	 * Schedules pDiagram to be saved to pFile in a given format. Because the diagram 
+	 * is encoded in the background, it must not be modified after this call.
+	 *
+	 * @param pDiagram The diagram to save.
+	 * @param pFile The file to save it to.
+	 * @param pFormat The format of the file.
+	 * @return A future completed with a report of the save, or completed exceptionally
+	 *     with an UncheckedIOException if the file could not be written.
+	 * @pre pDiagram != null && pFile != null && pFormat != null
+	 */
+	public CompletableFuture<SaveReport> save(Diagram pDiagram, File pFile, Format pFormat)
+	{
+		assert pDiagram != null && pFile != null && pFormat != null;
+		return CompletableFuture.supplyAsync(() -> write(pDiagram, pFile, pFormat), aWriter);
+	}
+
+	/*
+	 * Runs in the writer thread.
+	 */
+	private SaveReport write(Diagram pDiagram, File pFile, Format pFormat)
+	{
+		SaveEvent event = new SaveEvent();
+		event.begin();
+		long start = System.nanoTime();
+		byte[] content = PersistenceService.encode(pDiagram, pFormat);
+		byte[] hash = hash(content);
+		Path path = pFile.toPath().toAbsolutePath();
+		FileStamp stamp = aStamps.get(path);
+		boolean skipped = stamp != null && stamp.matches(hash, path);
+		if( !skipped )
+		{
+			aStamps.remove(path);
+			try
+			{
+				PersistenceService.write(content, pFile);
+				aStamps.put(path, new FileStamp(hash, path));
+			}
+			catch(IOException exception)
+			{
+				throw new UncheckedIOException(exception);
+			}
+		}
+		SaveReport report = new SaveReport(pFile, skipped ? 0 : content.length,
+				Duration.ofNanos(System.nanoTime() - start), skipped);
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setDiagram(pDiagram);
+			event.setFile(pFile);
+			event.setBytes(report.bytes());
+			event.setSkipped(skipped);
+			event.commit();
+		}
+		return report;
+	}
+
+	private static byte[] hash(byte[] pContent)
+	{
+		try
+		{
+			return MessageDigest.getInstance(HASH_ALGORITHM).digest(pContent);
+		}
+		catch(NoSuchAlgorithmException exception)
+		{
+			// SHA-256 is supported by every implementation of the Java platform
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	/**
+	 * Waits for the pending saves to complete, then stops the background thread.
+	 * To be called when the application exits.
+	 */
+	public void shutdown()
+	{
+		aWriter.shutdown();
+		try
+		{
+			aWriter.awaitTermination(SHUTDOWN_TIMEOUT, MILLISECONDS);
+		}
+		catch(InterruptedException exception)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+}
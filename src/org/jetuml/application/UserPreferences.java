@@ -41,7 +41,7 @@ public final class UserPreferences
 	public enum BooleanPreference
 	{	
 		showGrid(true), showToolHints(false), autoEditNode(false), verboseToolTips(false),
-		showTips(true);
+		showTips(true), showPerformanceOverlay(false);
 		
 		private boolean aDefault;
 		
@@ -61,7 +61,8 @@ public final class UserPreferences
 	 */
 	public enum IntegerPreference
 	{
-		diagramWidth(0), diagramHeight(0), nextTipId(1), fontSize(DEFAULT_FONT_SIZE);
+		diagramWidth(0), diagramHeight(0), nextTipId(1), fontSize(DEFAULT_FONT_SIZE),
+		namesOnlyZoom(50), outlineZoom(30);
 		
 		private int aDefault;
 		
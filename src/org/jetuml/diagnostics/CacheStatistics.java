@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+/**
+ * Counts the lookups in a cache that find what they look for (hits) and
+ * the ones that do not (misses). The counts only increase, so the hit rate
+ * over a period of time is obtained by comparing the counts at the start 
+ * and at the end of the period. The counts are not synchronized: they are 
+ * meant for caches used from the JavaFX application thread.
+ */
+public final class CacheStatistics
+{
+	private long aHits = 0;
+	private long aMisses = 0;
+	
+	/**
+	 * Records a lookup that found what it looked for.
+	 */
+	public void hit()
+	{
+		aHits++;
+	}
+	
+	/**
+	 * Records a lookup that did not find what it looked for.
+	 */
+	public void miss()
+	{
+		aMisses++;
+	}
+	
+	/**
+	 * @return The number of lookups that found what they looked for.
+	 */
+	public long hits()
+	{
+		return aHits;
+	}
+	
+	/**
+	 * @return The number of lookups that did not find what they looked for.
+	 */
+	public long misses()
+	{
+		return aMisses;
+	}
+}
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The copying of diagram elements to the clipboard, or of the 
+ * content of the clipboard for a paste.
+ */
+@Name("org.jetuml.Clipboard")
+@Label("Clipboard")
+@Category({"JetUML", "Editing"})
+@Description("Copying of elements to the clipboard, or out of the clipboard for a paste")
+@Enabled(false)
+@StackTrace(false)
+public final class ClipboardEvent extends Event
+{
+	@Name("action")
+	@Label("Action")
+	private String aAction;
+	
+	@Name("elements")
+	@Label("Elements")
+	private int aElements;
+	
+	/**
+	 * @param pAction copy or paste.
+	 */
+	public void setAction(String pAction)
+	{
+		aAction = pAction;
+	}
+	
+	/**
+	 * @param pElements The elements copied.
+	 * @pre pElements != null
+	 */
+	public void setElements(Iterable<?> pElements)
+	{
+		assert pElements != null;
+		aElements = 0;
+		pElements.forEach(element -> aElements++);
+	}
+}
@@ -0,0 +1,71 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import org.jetuml.diagram.Diagram;
+
+import jdk.jfr.Category;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A Flight Recorder event about an operation on a diagram, which records
+ * the type and size of the diagram. Events are disabled unless they are 
+ * enabled by the settings of a recording, such as the JetUML profile.
+ * 
+ * @see FlightRecording
+ */
+@Category("JetUML")
+@Enabled(false)
+@StackTrace(false)
+public abstract class DiagramEvent extends Event
+{
+	@Name("diagramType")
+	@Label("Diagram Type")
+	private String aDiagramType;
+	
+	@Name("nodes")
+	@Label("Nodes")
+	private int aNodes;
+	
+	@Name("edges")
+	@Label("Edges")
+	private int aEdges;
+	
+	/**
+	 * Records the type and size of pDiagram. Counting the nodes
+	 * of a diagram takes time, so this method should only be called
+	 * if the event should be committed.
+	 * 
+	 * @param pDiagram The diagram the event is about.
+	 * @pre pDiagram != null
+	 */
+	public void setDiagram(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		aDiagramType = pDiagram.getType().name();
+		aNodes = pDiagram.allNodes().size();
+		aEdges = pDiagram.edges().size();
+	}
+}
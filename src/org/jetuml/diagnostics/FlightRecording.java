@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+/**
+ * Starts Flight Recorder recordings of a JetUML session with the settings of 
+ * the JetUML profile, which enables the JetUML events together with the JDK 
+ * events that help interpret them (execution samples, garbage collection, 
+ * and lock contention). 
+ * 
+ * A recording is started when JetUML is launched with the argument 
+ * --record=FILE, and written to FILE when the application exits. The profile
+ * can also be used with a recording started from the command line, after 
+ * extracting JetUML.jfc from the application, with the JVM option
+ * -XX:StartFlightRecording:settings=JetUML.jfc,filename=FILE
+ */
+public final class FlightRecording
+{
+	private static final String PROFILE = "JetUML.jfc";
+	
+	private FlightRecording() {}
+	
+	/**
+	 * Starts recording the session with the settings of the JetUML profile.
+	 * 
+	 * @param pDestination The file where the recording is written when the application exits.
+	 * @throws IOException If the profile cannot be read.
+	 * @throws ParseException If the profile is not a valid settings file.
+	 * @pre pDestination != null
+	 */
+	public static void start(Path pDestination) throws IOException, ParseException
+	{
+		assert pDestination != null;
+		try( Reader reader = new InputStreamReader(FlightRecording.class.getResourceAsStream(PROFILE), 
+				StandardCharsets.UTF_8) )
+		{
+			Recording recording = new Recording(Configuration.create(reader));
+			recording.setName("JetUML");
+			recording.setDestination(pDestination);
+			recording.setDumpOnExit(true);
+			recording.start();
+		}
+	}
+}
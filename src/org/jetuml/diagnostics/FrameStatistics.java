@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.util.Arrays;
+
+/**
+ * The time taken to paint the most recent frames of a diagram canvas, in 
+ * total and for each phase of the painting. The phases of a frame are
+ * timed with method time as the frame is painted, and the frame is recorded 
+ * with method endFrame once it is painted. Each canvas has its own statistics.
+ * The statistics are not synchronized: they are meant to be used from the JavaFX 
+ * application thread.
+ */
+public final class FrameStatistics
+{
+	/**
+	 * The phases of painting a frame.
+	 */
+	public enum Phase
+	{
+		GRID, NODES, LAYOUT, EDGES, SELECTION_HANDLES
+	}
+	
+	private static final int FRAMES = 60;
+	private static final double NANOS_PER_MILLI = 1_000_000;
+	
+	// The duration of each phase of the frame being painted, in nanoseconds
+	private final long[] aCurrentFrame = new long[Phase.values().length];
+	// The durations of the recorded frames, with the total duration of the frame last
+	private final long[][] aFrames = new long[FRAMES][Phase.values().length + 1];
+	private int aNext = 0;
+	private int aSize = 0;
+	
+	/**
+	 * Creates statistics in which no frame is recorded.
+	 */
+	public FrameStatistics() {}
+	
+	/**
+	 * Runs pPhase and adds the time it takes to the duration of pPhase in the frame
+	 * being painted.
+	 * 
+	 * @param pPhase The phase of the frame.
+	 * @param pTask The code that paints the phase.
+	 * @pre pPhase != null && pTask != null
+	 */
+	public void time(Phase pPhase, Runnable pTask)
+	{
+		assert pPhase != null && pTask != null;
+		long start = System.nanoTime();
+		pTask.run();
+		aCurrentFrame[pPhase.ordinal()] += System.nanoTime() - start;
+	}
+	
+	/**
+	 * Records the frame being painted. The oldest frame is forgotten when 
+	 * the number of recorded frames is the maximum.
+	 * 
+	 * @param pStart The value of System.nanoTime() when the frame started to be painted.
+	 */
+	public void endFrame(long pStart)
+	{
+		long[] frame = aFrames[aNext];
+		System.arraycopy(aCurrentFrame, 0, frame, 0, aCurrentFrame.length);
+		frame[aCurrentFrame.length] = System.nanoTime() - pStart;
+		Arrays.fill(aCurrentFrame, 0);
+		aNext = (aNext + 1) % FRAMES;
+		aSize = Math.min(aSize + 1, FRAMES);
+	}
+	
+	/**
+	 * @return The number of recorded frames, at most the 60 most recent ones.
+	 */
+	public int frames()
+	{
+		return aSize;
+	}
+	
+	/**
+	 * @return The average duration of the recorded frames, in milliseconds, 
+	 *     or 0 if no frame is recorded.
+	 */
+	public double averageFrameMillis()
+	{
+		return averageMillis(aCurrentFrame.length);
+	}
+	
+	/**
+	 * @param pPhase The phase of interest.
+	 * @return The average duration of pPhase in the recorded frames, in milliseconds, 
+	 *     or 0 if no frame is recorded.
+	 * @pre pPhase != null
+	 */
+	public double averageMillis(Phase pPhase)
+	{
+		assert pPhase != null;
+		return averageMillis(pPhase.ordinal());
+	}
+	
+	private double averageMillis(int pIndex)
+	{
+		if( aSize == 0 )
+		{
+			return 0;
+		}
+		long total = 0;
+		for( int i = 0; i < aSize; i++ )
+		{
+			total += aFrames[i][pIndex];
+		}
+		return total / NANOS_PER_MILLI / aSize;
+	}
+}
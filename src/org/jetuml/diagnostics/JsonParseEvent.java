@@ -0,0 +1,53 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The parsing of a JSON document.
+ */
+@Name("org.jetuml.JsonParse")
+@Label("JSON Parsing")
+@Category({"JetUML", "Persistence"})
+@Description("Parsing of a JSON document into JSON objects")
+@Enabled(false)
+@StackTrace(false)
+public final class JsonParseEvent extends Event
+{
+	@Name("characters")
+	@Label("Characters")
+	private int aCharacters;
+	
+	/**
+	 * @param pCharacters The length of the document.
+	 */
+	public void setCharacters(int pCharacters)
+	{
+		aCharacters = pCharacters;
+	}
+}
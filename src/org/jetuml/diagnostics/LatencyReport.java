@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The latencies of a sequence of events, grouped by category of event, 
+ * and summarized as percentiles. The latencies of all the events together
+ * are in the category ALL.
+ */
+public final class LatencyReport
+{
+	/**
+	 * The category of all the events.
+	 */
+	public static final String ALL = "all";
+	
+	private static final double NANOS_PER_MILLI = 1_000_000;
+	private static final double PERCENT = 100;
+	private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 100};
+	
+	private final Map<String, List<Long>> aLatencies = new LinkedHashMap<>();
+	
+	/**
+	 * Creates an empty report.
+	 */
+	public LatencyReport()
+	{
+		aLatencies.put(ALL, new ArrayList<>());
+	}
+	
+	/**
+	 * Records the latency of an event.
+	 * 
+	 * @param pCategory The category of the event.
+	 * @param pNanos The latency of the event, in nanoseconds.
+	 * @pre pCategory != null && !pCategory.equals(ALL) && pNanos >= 0
+	 */
+	public void record(String pCategory, long pNanos)
+	{
+		assert pCategory != null && !pCategory.equals(ALL) && pNanos >= 0;
+		aLatencies.computeIfAbsent(pCategory, category -> new ArrayList<>()).add(pNanos);
+		aLatencies.get(ALL).add(pNanos);
+	}
+	
+	/**
+	 * @return The categories of the recorded events, starting with ALL, 
+	 *     then in the order in which they were first recorded.
+	 */
+	public Set<String> categories()
+	{
+		return aLatencies.keySet();
+	}
+	
+	/**
+	 * @param pCategory A category of events.
+	 * @return The number of events recorded in pCategory.
+	 */
+	public int count(String pCategory)
+	{
+		return aLatencies.getOrDefault(pCategory, List.of()).size();
+	}
+	
+	/**
+	 * Computes a percentile of the latencies in a category with the nearest-rank method: 
+	 * the result is the smallest latency such that pPercentile percent of the
+	 * latencies are at most as large.
+	 * 
+	 * @param pCategory A category of events.
+	 * @param pPercentile The percentile, between 0 (excluded) and 100.
+	 * @return The latency at pPercentile, in milliseconds.
+	 * @pre count(pCategory) > 0
+	 * @pre pPercentile > 0 && pPercentile <= 100
+	 */
+	public double percentile(String pCategory, double pPercentile)
+	{
+		assert count(pCategory) > 0;
+		assert pPercentile > 0 && pPercentile <= PERCENT;
+		long[] latencies = aLatencies.get(pCategory).stream().mapToLong(Long::longValue).toArray();
+		Arrays.sort(latencies);
+		int rank = (int) Math.ceil(pPercentile / PERCENT * latencies.length);
+		return latencies[rank - 1] / NANOS_PER_MILLI;
+	}
+	
+	/**
+	 * @return A table with the number of events and the 50th, 90th, 99th, and 100th 
+	 *     percentiles of their latencies, in milliseconds, for each category.
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder(String.format("%-12s%8s%10s%10s%10s%10s%n", 
+				"", "count", "p50", "p90", "p99", "max"));
+		for( String category : aLatencies.keySet() )
+		{
+			if( count(category) == 0 )
+			{
+				continue;
+			}
+			result.append(String.format("%-12s%8d", category, count(category)));
+			for( double percentile : REPORTED_PERCENTILES )
+			{
+				result.append(String.format("%10.2f", percentile(category, percentile)));
+			}
+			result.append(System.lineSeparator());
+		}
+		return result.toString();
+	}
+}
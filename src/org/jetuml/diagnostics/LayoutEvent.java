@@ -0,0 +1,49 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One phase of the layout of a diagram. When the connected components of
+ * a class diagram are laid out in parallel, each component has its own events.
+ */
+@Name("org.jetuml.Layout")
+@Label("Layout Phase")
+@Category({"JetUML", "Rendering"})
+@Description("One phase of the layout of a diagram, or of a connected component of a diagram")
+public final class LayoutEvent extends DiagramEvent
+{
+	@Name("phase")
+	@Label("Phase")
+	private String aPhase;
+	
+	/**
+	 * @param pPhase The name of the phase.
+	 */
+	public void setPhase(String pPhase)
+	{
+		aPhase = pPhase;
+	}
+}
@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.WeakHashMap;
+
+/**
+ * Estimates the heap memory retained by the objects reachable from some roots,
+ * by category of use. The estimate assumes the layout of a 64-bit virtual 
+ * machine with compressed references: 12-byte object headers, 4-byte references,
+ * and objects aligned on 8 bytes.
+ * 
+ * An object is counted once, in the category of the first root it is reachable
+ * from, so roots should be added from the ones that are retained for the longest.
+ * Only the fields of JetUML objects are traversed. Strings, arrays, optionals, 
+ * collections, and maps are sized and traversed through their public interface,
+ * and other objects only count for their own fields. Classes, enumerated values,
+ * and static fields are shared, so they are not counted.
+ */
+public final class MemoryEstimator
+{
+	/**
+	 * What the memory of a diagram is used for.
+	 */
+	public enum Category
+	{
+		/** The nodes and edges of the diagram. */
+		MODEL, 
+		
+		/** The operations that can be undone or redone, and what they retain. */
+		HISTORY, 
+		
+		/** The bounds of nodes stored while a diagram is drawn. */
+		NODE_CACHE, 
+		
+		/** The paths and shapes of edges. */
+		EDGE_CACHE, 
+		
+		/** The coordinates of call nodes in sequence diagrams. */
+		SEQUENCE_LAYOUT, 
+		
+		/** The pixels of the canvas the diagram is drawn on. */
+		CANVAS
+	}
+	
+	private static final String PACKAGE = "org.jetuml";
+	private static final int HEADER = 12;
+	private static final int ARRAY_HEADER = 16;
+	private static final int REFERENCE = 4;
+	private static final int ALIGNMENT = 8;
+	private static final int STRING = 24;
+	private static final int OPTIONAL = 16;
+	private static final int COLLECTION = 24;
+	private static final int HASH_ENTRY = 36; // Node and table slot, at the default load factor
+	private static final int WEAK_ENTRY = 52;
+	private static final int TREE_ENTRY = 40;
+	private static final int LINKED_ENTRY = 24;
+	private static final int IDENTITY_ENTRY = 16; // Key and value slots
+	
+	private final Set<Object> aVisited = Collections.newSetFromMap(new IdentityHashMap<>());
+	private final Map<Class<?>, Layout> aLayouts = new HashMap<>();
+	private final Map<Category, Long> aBytes = new EnumMap<>(Category.class);
+	
+	/**
+	 * Creates an estimator where no memory is counted yet.
+	 */
+	public MemoryEstimator()
+	{
+		for( Category category : Category.values() )
+		{
+			aBytes.put(category, 0L);
+		}
+	}
+	
+	/**
+	 * Prevents pObject, and the objects only reachable through it, 
+	 * from being counted.
+	 * 
+	 * @param pObject The object not to count.
+	 * @pre pObject != null
+	 */
+	public void exclude(Object pObject)
+	{
+		assert pObject != null;
+		aVisited.add(pObject);
+	}
+	
+	/**
+	 * Counts the objects reachable from pRoot that are not already counted
+	 * or excluded in pCategory.
+	 * 
+	 * @param pCategory The category of the objects.
+	 * @param pRoot The object to start from.
+	 * @pre pCategory != null && pRoot != null
+	 */
+	public void add(Category pCategory, Object pRoot)
+	{
+		assert pCategory != null && pRoot != null;
+		Deque<Object> pending = new ArrayDeque<>();
+		push(pRoot, pending);
+		long bytes = 0;
+		while( !pending.isEmpty() )
+		{
+			bytes += sizeOf(pending.pop(), pending);
+		}
+		addBytes(pCategory, bytes);
+	}
+	
+	/**
+	 * Counts memory that is not made of objects reachable from a root, such as 
+	 * the buffers of native resources.
+	 * 
+	 * @param pCategory The category of the memory.
+	 * @param pBytes The size of the memory, in bytes.
+	 * @pre pCategory != null && pBytes >= 0
+	 */
+	public void addBytes(Category pCategory, long pBytes)
+	{
+		assert pCategory != null && pBytes >= 0;
+		aBytes.put(pCategory, aBytes.get(pCategory) + pBytes);
+	}
+	
+	/**
+	 * @return The memory counted so far.
+	 */
+	public MemoryReport report()
+	{
+		return new MemoryReport(aBytes);
+	}
+	
+	private void push(Object pObject, Deque<Object> pPending)
+	{
+		if( pObject != null && !(pObject instanceof Class) && !(pObject instanceof Enum) && aVisited.add(pObject) )
+		{
+			pPending.push(pObject);
+		}
+	}
+	
+	private static long align(long pBytes)
+	{
+		return (pBytes + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+	}
+	
+	/*
+	 * The size of pObject itself, after pushing the objects it references.
+	 */
+	private long sizeOf(Object pObject, Deque<Object> pPending)
+	{
+		if( pObject instanceof String )
+		{
+			return sizeOf((String) pObject);
+		}
+		else if( pObject.getClass().isArray() )
+		{
+			return sizeOfArray(pObject, pPending);
+		}
+		else if( pObject instanceof Optional )
+		{
+			push(((Optional<?>) pObject).orElse(null), pPending);
+			return OPTIONAL;
+		}
+		else if( pObject instanceof Map )
+		{
+			return sizeOf((Map<?, ?>) pObject, pPending);
+		}
+		else if( pObject instanceof Collection )
+		{
+			return sizeOf((Collection<?>) pObject, pPending);
+		}
+		Layout layout = layout(pObject.getClass());
+		for( Field field : layout.aReferences )
+		{
+			try
+			{
+				push(field.get(pObject), pPending);
+			}
+			catch(IllegalAccessException exception)
+			{
+				// Not traversed: the object only counts for its own fields
+			}
+		}
+		return layout.aSize;
+	}
+	
+	private static long sizeOf(String pString)
+	{
+		int bytesPerChar = 1;
+		for( int i = 0; i < pString.length(); i++ )
+		{
+			if( pString.charAt(i) > 0xFF )
+			{
+				bytesPerChar = 2;
+				break;
+			}
+		}
+		return align(STRING) + align(ARRAY_HEADER + (long) pString.length() * bytesPerChar);
+	}
+	
+	private long sizeOfArray(Object pArray, Deque<Object> pPending)
+	{
+		int length = Array.getLength(pArray);
+		Class<?> componentType = pArray.getClass().getComponentType();
+		if( componentType.isPrimitive() )
+		{
+			return align(ARRAY_HEADER + (long) length * sizeOfField(componentType));
+		}
+		for( int i = 0; i < length; i++ )
+		{
+			push(Array.get(pArray, i), pPending);
+		}
+		return align(ARRAY_HEADER + (long) length * REFERENCE);
+	}
+	
+	private long sizeOf(Map<?, ?> pMap, Deque<Object> pPending)
+	{
+		int entrySize = HASH_ENTRY;
+		if( pMap instanceof IdentityHashMap )
+		{
+			entrySize = IDENTITY_ENTRY;
+		}
+		else if( pMap instanceof WeakHashMap )
+		{
+			entrySize = WEAK_ENTRY;
+		}
+		else if( pMap instanceof SortedMap )
+		{
+			entrySize = TREE_ENTRY;
+		}
+		for( Map.Entry<?, ?> entry : pMap.entrySet() )
+		{
+			push(entry.getKey(), pPending);
+			push(entry.getValue(), pPending);
+		}
+		return align(COLLECTION) + (long) pMap.size() * entrySize;
+	}
+	
+	private long sizeOf(Collection<?> pCollection, Deque<Object> pPending)
+	{
+		int elementSize = REFERENCE;
+		if( pCollection instanceof Set || pCollection instanceof LinkedList )
+		{
+			elementSize = entrySize(pCollection);
+		}
+		for( Object element : pCollection )
+		{
+			push(element, pPending);
+		}
+		return align(COLLECTION) + ARRAY_HEADER + (long) pCollection.size() * elementSize;
+	}
+	
+	private static int entrySize(Collection<?> pCollection)
+	{
+		if( pCollection instanceof LinkedList )
+		{
+			return LINKED_ENTRY;
+		}
+		else if( pCollection instanceof SortedSet )
+		{
+			return TREE_ENTRY;
+		}
+		else
+		{
+			return HASH_ENTRY;
+		}
+	}
+	
+	private static int sizeOfField(Class<?> pType)
+	{
+		if( pType == long.class || pType == double.class )
+		{
+			return Long.BYTES;
+		}
+		else if( pType == int.class || pType == float.class )
+		{
+			return Integer.BYTES;
+		}
+		else if( pType == short.class || pType == char.class )
+		{
+			return Short.BYTES;
+		}
+		else if( pType == byte.class || pType == boolean.class )
+		{
+			return Byte.BYTES;
+		}
+		else
+		{
+			return REFERENCE;
+		}
+	}
+	
+	/*
+	 * The size of the instances of pClass, and the reference fields that
+	 * can be traversed: the ones declared by JetUML classes.
+	 */
+	private Layout layout(Class<?> pClass)
+	{
+		Layout layout = aLayouts.get(pClass);
+		if( layout == null )
+		{
+			long size = HEADER;
+			List<Field> references = new ArrayList<>();
+			for( Class<?> type = pClass; type != null; type = type.getSuperclass() )
+			{
+				boolean traversed = type.getPackageName().startsWith(PACKAGE);
+				for( Field field : type.getDeclaredFields() )
+				{
+					if( Modifier.isStatic(field.getModifiers()) )
+					{
+						continue;
+					}
+					size += sizeOfField(field.getType());
+					if( traversed && !field.getType().isPrimitive() && field.trySetAccessible() )
+					{
+						references.add(field);
+					}
+				}
+			}
+			layout = new Layout(align(size), references);
+			aLayouts.put(pClass, layout);
+		}
+		return layout;
+	}
+	
+	/*
+	 * The size of the instances of a class and the fields to traverse.
+	 */
+	private static final class Layout
+	{
+		private final long aSize;
+		private final List<Field> aReferences;
+		
+		Layout(long pSize, List<Field> pReferences)
+		{
+			aSize = pSize;
+			aReferences = pReferences;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.jetuml.diagnostics.MemoryEstimator.Category;
+
+/**
+ * An estimate of the memory used by a diagram, in bytes, by category of use.
+ */
+public final class MemoryReport
+{
+	private static final double BYTES_PER_KILOBYTE = 1024;
+	
+	private final Map<Category, Long> aBytes;
+	
+	MemoryReport(Map<Category, Long> pBytes)
+	{
+		aBytes = new EnumMap<>(pBytes);
+	}
+	
+	/**
+	 * @param pCategory A category of use.
+	 * @return The estimated memory used for pCategory, in bytes.
+	 * @pre pCategory != null
+	 */
+	public long get(Category pCategory)
+	{
+		assert pCategory != null;
+		return aBytes.get(pCategory);
+	}
+	
+	/**
+	 * @return The estimated memory used for all the categories, in bytes.
+	 */
+	public long total()
+	{
+		return aBytes.values().stream().mapToLong(Long::longValue).sum();
+	}
+	
+	/**
+	 * @return A table with the memory used for each category, and in total, in kilobytes.
+	 */
+	@Override
+	public String toString()
+	{
+		StringBuilder result = new StringBuilder();
+		for( Category category : Category.values() )
+		{
+			result.append(String.format("%-16s%12.1f%n", category.name().toLowerCase(), get(category) / BYTES_PER_KILOBYTE));
+		}
+		result.append(String.format("%-16s%12.1f%n", "total", total() / BYTES_PER_KILOBYTE));
+		return result.toString();
+	}
+}
@@ -0,0 +1,68 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The execution, undoing, or redoing of a diagram operation, including
+ * the notification of the observers of the diagram.
+ */
+@Name("org.jetuml.Operation")
+@Label("Diagram Operation")
+@Category({"JetUML", "Editing"})
+@Description("Execution, undoing, or redoing of a diagram operation, including the notification of observers")
+@Enabled(false)
+@StackTrace(false)
+public final class OperationEvent extends Event
+{
+	@Name("action")
+	@Label("Action")
+	private String aAction;
+	
+	@Name("operation")
+	@Label("Operation")
+	private String aOperation;
+	
+	/**
+	 * @param pAction What was done with the operation: execute, undo, or redo.
+	 */
+	public void setAction(String pAction)
+	{
+		aAction = pAction;
+	}
+	
+	/**
+	 * @param pOperation The operation.
+	 * @pre pOperation != null
+	 */
+	public void setOperation(Object pOperation)
+	{
+		assert pOperation != null;
+		aOperation = pOperation.getClass().getSimpleName();
+	}
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The painting of a diagram on its canvas, including the layout of the diagram.
+ */
+@Name("org.jetuml.Paint")
+@Label("Paint Diagram")
+@Category({"JetUML", "Rendering"})
+@Description("Painting of a diagram on its canvas, including its layout")
+public final class PaintEvent extends DiagramEvent
+{
+	@Name("levelOfDetail")
+	@Label("Level of Detail")
+	private String aLevelOfDetail;
+	
+	/**
+	 * @param pLevelOfDetail The level of detail at which the diagram is painted.
+	 */
+	public void setLevelOfDetail(String pLevelOfDetail)
+	{
+		aLevelOfDetail = pLevelOfDetail;
+	}
+}
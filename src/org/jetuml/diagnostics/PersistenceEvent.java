@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The encoding, writing, or reading of a diagram file. 
+ */
+@Name("org.jetuml.Persistence")
+@Label("Diagram Persistence")
+@Category({"JetUML", "Persistence"})
+@Description("Encoding, writing, or reading of a diagram file")
+public final class PersistenceEvent extends DiagramEvent
+{
+	@Name("operation")
+	@Label("Operation")
+	private String aOperation;
+	
+	@Name("path")
+	@Label("Path")
+	private String aPath;
+	
+	@Name("bytes")
+	@Label("Bytes")
+	@DataAmount(DataAmount.BYTES)
+	private long aBytes;
+	
+	/**
+	 * @param pOperation The name of the operation: encode, write, or read.
+	 */
+	public void setOperation(String pOperation)
+	{
+		aOperation = pOperation;
+	}
+	
+	/**
+	 * @param pFile The file written or read.
+	 * @pre pFile != null
+	 */
+	public void setFile(File pFile)
+	{
+		assert pFile != null;
+		aPath = pFile.getPath();
+	}
+	
+	/**
+	 * @param pBytes The size of the file, or of the encoding.
+	 */
+	public void setBytes(long pBytes)
+	{
+		aBytes = pBytes;
+	}
+}
@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import java.io.File;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * The save of a diagram by the SaveService, from the start of its
+ * encoding to the end of its write.
+ */
+@Name("org.jetuml.Save")
+@Label("Diagram Save")
+@Category({"JetUML", "Persistence"})
+@Description("Encoding and writing of a diagram in the background, or skipping of the write if the file is unchanged")
+public final class SaveEvent extends DiagramEvent
+{
+	@Name("path")
+	@Label("Path")
+	private String aPath;
+	
+	@Name("bytes")
+	@Label("Bytes Written")
+	@DataAmount(DataAmount.BYTES)
+	private long aBytes;
+	
+	@Name("skipped")
+	@Label("Skipped")
+	private boolean aSkipped;
+	
+	/**
+	 * @param pFile The file saved.
+	 * @pre pFile != null
+	 */
+	public void setFile(File pFile)
+	{
+		assert pFile != null;
+		aPath = pFile.getPath();
+	}
+	
+	/**
+	 * @param pBytes The number of bytes written, 0 if the write was skipped.
+	 */
+	public void setBytes(long pBytes)
+	{
+		aBytes = pBytes;
+	}
+	
+	/**
+	 * @param pSkipped True if the file already had the content to save.
+	 */
+	public void setSkipped(boolean pSkipped)
+	{
+		aSkipped = pSkipped;
+	}
+}
@@ -20,22 +20,31 @@
  *******************************************************************************/
 package org.jetuml.diagram;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
- * Base class for nodes and edges. Responsible for storing the single
- * Properties object used to describe the properties of this element.
- * There is only a single Properties object associated with a DiagramElement, 
- * used to represent the element's properties through its life-cycle.
+ * Base class for nodes and edges. Responsible for providing the 
+ * schema of the properties of this element. The schema is built once 
+ * per class of element and shared by all its instances, including clones.
  */
 public abstract class AbstractDiagramElement implements DiagramElement
 {
-	private Properties aProperties;
+	private static final Map<Class<?>, PropertySchema> SCHEMAS = new ConcurrentHashMap<>();
+	
+	private final PropertySchema aSchema;
 	
 	/**
-	 * Initializes the properties for this object.
+	 * Obtains the property schema for the class of this object.
 	 */
 	protected AbstractDiagramElement()
 	{
-		buildProperties();
+		aSchema = SCHEMAS.computeIfAbsent(getClass(), pClass -> 
+		{
+			PropertySchema.Builder builder = new PropertySchema.Builder();
+			buildProperties(builder);
+			return builder.build();
+		});
 	}
 	
 	/* (non-Javadoc)
@@ -46,9 +55,7 @@ public abstract class AbstractDiagramElement implements DiagramElement
 	{
 		try
 		{
-			AbstractDiagramElement clone = (AbstractDiagramElement) super.clone();
-			clone.buildProperties();
-			return clone;
+			return (AbstractDiagramElement) super.clone();
 		}
 		catch(CloneNotSupportedException exception)
 		{
@@ -59,17 +66,21 @@ public abstract class AbstractDiagramElement implements DiagramElement
 	@Override
 	public final Properties properties()
 	{
-		return aProperties;
+		return new Properties(aSchema, this);
 	}
 	
 	/**
-	 * Builds the properties object associated with this object.
-	 * Must be outside the constructor because of cloning.
-	 * Subclasses should call super.buildProperties() before
-	 * adding their own properties.
+	 * Adds the properties of this class of element to pSchema.
+	 * Called once per class, with the first instance created, so
+	 * getters and setters must access the element they receive
+	 * rather than this object. Subclasses should call 
+	 * super.buildProperties(pSchema) before adding their own properties.
+	 * 
+	 * @param pSchema The builder of the schema of this class.
+	 * @pre pSchema != null
 	 */
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		aProperties = new Properties();
+		assert pSchema != null;
 	}
 }
@@ -23,7 +23,10 @@ package org.jetuml.diagram;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.diagram.nodes.FieldNode;
@@ -60,49 +63,42 @@ public final class Diagram implements DiagramData
 
 	/**
 	 * Creates a copy of the current diagram. The copy is a completely distinct graph of nodes and edges with the same
-	 * topology as this diagram.
+	 * topology as this diagram. Takes time proportional to the number of nodes and edges.
 	 * 
 	 * @return A copy of this diagram. Never null.
 	 */
 	public Diagram duplicate()
 	{
 		Diagram copy = new Diagram(this.aType);
-		aEdges.forEach(edge -> copy.aEdges.add(edge.clone()));
-
+		Map<Node, Node> copies = new IdentityHashMap<>();
 		for( Node node : aRootNodes )
 		{
 			Node nodeCopy = node.clone();
 			copy.aRootNodes.add(nodeCopy);
-			reassignEdges(copy.aEdges, node, nodeCopy);
+			mapCopies(node, nodeCopy, copies);
+		}
+		for( Edge edge : aEdges )
+		{
+			Edge edgeCopy = edge.clone();
+			edgeCopy.connect(copies.getOrDefault(edge.start(), edge.start()), 
+					copies.getOrDefault(edge.end(), edge.end()));
+			copy.aEdges.add(edgeCopy);
 		}
-
-		// Reassign diagram
-		copy.aEdges.forEach(edge -> edge.connect(edge.start(), edge.end()));
 		return copy;
 	}
 
 	/*
-	 * For node pOriginal, go through all edges that refer to it and replace it with pCopy in the edge. Do this
-	 * recursively for all children of pOriginal, assuming the same topology for pCopy.
+	 * Maps pOriginal to pCopy, and recursively each child of pOriginal to the 
+	 * child at the same index in pCopy, assuming the same topology for pCopy.
 	 */
-	private static void reassignEdges(List<Edge> pEdges, Node pOriginal, Node pCopy)
+	private static void mapCopies(Node pOriginal, Node pCopy, Map<Node, Node> pCopies)
 	{
-		for( Edge edge : pEdges )
-		{
-			if( edge.start() == pOriginal )
-			{
-				edge.connect(pCopy, edge.end());
-			}
-			if( edge.end() == pOriginal )
-			{
-				edge.connect(edge.start(), pCopy);
-			}
-		}
+		pCopies.put(pOriginal, pCopy);
 		List<Node> oldChildren = pOriginal.getChildren();
 		List<Node> newChildren = pCopy.getChildren();
 		for( int i = 0; i < oldChildren.size(); i++ )
 		{
-			reassignEdges(pEdges, oldChildren.get(i), newChildren.get(i));
+			mapCopies(oldChildren.get(i), newChildren.get(i), pCopies);
 		}
 	}
 
@@ -289,6 +285,20 @@ public final class Diagram implements DiagramData
 		aRootNodes.remove(pNode);
 	}
 
+	/**
+	 * Removes all the nodes in pNodes from the list of root nodes in this diagram, in
+	 * time proportional to the number of root nodes. Callers must ensure that the removal 
+	 * preserves the integrity of the diagram.
+	 * 
+	 * @param pNodes The nodes to remove.
+	 * @pre pNodes != null && all nodes in pNodes are contained as root nodes.
+	 */
+	public void removeRootNodes(Collection<? extends Node> pNodes)
+	{
+		assert pNodes != null;
+		aRootNodes.removeIf(identitySetOf(pNodes)::contains);
+	}
+
 	/**
 	 * Adds pEdge to the diagram. pEdge should already be connected to its start and end nodes. The edge is added to the
 	 * end of the list of edges.
@@ -340,6 +350,27 @@ public final class Diagram implements DiagramData
 		aEdges.remove(pEdge);
 	}
 
+	/**
+	 * Removes all the edges in pEdges from this diagram, in time proportional to the
+	 * number of edges in the diagram. Callers must ensure that the removal preserves 
+	 * the integrity of the diagram.
+	 * 
+	 * @param pEdges The edges to remove.
+	 * @pre pEdges != null && all edges in pEdges are contained in the diagram
+	 */
+	public void removeEdges(Collection<? extends Edge> pEdges)
+	{
+		assert pEdges != null;
+		aEdges.removeIf(identitySetOf(pEdges)::contains);
+	}
+
+	private static Set<DiagramElement> identitySetOf(Collection<? extends DiagramElement> pElements)
+	{
+		Set<DiagramElement> result = Collections.newSetFromMap(new IdentityHashMap<>());
+		result.addAll(pElements);
+		return result;
+	}
+
 	/**
 	 * Recursively reorder the node to be on top of its parent's children. If the node is not a child node or the node
 	 * does not have a parent, check if the node is a root node of the diagram and place it on top.
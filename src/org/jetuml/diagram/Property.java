@@ -20,34 +20,34 @@
  *******************************************************************************/
 package org.jetuml.diagram;
 
-import java.util.function.Consumer;
-import java.util.function.Supplier;
-
 /**
- * Represents a property of an object as a tuple that 
+ * Represents a property of a diagram element as a tuple that 
  * consists of a name, a getter for a value, and a setter
- * for that value. The values managed by a property should only be of immutable types.
+ * for that value, as described by a PropertySchema. 
+ * The values managed by a property should only be of immutable types.
  */
 public class Property
 {
-	private final PropertyName aName;
-	private final Supplier<Object> aGetter;
-	private final Consumer<Object> aSetter;
+	private final PropertySchema aSchema;
+	private final int aIndex;
+	private final DiagramElement aElement;
 	
 	/**
 	 * Creates a new property.
 	 * 
-	 * @param pName The name of the property.
-	 * @param pGetter The getter for the property.
-	 * @param pSetter The setter for the property.
-	 * @pre pName != null && pGetter != null && pSetter != null.
+	 * @param pSchema The schema that describes the property.
+	 * @param pIndex The position of the property in pSchema.
+	 * @param pElement The element that stores the value of the property.
+	 * @pre pSchema != null && pElement != null.
+	 * @pre pIndex >= 0 && pIndex < pSchema.size()
 	 */
-	public Property(PropertyName pName, Supplier<Object> pGetter, Consumer<Object> pSetter)
+	Property(PropertySchema pSchema, int pIndex, DiagramElement pElement)
 	{
-		assert pName != null && pGetter != null && pSetter != null;
-		aName = pName;
-		aGetter = pGetter;
-		aSetter = pSetter;
+		assert pSchema != null && pElement != null;
+		assert pIndex >= 0 && pIndex < pSchema.size();
+		aSchema = pSchema;
+		aIndex = pIndex;
+		aElement = pElement;
 	}
 	
 	/**
@@ -55,7 +55,7 @@ public class Property
 	 */
 	public PropertyName name()
 	{
-		return aName;
+		return aSchema.name(aIndex);
 	}
 	
 	/**
@@ -63,7 +63,7 @@ public class Property
 	 */
 	public Object get()
 	{
-		return aGetter.get();
+		return aSchema.get(aIndex, aElement);
 	}
 	
 	/**
@@ -75,6 +75,6 @@ public class Property
 	public void set(Object pValue)
 	{
 		assert pValue != null;
-		aSetter.accept(pValue);
+		aSchema.set(aIndex, aElement, pValue);
 	}
 }
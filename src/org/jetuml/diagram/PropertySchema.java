@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import org.jetuml.annotations.Immutable;
+
+/**
+ * The properties shared by all the diagram elements of a class: their names,
+ * in order, and how to get and set their value for a given element. A schema
+ * is built once per class of element, so elements only store the values of
+ * their properties. Properties are looked up by the ordinal of their name.
+ */
+@Immutable
+public final class PropertySchema
+{
+	private static final int ABSENT = -1;
+	
+	private final PropertyName[] aNames;
+	private final List<Function<DiagramElement, Object>> aGetters;
+	private final List<BiConsumer<DiagramElement, Object>> aSetters;
+	private final int[] aIndexes; // Index of each property, by ordinal of its name
+	
+	private PropertySchema(List<PropertyName> pNames, List<Function<DiagramElement, Object>> pGetters, 
+			List<BiConsumer<DiagramElement, Object>> pSetters)
+	{
+		aNames = pNames.toArray(new PropertyName[pNames.size()]);
+		aGetters = List.copyOf(pGetters);
+		aSetters = List.copyOf(pSetters);
+		aIndexes = new int[PropertyName.values().length];
+		Arrays.fill(aIndexes, ABSENT);
+		for( int i = 0; i < aNames.length; i++ )
+		{
+			aIndexes[aNames[i].ordinal()] = i;
+		}
+	}
+	
+	/**
+	 * @return The number of properties in this schema.
+	 */
+	public int size()
+	{
+		return aNames.length;
+	}
+	
+	/**
+	 * @param pName The name of a property.
+	 * @return True if this schema has a property named pName.
+	 * @pre pName != null
+	 */
+	public boolean contains(PropertyName pName)
+	{
+		assert pName != null;
+		return aIndexes[pName.ordinal()] != ABSENT;
+	}
+	
+	/**
+	 * @param pName The name of a property.
+	 * @return The 0-based position of the property named pName.
+	 * @pre contains(pName)
+	 */
+	int indexOf(PropertyName pName)
+	{
+		assert contains(pName);
+		return aIndexes[pName.ordinal()];
+	}
+	
+	/**
+	 * @param pIndex The position of a property.
+	 * @return The name of the property at pIndex.
+	 * @pre pIndex >= 0 && pIndex < size()
+	 */
+	PropertyName name(int pIndex)
+	{
+		assert pIndex >= 0 && pIndex < size();
+		return aNames[pIndex];
+	}
+	
+	/**
+	 * @param pIndex The position of a property.
+	 * @param pElement The element whose property to get.
+	 * @return The value of the property at pIndex for pElement.
+	 * @pre pIndex >= 0 && pIndex < size() && pElement != null
+	 */
+	Object get(int pIndex, DiagramElement pElement)
+	{
+		assert pIndex >= 0 && pIndex < size() && pElement != null;
+		return aGetters.get(pIndex).apply(pElement);
+	}
+	
+	/**
+	 * @param pIndex The position of a property.
+	 * @param pElement The element whose property to set.
+	 * @param pValue The new value of the property.
+	 * @pre pIndex >= 0 && pIndex < size() && pElement != null && pValue != null
+	 */
+	void set(int pIndex, DiagramElement pElement, Object pValue)
+	{
+		assert pIndex >= 0 && pIndex < size() && pElement != null && pValue != null;
+		aSetters.get(pIndex).accept(pElement, pValue);
+	}
+	
+	/**
+	 * Collects the properties of a schema, by default in the order in which they
+	 * are added. Getters and setters receive the element whose property is accessed,
+	 * and should not capture any element.
+	 */
+	public static final class Builder
+	{
+		private final List<PropertyName> aNames = new ArrayList<>();
+		private final List<Function<DiagramElement, Object>> aGetters = new ArrayList<>();
+		private final List<BiConsumer<DiagramElement, Object>> aSetters = new ArrayList<>();
+		
+		/**
+		 * Adds a property to the end of the list.
+		 * 
+		 * @param <E> The type of element that declares the property.
+		 * @param pName The name of the property.
+		 * @param pGetter The getter for this property.
+		 * @param pSetter The setter for this property.
+		 * @return This builder.
+		 * @pre pName != null && pGetter != null && pSetter != null && !aNames.contains(pName)
+		 */
+		public <E extends DiagramElement> Builder add(PropertyName pName, Function<E, Object> pGetter, 
+				BiConsumer<E, Object> pSetter)
+		{
+			return addAt(pName, pGetter, pSetter, aNames.size());
+		}
+		
+		/**
+		 * Inserts a property at the specified 0-based index, shifting all other 
+		 * properties down by one. 
+		 * 
+		 * @param <E> The type of element that declares the property.
+		 * @param pName The name of the property.
+		 * @param pGetter The getter for this property.
+		 * @param pSetter The setter for this property.
+		 * @param pIndex Where to insert the property.
+		 * @return This builder.
+		 * @pre pName != null && pGetter != null && pSetter != null && !aNames.contains(pName)
+		 * @pre pIndex >= 0 && pIndex <= aNames.size()
+		 */
+		@SuppressWarnings("unchecked")
+		public <E extends DiagramElement> Builder addAt(PropertyName pName, Function<E, Object> pGetter, 
+				BiConsumer<E, Object> pSetter, int pIndex)
+		{
+			assert pName != null && pGetter != null && pSetter != null && !aNames.contains(pName);
+			assert pIndex >= 0 && pIndex <= aNames.size();
+			// A schema is only used with elements of the class that built it, which is a subtype of E.
+			aNames.add(pIndex, pName);
+			aGetters.add(pIndex, (Function<DiagramElement, Object>) pGetter);
+			aSetters.add(pIndex, (BiConsumer<DiagramElement, Object>) pSetter);
+			return this;
+		}
+		
+		/**
+		 * @return A schema with the properties added to this builder.
+		 */
+		public PropertySchema build()
+		{
+			return new PropertySchema(aNames, aGetters, aSetters);
+		}
+	}
+}
@@ -45,6 +45,7 @@ import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.layout.AutoLayout;
 import org.jetuml.rendering.nodes.PackageNodeRenderer;
 
 /**
@@ -134,6 +135,8 @@ public abstract class DiagramBuilder
 	/**
 	 * Creates an operation that adds all the elements in pElements. Assumes all nodes
 	 * are root nodes and all edges are connected, and that there are no dangling references.
+	 * The elements are added and removed in a single batch, so that undoing the operation
+	 * takes time proportional to the size of the diagram.
 	 * 
 	 * @param pElements The elements to add.
 	 * @return The requested operation
@@ -141,35 +144,94 @@ public abstract class DiagramBuilder
 	 */
 	public final DiagramOperation createAddElementsOperation(Iterable<DiagramElement> pElements)
 	{
-		CompoundOperation operation = new CompoundOperation();
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
 		for( DiagramElement element : pElements)
 		{
 			if( element instanceof Node )
 			{
-				operation.add(new SimpleOperation(
-						()-> aDiagramRenderer.diagram().addRootNode((Node)element),
-						()-> aDiagramRenderer.diagram().removeRootNode((Node)element)));
+				nodes.add((Node) element);
 			}
 			else if( element instanceof Edge)
 			{
-				/* We need to re-connect the edge to set the correct value for the
-				 * reference to the diagram, to cover the cases where elements might 
-				 * be added by being copied from one diagram and pasted into another.
-				 */
-				operation.add(new SimpleOperation(
-						()-> 
-						{ 
-							Edge edge = (Edge) element;
-							aDiagramRenderer.diagram().addEdge(edge); 
-							edge.connect(edge.start(), edge.end());	
-						},
-						()-> aDiagramRenderer.diagram().removeEdge((Edge)element)));
+				edges.add((Edge) element);
 			}
 		}
-		
+		CompoundOperation operation = new CompoundOperation();
+		if( nodes.isEmpty() && edges.isEmpty() )
+		{
+			return operation;
+		}
+		operation.add(new SimpleOperation(
+				()-> 
+				{
+					nodes.forEach(aDiagramRenderer.diagram()::addRootNode);
+					/* We need to re-connect the edge to set the correct value for the
+					 * reference to the diagram, to cover the cases where elements might 
+					 * be added by being copied from one diagram and pasted into another.
+					 */
+					for( Edge edge : edges )
+					{
+						aDiagramRenderer.diagram().addEdge(edge); 
+						edge.connect(edge.start(), edge.end());	
+					}
+				},
+				()-> 
+				{
+					aDiagramRenderer.diagram().removeEdges(edges);
+					aDiagramRenderer.diagram().removeRootNodes(nodes);
+				}));
 		return operation;
 	}
 	
+	/**
+	 * Creates an operation that adds all the nodes and edges of pBatch in a 
+	 * single step. Because the position of nodes and the endpoints of edges
+	 * are given, creating the operation takes time proportional to the size of 
+	 * the batch. The operation does not validate the resulting diagram: this 
+	 * should be done once after it is executed.
+	 * 
+	 * @param pBatch The nodes and edges to add.
+	 * @return The requested operation.
+	 * @pre pBatch != null
+	 * @pre The endpoints of all edges in pBatch are in pBatch or in the diagram.
+	 */
+	public final DiagramOperation createImportOperation(ImportBatch pBatch)
+	{
+		assert pBatch != null && hasKnownEndpoints(pBatch);
+		return createAddElementsOperation(pBatch.elements());
+	}
+	
+	private boolean hasKnownEndpoints(ImportBatch pBatch)
+	{
+		Set<Node> nodes = new HashSet<>(diagram().allNodes());
+		pBatch.nodes().forEach(node -> nodes.addAll(getNodeAndAllChildren(node)));
+		return pBatch.edges().stream()
+				.allMatch(edge -> nodes.contains(edge.start()) && nodes.contains(edge.end()));
+	}
+	
+	/**
+	 * Creates an operation that moves all the nodes of the diagram to the
+	 * positions computed by an automatic layout.
+	 * 
+	 * @return The requested operation.
+	 * @pre AutoLayout.supports(diagram().getType())
+	 */
+	public final DiagramOperation createLayoutOperation()
+	{
+		assert AutoLayout.supports(diagram().getType());
+		CompoundOperation result = new CompoundOperation();
+		AutoLayout.computePositions(aDiagramRenderer).forEach((node, position) -> 
+		{
+			Point original = node.position();
+			if( !original.equals(position) )
+			{
+				result.add(new SimpleOperation(() -> node.moveTo(position), () -> node.moveTo(original)));
+			}
+		});
+		return result;
+	}
+	
 	/**
 	 * Finds the elements that should be removed if pElement is removed,
 	 * to preserve the integrity of the diagram.
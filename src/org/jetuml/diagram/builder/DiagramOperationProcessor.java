@@ -25,6 +25,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import org.jetuml.diagnostics.OperationEvent;
+
 /**
  * Responsible for executing and undoing operations, and managing the collection 
  * of previously executed and undone operations. Can also compute whether a 
@@ -32,9 +34,22 @@ import java.util.Optional;
  */
 public class DiagramOperationProcessor
 {
+	/**
+	 * An object that can react to a change of the diagram managed by
+	 * a processor.
+	 */
+	public interface OperationObserver
+	{
+		/**
+		 * Callback for when an operation was executed, stored, undone, or redone.
+		 */
+		void operationProcessed();
+	}
+	
 	private final List<DiagramOperation> aExecutedOperations = new ArrayList<>();
 	private final List<DiagramOperation> aUndoneOperations = new ArrayList<>();
 	private Optional<DiagramOperation> aLastSavedOperation = Optional.empty();
+	private final List<OperationObserver> aObservers = new ArrayList<>();
 	
 	/**
 	 * Executes pOperation and adds it to the list of executed
@@ -46,8 +61,41 @@ public class DiagramOperationProcessor
 	public void executeNewOperation(DiagramOperation pOperation)
 	{
 		assert pOperation != null;
+		OperationEvent event = new OperationEvent();
+		event.begin();
 		pOperation.execute();
 		aExecutedOperations.add(pOperation);
+		notifyObservers();
+		commit(event, "execute", pOperation);
+	}
+	
+	private static void commit(OperationEvent pEvent, String pAction, DiagramOperation pOperation)
+	{
+		pEvent.end();
+		if( pEvent.shouldCommit() )
+		{
+			pEvent.setAction(pAction);
+			pEvent.setOperation(pOperation);
+			pEvent.commit();
+		}
+	}
+
+	/**
+	 * Registers pObserver to be notified whenever this processor
+	 * changes the state of its diagram.
+	 *
+	 * @param pObserver The observer to register.
+	 * @pre pObserver != null
+	 */
+	public void addObserver(OperationObserver pObserver)
+	{
+		assert pObserver != null;
+		aObservers.add(pObserver);
+	}
+
+	private void notifyObservers()
+	{
+		aObservers.forEach(OperationObserver::operationProcessed);
 	}
 	
 	/**
@@ -82,11 +130,27 @@ public class DiagramOperationProcessor
 	 */
 	public void diagramSaved()
 	{
-		aLastSavedOperation = Optional.empty();
+		savePoint().run();
+	}
+	
+	/**
+	 * Captures the current state of the diagram managed by this processor,
+	 * for a save that completes later. Operations processed between the 
+	 * call to this method and the execution of the returned action remain
+	 * unsaved.
+	 * 
+	 * @return An action that indicates that the diagram, in the state
+	 *     it was when this method was called, has been saved.
+	 */
+	public Runnable savePoint()
+	{
+		Optional<DiagramOperation> savedOperation = Optional.empty();
 		if( aExecutedOperations.size() > 0 )
 		{
-			aLastSavedOperation = Optional.of(peek());
+			savedOperation = Optional.of(peek());
 		}
+		Optional<DiagramOperation> result = savedOperation;
+		return () -> aLastSavedOperation = result;
 	}
 	
 	/**
@@ -100,6 +164,7 @@ public class DiagramOperationProcessor
 	{
 		assert pOperation != null;
 		aExecutedOperations.add(pOperation);
+		notifyObservers();
 	}
 	
 	/**
@@ -110,9 +175,13 @@ public class DiagramOperationProcessor
 	public void undoLastExecutedOperation()
 	{
 		assert canUndo();
+		OperationEvent event = new OperationEvent();
+		event.begin();
 		DiagramOperation operation = aExecutedOperations.remove(aExecutedOperations.size() - 1);
 		operation.undo();
 		aUndoneOperations.add(operation);
+		notifyObservers();
+		commit(event, "undo", operation);
 	}
 	
 	/**
@@ -123,9 +192,13 @@ public class DiagramOperationProcessor
 	public void redoLastUndoneOperation()
 	{
 		assert canRedo();
+		OperationEvent event = new OperationEvent();
+		event.begin();
 		DiagramOperation operation = aUndoneOperations.remove(aUndoneOperations.size() - 1);
 		operation.execute();
 		aExecutedOperations.add(operation);
+		notifyObservers();
+		commit(event, "redo", operation);
 	}
 
 	/**
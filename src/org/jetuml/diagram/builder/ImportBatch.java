@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagram.builder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.geom.Point;
+
+/**
+ * A batch of nodes and edges to add to a diagram in a single operation, 
+ * for tools that generate diagrams. In contrast to the elements added 
+ * with createAddNodeOperation and createAddEdgeOperation, nodes are placed
+ * exactly at the position given and edges connect the nodes given, so 
+ * adding a batch does not require any geometric computation.
+ * 
+ * @see DiagramBuilder#createImportOperation(ImportBatch)
+ */
+public final class ImportBatch
+{
+	private final List<Node> aNodes = new ArrayList<>();
+	private final List<Edge> aEdges = new ArrayList<>();
+	
+	/**
+	 * Adds pNode to the batch, as a root node at pPosition. The children
+	 * of pNode are added with it.
+	 * 
+	 * @param pNode The node to add.
+	 * @param pPosition The position of the node.
+	 * @pre pNode != null && pPosition != null
+	 * @pre !pNode.hasParent()
+	 */
+	public void addNode(Node pNode, Point pPosition)
+	{
+		assert pNode != null && pPosition != null && !pNode.hasParent();
+		pNode.moveTo(pPosition);
+		aNodes.add(pNode);
+	}
+	
+	/**
+	 * Adds pEdge to the batch, connected from pStart to pEnd. The nodes
+	 * must be in this batch or already in the diagram the batch is added to.
+	 * 
+	 * @param pEdge The edge to add.
+	 * @param pStart The start node of the edge.
+	 * @param pEnd The end node of the edge.
+	 * @pre pEdge != null && pStart != null && pEnd != null
+	 */
+	public void addEdge(Edge pEdge, Node pStart, Node pEnd)
+	{
+		assert pEdge != null && pStart != null && pEnd != null;
+		pEdge.connect(pStart, pEnd);
+		aEdges.add(pEdge);
+	}
+	
+	/**
+	 * @return The root nodes in this batch, in the order they were added.
+	 */
+	public List<Node> nodes()
+	{
+		return Collections.unmodifiableList(aNodes);
+	}
+	
+	/**
+	 * @return The edges in this batch, in the order they were added.
+	 */
+	public List<Edge> edges()
+	{
+		return Collections.unmodifiableList(aEdges);
+	}
+	
+	/**
+	 * @return The root nodes then the edges in this batch.
+	 */
+	List<DiagramElement> elements()
+	{
+		List<DiagramElement> result = new ArrayList<>(aNodes.size() + aEdges.size());
+		result.addAll(aNodes);
+		result.addAll(aEdges);
+		return result;
+	}
+}
@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  *  An edge that that represents a UML aggregation or 
@@ -69,9 +70,10 @@ public final class AggregationEdge extends ThreeLabelEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.AGGREGATION_TYPE, () -> aType, pType -> aType = Type.valueOf((String) pType));
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.AGGREGATION_TYPE, (AggregationEdge pEdge) -> pEdge.aType, 
+				(AggregationEdge pEdge, Object pType) -> pEdge.aType = Type.valueOf((String) pType));
 	}
 }
@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  *  An edge that that represents a UML association, with optional 
@@ -53,10 +54,10 @@ public final class AssociationEdge extends ThreeLabelEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.DIRECTIONALITY, () -> aDirectionality, 
-				pDirectionality -> aDirectionality = Directionality.valueOf((String)pDirectionality ));
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.DIRECTIONALITY, (AssociationEdge pEdge) -> pEdge.aDirectionality, 
+				(AssociationEdge pEdge, Object pDirectionality) -> pEdge.aDirectionality = Directionality.valueOf((String)pDirectionality));
 	}
 }
@@ -22,6 +22,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 import org.jetuml.diagram.nodes.CallNode;
 
 /**
@@ -40,10 +41,10 @@ public class CallEdge extends SingleLabelEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.SIGNAL, () -> aSignal, pSignal -> aSignal = (boolean) pSignal);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.SIGNAL, (CallEdge pEdge) -> pEdge.aSignal, (CallEdge pEdge, Object pSignal) -> pEdge.aSignal = (boolean) pSignal);
 	}
 	
 	/**
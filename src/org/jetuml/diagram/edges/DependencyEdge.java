@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * An edge that that represents a UML dependency with an optional label.
@@ -58,10 +59,10 @@ public final class DependencyEdge extends SingleLabelEdge
 	}
 
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.DIRECTIONALITY, () -> aDirectionality,
-				directionality -> aDirectionality = Directionality.valueOf((String) directionality));
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.DIRECTIONALITY, (DependencyEdge pEdge) -> pEdge.aDirectionality,
+				(DependencyEdge pEdge, Object pDirectionality) -> pEdge.aDirectionality = Directionality.valueOf((String) pDirectionality));
 	}
 }
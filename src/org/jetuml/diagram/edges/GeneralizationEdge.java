@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  *  An edge that that represents a UML generalization (inheritance
@@ -70,9 +71,10 @@ public final class GeneralizationEdge extends AbstractEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.GENERALIZATION_TYPE, () -> aType, pType -> aType = Type.valueOf((String) pType));
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.GENERALIZATION_TYPE, (GeneralizationEdge pEdge) -> pEdge.aType, 
+				(GeneralizationEdge pEdge, Object pType) -> pEdge.aType = Type.valueOf((String) pType));
 	}
 }
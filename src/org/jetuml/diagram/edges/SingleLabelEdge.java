@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * An edge with a single middle label.
@@ -48,9 +49,10 @@ public abstract class SingleLabelEdge extends AbstractEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.MIDDLE_LABEL, ()-> aLabelText, pLabel -> aLabelText = (String) pLabel );
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.MIDDLE_LABEL, (SingleLabelEdge pEdge) -> pEdge.aLabelText, 
+				(SingleLabelEdge pEdge, Object pLabel) -> pEdge.aLabelText = (String) pLabel);
 	}
 }
@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * An edge with three labels.
@@ -63,10 +64,12 @@ public abstract class ThreeLabelEdge extends SingleLabelEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().addAt(PropertyName.START_LABEL, ()-> aStartLabel, pLabel -> aStartLabel = (String) pLabel, 0);
-		properties().add(PropertyName.END_LABEL, ()-> aEndLabel, pLabel -> aEndLabel = (String) pLabel);
+		super.buildProperties(pSchema);
+		pSchema.addAt(PropertyName.START_LABEL, (ThreeLabelEdge pEdge) -> pEdge.aStartLabel, 
+				(ThreeLabelEdge pEdge, Object pLabel) -> pEdge.aStartLabel = (String) pLabel, 0);
+		pSchema.add(PropertyName.END_LABEL, (ThreeLabelEdge pEdge) -> pEdge.aEndLabel, 
+				(ThreeLabelEdge pEdge, Object pLabel) -> pEdge.aEndLabel = (String) pLabel);
 	}
 }
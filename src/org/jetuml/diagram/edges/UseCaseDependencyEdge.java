@@ -21,6 +21,7 @@
 package org.jetuml.diagram.edges;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  *  An edge that that represents a UML dependency
@@ -70,9 +71,10 @@ public final class UseCaseDependencyEdge extends AbstractEdge
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.USE_CASE_DEPENDENCY_TYPE, () -> aType, pType -> aType = Type.valueOf((String)pType));
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.USE_CASE_DEPENDENCY_TYPE, (UseCaseDependencyEdge pEdge) -> pEdge.aType, 
+				(UseCaseDependencyEdge pEdge, Object pType) -> pEdge.aType = Type.valueOf((String)pType));
 	}
 }
@@ -25,6 +25,7 @@ import java.util.Optional;
 
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * A method call node in a sequence diagram. Call nodes are
@@ -63,10 +64,11 @@ public class CallNode extends AbstractNode
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.OPEN_BOTTOM, () -> aOpenBottom, pOpen -> aOpenBottom = (boolean) pOpen);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.OPEN_BOTTOM, (CallNode pNode) -> pNode.aOpenBottom, 
+				(CallNode pNode, Object pOpen) -> pNode.aOpenBottom = (boolean) pOpen);
 	}
 	
 	/**
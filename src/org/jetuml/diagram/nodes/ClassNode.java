@@ -22,6 +22,7 @@
 package org.jetuml.diagram.nodes;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * A class node in a class diagram.
@@ -61,9 +62,10 @@ public final class ClassNode extends TypeNode
 	}
 
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().addAt(PropertyName.ATTRIBUTES, () -> aAttributes, pAttributes -> aAttributes = (String)pAttributes, 1);
+		super.buildProperties(pSchema);
+		pSchema.addAt(PropertyName.ATTRIBUTES, (ClassNode pNode) -> pNode.aAttributes, 
+				(ClassNode pNode, Object pAttributes) -> pNode.aAttributes = (String)pAttributes, 1);
 	}
 }
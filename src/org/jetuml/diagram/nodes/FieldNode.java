@@ -25,6 +25,7 @@ import java.util.Optional;
 
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  *  A field node in an object diagram.
@@ -88,10 +89,10 @@ public final class FieldNode extends NamedNode
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.VALUE, () -> aValue, pValue -> aValue = (String) pValue);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.VALUE, (FieldNode pNode) -> pNode.aValue, (FieldNode pNode, Object pValue) -> pNode.aValue = (String) pValue);
 	}
 
 	@Override
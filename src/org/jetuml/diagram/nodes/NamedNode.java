@@ -22,6 +22,7 @@
 package org.jetuml.diagram.nodes;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * A node with a name.
@@ -49,9 +50,9 @@ public abstract class NamedNode extends AbstractNode
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.NAME, () -> aName, pName -> aName = (String)pName);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.NAME, (NamedNode pNode) -> pNode.aName, (NamedNode pNode, Object pName) -> pNode.aName = (String)pName);
 	}
 }
@@ -22,6 +22,7 @@
 package org.jetuml.diagram.nodes;
 
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * A package description node in a UML diagram.
@@ -57,9 +58,10 @@ public final class PackageDescriptionNode extends AbstractPackageNode
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.CONTENTS, () -> aContents, pContents -> aContents = (String)pContents);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.CONTENTS, (PackageDescriptionNode pNode) -> pNode.aContents, 
+				(PackageDescriptionNode pNode, Object pContents) -> pNode.aContents = (String)pContents);
 	}
 }
@@ -25,6 +25,7 @@ import java.util.Optional;
 
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.PropertySchema;
 
 /**
  * A type that can represent either classes or interfaces. A type node 
@@ -93,10 +94,11 @@ public abstract class TypeNode extends NamedNode
 	}
 	
 	@Override
-	protected void buildProperties()
+	protected void buildProperties(PropertySchema.Builder pSchema)
 	{
-		super.buildProperties();
-		properties().add(PropertyName.METHODS, () -> aMethods, pMethods -> aMethods = (String)pMethods);
+		super.buildProperties(pSchema);
+		pSchema.add(PropertyName.METHODS, (TypeNode pNode) -> pNode.aMethods, 
+				(TypeNode pNode, Object pMethods) -> pNode.aMethods = (String)pMethods);
 	}
 	
 	@Override
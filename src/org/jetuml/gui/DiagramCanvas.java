@@ -19,14 +19,10 @@
  * along with this program.  If not, see http://www.gnu.org/licenses.
  *******************************************************************************/
 package org.jetuml.gui;
-import static java.util.stream.Collectors.toList;
-
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 import org.jetuml.application.Clipboard;
 import org.jetuml.application.UserPreferences;
@@ -34,6 +30,12 @@ import org.jetuml.application.UserPreferences.BooleanPreference;
 import org.jetuml.application.UserPreferences.BooleanPreferenceChangeHandler;
 import org.jetuml.application.UserPreferences.IntegerPreference;
 import org.jetuml.application.UserPreferences.IntegerPreferenceChangeHandler;
+import org.jetuml.diagnostics.ClipboardEvent;
+import org.jetuml.diagnostics.FrameStatistics;
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryEstimator.Category;
+import org.jetuml.diagnostics.PaintEvent;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -43,6 +45,9 @@ import org.jetuml.diagram.builder.ClassDiagramBuilder;
 import org.jetuml.diagram.builder.CompoundOperation;
 import org.jetuml.diagram.builder.DiagramBuilder;
 import org.jetuml.diagram.builder.DiagramOperationProcessor;
+import org.jetuml.diagram.builder.DiagramOperation;
+import org.jetuml.diagram.builder.DiagramOperationProcessor.OperationObserver;
+import org.jetuml.diagram.builder.ImportBatch;
 import org.jetuml.diagram.nodes.FieldNode;
 import org.jetuml.diagram.nodes.PackageNode;
 import org.jetuml.diagram.validator.DiagramValidator;
@@ -52,7 +57,9 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.Grid;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.ToolGraphics;
+import org.jetuml.rendering.layout.AutoLayout;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
@@ -72,6 +79,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 * is automatically increased to accommodate a diagram larger than the 
 	 * preferred size. */
 	private static final int DIMENSION_BUFFER = 20;
+	private static final int BYTES_PER_PIXEL = 4;
 	private static final int GRID_SIZE = 10;
 	private static final int DIAGRAM_PADDING = 4;
 	private static final int CONNECT_THRESHOLD = 8;
@@ -90,9 +98,12 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	private Point aLastMousePoint;
 	private Point aMouseDownPoint;  
 	
-	private List<DiagramElement> aSelected = new ArrayList<>();
+	private final SelectionModel aSelected = new SelectionModel(this);
+	private final FrameStatistics aFrameStatistics = new FrameStatistics();
 	private Optional<Line> aRubberband = Optional.empty();
 	private Optional<Rectangle> aLasso = Optional.empty();
+	private double aScale = 1;
+	private LevelOfDetail aLevelOfDetail = LevelOfDetail.FULL;
 	
 	/**
 	 * Constructs the canvas, assigns the diagram to it.
@@ -110,6 +121,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		aDiagramBuilder = pDiagramBuilder;
 		aDiagramValidator = pDiagramValidator;
 		aMoveTracker = new MoveTracker(aDiagramBuilder.renderer()::getBounds);
+		aDiagramBuilder.renderer().setFrameStatistics(aFrameStatistics);
 		Dimension dimension = getDiagramCanvasWidth(pDiagramBuilder.diagram());
 		setWidth(dimension.width());
 		setHeight(dimension.height());
@@ -117,34 +129,49 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		getGraphicsContext2D().setLineWidth(LINE_WIDTH);
 		getGraphicsContext2D().setFill(Color.WHITE);
 		aHandler = pHandler;
+		// Operations can remove selected elements or move them in the containment hierarchy
+		aProcessor.addObserver(() -> aSelected.synchronizeWith(diagram()));
 		setOnMousePressed(this::mousePressed);
 		setOnMouseReleased(this::mouseReleased);
 		setOnMouseDragged(this::mouseDragged);
 	}
 	
 	/**
-	 * Removes any element in the selection model that is not in the diagram.
-	 * TODO a hack which will hopefully be factored out.
+	 * Notify the controller that its diagram has been saved.
 	 */
-	public void synchronizeSelectionModel()
+	public void diagramSaved()
 	{
-		Set<DiagramElement> toBeRemoved = new HashSet<>();
-		for(DiagramElement selected : aSelected )
-		{
-			if(!diagram().contains(selected)) 
-			{
-				toBeRemoved.add(selected);
-			}
-		}
-		toBeRemoved.forEach( element -> removeFromSelection(element));            
+		aProcessor.diagramSaved();
 	}
 	
 	/**
-	 * Notify the controller that its diagram has been saved.
+	 * @return An action that notifies the controller that its diagram, 
+	 *     in its current state, has been saved.
+	 * @see DiagramOperationProcessor#savePoint()
 	 */
-	public void diagramSaved()
+	public Runnable savePoint()
 	{
-		aProcessor.diagramSaved();
+		return aProcessor.savePoint();
+	}
+	
+	/**
+	 * Registers pObserver to be notified whenever an operation changes
+	 * the diagram on this canvas.
+	 * 
+	 * @param pObserver The observer to register.
+	 * @pre pObserver != null
+	 */
+	public void addOperationObserver(OperationObserver pObserver)
+	{
+		aProcessor.addObserver(pObserver);
+	}
+	
+	/**
+	 * @return The time taken to paint the most recent frames of this canvas.
+	 */
+	public FrameStatistics frameStatistics()
+	{
+		return aFrameStatistics;
 	}
 	
 	/**
@@ -156,6 +183,32 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		return aProcessor.hasUnsavedOperations();
 	}
 	
+	/**
+	 * Adds the memory retained by the diagram on this canvas to pEstimator: 
+	 * the diagram itself, the caches of its renderer, the operations that 
+	 * can be undone or redone, and the pixels of this canvas.
+	 * 
+	 * @param pEstimator The estimator that counts the memory.
+	 * @pre pEstimator != null
+	 */
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		assert pEstimator != null;
+		pEstimator.exclude(this);
+		pEstimator.exclude(aDiagramBuilder);
+		pEstimator.exclude(aDiagramBuilder.renderer());
+		pEstimator.add(Category.MODEL, diagram());
+		aDiagramBuilder.renderer().estimateMemory(pEstimator);
+		pEstimator.add(Category.HISTORY, aProcessor);
+		double outputScale = 1;
+		if( getScene() != null && getScene().getWindow() != null )
+		{
+			outputScale = getScene().getWindow().getOutputScaleX();
+		}
+		pEstimator.addBytes(Category.CANVAS, (long) Math.ceil(getWidth() * outputScale) * 
+				(long) Math.ceil(getHeight() * outputScale) * BYTES_PER_PIXEL);
+	}
+	
 	/**
 	 * Pastes the content of the clip board into the graph managed by this panel.
 	 */
@@ -165,20 +218,61 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		{
 			return;
 		}
+		ClipboardEvent event = new ClipboardEvent();
+		event.begin();
 		Iterable<DiagramElement> newElements = Clipboard.instance().getElements();
 		if(Clipboard.instance().overlapsWithElementOf(aDiagramBuilder.diagram()))
 		{
 			shiftElements(newElements, GRID_SIZE);
 		}
 		aProcessor.executeNewOperation(aDiagramBuilder.createAddElementsOperation(newElements));
-		List<DiagramElement> newElementList = new ArrayList<>();
-		for( DiagramElement element : newElements )
+		aSelected.set(newElements);
+		Clipboard.instance().copy(newElements);
+		event.end();
+		if( event.shouldCommit() )
 		{
-			newElementList.add(element);
+			event.setAction("paste");
+			event.setElements(newElements);
+			event.commit();
+		}
+	}
+	
+	/**
+	 * Adds all the elements of pBatch to the diagram as a single undoable operation. 
+	 * The resulting diagram is validated once, and the canvas is painted once.
+	 * If the diagram would not be valid, it is left unchanged.
+	 * 
+	 * @param pBatch The nodes and edges to add.
+	 * @return True if the elements were added.
+	 * @pre pBatch != null
+	 */
+	public boolean importElements(ImportBatch pBatch)
+	{
+		assert pBatch != null;
+		DiagramOperation operation = aDiagramBuilder.createImportOperation(pBatch);
+		operation.execute();
+		if( !aDiagramValidator.isValid() )
+		{
+			operation.undo();
+			return false;
+		}
+		aProcessor.storeAlreadyExecutedOperation(operation);
+		paintPanel();
+		return true;
+	}
+	
+	/**
+	 * Moves all the nodes of the diagram to the positions computed by an automatic 
+	 * layout, as a single undoable operation. Does nothing for diagrams that do
+	 * not support automatic layout.
+	 */
+	public void layoutDiagram()
+	{
+		if( AutoLayout.supports(diagram().getType()) )
+		{
+			aProcessor.executeNewOperation(aDiagramBuilder.createLayoutOperation());
+			paintPanel();
 		}
-		setSelectionTo(newElementList);
-		Clipboard.instance().copy(newElements);
-		paintPanel(); // TODO double-check if this is necessary since it's already called in setSelectionTo
 	}
 	
 	/**
@@ -201,7 +295,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 */
 	public void editSelected()
 	{
-		Optional<DiagramElement> edited = getLastSelected();
+		Optional<DiagramElement> edited = aSelected.getLastSelected();
 		if( edited.isPresent() )
 		{
 			PropertyEditorDialog dialog = new PropertyEditorDialog((Stage)getScene().getWindow(), 
@@ -215,6 +309,30 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		}
 	}
 	
+	/**
+	 * Records the scale at which the canvas is shown, and repaints it
+	 * if this changes the level of detail at which to draw the diagram.
+	 * 
+	 * @param pScale The scale of the canvas.
+	 * @pre pScale > 0
+	 */
+	public void setScale(double pScale)
+	{
+		assert pScale > 0;
+		aScale = pScale;
+		updateLevelOfDetail();
+	}
+	
+	private void updateLevelOfDetail()
+	{
+		LevelOfDetail levelOfDetail = LevelOfDetail.forScale(aScale);
+		if( levelOfDetail != aLevelOfDetail )
+		{
+			aLevelOfDetail = levelOfDetail;
+			paintPanel();
+		}
+	}
+	
 	@Override
 	public boolean isResizable()
 	{
@@ -235,18 +353,31 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 */
 	public void paintPanel()
 	{
+		PaintEvent event = new PaintEvent();
+		event.begin();
+		long start = System.nanoTime();
 		GraphicsContext context = getGraphicsContext2D();
 		context.setFill(Color.WHITE); 
 		context.fillRect(0, 0, getWidth(), getHeight());
 		if(UserPreferences.instance().getBoolean(BooleanPreference.showGrid)) 
 		{
-			Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight()));
+			aFrameStatistics.time(Phase.GRID, 
+					() -> Grid.draw(context, new Rectangle(0, 0, (int) getWidth(), (int) getHeight())));
 		}
+		aDiagramBuilder.renderer().setLevelOfDetail(aLevelOfDetail);
 		aDiagramBuilder.renderer().draw(context);
-		synchronizeSelectionModel();
-		aSelected.forEach( selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, context));
+		aFrameStatistics.time(Phase.SELECTION_HANDLES, 
+				() -> aSelected.forEach( selected -> aDiagramBuilder.renderer().drawSelectionHandles(selected, context)));
 		aRubberband.ifPresent( rubberband -> ToolGraphics.drawRubberband(context, rubberband));
 		aLasso.ifPresent( lasso -> ToolGraphics.drawLasso(context, lasso));
+		aFrameStatistics.endFrame(start);
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setDiagram(diagram());
+			event.setLevelOfDetail(aLevelOfDetail.name());
+			event.commit();
+		}
 	}
 	
 	/**
@@ -297,8 +428,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	public void removeSelected()
 	{
 		aProcessor.executeNewOperation(aDiagramBuilder.createRemoveElementsOperation(aSelected));
-		clearSelection();
-		paintPanel();
+		aSelected.clear();
 	}
 	
 	/**
@@ -317,10 +447,9 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	public void selectAll()
 	{
 		aToolBar.setToolToBeSelect();
-		clearSelection();
-		aDiagramBuilder.diagram().rootNodes().forEach(this::internalAddToSelection);
-		aDiagramBuilder.diagram().edges().forEach(this::internalAddToSelection);
-		paintPanel();
+		List<DiagramElement> elements = new ArrayList<>(aDiagramBuilder.diagram().rootNodes());
+		elements.addAll(aDiagramBuilder.diagram().edges());
+		aSelected.set(elements);
 	}
 	
 	/**
@@ -332,7 +461,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		{
 			return;
 		}
-		List<Node> selectedNodes = selectedNodes();
+		List<Node> selectedNodes = aSelected.getSelectedNodes();
 		if(((ClassDiagramBuilder)aDiagramBuilder).canLinkToPackage(selectedNodes))
 		{
 			aProcessor.executeNewOperation(((ClassDiagramBuilder)aDiagramBuilder).createLinkToPackageOperation(selectedNodes));
@@ -362,6 +491,10 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		{
 			paintPanel();
 		}
+		else if( pPreference == IntegerPreference.namesOnlyZoom || pPreference == IntegerPreference.outlineZoom )
+		{
+			updateLevelOfDetail();
+		}
 	}
 	
 	/*
@@ -446,33 +579,34 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		{
 			if(pEvent.isControlDown())
 			{
-				if(!contains(element.get()))
+				if(!aSelected.contains(element.get()))
 				{
-					addToSelection(element.get());
+					aSelected.add(element.get());
 				}
 				else
 				{
-					removeFromSelection(element.get());
+					aSelected.remove(element.get());
 				}
 			}
-			else if(!contains(element.get()))
+			else if(!aSelected.contains(element.get()))
 			{
 				// The test is necessary to ensure we don't undo multiple selections
-				setSelection(element.get());
+				aSelected.set(element.get());
 			}
 			// Reorder the selected nodes to ensure that they appear on the top
-			for(Node pSelected: selectedNodes()) 
+			for(Node pSelected: aSelected.getSelectedNodes()) 
 			{
 				diagram().placeOnTop(pSelected);
 			}
 			aDragMode = DragMode.DRAG_MOVE;
 			aMoveTracker.start(aSelected);
+			aDiagramBuilder.renderer().startInteraction(aSelected.getSelectedNodes());
 		}
 		else // Nothing is selected
 		{
 			if(!pEvent.isControlDown()) 
 			{
-				clearSelection();
+				aSelected.clear();
 			}
 			aDragMode = DragMode.DRAG_LASSO;
 		}
@@ -531,9 +665,8 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		aProcessor.executeNewOperation(aDiagramBuilder.createAddNodeOperation(newNode, new Point(point.getX(), point.getY())));
 		if (aDiagramValidator.isValid())
 		{
-			setSelection(newNode);
 			diagram().placeOnTop(newNode);
-			paintPanel();
+			aSelected.set(newNode);
 			if( UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode))
 			{
 				editSelected();
@@ -599,7 +732,8 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 	 */
 	private void alignMoveToGrid()
 	{
-		Iterator<Node> selectedNodes = selectedNodes().iterator();
+		List<Node> selectedNodeList = aSelected.getSelectedNodes();
+		Iterator<Node> selectedNodes = selectedNodeList.iterator();
 		Rectangle entireBounds = aDiagramBuilder.renderer().getBoundsIncludingParents(aSelected);
 		
 		if( selectedNodes.hasNext() )
@@ -630,11 +764,10 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 				dy += GRID_SIZE;
 			}
 			
-			for(Node selected : selectedNodes())
+			for(Node selected : selectedNodeList)
 			{
 				selected.translate(dx, dy);
 			}
-			paintPanel();
 		}
 	}
 	
@@ -652,15 +785,19 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 			}
 			else
 			{
-				setSelection(newEdge);
-				paintPanel();
+				aSelected.set(newEdge);
 			}
 		}
 		deactivateRubberband();
 	}
 	
+	/*
+	 * Ends the interaction started by the move, so that the moved nodes 
+	 * and their edges are laid out and drawn in full, once.
+	 */
 	private void releaseMove()
 	{
+		aDiagramBuilder.renderer().endInteraction();
 		CompoundOperation operation = aMoveTracker.stop();
 		if(!operation.isEmpty())
 		{
@@ -686,11 +823,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		else if(aDragMode == DragMode.DRAG_LASSO)
 		{
 			aLastMousePoint = mousePoint;
-			if( !pEvent.isControlDown() )
-			{
-				clearSelection();
-			}
-			activateLasso();
+			activateLasso(pEvent.isControlDown());
 		}
 		else if(aDragMode == DragMode.DRAG_RUBBERBAND)
 		{
@@ -709,7 +842,8 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		int dy = pMousePoint.getY() - aLastMousePoint.getY();
 		
 		// Perform the move without painting it
-		selectedNodes().forEach(selected -> selected.translate(dx, dy));
+		List<Node> selectedNodes = aSelected.getSelectedNodes();
+		selectedNodes.forEach(selected -> selected.translate(dx, dy));
 		
 		// If this translation results in exceeding the canvas bounds, roll back.
 		Rectangle bounds = aDiagramBuilder.renderer().getBoundsIncludingParents(aSelected);
@@ -717,7 +851,7 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 				+ Math.min((int)getWidth() - bounds.getMaxX(), 0);
 		int dyCorrection = Math.max(-bounds.getY(), 0) 
 				+ Math.min((int)getHeight() - bounds.getMaxY(), 0);
-		selectedNodes().forEach(selected -> selected.translate(dxCorrection, dyCorrection));
+		selectedNodes.forEach(selected -> selected.translate(dxCorrection, dyCorrection));
 		
 		aLastMousePoint = pMousePoint; 
 		paintPanel();
@@ -736,6 +870,8 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		context.setLineWidth(LINE_WIDTH);
 		context.setFill(Color.WHITE);
 		context.translate(-bounds.getX()+DIAGRAM_PADDING, -bounds.getY()+DIAGRAM_PADDING);
+		// Images are always exported in full, whatever the zoom level of the canvas
+		aDiagramBuilder.renderer().setLevelOfDetail(LevelOfDetail.FULL);
 		aDiagramBuilder.renderer().draw(context);
 		WritableImage image = new WritableImage(bounds.getWidth() + DIAGRAM_PADDING * 2, 
 				bounds.getHeight() + DIAGRAM_PADDING *2);
@@ -743,47 +879,46 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		return image;
 	}
 	
-	/**
-	 * @return A list of all the selected nodes. 
-	 */
-	private List<Node> selectedNodes()
-	{
-		return aSelected.stream()
-				.filter(e -> Node.class.isAssignableFrom(e.getClass()))
-				.map(Node.class::cast)
-				.collect(toList());
-	}
-	
 	/**
 	 * Records information about an active lasso selection tool, select all elements
 	 * in the lasso, and triggers a notification.
 	 * 
-	 * @param pLasso The bounds of the current lasso.
-	 * @pre pLasso != null;
+	 * @param pAddToSelection True if the elements in the lasso are added to the 
+	 *     current selection instead of replacing it.
 	 */
-	private void activateLasso()
+	private void activateLasso(boolean pAddToSelection)
 	{
 		aLasso = Optional.of(computeLasso());
-		aDiagramBuilder.diagram().rootNodes().forEach( node -> selectNode(node, aLasso.get()));
-		aDiagramBuilder.diagram().edges().forEach( edge -> selectEdge(edge, aLasso.get()));
-		paintPanel();
-	}
-	
-	private void selectNode(Node pNode, Rectangle pLasso)
-	{
-		if(pLasso.contains(aDiagramBuilder.renderer().getBounds(pNode)))
+		List<DiagramElement> elements = new ArrayList<>();
+		aDiagramBuilder.diagram().rootNodes().forEach( node -> collectNodes(node, aLasso.get(), elements));
+		for( Edge edge : aDiagramBuilder.diagram().edges() )
 		{
-			internalAddToSelection(pNode);
+			if(aLasso.get().contains(aDiagramBuilder.renderer().getBounds(edge)))
+			{
+				elements.add(edge);
+			}
+		}
+		if( pAddToSelection )
+		{
+			aSelected.addAll(elements);
+		}
+		else
+		{
+			aSelected.set(elements);
 		}
-		pNode.getChildren().forEach(child -> selectNode(child, pLasso));
 	}
 	
-	private void selectEdge(Edge pEdge, Rectangle pLasso )
+	/*
+	 * Parents are collected before their children, so that children of
+	 * a node in the lasso are not selected with it.
+	 */
+	private void collectNodes(Node pNode, Rectangle pLasso, List<DiagramElement> pElements)
 	{
-		if(pLasso.contains(aDiagramBuilder.renderer().getBounds(pEdge)))
+		if(pLasso.contains(aDiagramBuilder.renderer().getBounds(pNode)))
 		{
-			internalAddToSelection(pEdge);
-		}		
+			pElements.add(pNode);
+		}
+		pNode.getChildren().forEach(child -> collectNodes(child, pLasso, pElements));
 	}
 	
 	/**
@@ -815,151 +950,4 @@ public class DiagramCanvas extends Canvas implements SelectionObserver, BooleanP
 		aRubberband = Optional.empty();
 		paintPanel();
 	}
-	
-	/**
-	 * Clears any existing selection and initializes it with pNewSelection.
-	 * Triggers a notification.
-	 * 
-	 * @param pNewSelection A list of elements to select.
-	 * @pre pNewSelection != null;
-	 */
-	private void setSelectionTo(List<DiagramElement> pNewSelection)
-	{
-		assert pNewSelection != null;
-		clearSelection();
-		pNewSelection.forEach(this::internalAddToSelection);
-		paintPanel();
-	}
-	
-	/**
-	 * Adds an element to the selection set and sets it as the last 
-	 * selected element. If the element is already in the list, it
-	 * is added to the end of the list. If the node is transitively 
-	 * a child of any node in the list, it is not added.
-	 * Triggers a notification.
-	 * 
-	 * @param pElement The element to add to the list.
-	 * @pre pElement != null
-	 */
-	private void addToSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		internalAddToSelection(pElement);
-		paintPanel();
-	}
-	
-	private void internalAddToSelection(DiagramElement pElement)
-	{
-		if( !containsParent( pElement ))
-		{
-			aSelected.remove(pElement);
-			aSelected.add(pElement);
-			
-			// Remove children in case a parent was added.
-			ArrayList<DiagramElement> toRemove = new ArrayList<>();
-			for( DiagramElement element : aSelected )
-			{
-				if( containsParent(element) )
-				{
-					toRemove.add(element);
-				}
-			}
-			for( DiagramElement element : toRemove )
-			{
-				// Do no use removeFromSelection because it notifies the observer
-				aSelected.remove(element); 
-			}
-		}
-	}
-	
-	/*
-	 * Returns true if any of the parents of pElement is contained
-	 * (transitively).
-	 * @param pElement The element to test
-	 * @return true if any of the parents of pElement are included in the 
-	 * selection.
-	 */
-	private boolean containsParent(DiagramElement pElement)
-	{
-		if( pElement instanceof Node )
-		{
-			if( !((Node) pElement).hasParent() )
-			{
-				return false;
-			}
-			else if( aSelected.contains(((Node) pElement).getParent()))
-			{
-				return true;
-			}
-			else
-			{
-				return containsParent(((Node) pElement).getParent());
-			}
-		}
-		else
-		{
-			return false;
-		}
-	}
-	
-	/**
-	 * Removes all selections and triggers a notification.
-	 */
-	private void clearSelection()
-	{
-		aSelected.clear();
-		paintPanel();
-	}
-	
-	/**
-	 * @return The last element that was selected, if present.
-	 */
-	private Optional<DiagramElement> getLastSelected()
-	{
-		if( aSelected.isEmpty() )
-		{
-			return Optional.empty();
-		}
-		else
-		{
-			return Optional.of(aSelected.get(aSelected.size()-1));
-		}
-	}
-	
-	/**
-	 * @param pElement The element to test.
-	 * @return True if pElement is in the list of selected elements.
-	 */
-	private boolean contains(DiagramElement pElement)
-	{
-		return aSelected.contains(pElement);
-	}
-	
-	/**
-	 * Removes pElement from the list of selected elements,
-	 * or does nothing if pElement is not selected.
-	 * Triggers a notification.
-	 * @param pElement The element to remove.
-	 * @pre pElement != null;
-	 */
-	private void removeFromSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		aSelected.remove(pElement);
-		paintPanel();
-	}
-	
-	/**
-	 * Sets pElement as the single selected element.
-	 * Triggers a notification.
-	 * @param pElement The element to set as selected.
-	 * @pre pElement != null;
-	 */
-	private void setSelection(DiagramElement pElement)
-	{
-		assert pElement != null;
-		aSelected.clear();
-		aSelected.add(pElement);
-		paintPanel();
-	}
 }
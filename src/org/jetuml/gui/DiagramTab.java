@@ -27,22 +27,40 @@ import static org.jetuml.application.ApplicationResources.RESOURCES;
 
 import java.io.File;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
+import org.jetuml.application.AutosaveService;
+import org.jetuml.application.AutosaveService.Recovery;
+import org.jetuml.application.SaveService;
+import org.jetuml.application.SaveService.SaveReport;
 import org.jetuml.application.UserPreferences;
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryReport;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.builder.DiagramBuilder;
 import org.jetuml.diagram.validator.DiagramValidator;
 import org.jetuml.geom.Direction;
 import org.jetuml.geom.Rectangle;
+import org.jetuml.gui.InteractionTrace.Interaction;
+import org.jetuml.gui.InteractionTrace.Type;
+import org.jetuml.persistence.PersistenceService.Format;
 
+import javafx.application.Platform;
 import javafx.beans.property.DoubleProperty;
 import javafx.beans.property.SimpleDoubleProperty;
+import javafx.event.Event;
+import javafx.event.EventType;
 import javafx.geometry.Bounds;
+import javafx.geometry.Insets;
+import javafx.geometry.Point2D;
+import javafx.geometry.Pos;
 import javafx.scene.Group;
 import javafx.scene.control.ScrollPane;
 import javafx.scene.control.Tab;
 import javafx.scene.image.Image;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.StackPane;
 
@@ -53,12 +71,18 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 {
 	private static final double DEFAULT_SCALE = 1.0;
 	private static final double SCALE_MULTIPLIER = 1.25;
-	private static final double ZOOM_MIN = DEFAULT_SCALE / (SCALE_MULTIPLIER * SCALE_MULTIPLIER);
+	private static final int ZOOM_OUT_STEPS = 6;
+	private static final double ZOOM_MIN = DEFAULT_SCALE / Math.pow(SCALE_MULTIPLIER, ZOOM_OUT_STEPS);
 	private static final double ZOOM_MAX = DEFAULT_SCALE * SCALE_MULTIPLIER * SCALE_MULTIPLIER;
+	private static final int OVERLAY_MARGIN = 8;
 	
 	private final DoubleProperty aZoom;
 	private DiagramCanvas aDiagramCanvas;
+	private final PerformanceOverlay aPerformanceOverlay;
+	private final Optional<InteractionRecorder> aRecorder;
 	private Optional<File> aFile = Optional.empty(); // The file associated with this diagram
+	private Format aFormat = Format.JSON; // The format in which the diagram is saved
+	private final AutosaveService.Journal aJournal = AutosaveService.instance().createJournal(Platform::runLater);
 	
 	/**
      * Constructs a diagram tab initialized with pDiagram.
@@ -75,8 +99,12 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		
 		UserPreferences.instance().addBooleanPreferenceChangeHandler(aDiagramCanvas);
 		UserPreferences.instance().addIntegerPreferenceChangeHandler(aDiagramCanvas);
+		aDiagramCanvas.addOperationObserver(this::autosave);
 		aDiagramCanvas.paintPanel();
 		
+		aRecorder = InteractionRecorder.create(pDiagram, sideBar);
+		aRecorder.ifPresent(recorder -> aDiagramCanvas.addEventFilter(MouseEvent.ANY, recorder));
+		
 		BorderPane layout = new BorderPane();
 		layout.setRight(sideBar);
 
@@ -93,6 +121,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		aZoom = new SimpleDoubleProperty(DEFAULT_SCALE);
 		pane.scaleXProperty().bind(aZoom);
 		pane.scaleYProperty().bind(aZoom);
+		aZoom.addListener((pObservable, pOldValue, pNewValue) -> aDiagramCanvas.setScale(pNewValue.doubleValue()));
 		
 		// First, wrap the StackPane in a Group to allow the scrolling to be based around the visual bounds
 		// of the canvas rather than its layout bounds.
@@ -106,7 +135,14 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 
 		scroll.setFitToWidth(true);
 		scroll.setFitToHeight(true);
-		layout.setCenter(scroll);
+		
+		// The performance overlay stays in the top left corner of the view when the diagram is scrolled
+		aPerformanceOverlay = new PerformanceOverlay(pDiagram, aDiagramCanvas.frameStatistics());
+		UserPreferences.instance().addBooleanPreferenceChangeHandler(aPerformanceOverlay);
+		StackPane center = new StackPane(scroll, aPerformanceOverlay);
+		StackPane.setAlignment(aPerformanceOverlay, Pos.TOP_LEFT);
+		StackPane.setMargin(aPerformanceOverlay, new Insets(OVERLAY_MARGIN));
+		layout.setCenter(center);
 		
 		setTitle();
 		setContent(layout);
@@ -133,6 +169,32 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		UserPreferences.instance().removeBooleanPreferenceChangeHandler(aDiagramCanvas);
 		UserPreferences.instance().removeBooleanPreferenceChangeHandler((DiagramTabToolBar)((BorderPane)getContent()).getRight());
 		UserPreferences.instance().removeIntegerPreferenceChangeHandler(aDiagramCanvas);
+		UserPreferences.instance().removeBooleanPreferenceChangeHandler(aPerformanceOverlay);
+		aPerformanceOverlay.close();
+		aRecorder.ifPresent(InteractionRecorder::close);
+		AutosaveService.instance().close(aJournal);
+	}
+	
+	/**
+	 * Records the current state of the diagram in its autosave journal.
+	 */
+	public void autosave()
+	{
+		aJournal.record(getDiagram());
+	}
+	
+	/**
+	 * Records the current state of a recovered diagram in the autosave journal 
+	 * of this tab, which then replaces the journal it was recovered from.
+	 * 
+	 * @param pRecovery The recovery this tab was created from.
+	 * @pre pRecovery != null
+	 */
+	public void autosave(Recovery pRecovery)
+	{
+		assert pRecovery != null;
+		aJournal.supersede(pRecovery);
+		autosave();
 	}
 
 	/**
@@ -143,11 +205,23 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		return aDiagramCanvas.diagram();
 	}
 	
+	/**
+	 * @return An estimate of the memory used by the diagram in this tab.
+	 */
+	public MemoryReport estimateMemory()
+	{
+		MemoryEstimator estimator = new MemoryEstimator();
+		estimator.exclude(this);
+		aDiagramCanvas.estimateMemory(estimator);
+		return estimator.report();
+	}
+	
 	/**
 	 * Copy the current selection to the clipboard.
 	 */
 	public void copy()
 	{
+		record(Type.COPY);
 		aDiagramCanvas.copy();
 	}
 	
@@ -156,6 +230,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void cut()
 	{
+		record(Type.CUT);
 		aDiagramCanvas.cut();
 	}
 	
@@ -164,6 +239,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void paste()
 	{
+		record(Type.PASTE);
 		aDiagramCanvas.paste();
 	}
 	
@@ -180,6 +256,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void undo()
 	{
+		record(Type.UNDO);
 		aDiagramCanvas.undo();
 	}
 	
@@ -188,6 +265,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void redo()
 	{
+		record(Type.REDO);
 		aDiagramCanvas.redo();
 	}
 	
@@ -196,6 +274,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void removeSelected()
 	{
+		record(Type.DELETE);
 		aDiagramCanvas.removeSelected();
 	}
 	
@@ -204,9 +283,19 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	 */
 	public void selectAll()
 	{
+		record(Type.SELECT_ALL);
 		aDiagramCanvas.selectAll();
 	}
 	
+	/**
+	 * Lays out the diagram automatically.
+	 */
+	public void layoutDiagram()
+	{
+		record(Type.LAYOUT);
+		aDiagramCanvas.layoutDiagram();
+	}
+	
 	/**
 	 * Zooms in the diagram.
 	 */
@@ -255,6 +344,35 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	public void diagramSaved()
 	{
 		aDiagramCanvas.diagramSaved();
+		aJournal.discard();
+	}
+	
+	/**
+	 * Saves the diagram in its current state to pFile, in the background,
+	 * in the format of this tab.
+	 * The diagram can be edited while the save is in progress. When the save
+	 * completes, the tab is notified in the JavaFX application thread.
+	 * 
+	 * @param pFile The file to save the diagram to.
+	 * @return A future completed, in the JavaFX application thread, once the
+	 *     tab has been notified of the outcome of the save.
+	 * @pre pFile != null
+	 */
+	public CompletableFuture<SaveReport> save(File pFile)
+	{
+		assert pFile != null;
+		Runnable savePoint = aDiagramCanvas.savePoint();
+		return SaveService.instance().save(getDiagram().duplicate(), pFile, aFormat).whenCompleteAsync((report, exception) ->
+		{
+			if( exception == null )
+			{
+				savePoint.run();
+				if( !hasUnsavedChanges() )
+				{
+					aJournal.discard();
+				}
+			}
+		}, Platform::runLater);
 	}
 	
 	/**
@@ -285,6 +403,19 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 		aFile = Optional.of(pFile);
 		setTitle();
 	}
+	
+	/**
+	 * Sets the format in which the diagram is saved, for example
+	 * to preserve the format of the file it was read from.
+	 * 
+	 * @param pFormat The format of the diagram file.
+	 * @pre pFormat != null
+	 */
+	public void setFormat(Format pFormat)
+	{
+		assert pFormat != null;
+		aFormat = pFormat;
+	}
 
 	@Override
 	public void interactionTo(Rectangle pBounds, Direction pDirection)
@@ -317,16 +448,17 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	}
 	
 	/*
-	 * Fetches the ScrollPane component that wraps the canvas from the scene graph
+	 * Fetches the ScrollPane component that wraps the canvas from the scene graph. 
+	 * It is under the performance overlay in the center of the layout.
 	 */
 	private ScrollPane scrollPane()
 	{
-		return (ScrollPane)((BorderPane)getContent()).getCenter();
+		return (ScrollPane)((StackPane)((BorderPane)getContent()).getCenter()).getChildren().get(0);
 	}
 	
 	private ViewportProjection getViewportProjection()
 	{
-		ScrollPane scrollPane = (ScrollPane)((BorderPane)getContent()).getCenter();
+		ScrollPane scrollPane = scrollPane();
 		Bounds bounds = scrollPane.getViewportBounds();
 		// Because, when the scrollbars are not displayed, the Scrollpane will increase
 		// the viewport size beyond the canvas size, it's necessary to max out the dimensions
@@ -341,6 +473,7 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	@Override
 	public void shiftKeyPressed() 
 	{
+		record(Type.SHIFT);
 		aDiagramCanvas.shiftKeyPressed();
 	}
 	
@@ -379,9 +512,108 @@ public class DiagramTab extends Tab implements MouseDraggedGestureHandler, KeyEv
 	@Override
 	public void keyTyped(String pChar)
 	{   // -1 because the input is 1-index and setSelectedTool is 0-indexed
+		aRecorder.ifPresent(recorder -> recorder.keyTyped(pChar));
 		toolBar().setSelectedTool(toolIndex(pChar)-1); 
 	}
 	
+	private void record(Type pType)
+	{
+		aRecorder.ifPresent(recorder -> recorder.record(pType));
+	}
+	
+	/**
+	 * Dispatches pInteraction to the handler that received it when it was recorded,
+	 * with the tool that was then selected for mouse presses. Presses of the secondary 
+	 * button and double-clicks are ignored, because they open windows that wait for 
+	 * the user.
+	 * 
+	 * @param pInteraction The interaction to replay.
+	 * @pre pInteraction != null
+	 */
+	void replay(Interaction pInteraction)
+	{
+		assert pInteraction != null;
+		Type type = pInteraction.type();
+		if( type == Type.PRESSED )
+		{
+			if( !pInteraction.isSecondaryButtonDown() && pInteraction.clicks() == 1 )
+			{
+				toolBar().setSelectedTool(pInteraction.tool());
+				fireMouseEvent(MouseEvent.MOUSE_PRESSED, pInteraction);
+			}
+		}
+		else if( type == Type.DRAGGED )
+		{
+			fireMouseEvent(MouseEvent.MOUSE_DRAGGED, pInteraction);
+		}
+		else if( type == Type.RELEASED )
+		{
+			fireMouseEvent(MouseEvent.MOUSE_RELEASED, pInteraction);
+		}
+		else if( type == Type.KEY )
+		{
+			keyTyped(pInteraction.character());
+		}
+		else
+		{
+			replayCommand(type);
+		}
+	}
+	
+	private void replayCommand(Type pType)
+	{
+		if( pType == Type.SHIFT )
+		{
+			shiftKeyPressed();
+		}
+		else if( pType == Type.COPY )
+		{
+			copy();
+		}
+		else if( pType == Type.CUT )
+		{
+			cut();
+		}
+		else if( pType == Type.PASTE )
+		{
+			paste();
+		}
+		else if( pType == Type.DELETE )
+		{
+			removeSelected();
+		}
+		else if( pType == Type.SELECT_ALL )
+		{
+			selectAll();
+		}
+		else if( pType == Type.LAYOUT )
+		{
+			layoutDiagram();
+		}
+		else if( pType == Type.UNDO )
+		{
+			undo();
+		}
+		else
+		{
+			assert pType == Type.REDO;
+			redo();
+		}
+	}
+	
+	/*
+	 * The coordinates of a mouse event are recomputed from its scene coordinates
+	 * when it is delivered to the canvas.
+	 */
+	private void fireMouseEvent(EventType<MouseEvent> pType, Interaction pInteraction)
+	{
+		Point2D point = aDiagramCanvas.localToScene(pInteraction.point().getX(), pInteraction.point().getY());
+		boolean buttonDown = pType != MouseEvent.MOUSE_RELEASED;
+		Event.fireEvent(aDiagramCanvas, new MouseEvent(pType, point.getX(), point.getY(), point.getX(), point.getY(), 
+				MouseButton.PRIMARY, 1, false, pInteraction.isControlDown(), false, false, 
+				buttonDown, false, false, false, false, false, null));
+	}
+	
 	/**
 	 * @return An image of this canvas.
 	 */
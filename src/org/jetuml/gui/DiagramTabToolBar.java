@@ -231,6 +231,15 @@ public class DiagramTabToolBar extends ToolBar implements BooleanPreferenceChang
 		group.getToggles().get(pIndex).setSelected(true);
 	}
 	
+	/**
+	 * @return The index (zero-indexed) of the selected tool in the tool group.
+	 */
+	public int getSelectedToolIndex()
+	{
+		ToggleGroup group = ((ToggleButton)getItems().get(0)).getToggleGroup();
+		return group.getToggles().indexOf(group.getSelectedToggle());
+	}
+	
 	/**
 	 * Shows or hides the textual description of the tools and commands.
 	 * @param pShow True if the labels should be shown
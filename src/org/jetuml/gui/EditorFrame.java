@@ -17,7 +17,7 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 
 package org.jetuml.gui;
 
@@ -38,13 +38,17 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.prefs.Preferences;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.imageio.ImageIO;
 
 import org.jetuml.JetUML;
+import org.jetuml.application.AutosaveService;
+import org.jetuml.application.AutosaveService.Recovery;
 import org.jetuml.application.FileExtensions;
 import org.jetuml.application.RecentFilesQueue;
+import org.jetuml.application.SaveService;
 import org.jetuml.application.UserPreferences;
 import org.jetuml.application.UserPreferences.BooleanPreference;
 import org.jetuml.diagram.Diagram;
@@ -52,6 +56,7 @@ import org.jetuml.diagram.DiagramType;
 import org.jetuml.gui.tips.TipDialog;
 import org.jetuml.persistence.DeserializationException;
 import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.bytecode.BytecodeImporter;
 
 import javafx.embed.swing.SwingFXUtils;
 import javafx.scene.control.Alert;
@@ -64,10 +69,12 @@ import javafx.scene.control.MenuItem;
 import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.image.Image;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.layout.BorderPane;
+import javafx.stage.DirectoryChooser;
 import javafx.stage.FileChooser;
 import javafx.stage.FileChooser.ExtensionFilter;
 import javafx.stage.Stage;
@@ -79,6 +86,7 @@ public class EditorFrame extends BorderPane
 {
 	private static final String KEY_LAST_EXPORT_DIR = "lastExportDir";
 	private static final String KEY_LAST_SAVEAS_DIR = "lastSaveAsDir";
+	private static final String KEY_LAST_IMPORT_DIR = "lastImportDir";
 	private static final String KEY_LAST_IMAGE_FORMAT = "lastImageFormat";
 	private static final String USER_MANUAL_URL = "https://www.jetuml.org/docs/user-guide.html";
 	
@@ -120,14 +128,14 @@ public class EditorFrame extends BorderPane
 		
 		setOnKeyPressed(e -> 
 		{
-			if( !isWelcomeTabShowing() && e.isShiftDown() )
+			if( isDiagramTabSelected() && e.isShiftDown() )
 			{
 				getSelectedDiagramTab().shiftKeyPressed();
 			}
 		});
 		setOnKeyTyped(e -> 
 		{
-			if( !isWelcomeTabShowing() && !e.isShortcutDown())
+			if( isDiagramTabSelected() && !e.isShortcutDown())
 			{
 				getSelectedDiagramTab().keyTyped(e.getCharacter());
 			}
@@ -155,7 +163,7 @@ public class EditorFrame extends BorderPane
 	 * menus and their immediate sub-menus), that have "true" in their user data,
 	 * indicating that they should only be enabled if there is a diagram 
 	 * present. Then, sets their visibility to the boolean value that
-	 * indicates whether there is a diagram present.
+	 * indicates whether a diagram tab is selected.
 	 * 
 	 * This method assumes that any sub-menu beyond the second level (sub-menus of
 	 * top menus) will NOT be diagram-specific.
@@ -165,7 +173,7 @@ public class EditorFrame extends BorderPane
 			((MenuBar)getTop()).getMenus().stream() // All top level menus
 				.flatMap(menu -> Stream.concat(Stream.of(menu), menu.getItems().stream())) // All menus and immediate sub-menus
 				.filter( item -> Boolean.TRUE.equals(item.getUserData())) // Retain only diagram-relevant menu items
-				.forEach( item -> item.setDisable(isWelcomeTabShowing()));
+				.forEach( item -> item.setDisable(!isDiagramTabSelected()));
 	}
 	
 	// Returns the new menu
@@ -188,6 +196,8 @@ public class EditorFrame extends BorderPane
 				newMenu,
 				factory.createMenuItem("file.open", false, event -> openFile()),
 				aRecentFilesMenu,
+				factory.createMenuItem("file.import_jar", false, event -> importJar()),
+				factory.createMenuItem("file.import_classes", false, event -> importClassDirectory()),
 				factory.createMenuItem("file.close", true, event -> close()),
 				factory.createMenuItem("file.save", true, event -> save()),
 				factory.createMenuItem("file.save_as", true, event -> saveAs()),
@@ -209,7 +219,8 @@ public class EditorFrame extends BorderPane
 				factory.createMenuItem("edit.cut", true, pEvent -> getSelectedDiagramTab().cut()),
 				factory.createMenuItem("edit.paste", true, pEvent -> getSelectedDiagramTab().paste()),
 				factory.createMenuItem("edit.copy", true, pEvent -> getSelectedDiagramTab().copy()),
-				factory.createMenuItem("edit.delete", true, pEvent -> getSelectedDiagramTab().removeSelected() )));
+				factory.createMenuItem("edit.delete", true, pEvent -> getSelectedDiagramTab().removeSelected() ),
+				factory.createMenuItem("edit.layout", true, pEvent -> getSelectedDiagramTab().layoutDiagram())));
 	}
 	
 	private void createViewMenu(MenuBar pMenuBar) 
@@ -236,6 +247,11 @@ public class EditorFrame extends BorderPane
 						UserPreferences.instance().getBoolean(BooleanPreference.autoEditNode),
 						event -> UserPreferences.instance().setBoolean(BooleanPreference.autoEditNode, 
 								((CheckMenuItem) event.getSource()).isSelected())),
+				
+				factory.createCheckMenuItem("view.performance_overlay", false, 
+						UserPreferences.instance().getBoolean(BooleanPreference.showPerformanceOverlay),
+						event -> UserPreferences.instance().setBoolean(BooleanPreference.showPerformanceOverlay, 
+								((CheckMenuItem) event.getSource()).isSelected())),
 		
 				factory.createMenuItem("view.diagram_size", false, event -> new DiagramSizeDialog(aMainStage).show()),
 				factory.createMenuItem("view.font_size", false, event -> new FontSizeDialog(aMainStage).show()),
@@ -250,14 +266,15 @@ public class EditorFrame extends BorderPane
 		pMenuBar.getMenus().add(factory.createMenu("help", false,
 				factory.createMenuItem("help.tips", false, event -> new TipDialog(aMainStage).show()),
 				factory.createMenuItem("help.guide", false, event -> JetUML.openBrowser(USER_MANUAL_URL)),
+				factory.createMenuItem("help.memory", false, event -> new MemoryDialog(aMainStage, diagramTabs()).show()),
 				factory.createMenuItem("help.about", false, event -> new AboutDialog(aMainStage).show())));
 	}
 	
 	/*
 	 * @return The diagram tab whose corresponding file is pFile,
-	 * or empty if there are none.
+	 * or the tab loading this file, or empty if there are none.
 	 */
-	private Optional<DiagramTab> findTabFor(File pFile)
+	private Optional<Tab> findTabFor(File pFile)
 	{
 		for( Tab tab : tabs() )
 		{
@@ -266,23 +283,30 @@ public class EditorFrame extends BorderPane
 				if(((DiagramTab) tab).getFile().isPresent()	&& 
 						((DiagramTab) tab).getFile().get().getAbsoluteFile().equals(pFile.getAbsoluteFile())) 
 				{
-					return Optional.of((DiagramTab)tab);
+					return Optional.of(tab);
 				}
 			}
+			else if(tab instanceof LoadingTab && 
+					((LoadingTab) tab).getFile().getAbsoluteFile().equals(pFile.getAbsoluteFile()))
+			{
+				return Optional.of(tab);
+			}
 		}
 		return Optional.empty();
 	}
 	
-	/*
+	/**
 	 * Opens a file with the given name, or switches to the frame if it is already
-	 * open.
+	 * open. The file is loaded in the background, in a placeholder tab that
+	 * is replaced by the diagram once it is loaded.
 	 * 
-	 * @param pName the file to open. Not null.
+	 * @param pFile the file to open.
+	 * @pre pFile != null
 	 */
-	private void open(File pFile) 
+	public void open(File pFile) 
 	{
 		assert pFile != null;
-		Optional<DiagramTab> tab = findTabFor(pFile);
+		Optional<Tab> tab = findTabFor(pFile);
 		if( tab.isPresent() )
 		{
 			tabPane().getSelectionModel().select(tab.get());
@@ -290,32 +314,116 @@ public class EditorFrame extends BorderPane
 			return;
 		}
 		
-		try 
+		insertGraphFrameIntoTabbedPane(new LoadingTab(pFile, this::loaded, this::loadFailed));
+	}
+	
+	/*
+	 * Replaces pTab with a tab for the diagram it loaded.
+	 */
+	private void loaded(LoadingTab pTab, Diagram pDiagram)
+	{
+		DiagramTab frame = new DiagramTab(pDiagram);
+		frame.setFile(pTab.getFile().getAbsoluteFile());
+		frame.setFormat(pTab.getFormat());
+		addRecentFile(pTab.getFile().getPath());
+		replace(pTab, frame);
+	}
+	
+	/*
+	 * Arranges the diagram imported by pTab, and replaces pTab with a tab 
+	 * for this diagram, which is not associated with a diagram file.
+	 */
+	private void imported(LoadingTab pTab, Diagram pDiagram)
+	{
+		BytecodeImporter.arrange(pDiagram);
+		replace(pTab, new DiagramTab(pDiagram));
+	}
+	
+	/*
+	 * Only closes pFrame if pTab was closed in the meantime.
+	 */
+	private void replace(LoadingTab pTab, DiagramTab pFrame)
+	{
+		if( !tabs().contains(pTab) )
 		{
-			Diagram diagram = PersistenceService.read(pFile);
-			setOpenFileAsDiagram(pFile, diagram);
+			pFrame.close();
+			return;
 		}
-		catch(IOException | DeserializationException exception) 
+		boolean selected = pTab.isSelected();
+		tabs().set(tabs().indexOf(pTab), pFrame);
+		if( selected )
 		{
-			Alert alert = new DeserializationErrorAlert(exception);
-			alert.initOwner(aMainStage);
-			alert.showAndWait();
+			tabPane().getSelectionModel().select(pFrame);
+		}
+	}
+	
+	private void loadFailed(LoadingTab pTab, Throwable pException)
+	{
+		tabs().remove(pTab);
+		showWelcomeTabIfNecessary();
+		if( !(pException instanceof IOException || pException instanceof DeserializationException) )
+		{
+			throw new IllegalStateException(pException);
 		}
+		Alert alert = new DeserializationErrorAlert((Exception) pException);
+		alert.initOwner(aMainStage);
+		alert.showAndWait();
 	}
 	
 	/**
-	 * Given a valid file and the diagram loaded from this file,
-	 * opens a new tab in the editor with this combination.
+	 * Stops loading the file of pTab, and removes this tab.
 	 * 
-	 * @param pFile A valid diagram file.
-	 * @param pDiagram The diagram loaded from the file.
+	 * @param pTab The tab to cancel.
+	 * @pre pTab != null
 	 */
-	public void setOpenFileAsDiagram(File pFile, Diagram pDiagram)
+	public void cancel(LoadingTab pTab)
 	{
-		DiagramTab frame = new DiagramTab(pDiagram);
-		frame.setFile(pFile.getAbsoluteFile());
-		addRecentFile(pFile.getPath());
-		insertGraphFrameIntoTabbedPane(frame);
+		assert pTab != null;
+		pTab.cancel();
+		tabs().remove(pTab);
+		showWelcomeTabIfNecessary();
+	}
+	
+	/**
+	 * Opens a new tab for each diagram recovered from the autosave journals
+	 * of a previous session, if the user agrees to recover them. The journals
+	 * are kept until the recovered diagrams are autosaved, so they are offered 
+	 * again at the next start if the user declines or the recovery fails.
+	 */
+	public void recoverAutosavedDiagrams()
+	{
+		List<Recovery> recoveries = AutosaveService.instance().recover();
+		if( recoveries.isEmpty() )
+		{
+			return;
+		}
+		Alert alert = new Alert(AlertType.CONFIRMATION, 
+				MessageFormat.format(RESOURCES.getString("dialog.recover.ok"), new Object[] { Integer.valueOf(recoveries.size()) }),
+				ButtonType.YES, 
+				ButtonType.NO);
+		alert.initOwner(aMainStage);
+		alert.setTitle(RESOURCES.getString("dialog.recover.title"));
+		alert.setHeaderText(RESOURCES.getString("dialog.recover.title"));
+		alert.showAndWait();
+		if( alert.getResult() != ButtonType.YES )
+		{
+			return;
+		}
+		for( Recovery recovery : recoveries )
+		{
+			try
+			{
+				DiagramTab tab = new DiagramTab(PersistenceService.decode(recovery.encoding()));
+				insertGraphFrameIntoTabbedPane(tab);
+				tab.autosave(recovery); // The recovered diagram is only stored in memory at this point
+			}
+			catch(DeserializationException exception)
+			{
+				Alert errorAlert = new DeserializationErrorAlert(exception);
+				errorAlert.initOwner(aMainStage);
+				errorAlert.showAndWait();
+			}
+		}
 	}
 	
 	private List<NamedHandler> getOpenFileHandlers()
@@ -379,13 +487,64 @@ public class EditorFrame extends BorderPane
 		fileChooser.setInitialDirectory(aRecentFiles.getMostRecentDirectory());
 		fileChooser.getExtensionFilters().addAll(FileExtensions.all());
 
-		File selectedFile = fileChooser.showOpenDialog(aMainStage);
+		List<File> selectedFiles = fileChooser.showOpenMultipleDialog(aMainStage);
 		
-		if(selectedFile != null) 
+		if(selectedFiles != null) 
+		{
+			selectedFiles.forEach(this::open);
+		}
+	}
+
+	private void importJar()
+	{
+		FileChooser fileChooser = new FileChooser();
+		fileChooser.setInitialDirectory(getLastDir(KEY_LAST_IMPORT_DIR));
+		fileChooser.getExtensionFilters().add(new ExtensionFilter(RESOURCES.getString("files.jar.name"), "*.jar"));
+		File file = fileChooser.showOpenDialog(aMainStage);
+		if( file != null )
+		{
+			importClasses(file);
+		}
+	}
+	
+	private void importClassDirectory()
+	{
+		DirectoryChooser directoryChooser = new DirectoryChooser();
+		directoryChooser.setInitialDirectory(getLastDir(KEY_LAST_IMPORT_DIR));
+		File directory = directoryChooser.showDialog(aMainStage);
+		if( directory != null )
 		{
-			open(selectedFile);
+			importClasses(directory);
 		}
 	}
+	
+	/*
+	 * Asks which packages to import, then creates a class diagram
+	 * from the class files in pSource in the background.
+	 */
+	private void importClasses(File pSource)
+	{
+		File directory = pSource.getAbsoluteFile().getParentFile();
+		if( directory != null )
+		{
+			setLastDir(KEY_LAST_IMPORT_DIR, directory);
+		}
+		TextInputDialog dialog = new TextInputDialog();
+		dialog.initOwner(aMainStage);
+		dialog.setTitle(RESOURCES.getString("dialog.import.title"));
+		dialog.setHeaderText(RESOURCES.getString("dialog.import.header"));
+		dialog.setContentText(RESOURCES.getString("dialog.import.packages"));
+		Optional<String> packages = dialog.showAndWait();
+		if( packages.isEmpty() )
+		{
+			return;
+		}
+		List<String> packageNames = Arrays.stream(packages.get().split("[,\\s]+"))
+				.filter(name -> !name.isEmpty())
+				.collect(Collectors.toList());
+		insertGraphFrameIntoTabbedPane(new LoadingTab(pSource, 
+				() -> BytecodeImporter.importClasses(pSource.toPath(), packageNames), this::imported, this::loadFailed));
+	}
 
 	/**
 	 * Copies the current image to the clipboard.
@@ -480,17 +639,18 @@ public class EditorFrame extends BorderPane
 			saveAs();
 			return;
 		}
-		try 
-		{
-			PersistenceService.save(diagramTab.getDiagram(), file.get());
-			diagramTab.diagramSaved();
-		} 
-		catch(IOException exception) 
-		{
-			Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.save_file"), ButtonType.OK);
-			alert.initOwner(aMainStage);
-			alert.showAndWait();
-		}
+		diagramTab.save(file.get()).exceptionally(this::saveFailed);
+	}
+	
+	/*
+	 * Reports a save that completed exceptionally. Runs in the JavaFX application thread.
+	 */
+	private <T> T saveFailed(Throwable pException)
+	{
+		Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.save_file"), ButtonType.OK);
+		alert.initOwner(aMainStage);
+		alert.showAndWait();
+		return null;
 	}
 
 	private void saveAs() 
@@ -513,28 +673,20 @@ public class EditorFrame extends BorderPane
 			fileChooser.setInitialFileName("");
 		}
 
-		try 
+		File result = fileChooser.showSaveDialog(aMainStage);
+		if( result != null )
 		{
-			File result = fileChooser.showSaveDialog(aMainStage);
-			if( result != null )
+			diagramTab.save(result).thenAccept(report -> 
 			{
-				PersistenceService.save(diagram, result);
 				addRecentFile(result.getAbsolutePath());
 				diagramTab.setFile(result);
 				diagramTab.setText(diagramTab.getFile().get().getName());
-				diagramTab.diagramSaved();
 				File dir = result.getParentFile();
 				if( dir != null )
 				{
 					setLastDir(KEY_LAST_SAVEAS_DIR, dir);
 				}
-			}
-		} 
-		catch (IOException exception) 
-		{
-			Alert alert = new Alert(AlertType.ERROR, RESOURCES.getString("error.save_file"), ButtonType.OK);
-			alert.initOwner(aMainStage);
-			alert.showAndWait();
+			}).exceptionally(this::saveFailed);
 		}
 	}
 
@@ -642,6 +794,14 @@ public class EditorFrame extends BorderPane
 		return SwingFXUtils.fromFXImage(pDiagramTab.createImage(), null);
 	}
 	
+	private List<DiagramTab> diagramTabs()
+	{
+		return tabs().stream()
+			.filter( tab -> tab instanceof DiagramTab )
+			.map(DiagramTab.class::cast)
+			.toList();
+	}
+	
 	private int getNumberOfUsavedDiagrams()
 	{
 		return (int) tabs().stream()
@@ -671,12 +831,16 @@ public class EditorFrame extends BorderPane
 			if (alert.getResult() == ButtonType.YES) 
 			{
 				Preferences.userNodeForPackage(JetUML.class).put("recent", aRecentFiles.serialize());
+				SaveService.instance().shutdown();
+				AutosaveService.instance().shutdown();
 				System.exit(0);
 			}
 		}
 		else 
 		{
 			Preferences.userNodeForPackage(JetUML.class).put("recent", aRecentFiles.serialize());
+			SaveService.instance().shutdown();
+			AutosaveService.instance().shutdown();
 			System.exit(0);
 		}
 	}		
@@ -691,6 +855,11 @@ public class EditorFrame extends BorderPane
 		return (TabPane) getCenter();
 	}
 	
+	private boolean isDiagramTabSelected()
+	{
+		return tabPane().getSelectionModel().getSelectedItem() instanceof DiagramTab;
+	}
+	
 	private boolean isWelcomeTabShowing()
 	{
 		return aWelcomeTab != null && 
@@ -698,8 +867,8 @@ public class EditorFrame extends BorderPane
 				tabs().get(0) instanceof WelcomeTab;
 	}
 	
-	/* Insert a graph frame into the tabbedpane */ 
-	private void insertGraphFrameIntoTabbedPane(DiagramTab pGraphFrame) 
+	/* Insert a graph frame, or a tab loading one, into the tabbedpane */ 
+	private void insertGraphFrameIntoTabbedPane(Tab pGraphFrame) 
 	{
 		if( isWelcomeTabShowing() )
 		{
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.geom.Point;
+import org.jetuml.gui.InteractionTrace.Interaction;
+import org.jetuml.gui.InteractionTrace.Type;
+
+import javafx.event.EventHandler;
+import javafx.scene.input.MouseEvent;
+
+/**
+ * Records the interactions of the user with a diagram tab in an InteractionTrace. 
+ * The trace is written to a new file of the trace directory when the tab is closed 
+ * or the application exits. Interactions are only recorded once a trace directory
+ * is set, which JetUML does when it is launched with the argument --trace=DIRECTORY.
+ * 
+ * The recorder is installed as an event filter of the diagram canvas, so it sees 
+ * mouse events before the canvas handles them, and is notified by the tab of the
+ * key events and the editing commands it receives.
+ */
+public final class InteractionRecorder implements EventHandler<MouseEvent>
+{
+	private static final String PREFIX = "trace-";
+	private static final String EXTENSION = ".trace";
+	private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+	
+	private static Optional<Path> aDirectory = Optional.empty();
+	
+	private final InteractionTrace aTrace;
+	private final Path aFile;
+	private final DiagramTabToolBar aToolBar;
+	private final long aStart = System.nanoTime();
+	private final Thread aShutdownHook = new Thread(this::save);
+	
+	private InteractionRecorder(Diagram pDiagram, DiagramTabToolBar pToolBar, Path pDirectory)
+	{
+		aTrace = new InteractionTrace(pDiagram);
+		aToolBar = pToolBar;
+		aFile = pDirectory.resolve(PREFIX + LocalDateTime.now().format(TIMESTAMP) + 
+				pDiagram.getFileExtension() + EXTENSION);
+		Runtime.getRuntime().addShutdownHook(aShutdownHook);
+	}
+	
+	/**
+	 * Records the interactions with the diagram tabs created from now on
+	 * in files of pDirectory.
+	 * 
+	 * @param pDirectory The directory where traces are written.
+	 * @pre pDirectory != null
+	 */
+	public static void recordIn(Path pDirectory)
+	{
+		assert pDirectory != null;
+		aDirectory = Optional.of(pDirectory);
+	}
+	
+	/**
+	 * @param pDiagram The diagram of a new diagram tab.
+	 * @param pToolBar The tool bar of the tab.
+	 * @return A recorder for the tab, if a trace directory is set.
+	 * @pre pDiagram != null && pToolBar != null
+	 */
+	static Optional<InteractionRecorder> create(Diagram pDiagram, DiagramTabToolBar pToolBar)
+	{
+		assert pDiagram != null && pToolBar != null;
+		return aDirectory.map(directory -> new InteractionRecorder(pDiagram, pToolBar, directory));
+	}
+	
+	@Override
+	public void handle(MouseEvent pEvent)
+	{
+		Point point = new Point((int) pEvent.getX(), (int) pEvent.getY());
+		if( pEvent.getEventType() == MouseEvent.MOUSE_PRESSED )
+		{
+			aTrace.add(Interaction.pressed(time(), point, pEvent.isControlDown(), aToolBar.getSelectedToolIndex(), 
+					pEvent.getClickCount(), pEvent.isSecondaryButtonDown()));
+		}
+		else if( pEvent.getEventType() == MouseEvent.MOUSE_DRAGGED )
+		{
+			aTrace.add(Interaction.mouse(Type.DRAGGED, time(), point, pEvent.isControlDown()));
+		}
+		else if( pEvent.getEventType() == MouseEvent.MOUSE_RELEASED )
+		{
+			aTrace.add(Interaction.mouse(Type.RELEASED, time(), point, pEvent.isControlDown()));
+		}
+	}
+	
+	/**
+	 * Records a character typed in the tab.
+	 * 
+	 * @param pCharacter The character typed.
+	 * @pre pCharacter != null
+	 */
+	void keyTyped(String pCharacter)
+	{
+		aTrace.add(Interaction.key(time(), pCharacter));
+	}
+	
+	/**
+	 * Records an interaction other than a mouse event or a character typed.
+	 * 
+	 * @param pType The type of interaction.
+	 * @pre pType != null && !pType.isMouseEvent() && pType != Type.KEY
+	 */
+	void record(Type pType)
+	{
+		aTrace.add(Interaction.command(pType, time()));
+	}
+	
+	/**
+	 * Writes the trace. This method should be called when the tab is closed.
+	 */
+	void close()
+	{
+		Runtime.getRuntime().removeShutdownHook(aShutdownHook);
+		save();
+	}
+	
+	private int time()
+	{
+		return (int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - aStart);
+	}
+	
+	private void save()
+	{
+		if( aTrace.interactions().isEmpty() )
+		{
+			return;
+		}
+		try
+		{
+			aTrace.save(aFile);
+		}
+		catch(IOException exception)
+		{
+			// Best effort: a trace is a diagnostic aid, not user data
+		}
+	}
+}
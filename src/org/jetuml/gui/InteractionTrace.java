@@ -0,0 +1,389 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.jetuml.annotations.Immutable;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.DeserializationException.Category;
+import org.jetuml.persistence.JsonEncoder;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.json.JsonArray;
+import org.jetuml.persistence.json.JsonException;
+import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
+
+/**
+ * The interactions of a user with a diagram tab, in the order in which they
+ * happened, together with the diagram as it was before the first one. The 
+ * interactions are the mouse events dispatched to the diagram canvas, the 
+ * key events dispatched to the tab as a KeyEventHandler, and the editing 
+ * commands applied to the tab. A trace is stored in a file as a JSON object 
+ * with the JSON encoding of the diagram as property "diagram" and the 
+ * interactions as property "interactions".
+ */
+public final class InteractionTrace
+{
+	/**
+	 * The kinds of interactions.
+	 */
+	public enum Type
+	{
+		PRESSED, DRAGGED, RELEASED, SHIFT, KEY, COPY, CUT, PASTE, DELETE, SELECT_ALL, LAYOUT, UNDO, REDO;
+		
+		/**
+		 * @return True if this type of interaction is a mouse event.
+		 */
+		public boolean isMouseEvent()
+		{
+			return this == PRESSED || this == DRAGGED || this == RELEASED;
+		}
+		
+		/**
+		 * @return The name of the type in trace files.
+		 */
+		public String externalName()
+		{
+			return name().toLowerCase();
+		}
+	}
+	
+	private static final String PROPERTY_DIAGRAM = "diagram";
+	private static final String PROPERTY_INTERACTIONS = "interactions";
+	
+	private final JsonObject aDiagram;
+	private final List<Interaction> aInteractions = new ArrayList<>();
+	
+	/**
+	 * Creates a trace that starts with pDiagram in its current state,
+	 * without any interaction.
+	 * 
+	 * @param pDiagram The diagram before the first interaction.
+	 * @pre pDiagram != null
+	 */
+	public InteractionTrace(Diagram pDiagram)
+	{
+		this(JsonEncoder.encode(pDiagram));
+	}
+	
+	private InteractionTrace(JsonObject pDiagram)
+	{
+		aDiagram = pDiagram;
+	}
+	
+	/**
+	 * Adds pInteraction at the end of the trace.
+	 * 
+	 * @param pInteraction The interaction to add.
+	 * @pre pInteraction != null
+	 */
+	public void add(Interaction pInteraction)
+	{
+		assert pInteraction != null;
+		aInteractions.add(pInteraction);
+	}
+	
+	/**
+	 * @return The interactions of the trace, in order.
+	 */
+	public List<Interaction> interactions()
+	{
+		return Collections.unmodifiableList(aInteractions);
+	}
+	
+	/**
+	 * @return A new copy of the diagram before the first interaction.
+	 * @throws DeserializationException If the diagram in the trace is not valid.
+	 */
+	public Diagram diagram() throws DeserializationException
+	{
+		return PersistenceService.decode(aDiagram.toString());
+	}
+	
+	/**
+	 * Writes the trace to a file.
+	 * 
+	 * @param pFile The file to write.
+	 * @throws IOException If the file cannot be written.
+	 * @pre pFile != null
+	 */
+	public void save(Path pFile) throws IOException
+	{
+		assert pFile != null;
+		JsonObject object = new JsonObject();
+		object.put(PROPERTY_DIAGRAM, aDiagram);
+		JsonArray interactions = new JsonArray();
+		aInteractions.forEach(interaction -> interactions.add(interaction.toJson()));
+		object.put(PROPERTY_INTERACTIONS, interactions);
+		Files.writeString(pFile, object.toString() + System.lineSeparator(), StandardCharsets.UTF_8);
+	}
+	
+	/**
+	 * Reads a trace from a file.
+	 * 
+	 * @param pFile The file to read.
+	 * @return The trace stored in pFile.
+	 * @throws IOException If the file cannot be read.
+	 * @throws DeserializationException If the file does not store a trace.
+	 * @pre pFile != null
+	 */
+	public static InteractionTrace load(Path pFile) throws IOException
+	{
+		assert pFile != null;
+		JsonObject object;
+		try
+		{
+			object = JsonParser.parse(Files.readString(pFile, StandardCharsets.UTF_8).trim());
+		}
+		catch(JsonException exception)
+		{
+			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage(), exception);
+		}
+		try
+		{
+			InteractionTrace trace = new InteractionTrace(object.getJsonObject(PROPERTY_DIAGRAM));
+			JsonArray interactions = object.getJsonArray(PROPERTY_INTERACTIONS);
+			for( int i = 0; i < interactions.size(); i++ )
+			{
+				trace.add(Interaction.fromJson(interactions.getJsonObject(i)));
+			}
+			return trace;
+		}
+		catch(JsonException | IllegalArgumentException exception)
+		{
+			throw new DeserializationException(Category.STRUCTURAL, exception.getMessage(), exception);
+		}
+	}
+	
+	/**
+	 * An interaction with a diagram tab. The position, the state of the control key,
+	 * the tool selected in the tool bar, the number of clicks and whether the secondary 
+	 * button is down are only meaningful for the mouse events that report them, and the
+	 * character only for key interactions.
+	 */
+	@Immutable
+	public static final class Interaction
+	{
+		private final Type aType;
+		private final int aTime;
+		private final Point aPoint;
+		private final boolean aControl;
+		private final int aTool;
+		private final int aClicks;
+		private final boolean aSecondary;
+		private final String aCharacter;
+		
+		private Interaction(Type pType, int pTime, Point pPoint, boolean pControl, 
+				int pTool, int pClicks, boolean pSecondary, String pCharacter)
+		{
+			aType = pType;
+			aTime = pTime;
+			aPoint = pPoint;
+			aControl = pControl;
+			aTool = pTool;
+			aClicks = pClicks;
+			aSecondary = pSecondary;
+			aCharacter = pCharacter;
+		}
+		
+		/**
+		 * @param pTime The time of the interaction, in milliseconds since the start of the trace.
+		 * @param pPoint The position of the mouse on the canvas.
+		 * @param pControl True if the control key is down.
+		 * @param pTool The index of the tool selected in the tool bar.
+		 * @param pClicks The number of clicks.
+		 * @param pSecondary True if the secondary button is down.
+		 * @return An interaction of type PRESSED.
+		 * @pre pPoint != null
+		 */
+		public static Interaction pressed(int pTime, Point pPoint, boolean pControl, int pTool, 
+				int pClicks, boolean pSecondary)
+		{
+			assert pPoint != null;
+			return new Interaction(Type.PRESSED, pTime, pPoint, pControl, pTool, pClicks, pSecondary, "");
+		}
+		
+		/**
+		 * @param pType DRAGGED or RELEASED.
+		 * @param pTime The time of the interaction, in milliseconds since the start of the trace.
+		 * @param pPoint The position of the mouse on the canvas.
+		 * @param pControl True if the control key is down.
+		 * @return A mouse interaction of type pType.
+		 * @pre pType == Type.DRAGGED || pType == Type.RELEASED
+		 * @pre pPoint != null
+		 */
+		public static Interaction mouse(Type pType, int pTime, Point pPoint, boolean pControl)
+		{
+			assert pType == Type.DRAGGED || pType == Type.RELEASED;
+			assert pPoint != null;
+			return new Interaction(pType, pTime, pPoint, pControl, 0, 0, false, "");
+		}
+		
+		/**
+		 * @param pTime The time of the interaction, in milliseconds since the start of the trace.
+		 * @param pCharacter The character typed.
+		 * @return An interaction of type KEY.
+		 * @pre pCharacter != null
+		 */
+		public static Interaction key(int pTime, String pCharacter)
+		{
+			assert pCharacter != null;
+			return new Interaction(Type.KEY, pTime, new Point(0, 0), false, 0, 0, false, pCharacter);
+		}
+		
+		/**
+		 * @param pType The type of interaction.
+		 * @param pTime The time of the interaction, in milliseconds since the start of the trace.
+		 * @return An interaction of type pType.
+		 * @pre pType != null && !pType.isMouseEvent() && pType != Type.KEY
+		 */
+		public static Interaction command(Type pType, int pTime)
+		{
+			assert pType != null && !pType.isMouseEvent() && pType != Type.KEY;
+			return new Interaction(pType, pTime, new Point(0, 0), false, 0, 0, false, "");
+		}
+		
+		/**
+		 * @return The type of the interaction.
+		 */
+		public Type type()
+		{
+			return aType;
+		}
+		
+		/**
+		 * @return The time of the interaction, in milliseconds since the start of the trace.
+		 */
+		public int time()
+		{
+			return aTime;
+		}
+		
+		/**
+		 * @return The position of the mouse on the canvas.
+		 */
+		public Point point()
+		{
+			return aPoint;
+		}
+		
+		/**
+		 * @return True if the control key is down.
+		 */
+		public boolean isControlDown()
+		{
+			return aControl;
+		}
+		
+		/**
+		 * @return The index of the tool selected in the tool bar.
+		 */
+		public int tool()
+		{
+			return aTool;
+		}
+		
+		/**
+		 * @return The number of clicks.
+		 */
+		public int clicks()
+		{
+			return aClicks;
+		}
+		
+		/**
+		 * @return True if the secondary button is down.
+		 */
+		public boolean isSecondaryButtonDown()
+		{
+			return aSecondary;
+		}
+		
+		/**
+		 * @return The character typed.
+		 */
+		public String character()
+		{
+			return aCharacter;
+		}
+		
+		private JsonObject toJson()
+		{
+			JsonObject object = new JsonObject();
+			object.put("type", aType.externalName());
+			object.put("time", aTime);
+			if( aType.isMouseEvent() )
+			{
+				object.put("x", aPoint.getX());
+				object.put("y", aPoint.getY());
+				object.put("control", aControl);
+			}
+			if( aType == Type.PRESSED )
+			{
+				object.put("tool", aTool);
+				object.put("clicks", aClicks);
+				object.put("secondary", aSecondary);
+			}
+			if( aType == Type.KEY )
+			{
+				object.put("character", aCharacter);
+			}
+			return object;
+		}
+		
+		private static Interaction fromJson(JsonObject pObject)
+		{
+			Type type = Type.valueOf(pObject.getString("type").toUpperCase());
+			int time = pObject.getInt("time");
+			if( type == Type.PRESSED )
+			{
+				return pressed(time, point(pObject), pObject.getBoolean("control"), pObject.getInt("tool"), 
+						pObject.getInt("clicks"), pObject.getBoolean("secondary"));
+			}
+			else if( type.isMouseEvent() )
+			{
+				return mouse(type, time, point(pObject), pObject.getBoolean("control"));
+			}
+			else if( type == Type.KEY )
+			{
+				return key(time, pObject.getString("character"));
+			}
+			else
+			{
+				return command(type, time);
+			}
+		}
+		
+		private static Point point(JsonObject pObject)
+		{
+			return new Point(pObject.getInt("x"), pObject.getInt("y"));
+		}
+	}
+}
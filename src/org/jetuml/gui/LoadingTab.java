@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.jetuml.application.ApplicationResources.RESOURCES;
+
+import java.io.File;
+import java.text.MessageFormat;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.PersistenceService.Format;
+
+import javafx.concurrent.Task;
+import javafx.geometry.Pos;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ProgressIndicator;
+import javafx.scene.control.Tab;
+import javafx.scene.layout.VBox;
+
+/**
+ * A placeholder tab shown while a diagram is read from a file,
+ * validated, and decoded in a background thread, or created from
+ * another kind of file. Files opened together are loaded in parallel.
+ */
+public class LoadingTab extends Tab
+{
+	private static final int SPACING = 10;
+	private static final ExecutorService LOADERS = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), runnable ->
+	{
+		Thread thread = new Thread(runnable, "JetUML Load");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final File aFile;
+	private final Task<Diagram> aTask;
+	private volatile Format aFormat = Format.JSON;
+	private boolean aCancelled = false; // Only accessed by the JavaFX application thread
+
+	/**
+	 * Creates a tab that starts loading pFile immediately. The handlers
+	 * are called in the JavaFX application thread, unless the load is
+	 * cancelled before it completes.
+	 *
+	 * @param pFile The file to load.
+	 * @param pLoadedHandler Receives this tab and the diagram once it is loaded.
+	 * @param pFailedHandler Receives this tab and the exception that prevented the diagram from loading.
+	 * @pre pFile != null && pLoadedHandler != null && pFailedHandler != null
+	 */
+	public LoadingTab(File pFile, BiConsumer<LoadingTab, Diagram> pLoadedHandler, 
+			BiConsumer<LoadingTab, Throwable> pFailedHandler)
+	{
+		this(pFile, () -> PersistenceService.read(pFile), () -> PersistenceService.formatOf(pFile), 
+				pLoadedHandler, pFailedHandler);
+	}
+	
+	/**
+	 * Creates a tab that starts creating a diagram from pFile immediately, 
+	 * with pLoader. The handlers are called in the JavaFX application thread, 
+	 * unless the load is cancelled before it completes.
+	 *
+	 * @param pFile The file to create the diagram from.
+	 * @param pLoader Creates the diagram, in a background thread.
+	 * @param pLoadedHandler Receives this tab and the diagram once it is created.
+	 * @param pFailedHandler Receives this tab and the exception that prevented the diagram from being created.
+	 * @pre pFile != null && pLoader != null && pLoadedHandler != null && pFailedHandler != null
+	 */
+	public LoadingTab(File pFile, Callable<Diagram> pLoader, BiConsumer<LoadingTab, Diagram> pLoadedHandler, 
+			BiConsumer<LoadingTab, Throwable> pFailedHandler)
+	{
+		this(pFile, pLoader, () -> Format.JSON, pLoadedHandler, pFailedHandler);
+	}
+	
+	private LoadingTab(File pFile, Callable<Diagram> pLoader, Callable<Format> pFormatDetector, 
+			BiConsumer<LoadingTab, Diagram> pLoadedHandler, BiConsumer<LoadingTab, Throwable> pFailedHandler)
+	{
+		super(pFile.getName());
+		assert pLoader != null && pLoadedHandler != null && pFailedHandler != null;
+		aFile = pFile;
+		aTask = new Task<>()
+		{
+			@Override
+			protected Diagram call() throws Exception
+			{
+				Diagram diagram = pLoader.call();
+				aFormat = pFormatDetector.call();
+				return diagram;
+			}
+		};
+		// The task can complete while it is cancelled, in which case its handlers still run
+		aTask.setOnSucceeded(event -> 
+		{
+			if( !aCancelled )
+			{
+				pLoadedHandler.accept(this, aTask.getValue());
+			}
+		});
+		aTask.setOnFailed(event -> 
+		{
+			if( !aCancelled )
+			{
+				pFailedHandler.accept(this, aTask.getException());
+			}
+		});
+
+		ProgressIndicator progress = new ProgressIndicator();
+		progress.progressProperty().bind(aTask.progressProperty());
+		Button cancelButton = new Button(RESOURCES.getString("loading.cancel"));
+		cancelButton.setOnAction(event -> cancelFromEditor());
+		VBox layout = new VBox(SPACING, progress,
+				new Label(MessageFormat.format(RESOURCES.getString("loading.text"), pFile.getName())), cancelButton);
+		layout.setAlignment(Pos.CENTER);
+		setContent(layout);
+
+		setOnCloseRequest(event ->
+		{
+			event.consume();
+			cancelFromEditor();
+		});
+		LOADERS.execute(aTask);
+	}
+
+	private void cancelFromEditor()
+	{
+		EditorFrame editorFrame = (EditorFrame) getTabPane().getParent();
+		editorFrame.cancel(this);
+	}
+
+	/**
+	 * @return The file being loaded.
+	 */
+	public File getFile()
+	{
+		return aFile;
+	}
+
+	/**
+	 * @return The format of the file, once it is loaded. Diagrams created 
+	 *     from other kinds of files are in the JSON format.
+	 */
+	public Format getFormat()
+	{
+		return aFormat;
+	}
+
+	/**
+	 * Stops loading the file. Neither handler is called after
+	 * this method returns, even if the file was already loaded.
+	 * Must be called in the JavaFX application thread.
+	 */
+	public void cancel()
+	{
+		aCancelled = true;
+		aTask.cancel(true);
+	}
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.jetuml.application.ApplicationResources.RESOURCES;
+
+import java.text.MessageFormat;
+import java.util.List;
+
+import org.jetuml.diagnostics.MemoryEstimator.Category;
+import org.jetuml.diagnostics.MemoryReport;
+
+import javafx.geometry.HPos;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.image.Image;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.GridPane;
+import javafx.scene.layout.Pane;
+import javafx.stage.Modality;
+import javafx.stage.Stage;
+
+/**
+ * A modal dialog that shows an estimate of the memory used by each open 
+ * diagram, by category of use, and the memory used by the whole application.
+ */
+public class MemoryDialog
+{
+	private static final int SPACING = 10;
+	private static final int VSPACE = 20;
+	private static final double BYTES_PER_KILOBYTE = 1024;
+	private static final long BYTES_PER_MEGABYTE = 1024 * 1024;
+	
+	private final Stage aStage = new Stage();
+	private final List<DiagramTab> aTabs;
+	
+	/**
+	 * Creates a new dialog.
+	 * 
+	 * @param pOwner The stage that owns this stage.
+	 * @param pTabs The tabs of the open diagrams.
+	 * @pre pTabs != null
+	 */
+	public MemoryDialog( Stage pOwner, List<DiagramTab> pTabs )
+	{
+		assert pTabs != null;
+		aTabs = pTabs;
+		prepareStage(pOwner);
+		aStage.setScene(createScene());
+	}
+	
+	private void prepareStage(Stage pOwner) 
+	{
+		aStage.setResizable(false);
+		aStage.initModality(Modality.WINDOW_MODAL);
+		aStage.initOwner(pOwner);
+		aStage.setTitle(RESOURCES.getString("dialog.memory.title"));
+		aStage.getIcons().add(new Image(RESOURCES.getString("application.icon")));
+	}
+	
+	private Scene createScene() 
+	{
+		BorderPane layout = new BorderPane();
+		layout.setPadding(new Insets(SPACING));
+		layout.setCenter(createTable());
+		layout.setBottom(createFooter());
+		return new Scene(layout);
+	}
+	
+	/*
+	 * One row per diagram, with the memory of each category and the total, in kilobytes.
+	 */
+	private Pane createTable()
+	{
+		GridPane table = new GridPane();
+		table.setHgap(SPACING);
+		table.add(new Label(RESOURCES.getString("dialog.memory.diagram")), 0, 0);
+		Category[] categories = Category.values();
+		for( int column = 0; column < categories.length; column++ )
+		{
+			addNumber(table, new Label(RESOURCES.getString("dialog.memory." + categories[column].name().toLowerCase())), 
+					column + 1, 0);
+		}
+		addNumber(table, new Label(RESOURCES.getString("dialog.memory.total")), categories.length + 1, 0);
+		int row = 1;
+		for( DiagramTab tab : aTabs )
+		{
+			MemoryReport report = tab.estimateMemory();
+			table.add(new Label(tab.getText()), 0, row);
+			for( int column = 0; column < categories.length; column++ )
+			{
+				addNumber(table, kilobytes(report.get(categories[column])), column + 1, row);
+			}
+			addNumber(table, kilobytes(report.total()), categories.length + 1, row);
+			row++;
+		}
+		return table;
+	}
+	
+	private static void addNumber(GridPane pTable, Label pLabel, int pColumn, int pRow)
+	{
+		pTable.add(pLabel, pColumn, pRow);
+		GridPane.setHalignment(pLabel, HPos.RIGHT);
+	}
+	
+	private static Label kilobytes(long pBytes)
+	{
+		return new Label(String.format("%,.1f", pBytes / BYTES_PER_KILOBYTE));
+	}
+	
+	private Pane createFooter()
+	{
+		Runtime runtime = Runtime.getRuntime();
+		Label heap = new Label(MessageFormat.format(RESOURCES.getString("dialog.memory.heap"), 
+				(runtime.totalMemory() - runtime.freeMemory()) / BYTES_PER_MEGABYTE, 
+				runtime.maxMemory() / BYTES_PER_MEGABYTE));
+		Button close = new Button(RESOURCES.getString("dialog.memory.close"));
+		close.setDefaultButton(true);
+		close.setOnAction(pEvent -> aStage.close());
+		
+		BorderPane footer = new BorderPane();
+		footer.setPadding(new Insets(VSPACE, 0, 0, 0));
+		footer.setLeft(heap);
+		footer.setRight(close);
+		BorderPane.setAlignment(heap, Pos.CENTER_LEFT);
+		return footer;
+	}
+	
+	/**
+	 * Shows the dialog and blocks the remainder of the UI
+	 * until it is closed.
+	 */
+	public void show() 
+	{
+        aStage.showAndWait();
+    }
+}
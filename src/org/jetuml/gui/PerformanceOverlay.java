@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.jetuml.application.ApplicationResources.RESOURCES;
+
+import java.text.MessageFormat;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.BooleanPreference;
+import org.jetuml.application.UserPreferences.BooleanPreferenceChangeHandler;
+import org.jetuml.diagnostics.CacheStatistics;
+import org.jetuml.diagnostics.FrameStatistics;
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.rendering.FontMetrics;
+import org.jetuml.rendering.nodes.NodeStorage;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.scene.control.Label;
+import javafx.util.Duration;
+
+/**
+ * An overlay on a diagram that shows how long it takes to paint the diagram, 
+ * in total and for each phase of the painting, how often the caches used to 
+ * paint all the diagrams are hit, and how many elements it has. The overlay is shown when
+ * the showPerformanceOverlay preference is set, and refreshed twice a second
+ * while it is shown. Frame times are averaged over the most recent frames, and
+ * hit rates are for the lookups since the previous refresh.
+ */
+final class PerformanceOverlay extends Label implements BooleanPreferenceChangeHandler
+{
+	private static final Duration REFRESH_PERIOD = Duration.millis(500);
+	private static final String PREFIX = "performance_overlay.";
+	private static final String STYLE = "-fx-font-family: monospace; -fx-padding: 6;"
+			+ "-fx-background-color: rgba(255, 255, 255, 0.85); -fx-border-color: grey;";
+	
+	private final Diagram aDiagram;
+	private final FrameStatistics aFrames;
+	private final Timeline aRefresh = new Timeline(new KeyFrame(REFRESH_PERIOD, pEvent -> refresh()));
+	private final HitRate aNodeBounds = new HitRate(NodeStorage.statistics());
+	private final HitRate aTextMetrics = new HitRate(FontMetrics.statistics());
+	
+	/**
+	 * Creates an overlay for pDiagram, shown according to the user preferences.
+	 * 
+	 * @param pDiagram The diagram whose painting is reported.
+	 * @param pFrames The frame statistics of the canvas that paints pDiagram.
+	 * @pre pDiagram != null && pFrames != null
+	 */
+	PerformanceOverlay(Diagram pDiagram, FrameStatistics pFrames)
+	{
+		assert pDiagram != null && pFrames != null;
+		aDiagram = pDiagram;
+		aFrames = pFrames;
+		aRefresh.setCycleCount(Animation.INDEFINITE);
+		setStyle(STYLE);
+		setMaxSize(USE_PREF_SIZE, USE_PREF_SIZE);
+		setMouseTransparent(true);
+		show(UserPreferences.instance().getBoolean(BooleanPreference.showPerformanceOverlay));
+	}
+	
+	/**
+	 * Stops refreshing the overlay. This method should be called when the
+	 * diagram is closed.
+	 */
+	void close()
+	{
+		aRefresh.stop();
+	}
+	
+	@Override
+	public void booleanPreferenceChanged(BooleanPreference pPreference)
+	{
+		if( pPreference == BooleanPreference.showPerformanceOverlay )
+		{
+			show(UserPreferences.instance().getBoolean(pPreference));
+		}
+	}
+	
+	private void show(boolean pShow)
+	{
+		setVisible(pShow);
+		if( pShow )
+		{
+			refresh();
+			aRefresh.play();
+		}
+		else
+		{
+			aRefresh.stop();
+		}
+	}
+	
+	private void refresh()
+	{
+		StringBuilder text = new StringBuilder();
+		text.append(duration(MessageFormat.format(RESOURCES.getString(PREFIX + "frame"), aFrames.frames()), 
+				aFrames.averageFrameMillis()));
+		for( Phase phase : Phase.values() )
+		{
+			text.append(duration("  " + RESOURCES.getString(PREFIX + phase.name().toLowerCase()), 
+					aFrames.averageMillis(phase)));
+		}
+		// The caches are shared by all the diagrams, unlike the frame statistics
+		text.append(RESOURCES.getString(PREFIX + "caches")).append(System.lineSeparator());
+		text.append(aNodeBounds.format("  " + RESOURCES.getString(PREFIX + "node_bounds")));
+		text.append(aTextMetrics.format("  " + RESOURCES.getString(PREFIX + "text_metrics")));
+		text.append(MessageFormat.format(RESOURCES.getString(PREFIX + "elements"), 
+				aDiagram.allNodes().size(), aDiagram.edges().size()));
+		setText(text.toString());
+	}
+	
+	private static String duration(String pLabel, double pMillis)
+	{
+		return String.format("%-22s%7.1f ms%n", pLabel, pMillis);
+	}
+	
+	/*
+	 * The rate of hits of a cache since the previous time it was formatted,
+	 * or the previous rate if the cache was not used in the meantime.
+	 */
+	private static final class HitRate
+	{
+		private static final int PERCENT = 100;
+		
+		private final CacheStatistics aStatistics;
+		private long aHits;
+		private long aMisses;
+		private String aRate = "-";
+		
+		HitRate(CacheStatistics pStatistics)
+		{
+			aStatistics = pStatistics;
+			aHits = pStatistics.hits();
+			aMisses = pStatistics.misses();
+		}
+		
+		String format(String pLabel)
+		{
+			long hits = aStatistics.hits() - aHits;
+			long lookups = hits + aStatistics.misses() - aMisses;
+			aHits = aStatistics.hits();
+			aMisses = aStatistics.misses();
+			if( lookups > 0 )
+			{
+				aRate = String.format("%d %%", hits * PERCENT / lookups);
+			}
+			return String.format("%-22s%10s%n", pLabel, aRate);
+		}
+	}
+}
@@ -0,0 +1,325 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+
+/**
+ * The elements selected in a diagram, in the order in which they were selected.
+ * A node is never selected together with one of its ancestors: selecting a node
+ * deselects its descendants, and selecting a node one of whose ancestors is
+ * selected has no effect.
+ *
+ * Each method that changes the selection notifies the observer once,
+ * including methods that change the selection of many elements. Selecting,
+ * deselecting, and testing an element take constant time, except for a cost
+ * proportional to the depth of the element in the containment hierarchy.
+ */
+public class SelectionModel implements Iterable<DiagramElement>
+{
+	// Diagram elements are compared by identity
+	private final Set<DiagramElement> aSelected = new LinkedHashSet<>();
+
+	// For each node with selected descendants, the number of such descendants
+	private final Map<Node, Integer> aSelectedDescendants = new IdentityHashMap<>();
+
+	private final SelectionObserver aObserver;
+
+	/**
+	 * Creates an empty selection model.
+	 *
+	 * @param pObserver The observer to notify of changes to the selection.
+	 * @pre pObserver != null
+	 */
+	public SelectionModel(SelectionObserver pObserver)
+	{
+		assert pObserver != null;
+		aObserver = pObserver;
+	}
+
+	/**
+	 * Adds pElement to the selection, or moves it to the end of the selection
+	 * if it is already selected. Notifies the observer.
+	 *
+	 * @param pElement The element to select.
+	 * @pre pElement != null
+	 */
+	public void add(DiagramElement pElement)
+	{
+		assert pElement != null;
+		internalAdd(pElement);
+		aObserver.selectionModelChanged();
+	}
+
+	/**
+	 * Adds all the elements in pElements to the selection, in order.
+	 * Notifies the observer once.
+	 *
+	 * @param pElements The elements to select.
+	 * @pre pElements != null
+	 */
+	public void addAll(Iterable<? extends DiagramElement> pElements)
+	{
+		assert pElements != null;
+		pElements.forEach(this::internalAdd);
+		aObserver.selectionModelChanged();
+	}
+
+	/**
+	 * Replaces the selection with pElements. Notifies the observer once.
+	 *
+	 * @param pElements The elements to select.
+	 * @pre pElements != null
+	 */
+	public void set(Iterable<? extends DiagramElement> pElements)
+	{
+		assert pElements != null;
+		internalClear();
+		addAll(pElements);
+	}
+
+	/**
+	 * Replaces the selection with pElement. Notifies the observer.
+	 *
+	 * @param pElement The element to select.
+	 * @pre pElement != null
+	 */
+	public void set(DiagramElement pElement)
+	{
+		assert pElement != null;
+		internalClear();
+		add(pElement);
+	}
+
+	/**
+	 * Removes pElement from the selection, if it is selected. Notifies the observer.
+	 *
+	 * @param pElement The element to deselect.
+	 * @pre pElement != null
+	 */
+	public void remove(DiagramElement pElement)
+	{
+		assert pElement != null;
+		internalRemove(pElement);
+		aObserver.selectionModelChanged();
+	}
+
+	/**
+	 * Deselects all elements. Notifies the observer.
+	 */
+	public void clear()
+	{
+		internalClear();
+		aObserver.selectionModelChanged();
+	}
+
+	/**
+	 * Removes from the selection all elements that are no longer in pDiagram, and
+	 * accounts for nodes that were moved in the containment hierarchy of pDiagram since
+	 * they were selected. Does not notify the observer, so it can be used to keep the
+	 * selection consistent whenever the diagram changes, before it is drawn.
+	 *
+	 * @param pDiagram The diagram that contains the selected elements.
+	 * @pre pDiagram != null
+	 */
+	public void synchronizeWith(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		if( aSelected.isEmpty() )
+		{
+			return;
+		}
+		Set<DiagramElement> present = new LinkedHashSet<>(pDiagram.edges());
+		pDiagram.rootNodes().forEach(node -> addWithDescendants(node, present));
+		List<DiagramElement> selected = new ArrayList<>(aSelected);
+		internalClear();
+		for( DiagramElement element : selected )
+		{
+			if( present.contains(element) )
+			{
+				internalAdd(element);
+			}
+		}
+	}
+
+	private static void addWithDescendants(Node pNode, Set<DiagramElement> pElements)
+	{
+		pElements.add(pNode);
+		pNode.getChildren().forEach(child -> addWithDescendants(child, pElements));
+	}
+
+	/**
+	 * @param pElement The element to test.
+	 * @return True if pElement is selected.
+	 * @pre pElement != null
+	 */
+	public boolean contains(DiagramElement pElement)
+	{
+		assert pElement != null;
+		return aSelected.contains(pElement);
+	}
+
+	/**
+	 * @return True if no element is selected.
+	 */
+	public boolean isEmpty()
+	{
+		return aSelected.isEmpty();
+	}
+
+	/**
+	 * @return The last element that was selected, if present.
+	 */
+	public Optional<DiagramElement> getLastSelected()
+	{
+		DiagramElement last = null;
+		for( DiagramElement element : aSelected )
+		{
+			last = element;
+		}
+		return Optional.ofNullable(last);
+	}
+
+	/**
+	 * @return The selected nodes, in the order in which they were selected.
+	 */
+	public List<Node> getSelectedNodes()
+	{
+		List<Node> result = new ArrayList<>();
+		for( DiagramElement element : aSelected )
+		{
+			if( element instanceof Node )
+			{
+				result.add((Node) element);
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Iterator<DiagramElement> iterator()
+	{
+		return Collections.unmodifiableSet(aSelected).iterator();
+	}
+
+	private void internalAdd(DiagramElement pElement)
+	{
+		if( aSelected.remove(pElement) )
+		{
+			aSelected.add(pElement); // Already selected, so no ancestor or descendant is selected
+			return;
+		}
+		if( pElement instanceof Edge )
+		{
+			aSelected.add(pElement);
+			return;
+		}
+		Node node = (Node) pElement;
+		if( hasSelectedAncestor(node) )
+		{
+			return;
+		}
+		if( aSelectedDescendants.containsKey(node) )
+		{
+			removeSelectedDescendants(node);
+		}
+		aSelected.add(node);
+		countInAncestors(node, 1);
+	}
+
+	private void internalRemove(DiagramElement pElement)
+	{
+		if( aSelected.remove(pElement) && pElement instanceof Node )
+		{
+			countInAncestors((Node) pElement, -1);
+		}
+	}
+
+	private void internalClear()
+	{
+		aSelected.clear();
+		aSelectedDescendants.clear();
+	}
+
+	private boolean hasSelectedAncestor(Node pNode)
+	{
+		Node node = pNode;
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			if( aSelected.contains(node) )
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/*
+	 * Only visits the branches of the containment hierarchy that contain
+	 * selected nodes.
+	 */
+	private void removeSelectedDescendants(Node pNode)
+	{
+		for( Node child : pNode.getChildren() )
+		{
+			if( aSelected.contains(child) )
+			{
+				internalRemove(child);
+			}
+			else if( aSelectedDescendants.containsKey(child) )
+			{
+				removeSelectedDescendants(child);
+			}
+		}
+	}
+
+	private void countInAncestors(Node pNode, int pDelta)
+	{
+		Node node = pNode;
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			int count = aSelectedDescendants.getOrDefault(node, 0) + pDelta;
+			if( count == 0 )
+			{
+				aSelectedDescendants.remove(node);
+			}
+			else
+			{
+				aSelectedDescendants.put(node, count);
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import org.jetuml.diagnostics.LatencyReport;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.gui.InteractionTrace.Interaction;
+
+/**
+ * Replays interaction traces in diagram tabs that are not shown, and reports 
+ * the latency of each interaction, that is, the time the tab takes to handle it. 
+ * Interactions are replayed one after the other, without the pauses of the 
+ * recording. Replaying a trace in which a node is created while the autoEditNode 
+ * preference is set opens the dialog to edit the node.
+ */
+public final class TraceReplayer
+{
+	private TraceReplayer() {}
+	
+	/**
+	 * Replays pTrace in a new diagram tab, starting from the diagram of the trace, 
+	 * and records the latency of each interaction in pReport.
+	 * 
+	 * @param pTrace The trace to replay.
+	 * @param pReport The report in which to record the latencies.
+	 * @return The diagram after the last interaction.
+	 * @pre pTrace != null && pReport != null
+	 */
+	public static Diagram replay(InteractionTrace pTrace, LatencyReport pReport)
+	{
+		assert pTrace != null && pReport != null;
+		DiagramTab tab = new DiagramTab(pTrace.diagram());
+		try
+		{
+			for( Interaction interaction : pTrace.interactions() )
+			{
+				long start = System.nanoTime();
+				tab.replay(interaction);
+				pReport.record(interaction.type().externalName(), System.nanoTime() - start);
+			}
+			return tab.getDiagram();
+		}
+		finally
+		{
+			tab.close();
+		}
+	}
+}
@@ -0,0 +1,223 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import static org.jetuml.persistence.BinaryEncoder.FORMAT_VERSION;
+import static org.jetuml.persistence.BinaryEncoder.MAGIC;
+import static org.jetuml.persistence.BinaryEncoder.TAG_ARRAY;
+import static org.jetuml.persistence.BinaryEncoder.TAG_FALSE;
+import static org.jetuml.persistence.BinaryEncoder.TAG_INTEGER;
+import static org.jetuml.persistence.BinaryEncoder.TAG_OBJECT;
+import static org.jetuml.persistence.BinaryEncoder.TAG_STRING;
+import static org.jetuml.persistence.BinaryEncoder.TAG_TRUE;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.jetuml.persistence.DeserializationException.Category;
+import org.jetuml.persistence.json.JsonArray;
+import org.jetuml.persistence.json.JsonObject;
+
+/**
+ * Converts the binary notation produced by the BinaryEncoder back to
+ * the JSON object that the JsonDecoder turns into a diagram. The input
+ * is read directly from a buffer that holds the whole file, without
+ * copying it into a stream.
+ */
+public final class BinaryDecoder
+{
+	private static final int MAX_VARINT_LENGTH = 5;
+
+	private final ByteBuffer aInput;
+	private String[] aStrings;
+
+	private BinaryDecoder(ByteBuffer pInput)
+	{
+		aInput = pInput;
+	}
+
+	/**
+	 * Checks whether the remaining bytes of pInput start with the header
+	 * of the binary notation. Does not change the position of pInput.
+	 *
+	 * @param pInput The bytes to check.
+	 * @return True if pInput starts with the binary notation header.
+	 * @pre pInput != null
+	 */
+	public static boolean isBinary(ByteBuffer pInput)
+	{
+		assert pInput != null;
+		if( pInput.remaining() < MAGIC.length )
+		{
+			return false;
+		}
+		for( int i = 0; i < MAGIC.length; i++ )
+		{
+			if( pInput.get(pInput.position() + i) != MAGIC[i] )
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @param pInput The binary encoding of a diagram, positioned at its header.
+	 * @return The JSON encoding of the same diagram.
+	 * @throws DeserializationException If pInput is not a valid binary encoding.
+	 * @pre pInput != null
+	 */
+	public static JsonObject decode(ByteBuffer pInput)
+	{
+		assert pInput != null;
+		if( !isBinary(pInput) )
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Missing binary diagram header");
+		}
+		try
+		{
+			return new BinaryDecoder(pInput).decode();
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException exception)
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Malformed binary diagram", exception);
+		}
+	}
+
+	private JsonObject decode()
+	{
+		aInput.position(aInput.position() + MAGIC.length);
+		int version = aInput.get();
+		if( version != FORMAT_VERSION )
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Unsupported binary diagram version " + version);
+		}
+		readStrings();
+		JsonObject result = new JsonObject();
+		result.put("version", readString());
+		result.put("diagram", readString());
+		result.put("nodes", readSection());
+		result.put("edges", readSection());
+		if( aInput.hasRemaining() )
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Unexpected data after binary diagram");
+		}
+		return result;
+	}
+
+	private void readStrings()
+	{
+		int count = readVarint();
+		if( count < 0 || count > aInput.remaining() ) // Every string takes at least one byte
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Invalid string table in binary diagram");
+		}
+		aStrings = new String[count];
+		for( int i = 0; i < aStrings.length; i++ )
+		{
+			int length = readVarint();
+			aStrings[i] = StandardCharsets.UTF_8.decode(aInput.slice(aInput.position(), length)).toString();
+			aInput.position(aInput.position() + length);
+		}
+	}
+
+	private String readString()
+	{
+		return aStrings[readVarint()];
+	}
+
+	private JsonArray readSection()
+	{
+		int length = readVarint();
+		int end = aInput.position() + length;
+		int count = readVarint();
+		JsonArray result = new JsonArray();
+		for( int i = 0; i < count; i++ )
+		{
+			result.add(readObject());
+		}
+		if( aInput.position() != end )
+		{
+			throw new DeserializationException(Category.SYNTACTIC, "Inconsistent section length in binary diagram");
+		}
+		return result;
+	}
+
+	private JsonObject readObject()
+	{
+		int count = readVarint();
+		JsonObject result = new JsonObject();
+		for( int i = 0; i < count; i++ )
+		{
+			String property = readString();
+			result.put(property, readValue());
+		}
+		return result;
+	}
+
+	private Object readValue()
+	{
+		int tag = aInput.get();
+		switch(tag)
+		{
+		case TAG_STRING:
+			return readString();
+		case TAG_INTEGER:
+			int value = readVarint();
+			return (value >>> 1) ^ -(value & 1);
+		case TAG_FALSE:
+			return false;
+		case TAG_TRUE:
+			return true;
+		case TAG_ARRAY:
+			int count = readVarint();
+			JsonArray array = new JsonArray();
+			for( int i = 0; i < count; i++ )
+			{
+				array.add(readValue());
+			}
+			return array;
+		case TAG_OBJECT:
+			return readObject();
+		default:
+			throw new DeserializationException(Category.SYNTACTIC, "Unknown value tag in binary diagram: " + tag);
+		}
+	}
+
+	/*
+	 * Reads an unsigned varint.
+	 */
+	private int readVarint()
+	{
+		int result = 0;
+		for( int i = 0; i < MAX_VARINT_LENGTH; i++ )
+		{
+			byte next = aInput.get();
+			result |= (next & 0x7F) << (7 * i);
+			if( next >= 0 )
+			{
+				return result;
+			}
+		}
+		throw new DeserializationException(Category.SYNTACTIC, "Malformed integer in binary diagram");
+	}
+}
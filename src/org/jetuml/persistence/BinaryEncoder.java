@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.json.JsonArray;
+import org.jetuml.persistence.json.JsonObject;
+
+/**
+ * Converts a diagram to a compact binary notation. The binary notation
+ * stores exactly the same information as the JSON notation produced by
+ * the JsonEncoder, but all strings, including property names and type
+ * names, are stored once in a string table and referred to by index,
+ * and all integers are stored as variable-length quantities.
+ *
+ * The notation is:
+ * <pre>
+ * file    := MAGIC FORMAT_VERSION strings version diagram nodes edges
+ * strings := count (length UTF-8-bytes)*
+ * version := string-index
+ * diagram := string-index
+ * nodes   := section
+ * edges   := section
+ * section := length-in-bytes count object*
+ * object  := count (string-index value)*
+ * value   := TAG_STRING string-index | TAG_INTEGER zigzag-integer | TAG_FALSE | TAG_TRUE
+ *          | TAG_ARRAY count value* | TAG_OBJECT object
+ * </pre>
+ * All counts, lengths, and indexes are unsigned varints: 7 bits per byte, least significant
+ * group first, with the high bit set on all but the last byte. Integer values
+ * are zigzag-encoded before being written as varints, so that small negative
+ * coordinates also take a single byte.
+ */
+public final class BinaryEncoder
+{
+	static final byte[] MAGIC = { (byte) 0x89, 'J', 'E', 'T' }; // Cannot start a JSON or UTF-8 text file
+	static final int FORMAT_VERSION = 1;
+
+	static final int TAG_STRING = 0;
+	static final int TAG_INTEGER = 1;
+	static final int TAG_FALSE = 2;
+	static final int TAG_TRUE = 3;
+	static final int TAG_ARRAY = 4;
+	static final int TAG_OBJECT = 5;
+
+	private final Map<String, Integer> aStrings = new HashMap<>();
+	private final ByteArrayOutputStream aStringTable = new ByteArrayOutputStream();
+
+	private BinaryEncoder() {}
+
+	/**
+	 * @param pDiagram The diagram to serialize.
+	 * @return The binary encoding of the diagram.
+	 * @pre pDiagram != null
+	 */
+	public static byte[] encode(Diagram pDiagram)
+	{
+		assert pDiagram != null;
+		return encode(JsonEncoder.encode(pDiagram));
+	}
+
+	/*
+	 * @param pDiagram The JSON encoding of a diagram, as produced by the JsonEncoder.
+	 * @return The binary encoding of the same diagram.
+	 */
+	static byte[] encode(JsonObject pDiagram)
+	{
+		BinaryEncoder encoder = new BinaryEncoder();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		encoder.writeString(body, pDiagram.getString("version"));
+		encoder.writeString(body, pDiagram.getString("diagram"));
+		encoder.writeSection(body, pDiagram.getJsonArray("nodes"));
+		encoder.writeSection(body, pDiagram.getJsonArray("edges"));
+
+		ByteArrayOutputStream result = new ByteArrayOutputStream(MAGIC.length + 1 +
+				encoder.aStringTable.size() + body.size() + 5);
+		result.writeBytes(MAGIC);
+		result.write(FORMAT_VERSION);
+		writeVarint(result, encoder.aStrings.size());
+		result.writeBytes(encoder.aStringTable.toByteArray());
+		result.writeBytes(body.toByteArray());
+		return result.toByteArray();
+	}
+
+	/*
+	 * Writes the index of pString, adding it to the string table if necessary.
+	 */
+	private void writeString(ByteArrayOutputStream pOutput, String pString)
+	{
+		Integer index = aStrings.get(pString);
+		if( index == null )
+		{
+			index = aStrings.size();
+			aStrings.put(pString, index);
+			byte[] bytes = pString.getBytes(StandardCharsets.UTF_8);
+			writeVarint(aStringTable, bytes.length);
+			aStringTable.writeBytes(bytes);
+		}
+		writeVarint(pOutput, index);
+	}
+
+	private void writeSection(ByteArrayOutputStream pOutput, JsonArray pObjects)
+	{
+		ByteArrayOutputStream section = new ByteArrayOutputStream();
+		writeVarint(section, pObjects.size());
+		for( int i = 0; i < pObjects.size(); i++ )
+		{
+			writeObject(section, pObjects.getJsonObject(i));
+		}
+		writeVarint(pOutput, section.size());
+		pOutput.writeBytes(section.toByteArray());
+	}
+
+	private void writeObject(ByteArrayOutputStream pOutput, JsonObject pObject)
+	{
+		writeVarint(pOutput, pObject.numberOfProperties());
+		for( String property : pObject.properties() )
+		{
+			writeString(pOutput, property);
+			writeValue(pOutput, pObject.get(property));
+		}
+	}
+
+	private void writeValue(ByteArrayOutputStream pOutput, Object pValue)
+	{
+		if( pValue instanceof String )
+		{
+			pOutput.write(TAG_STRING);
+			writeString(pOutput, (String) pValue);
+		}
+		else if( pValue instanceof Integer )
+		{
+			pOutput.write(TAG_INTEGER);
+			int value = (Integer) pValue;
+			writeVarint(pOutput, (value << 1) ^ (value >> 31));
+		}
+		else if( pValue instanceof Boolean )
+		{
+			pOutput.write((Boolean) pValue ? TAG_TRUE : TAG_FALSE);
+		}
+		else if( pValue instanceof JsonArray )
+		{
+			JsonArray array = (JsonArray) pValue;
+			pOutput.write(TAG_ARRAY);
+			writeVarint(pOutput, array.size());
+			for( Object element : array )
+			{
+				writeValue(pOutput, element);
+			}
+		}
+		else
+		{
+			assert pValue instanceof JsonObject;
+			pOutput.write(TAG_OBJECT);
+			writeObject(pOutput, (JsonObject) pValue);
+		}
+	}
+
+	/*
+	 * Writes pValue as an unsigned varint.
+	 */
+	private static void writeVarint(ByteArrayOutputStream pOutput, int pValue)
+	{
+		int value = pValue;
+		while( (value & ~0x7F) != 0 )
+		{
+			pOutput.write((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		pOutput.write(value);
+	}
+}
@@ -20,17 +20,29 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
 import org.jetuml.application.Version;
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.Property;
+import org.jetuml.diagram.PropertyName;
+import org.jetuml.diagram.edges.ConstructorEdge;
+import org.jetuml.diagram.nodes.CallNode;
+import org.jetuml.diagram.nodes.PointNode;
 import org.jetuml.geom.Point;
 import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonException;
 import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.StringTable;
 
 /**
  * Converts a JSONObject to a diagram. Instances of this class are intended to be
@@ -45,9 +57,6 @@ import org.jetuml.persistence.json.JsonObject;
  */
 public final class JsonDecoder
 {
-	private static final String PREFIX_NODES = "org.jetuml.diagram.nodes.";
-	private static final String PREFIX_EDGES = "org.jetuml.diagram.edges.";
-	
 	private static final String PROPERTY_DIAGRAM = "diagram";
 	private static final String PROPERTY_NODES = "nodes";
 	private static final String PROPERTY_EDGES = "edges";
@@ -59,6 +68,45 @@ public final class JsonDecoder
 	private static final String PROPERTY_CHILDREN = "children";
 	private static final String PROPERTY_START = "start";
 	private static final String PROPERTY_END = "end";
+	
+	/*
+	 * Factories for the nodes and edges, by name of their type. Elements are created 
+	 * by cloning the prototypes of the diagram types, so that decoding an element
+	 * does not involve any reflection. Elements without a prototype are those
+	 * that are only created by diagram builders.
+	 */
+	private static final Map<String, Supplier<Node>> NODE_FACTORIES = new HashMap<>();
+	private static final Map<String, Supplier<Edge>> EDGE_FACTORIES = new HashMap<>();
+	
+	static
+	{
+		for( DiagramType type : DiagramType.values() )
+		{
+			for( DiagramElement prototype : type.getPrototypes() )
+			{
+				// When there are many prototypes of the same type, such as for realizations
+				// and generalizations, any of them can be used since all properties are decoded.
+				if( prototype instanceof Node )
+				{
+					NODE_FACTORIES.putIfAbsent(prototype.getClass().getSimpleName(), ((Node) prototype)::clone);
+				}
+				else
+				{
+					EDGE_FACTORIES.putIfAbsent(prototype.getClass().getSimpleName(), ((Edge) prototype)::clone);
+				}
+			}
+		}
+		NODE_FACTORIES.put(CallNode.class.getSimpleName(), CallNode::new);
+		NODE_FACTORIES.put(PointNode.class.getSimpleName(), PointNode::new);
+		EDGE_FACTORIES.put(ConstructorEdge.class.getSimpleName(), ConstructorEdge::new);
+	}
+	
+	/*
+	 * The strings that occur in most diagram files: the keys of the
+	 * encoding, the names of the properties, and the names of the types
+	 * of diagrams and diagram elements.
+	 */
+	private static final List<String> KNOWN_STRINGS = createKnownStrings();
 
 	/* 
 	 * The object that will be decoded.
@@ -76,6 +124,33 @@ public final class JsonDecoder
 		aInputObject = pInputObject;
 	}
 
+	/**
+	 * @return A new table of canonical strings that already contains the
+	 *     strings that occur in most diagram files, to parse a diagram file with.
+	 */
+	public static StringTable newStringTable()
+	{
+		return new StringTable(KNOWN_STRINGS);
+	}
+	
+	private static List<String> createKnownStrings()
+	{
+		List<String> strings = new ArrayList<>(List.of(PROPERTY_DIAGRAM, PROPERTY_NODES, PROPERTY_EDGES, 
+				PROPERTY_VERSION, PROPERTY_TYPE, PROPERTY_X, PROPERTY_Y, PROPERTY_ID, PROPERTY_CHILDREN, 
+				PROPERTY_START, PROPERTY_END));
+		for( PropertyName name : PropertyName.values() )
+		{
+			strings.add(name.external());
+		}
+		for( DiagramType type : DiagramType.values() )
+		{
+			strings.add(type.getName());
+		}
+		strings.addAll(NODE_FACTORIES.keySet());
+		strings.addAll(EDGE_FACTORIES.keySet());
+		return strings;
+	}
+
 	/**
 	 * @param pDiagram A JSON object that encodes the diagram.
 	 * @return The decoded diagram.
@@ -162,6 +237,21 @@ public final class JsonDecoder
 		}
 	}
 	
+	/*
+	 * Creates a new element with the factory for pType, and raises a structural
+	 * DeserializationException if there is none.
+	 */
+	private static <T> T create(Map<String, Supplier<T>> pFactories, String pType)
+	{
+		Supplier<T> factory = pFactories.get(pType);
+		if( factory == null )
+		{
+			throw new DeserializationException(Category.STRUCTURAL, 
+					String.format("Cannot instantiate serialized object of type '%s'", pType));
+		}
+		return factory.get();
+	}
+	
 	/*
 	 * Extracts information about nodes from pObject and creates new objects to
 	 * represent them. throws Deserialization Exception
@@ -174,8 +264,7 @@ public final class JsonDecoder
 			try
 			{
 				JsonObject object = nodes.getJsonObject(i);
-				Class<?> nodeClass = Class.forName(PREFIX_NODES + object.getString(PROPERTY_TYPE));
-				Node node = (Node) nodeClass.getDeclaredConstructor().newInstance();
+				Node node = create(NODE_FACTORIES, object.getString(PROPERTY_TYPE));
 				node.moveTo(new Point(object.getInt(PROPERTY_X), object.getInt(PROPERTY_Y)));
 				for( Property property : node.properties() )
 				{
@@ -183,7 +272,7 @@ public final class JsonDecoder
 				}
 				aContext.addNode(node, object.getInt(PROPERTY_ID));
 			}
-			catch(ReflectiveOperationException | JsonException exception)
+			catch(JsonException exception)
 			{
 				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
 			}
@@ -245,29 +334,20 @@ public final class JsonDecoder
 		JsonArray edges = extractArray(PROPERTY_EDGES);
 		for( int i = 0; i < edges.size(); i++ )
 		{
-			try
+			JsonObject object = edges.getJsonObject(i);
+			Edge edge = create(EDGE_FACTORIES, object.getString(PROPERTY_TYPE));
+			for( Property property : edge.properties() )
 			{
-				JsonObject object = edges.getJsonObject(i);
-				Class<?> edgeClass = Class.forName(PREFIX_EDGES + object.getString(PROPERTY_TYPE));
-				Edge edge = (Edge) edgeClass.getDeclaredConstructor().newInstance();
-
-				for( Property property : edge.properties() )
-				{
-					property.set(object.get(property.name().external()));
-				}
-				int startNodeId = object.getInt(PROPERTY_START);
-				int endNodeId = object.getInt(PROPERTY_END);
-				if( !aContext.idExists(startNodeId) || !aContext.idExists(endNodeId))
-				{
-					throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
-				}
-				edge.connect(aContext.getNode(startNodeId), aContext.getNode(endNodeId));
-				aContext.diagram().addEdge(edge);
+				property.set(object.get(property.name().external()));
 			}
-			catch (ReflectiveOperationException exception)
+			int startNodeId = object.getInt(PROPERTY_START);
+			int endNodeId = object.getInt(PROPERTY_END);
+			if( !aContext.idExists(startNodeId) || !aContext.idExists(endNodeId))
 			{
-				throw new DeserializationException(Category.STRUCTURAL, "Cannot instantiate serialized object", exception);
+				throw new DeserializationException(Category.STRUCTURAL, "At least one edge vertex cannot be found");
 			}
+			edge.connect(aContext.getNode(startNodeId), aContext.getNode(endNodeId));
+			aContext.diagram().addEdge(edge);
 		}
 	}
 }
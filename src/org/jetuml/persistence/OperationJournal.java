@@ -0,0 +1,448 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.jetuml.persistence.json.JsonException;
+import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
+
+/**
+ * An append-only record of the successive states of a diagram, used to recover
+ * unsaved work after a crash. A journal is stored as two files: a snapshot file
+ * that holds a complete encoding of the diagram, and a journal file where each line
+ * is a delta that transforms the previous state into the next one.
+ *
+ * Because diagram operations are not serializable, a delta is computed textually on
+ * the JSON encoding of the diagram: it records how many characters are kept at
+ * the start and end of the previous state, and the text that replaces the rest.
+ * A delta is small when an operation only changes text close to the end of the
+ * encoding, such as the addition of an edge. Because the elements are numbered 
+ * sequentially in the encoding, and selected nodes are moved to the end of the 
+ * root nodes, many operations result in a delta that spans most of the encoding,
+ * in which case the delta is about as large as the complete state.
+ *
+ * Each delta carries a sequence number. When the journal grows beyond a threshold,
+ * it is compacted: the current state is written to a new snapshot, which atomically
+ * replaces the previous one, and the journal file is truncated. Deltas whose sequence
+ * number is not greater than the one of the snapshot are ignored on recovery, so
+ * a crash at any point of a compaction leaves a recoverable journal. A partially
+ * written last line is likewise ignored.
+ *
+ * The journal file is locked for as long as the journal is open, so that
+ * other instances of the application do not recover a journal in use.
+ * This class is not thread-safe. It is intended to be used by a single writer.
+ */
+public final class OperationJournal
+{
+	private static final String SNAPSHOT_EXTENSION = ".snapshot";
+	private static final String JOURNAL_EXTENSION = ".journal";
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	private static final int DEFAULT_COMPACTION_THRESHOLD = 200;
+
+	private static final String PROPERTY_SEQUENCE = "seq";
+	private static final String PROPERTY_STATE = "state";
+	private static final String PROPERTY_PREFIX = "keep";
+	private static final String PROPERTY_SUFFIX = "tail";
+	private static final String PROPERTY_TEXT = "text";
+
+	private final Path aSnapshotFile;
+	private final Path aJournalFile;
+	private final int aCompactionThreshold;
+	private FileChannel aChannel;
+	private FileLock aLock;
+	private String aState;
+	private int aSequence = 0;
+	private int aDeltasSinceSnapshot = 0;
+	private boolean aUnsynchronized = false;
+
+	/**
+	 * Creates a new journal called pName in directory pDirectory, whose
+	 * initial state is pInitialState. Any previous journal with the
+	 * same name is overwritten.
+	 *
+	 * @param pDirectory The directory where to store the journal files.
+	 * @param pName The name of the journal, without extension.
+	 * @param pInitialState The initial encoding of the diagram.
+	 * @param pCompactionThreshold The number of deltas after which the journal is compacted.
+	 * @throws IOException If the journal files cannot be created.
+	 * @pre pDirectory != null && pName != null && pInitialState != null && pCompactionThreshold > 0
+	 */
+	public OperationJournal(Path pDirectory, String pName, String pInitialState, int pCompactionThreshold)
+			throws IOException
+	{
+		assert pDirectory != null && pName != null && pInitialState != null && pCompactionThreshold > 0;
+		aSnapshotFile = pDirectory.resolve(pName + SNAPSHOT_EXTENSION);
+		aJournalFile = pDirectory.resolve(pName + JOURNAL_EXTENSION);
+		aCompactionThreshold = pCompactionThreshold;
+		aState = pInitialState;
+		Files.createDirectories(pDirectory);
+		writeSnapshot();
+		aChannel = FileChannel.open(aJournalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		aLock = aChannel.tryLock();
+	}
+
+	/**
+	 * Creates a new journal with the default compaction threshold.
+	 *
+	 * @param pDirectory The directory where to store the journal files.
+	 * @param pName The name of the journal, without extension.
+	 * @param pInitialState The initial encoding of the diagram.
+	 * @throws IOException If the journal files cannot be created.
+	 * @pre pDirectory != null && pName != null && pInitialState != null
+	 */
+	public OperationJournal(Path pDirectory, String pName, String pInitialState) throws IOException
+	{
+		this(pDirectory, pName, pInitialState, DEFAULT_COMPACTION_THRESHOLD);
+	}
+
+	/**
+	 * Appends the delta between the current state and pState at the end of the
+	 * journal. The delta is not guaranteed to be on disk until the next call
+	 * to synchronize(). Compacts the journal if the threshold is reached.
+	 *
+	 * @param pState The new encoding of the diagram.
+	 * @throws IOException If the delta cannot be written.
+	 * @pre pState != null
+	 */
+	public void append(String pState) throws IOException
+	{
+		assert pState != null && aChannel != null;
+		if( pState.equals(aState) )
+		{
+			return;
+		}
+		aSequence++;
+		String line = delta(aState, pState, aSequence).toString() + "\n";
+		ByteBuffer buffer = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+		while( buffer.hasRemaining() )
+		{
+			aChannel.write(buffer);
+		}
+		aState = pState;
+		aDeltasSinceSnapshot++;
+		aUnsynchronized = true;
+		if( aDeltasSinceSnapshot >= aCompactionThreshold )
+		{
+			compact();
+		}
+	}
+
+	/**
+	 * Forces all deltas appended since the last call to this method to the
+	 * storage device. Does nothing if there is no such delta, so that the cost
+	 * of a file synchronization is paid at most once for a batch of deltas.
+	 *
+	 * @throws IOException If the journal cannot be synchronized.
+	 */
+	public void synchronize() throws IOException
+	{
+		if( aUnsynchronized )
+		{
+			aChannel.force(false);
+			aUnsynchronized = false;
+		}
+	}
+
+	/**
+	 * Writes the current state as the new snapshot and empties the journal.
+	 *
+	 * @throws IOException If the snapshot cannot be written.
+	 */
+	public void compact() throws IOException
+	{
+		writeSnapshot();
+		aChannel.truncate(0);
+		aChannel.force(false);
+		aDeltasSinceSnapshot = 0;
+		aUnsynchronized = false;
+	}
+
+	/**
+	 * Closes the journal and deletes its files.
+	 *
+	 * @throws IOException If the files cannot be deleted.
+	 */
+	public void delete() throws IOException
+	{
+		close();
+		Files.deleteIfExists(aJournalFile);
+		Files.deleteIfExists(aSnapshotFile);
+	}
+
+	/**
+	 * Closes the journal, leaving its files on disk.
+	 *
+	 * @throws IOException If the journal cannot be closed.
+	 */
+	public void close() throws IOException
+	{
+		if( aChannel != null )
+		{
+			if( aLock != null )
+			{
+				aLock.release();
+				aLock = null;
+			}
+			aChannel.close();
+			aChannel = null;
+		}
+	}
+
+	/**
+	 * @return The number of deltas appended since the last snapshot.
+	 */
+	public int size()
+	{
+		return aDeltasSinceSnapshot;
+	}
+
+	/**
+	 * Reconstructs the last state recorded in the journal named pName in
+	 * pDirectory, by replaying all the valid deltas on top of the snapshot.
+	 *
+	 * @param pDirectory The directory where the journal files are stored.
+	 * @param pName The name of the journal, without extension.
+	 * @return The last recorded state, or empty if there is no readable snapshot.
+	 * @throws IOException If the files cannot be read.
+	 * @pre pDirectory != null && pName != null
+	 */
+	public static Optional<String> recover(Path pDirectory, String pName) throws IOException
+	{
+		assert pDirectory != null && pName != null;
+		Path snapshotFile = pDirectory.resolve(pName + SNAPSHOT_EXTENSION);
+		Path journalFile = pDirectory.resolve(pName + JOURNAL_EXTENSION);
+		if( !Files.exists(snapshotFile) )
+		{
+			return Optional.empty();
+		}
+		String state;
+		int sequence;
+		try
+		{
+			JsonObject snapshot = JsonParser.parse(Files.readString(snapshotFile, StandardCharsets.UTF_8));
+			state = snapshot.getString(PROPERTY_STATE);
+			sequence = snapshot.getInt(PROPERTY_SEQUENCE);
+		}
+		catch(JsonException exception)
+		{
+			return Optional.empty();
+		}
+		if( !Files.exists(journalFile) )
+		{
+			return Optional.of(state);
+		}
+		try( BufferedReader in = Files.newBufferedReader(journalFile, StandardCharsets.UTF_8) )
+		{
+			String line = in.readLine();
+			while( line != null )
+			{
+				Optional<JsonObject> delta = parseDelta(line);
+				if( delta.isEmpty() ) // Torn write: the rest of the journal is unusable
+				{
+					break;
+				}
+				int deltaSequence = delta.get().getInt(PROPERTY_SEQUENCE);
+				if( deltaSequence == sequence + 1 && isApplicable(state, delta.get()) )
+				{
+					state = apply(state, delta.get());
+					sequence = deltaSequence;
+				}
+				else if( deltaSequence > sequence ) // Missing or inconsistent delta
+				{
+					break;
+				}
+				line = in.readLine();
+			}
+		}
+		return Optional.of(state);
+	}
+
+	/**
+	 * @param pDirectory The directory to search.
+	 * @return The names of all the journals stored in pDirectory.
+	 * @throws IOException If the directory cannot be read.
+	 */
+	public static List<String> list(Path pDirectory) throws IOException
+	{
+		List<String> result = new ArrayList<>();
+		if( !Files.isDirectory(pDirectory))
+		{
+			return result;
+		}
+		try( DirectoryStream<Path> files = Files.newDirectoryStream(pDirectory, "*" + SNAPSHOT_EXTENSION) )
+		{
+			for( Path file : files )
+			{
+				String name = file.getFileName().toString();
+				result.add(name.substring(0, name.length() - SNAPSHOT_EXTENSION.length()));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param pDirectory The directory where the journal files are stored.
+	 * @param pName The name of the journal, without extension.
+	 * @return True if the journal named pName is currently open, in
+	 *     this or another process.
+	 * @throws IOException If the journal file cannot be accessed.
+	 */
+	public static boolean isInUse(Path pDirectory, String pName) throws IOException
+	{
+		Path journalFile = pDirectory.resolve(pName + JOURNAL_EXTENSION);
+		if( !Files.exists(journalFile) )
+		{
+			return false;
+		}
+		try( FileChannel channel = FileChannel.open(journalFile, StandardOpenOption.WRITE) )
+		{
+			FileLock lock = channel.tryLock();
+			if( lock == null )
+			{
+				return true;
+			}
+			lock.release();
+			return false;
+		}
+		catch(OverlappingFileLockException exception)
+		{
+			return true;
+		}
+	}
+
+	/**
+	 * Deletes the files of the journal named pName in pDirectory.
+	 *
+	 * @param pDirectory The directory where the journal files are stored.
+	 * @param pName The name of the journal, without extension.
+	 * @throws IOException If the files cannot be deleted.
+	 */
+	public static void delete(Path pDirectory, String pName) throws IOException
+	{
+		Files.deleteIfExists(pDirectory.resolve(pName + JOURNAL_EXTENSION));
+		Files.deleteIfExists(pDirectory.resolve(pName + SNAPSHOT_EXTENSION));
+	}
+
+	/*
+	 * Writes the snapshot to a temporary file and moves it over the
+	 * previous snapshot, so that a valid snapshot is always present.
+	 */
+	private void writeSnapshot() throws IOException
+	{
+		JsonObject snapshot = new JsonObject();
+		snapshot.put(PROPERTY_SEQUENCE, aSequence);
+		snapshot.put(PROPERTY_STATE, aState);
+		Path temporary = aSnapshotFile.resolveSibling(aSnapshotFile.getFileName() + TEMPORARY_EXTENSION);
+		try( FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) )
+		{
+			ByteBuffer buffer = ByteBuffer.wrap(snapshot.toString().getBytes(StandardCharsets.UTF_8));
+			while( buffer.hasRemaining() )
+			{
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, aSnapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/*
+	 * Computes the delta that transforms pBefore into pAfter, as the length of their
+	 * common prefix, the length of their common suffix, and the text in between.
+	 */
+	static JsonObject delta(String pBefore, String pAfter, int pSequence)
+	{
+		int limit = Math.min(pBefore.length(), pAfter.length());
+		int prefix = 0;
+		while( prefix < limit && pBefore.charAt(prefix) == pAfter.charAt(prefix) )
+		{
+			prefix++;
+		}
+		int suffix = 0;
+		while( suffix < limit - prefix &&
+				pBefore.charAt(pBefore.length() - 1 - suffix) == pAfter.charAt(pAfter.length() - 1 - suffix) )
+		{
+			suffix++;
+		}
+		JsonObject delta = new JsonObject();
+		delta.put(PROPERTY_SEQUENCE, pSequence);
+		delta.put(PROPERTY_PREFIX, prefix);
+		delta.put(PROPERTY_SUFFIX, suffix);
+		delta.put(PROPERTY_TEXT, pAfter.substring(prefix, pAfter.length() - suffix));
+		return delta;
+	}
+
+	/*
+	 * Applies pDelta to pState.
+	 */
+	static String apply(String pState, JsonObject pDelta)
+	{
+		int prefix = pDelta.getInt(PROPERTY_PREFIX);
+		int suffix = pDelta.getInt(PROPERTY_SUFFIX);
+		return pState.substring(0, prefix) + pDelta.getString(PROPERTY_TEXT) +
+				pState.substring(pState.length() - suffix);
+	}
+
+	private static boolean isApplicable(String pState, JsonObject pDelta)
+	{
+		int prefix = pDelta.getInt(PROPERTY_PREFIX);
+		int suffix = pDelta.getInt(PROPERTY_SUFFIX);
+		return prefix >= 0 && suffix >= 0 && prefix + suffix <= pState.length();
+	}
+
+	/*
+	 * Returns the delta encoded in pLine, or empty if the line is not
+	 * a complete delta.
+	 */
+	private static Optional<JsonObject> parseDelta(String pLine)
+	{
+		try
+		{
+			JsonObject delta = JsonParser.parse(pLine);
+			delta.getInt(PROPERTY_SEQUENCE);
+			delta.getInt(PROPERTY_PREFIX);
+			delta.getInt(PROPERTY_SUFFIX);
+			delta.getString(PROPERTY_TEXT);
+			return Optional.of(delta);
+		}
+		catch(JsonException exception)
+		{
+			return Optional.empty();
+		}
+	}
+}
@@ -20,29 +20,68 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
+import org.jetuml.application.FileExtensions;
+import org.jetuml.diagnostics.JsonParseEvent;
+import org.jetuml.diagnostics.PersistenceEvent;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.validator.DiagramValidator;
 import org.jetuml.persistence.DeserializationException.Category;
 import org.jetuml.persistence.json.JsonException;
+import org.jetuml.persistence.json.JsonObject;
 import org.jetuml.persistence.json.JsonParser;
 
 /**
- * Services for saving and loading Diagram objects. The files are encoded
- * in UTF-8.
+ * Services for saving and loading Diagram objects. Diagrams are saved
+ * in JSON, encoded in UTF-8, or in the binary notation of the BinaryEncoder. 
+ * Files with the compressed extension are compressed in the GZIP format.
+ * The format of a file, and whether it is compressed, are detected when 
+ * it is read. Files are saved atomically: a crash while saving a diagram 
+ * leaves the previous version of the file intact.
  */
 public final class PersistenceService
 {
+	private static final String TEMPORARY_EXTENSION = ".tmp";
+	private static final int HEADER_LENGTH = 4; // Enough to recognize all formats
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	/**
+	 * The formats in which a diagram can be saved.
+	 */
+	public enum Format
+	{
+		/**
+		 * The JSON notation of the JsonEncoder. 
+		 */
+		JSON, 
+		
+		/**
+		 * The binary notation of the BinaryEncoder, more compact 
+		 * and faster to load for large diagrams.
+		 */
+		BINARY
+	}
+	
 	private PersistenceService() {}
 	
 	/**
@@ -56,11 +95,126 @@ public final class PersistenceService
      */
 	public static void save(Diagram pDiagram, File pFile) throws IOException
 	{
-		assert pDiagram != null && pFile != null;
-		try( PrintWriter out = new PrintWriter(
-				new OutputStreamWriter(new FileOutputStream(pFile), StandardCharsets.UTF_8)))
+		save(pDiagram, pFile, Format.JSON);
+	}
+	
+	/**
+	 * Saves the current diagram in a file, in a given format.
+	 * 
+	 * @param pDiagram The diagram to save
+	 * @param pFile The file in which to save the diagram
+	 * @param pFormat The format of the file
+	 * @throws IOException If there is a problem writing to pFile.
+	 * @pre pDiagram != null && pFile != null && pFormat != null
+	 */
+	public static void save(Diagram pDiagram, File pFile, Format pFormat) throws IOException
+	{
+		assert pDiagram != null && pFile != null && pFormat != null;
+		write(encode(pDiagram, pFormat), pFile);
+	}
+	
+	/**
+	 * @param pDiagram The diagram to encode.
+	 * @return The content of a JSON file that stores pDiagram.
+	 * @pre pDiagram != null
+	 */
+	public static byte[] encode(Diagram pDiagram)
+	{
+		return encode(pDiagram, Format.JSON);
+	}
+	
+	/**
+	 * @param pDiagram The diagram to encode.
+	 * @param pFormat The format of the encoding.
+	 * @return The content of a file that stores pDiagram in format pFormat.
+	 * @pre pDiagram != null && pFormat != null
+	 */
+	public static byte[] encode(Diagram pDiagram, Format pFormat)
+	{
+		assert pDiagram != null && pFormat != null;
+		PersistenceEvent event = new PersistenceEvent();
+		event.begin();
+		byte[] result;
+		if( pFormat == Format.BINARY )
+		{
+			result = BinaryEncoder.encode(pDiagram);
+		}
+		else
+		{
+			result = (JsonEncoder.encode(pDiagram).toString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8);
+		}
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setOperation("encode");
+			event.setDiagram(pDiagram);
+			event.setBytes(result.length);
+			event.commit();
+		}
+		return result;
+	}
+	
+	/**
+	 * Replaces the content of pFile with pContent. The content is first written
+	 * to a temporary file in the same directory, which is then renamed to pFile.
+	 * If pFile has the compressed extension, the content is compressed as it
+	 * is written.
+	 * 
+	 * @param pContent The bytes to write.
+	 * @param pFile The file to write.
+	 * @throws IOException If there is a problem writing to pFile, in which case
+	 *     the previous content of pFile is preserved.
+	 * @pre pContent != null && pFile != null
+	 */
+	public static void write(byte[] pContent, File pFile) throws IOException
+	{
+		assert pContent != null && pFile != null;
+		PersistenceEvent event = new PersistenceEvent();
+		event.begin();
+		Path target = pFile.toPath().toAbsolutePath();
+		Path temporary = target.resolveSibling(target.getFileName() + TEMPORARY_EXTENSION);
+		try
 		{
-			out.println(JsonEncoder.encode(pDiagram).toString());
+			try( FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, 
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING) )
+			{
+				OutputStream output = Channels.newOutputStream(channel);
+				if( FileExtensions.isCompressed(pFile) )
+				{
+					// Closing the compressed stream also closes the channel, so it is forced before
+					try( GZIPOutputStream compressed = new GZIPOutputStream(output, BUFFER_SIZE) )
+					{
+						compressed.write(pContent);
+						compressed.finish();
+						channel.force(true);
+					}
+				}
+				else
+				{
+					output.write(pContent);
+					channel.force(true);
+				}
+			}
+			try
+			{
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch(AtomicMoveNotSupportedException exception)
+			{
+				Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(temporary);
+		}
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setOperation("write");
+			event.setFile(pFile);
+			event.setBytes(pContent.length);
+			event.commit();
 		}
 	}
 	
@@ -76,17 +230,159 @@ public final class PersistenceService
 	public static Diagram read(File pFile) throws IOException, DeserializationException
 	{
 		assert pFile != null;
-		try( BufferedReader in = new BufferedReader(
-				new InputStreamReader(new FileInputStream(pFile), StandardCharsets.UTF_8)))
+		PersistenceEvent event = new PersistenceEvent();
+		event.begin();
+		Diagram diagram = readFile(pFile);
+		event.end();
+		if( event.shouldCommit() )
 		{
-			String inputLine = in.readLine();
-			// An empty buffer results in a null value from readLine: convert it back to a string
-			// to avoid a null dereference.
-			if( inputLine == null )
+			event.setOperation("read");
+			event.setFile(pFile);
+			event.setBytes(pFile.length());
+			event.setDiagram(diagram);
+			event.commit();
+		}
+		return diagram;
+	}
+	
+	private static Diagram readFile(File pFile) throws IOException
+	{
+		boolean compressed = false;
+		try( FileChannel channel = FileChannel.open(pFile.toPath(), StandardOpenOption.READ) )
+		{
+			ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+			channel.read(header, 0);
+			header.flip();
+			if( BinaryDecoder.isBinary(header) )
 			{
-				inputLine = "";
+				// Read in a heap buffer rather than mapped, so that the file can be replaced 
+				// when it is saved without waiting for the buffer to be garbage-collected.
+				ByteBuffer content = ByteBuffer.wrap(Channels.newInputStream(channel).readAllBytes());
+				return decode(BinaryDecoder.decode(content));
 			}
-			Diagram diagram = new JsonDecoder(JsonParser.parse(inputLine)).decode();
+			compressed = isCompressed(header);
+		}
+		if( compressed )
+		{
+			return readCompressed(pFile);
+		}
+		try( InputStream input = new FileInputStream(pFile) )
+		{
+			return readJson(input);
+		}
+	}
+	
+	/**
+	 * Detects the format of a diagram file, whether it is compressed or not.
+	 * 
+	 * @param pFile The file to inspect.
+	 * @return BINARY if pFile stores a diagram in the notation of the BinaryEncoder, JSON otherwise.
+	 * @throws IOException if pFile cannot be read.
+	 * @pre pFile != null
+	 */
+	public static Format formatOf(File pFile) throws IOException
+	{
+		assert pFile != null;
+		byte[] header;
+		try( InputStream input = new FileInputStream(pFile) )
+		{
+			header = input.readNBytes(HEADER_LENGTH);
+		}
+		if( isCompressed(ByteBuffer.wrap(header)) )
+		{
+			try( InputStream input = new GZIPInputStream(new FileInputStream(pFile)) )
+			{
+				header = input.readNBytes(HEADER_LENGTH);
+			}
+		}
+		if( BinaryDecoder.isBinary(ByteBuffer.wrap(header)) )
+		{
+			return Format.BINARY;
+		}
+		return Format.JSON;
+	}
+	
+	private static boolean isCompressed(ByteBuffer pHeader)
+	{
+		return pHeader.remaining() >= 2 && 
+				pHeader.get(0) == (byte) GZIPInputStream.GZIP_MAGIC && 
+				pHeader.get(1) == (byte) (GZIPInputStream.GZIP_MAGIC >> 8);
+	}
+	
+	/*
+	 * Decompresses pFile as it is decoded. Compressed binary files are
+	 * decompressed in a buffer.
+	 */
+	private static Diagram readCompressed(File pFile) throws IOException
+	{
+		try( InputStream input = new BufferedInputStream(
+				new GZIPInputStream(new FileInputStream(pFile), BUFFER_SIZE), BUFFER_SIZE) )
+		{
+			input.mark(HEADER_LENGTH);
+			ByteBuffer header = ByteBuffer.wrap(input.readNBytes(HEADER_LENGTH));
+			input.reset();
+			if( BinaryDecoder.isBinary(header) )
+			{
+				return decode(BinaryDecoder.decode(ByteBuffer.wrap(input.readAllBytes())));
+			}
+			return readJson(input);
+		}
+	}
+	
+	private static Diagram readJson(InputStream pInput) throws IOException
+	{
+		BufferedReader in = new BufferedReader(new InputStreamReader(pInput, StandardCharsets.UTF_8));
+		String inputLine = in.readLine();
+		// An empty buffer results in a null value from readLine: convert it back to a string
+		// to avoid a null dereference.
+		if( inputLine == null )
+		{
+			inputLine = "";
+		}
+		return decode(inputLine);
+	}
+	
+	/**
+	 * Decodes a diagram from its JSON encoding, as produced by the 
+	 * JsonEncoder, and validates it.
+	 * 
+	 * @param pEncoding The JSON encoding of the diagram.
+	 * @return The decoded diagram.
+	 * @throws DeserializationException if there is a problem decoding the diagram.
+	 * @pre pEncoding != null
+	 */
+	public static Diagram decode(String pEncoding) throws DeserializationException
+	{
+		assert pEncoding != null;
+		try
+		{
+			return decode(parse(pEncoding));
+		}
+		catch(JsonException exception)
+		{
+			throw new DeserializationException(Category.SYNTACTIC, exception.getMessage());
+		}
+	}
+	
+	private static JsonObject parse(String pEncoding)
+	{
+		JsonParseEvent event = new JsonParseEvent();
+		event.begin();
+		JsonObject result = JsonParser.parse(pEncoding, JsonDecoder.newStringTable());
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setCharacters(pEncoding.length());
+			event.commit();
+		}
+		return result;
+	}
+	
+	private static Diagram decode(JsonObject pEncoding) throws DeserializationException
+	{
+		try
+		{
+			Diagram diagram = new JsonDecoder(pEncoding).decode();
 			DiagramValidator validator = DiagramType.newValidatorInstanceFor(diagram);
 			if(!validator.hasValidStructure())
 			{
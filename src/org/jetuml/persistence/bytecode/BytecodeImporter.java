@@ -0,0 +1,382 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.builder.ClassDiagramBuilder;
+import org.jetuml.diagram.builder.ImportBatch;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.AssociationEdge.Directionality;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.InterfaceNode;
+import org.jetuml.diagram.nodes.TypeNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.DeserializationException.Category;
+import org.jetuml.persistence.bytecode.ClassFile.Member;
+
+/**
+ * Creates a class diagram from the compiled classes in a directory tree or a 
+ * jar file. Each class or interface becomes a node that shows its fields and 
+ * methods. Between imported types, supertypes become generalizations, the 
+ * types of fields become associations, and all the other types that a class 
+ * uses become dependencies.
+ * 
+ * Reading the classes and creating the diagram can be done in any thread, 
+ * but arranging the diagram measures text with the fonts shared by all the 
+ * renderers, so it must be done in the JavaFX application thread.
+ */
+public final class BytecodeImporter
+{
+	private static final Point ORIGIN = new Point(0, 0);
+	private static final String CONSTRUCTOR = "<init>";
+	private static final String STATIC_INITIALIZER = "<clinit>";
+	
+	private final Map<String, TypeNode> aNodes = new HashMap<>();
+	private final ImportBatch aBatch = new ImportBatch();
+	
+	private BytecodeImporter() {}
+	
+	/**
+	 * Reads the classes in pSource that are in one of pPackages or their
+	 * subpackages, and creates a class diagram for them. Classes generated by
+	 * the compiler, anonymous classes, and local classes are not imported.
+	 * All the nodes are at the origin until the diagram is arranged.
+	 * 
+	 * @param pSource A directory that contains class files, or a jar file.
+	 * @param pPackages The names of the packages to import, or an empty list to import all classes.
+	 * @return A new class diagram.
+	 * @throws IOException If the files cannot be read.
+	 * @throws DeserializationException If a class file is malformed.
+	 * @pre pSource != null && pPackages != null
+	 */
+	public static Diagram importClasses(Path pSource, List<String> pPackages) throws IOException
+	{
+		assert pSource != null && pPackages != null;
+		List<ClassFile> classes = ClassFileReader.read(pSource, inPackages(pPackages)).stream()
+				.filter(classFile -> !classFile.isSynthetic() && !isAnonymousOrLocal(classFile.name()))
+				.sorted(Comparator.comparing(ClassFile::name))
+				.collect(Collectors.toList());
+		BytecodeImporter importer = new BytecodeImporter();
+		List<TypeNode> nodes = classes.parallelStream()
+				.map(BytecodeImporter::createNode)
+				.collect(Collectors.toList());
+		for( int i = 0; i < classes.size(); i++ )
+		{
+			importer.aNodes.put(classes.get(i).name(), nodes.get(i));
+			importer.aBatch.addNode(nodes.get(i), ORIGIN);
+		}
+		classes.forEach(importer::addEdges);
+		
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassDiagramBuilder builder = new ClassDiagramBuilder(diagram);
+		builder.createImportOperation(importer.aBatch).execute();
+		return diagram;
+	}
+	
+	/**
+	 * Arranges the nodes of a diagram created by importClasses. 
+	 * Must be called in the JavaFX application thread.
+	 * 
+	 * @param pDiagram The diagram to arrange.
+	 * @pre pDiagram != null && pDiagram.getType() == DiagramType.CLASS
+	 */
+	public static void arrange(Diagram pDiagram)
+	{
+		assert pDiagram != null && pDiagram.getType() == DiagramType.CLASS;
+		new ClassDiagramBuilder(pDiagram).createLayoutOperation().execute();
+	}
+	
+	/**
+	 * @param pPackages Names of packages.
+	 * @return A filter that accepts the names of the classes in pPackages and 
+	 *     their subpackages, or all names if pPackages is empty.
+	 * @pre pPackages != null
+	 */
+	static Predicate<String> inPackages(List<String> pPackages)
+	{
+		assert pPackages != null;
+		if( pPackages.isEmpty() )
+		{
+			return className -> true;
+		}
+		List<String> prefixes = pPackages.stream()
+				.map(packageName -> packageName + ".")
+				.collect(Collectors.toList());
+		return className -> prefixes.stream().anyMatch(className::startsWith);
+	}
+	
+	/*
+	 * The compiler names anonymous and local classes with a number after the 
+	 * name of the enclosing class, as in Outer$1 or Outer$1Local.
+	 */
+	private static boolean isAnonymousOrLocal(String pClassName)
+	{
+		int index = pClassName.indexOf('$');
+		while( index >= 0 )
+		{
+			if( index + 1 < pClassName.length() && Character.isDigit(pClassName.charAt(index + 1)) )
+			{
+				return true;
+			}
+			index = pClassName.indexOf('$', index + 1);
+		}
+		return false;
+	}
+	
+	/**
+	 * @param pClassName A fully-qualified class name, such as java.util.Map$Entry.
+	 * @return The name of the class as it appears in code, such as Map.Entry.
+	 * @pre pClassName != null
+	 */
+	static String simpleName(String pClassName)
+	{
+		assert pClassName != null;
+		return pClassName.substring(pClassName.lastIndexOf('.') + 1).replace('$', '.');
+	}
+	
+	/**
+	 * @param pDescriptor A field or method descriptor.
+	 * @param pStart The index where a type starts in pDescriptor.
+	 * @param pEnd Receives the index that follows the type at pEnd[0].
+	 * @return The simple name of the type that starts at pStart in pDescriptor.
+	 * @throws DeserializationException If there is no valid type at pStart in pDescriptor.
+	 * @pre pDescriptor != null && pStart >= 0 && pEnd.length > 0
+	 */
+	static String typeName(String pDescriptor, int pStart, int[] pEnd)
+	{
+		assert pDescriptor != null && pStart >= 0 && pEnd.length > 0;
+		try
+		{
+			int index = pStart;
+			while( pDescriptor.charAt(index) == '[' )
+			{
+				index++;
+			}
+			int dimensions = index - pStart;
+			String result;
+			char code = pDescriptor.charAt(index);
+			if( code == 'L' )
+			{
+				int end = pDescriptor.indexOf(';', index);
+				result = simpleName(pDescriptor.substring(index + 1, end).replace('/', '.'));
+				index = end;
+			}
+			else
+			{
+				result = primitiveName(code);
+			}
+			pEnd[0] = index + 1;
+			return result + "[]".repeat(dimensions);
+		}
+		catch(IndexOutOfBoundsException | IllegalArgumentException exception)
+		{
+			throw malformed(pDescriptor, exception);
+		}
+	}
+	
+	private static DeserializationException malformed(String pDescriptor, RuntimeException pCause)
+	{
+		return new DeserializationException(Category.STRUCTURAL, "Malformed descriptor " + pDescriptor, pCause);
+	}
+	
+	private static String primitiveName(char pCode)
+	{
+		switch(pCode)
+		{
+		case 'B': return "byte";
+		case 'C': return "char";
+		case 'D': return "double";
+		case 'F': return "float";
+		case 'I': return "int";
+		case 'J': return "long";
+		case 'S': return "short";
+		case 'Z': return "boolean";
+		case 'V': return "void";
+		default: throw new IllegalArgumentException("Invalid descriptor code " + pCode);
+		}
+	}
+	
+	private static String visibility(int pAccess)
+	{
+		if( (pAccess & ClassFile.ACC_PUBLIC) != 0 )
+		{
+			return "+";
+		}
+		else if( (pAccess & ClassFile.ACC_PROTECTED) != 0 )
+		{
+			return "#";
+		}
+		else if( (pAccess & ClassFile.ACC_PRIVATE) != 0 )
+		{
+			return "-";
+		}
+		else
+		{
+			return "~";
+		}
+	}
+	
+	/**
+	 * @param pField A field.
+	 * @return The field in UML notation, such as -aName : String.
+	 * @throws DeserializationException If the descriptor of pField is malformed.
+	 * @pre pField != null
+	 */
+	static String attribute(Member pField)
+	{
+		assert pField != null;
+		return visibility(pField.access()) + pField.name() + " : " + typeName(pField.descriptor(), 0, new int[1]);
+	}
+	
+	/**
+	 * @param pMethod A method or constructor.
+	 * @param pClassName The simple name of the class that declares pMethod.
+	 * @return The method in UML notation, such as +getName(int, String) : String, 
+	 *     with the name of the class and no return type for constructors.
+	 * @throws DeserializationException If the descriptor of pMethod is malformed.
+	 * @pre pMethod != null && pClassName != null
+	 */
+	static String method(Member pMethod, String pClassName)
+	{
+		assert pMethod != null && pClassName != null;
+		String descriptor = pMethod.descriptor();
+		StringJoiner parameters = new StringJoiner(", ", "(", ")");
+		int[] next = {1};
+		try
+		{
+			if( descriptor.charAt(0) != '(' )
+			{
+				throw new IllegalArgumentException("Missing parameters");
+			}
+			while( descriptor.charAt(next[0]) != ')' )
+			{
+				parameters.add(typeName(descriptor, next[0], next));
+			}
+		}
+		catch(IndexOutOfBoundsException | IllegalArgumentException exception)
+		{
+			throw malformed(descriptor, exception);
+		}
+		if( pMethod.name().equals(CONSTRUCTOR) )
+		{
+			return visibility(pMethod.access()) + pClassName + parameters;
+		}
+		return visibility(pMethod.access()) + pMethod.name() + parameters + " : " + 
+				typeName(descriptor, next[0] + 1, next);
+	}
+	
+	private static TypeNode createNode(ClassFile pClass)
+	{
+		String name = simpleName(pClass.name());
+		TypeNode result;
+		if( pClass.isInterface() )
+		{
+			result = new InterfaceNode();
+		}
+		else
+		{
+			ClassNode classNode = new ClassNode();
+			classNode.setAttributes(pClass.fields().stream()
+					.filter(field -> !field.isSynthetic())
+					.map(BytecodeImporter::attribute)
+					.collect(Collectors.joining("\n")));
+			result = classNode;
+		}
+		result.setName(name);
+		String constructorName = name.substring(name.lastIndexOf('.') + 1);
+		result.setMethods(pClass.methods().stream()
+				.filter(method -> !method.isSynthetic() && !method.name().equals(STATIC_INITIALIZER))
+				.map(method -> method(method, constructorName))
+				.collect(Collectors.joining("\n")));
+		return result;
+	}
+	
+	/*
+	 * Adds at most one edge from pClass to each other imported type, choosing 
+	 * a generalization over an association over a dependency.
+	 */
+	private void addEdges(ClassFile pClass)
+	{
+		TypeNode node = aNodes.get(pClass.name());
+		Set<String> linked = new HashSet<>();
+		linked.add(pClass.name());
+		pClass.superclass().ifPresent(superclass -> 
+		{
+			if( aNodes.containsKey(superclass) && linked.add(superclass) )
+			{
+				aBatch.addEdge(new GeneralizationEdge(), node, aNodes.get(superclass));
+			}
+		});
+		for( String superinterface : pClass.interfaces() )
+		{
+			if( aNodes.containsKey(superinterface) && linked.add(superinterface) )
+			{
+				GeneralizationEdge.Type type = GeneralizationEdge.Type.Implementation;
+				if( pClass.isInterface() )
+				{
+					type = GeneralizationEdge.Type.Inheritance;
+				}
+				aBatch.addEdge(new GeneralizationEdge(type), node, aNodes.get(superinterface));
+			}
+		}
+		Set<String> fieldTypes = new LinkedHashSet<>();
+		for( Member field : pClass.fields() )
+		{
+			if( !field.isSynthetic() )
+			{
+				ClassFile.addClassNames(field.signature().orElse(field.descriptor()), fieldTypes);
+			}
+		}
+		for( String type : fieldTypes )
+		{
+			if( aNodes.containsKey(type) && linked.add(type) )
+			{
+				AssociationEdge edge = new AssociationEdge();
+				edge.setDirectionality(Directionality.Unidirectional);
+				aBatch.addEdge(edge, node, aNodes.get(type));
+			}
+		}
+		for( String type : pClass.references() )
+		{
+			if( aNodes.containsKey(type) && linked.add(type) )
+			{
+				aBatch.addEdge(new DependencyEdge(), node, aNodes.get(type));
+			}
+		}
+	}
+}
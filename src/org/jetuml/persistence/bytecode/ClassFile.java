@@ -0,0 +1,500 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jetuml.annotations.Immutable;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.DeserializationException.Category;
+
+/**
+ * The parts of a compiled Java class that appear in a class diagram: its name, 
+ * supertypes, fields, methods, and the other classes it refers to. Class names 
+ * use dots as separators, for example java.util.Map$Entry.
+ * 
+ * The parser only reads the constant pool entries it needs, and skips the code
+ * and all the attributes except the generic signatures of fields.
+ */
+@Immutable
+final class ClassFile
+{
+	static final int ACC_PUBLIC = 0x0001;
+	static final int ACC_PRIVATE = 0x0002;
+	static final int ACC_PROTECTED = 0x0004;
+	static final int ACC_STATIC = 0x0008;
+	static final int ACC_BRIDGE = 0x0040;
+	static final int ACC_INTERFACE = 0x0200;
+	static final int ACC_SYNTHETIC = 0x1000;
+	
+	private static final int MAGIC = 0xCAFEBABE;
+	private static final String SIGNATURE = "Signature";
+	
+	private static final int CONSTANT_UTF8 = 1;
+	private static final int CONSTANT_INTEGER = 3;
+	private static final int CONSTANT_FLOAT = 4;
+	private static final int CONSTANT_LONG = 5;
+	private static final int CONSTANT_DOUBLE = 6;
+	private static final int CONSTANT_CLASS = 7;
+	private static final int CONSTANT_STRING = 8;
+	private static final int CONSTANT_FIELDREF = 9;
+	private static final int CONSTANT_METHODREF = 10;
+	private static final int CONSTANT_INTERFACE_METHODREF = 11;
+	private static final int CONSTANT_NAME_AND_TYPE = 12;
+	private static final int CONSTANT_METHOD_HANDLE = 15;
+	private static final int CONSTANT_METHOD_TYPE = 16;
+	private static final int CONSTANT_DYNAMIC = 17;
+	private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+	private static final int CONSTANT_MODULE = 19;
+	private static final int CONSTANT_PACKAGE = 20;
+	
+	private final String aName;
+	private final int aAccess;
+	private final Optional<String> aSuperclass;
+	private final List<String> aInterfaces;
+	private final List<Member> aFields;
+	private final List<Member> aMethods;
+	private final Set<String> aReferences;
+	
+	private ClassFile(String pName, int pAccess, Optional<String> pSuperclass, List<String> pInterfaces,
+			List<Member> pFields, List<Member> pMethods, Set<String> pReferences)
+	{
+		aName = pName;
+		aAccess = pAccess;
+		aSuperclass = pSuperclass;
+		aInterfaces = pInterfaces;
+		aFields = pFields;
+		aMethods = pMethods;
+		aReferences = pReferences;
+	}
+	
+	/**
+	 * Parses a class file. The position of pBuffer is moved past the parts
+	 * of the class that were read.
+	 * 
+	 * @param pBuffer The bytes of the class file, from its position to its limit.
+	 * @return The class stored in pBuffer.
+	 * @throws DeserializationException If pBuffer does not contain a well-formed class file.
+	 * @pre pBuffer != null
+	 */
+	static ClassFile parse(ByteBuffer pBuffer)
+	{
+		assert pBuffer != null;
+		try
+		{
+			return new Parser(pBuffer).parse();
+		}
+		catch(BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException exception)
+		{
+			throw new DeserializationException(Category.STRUCTURAL, "Malformed class file", exception);
+		}
+	}
+	
+	/**
+	 * @return The fully-qualified name of the class.
+	 */
+	String name()
+	{
+		return aName;
+	}
+	
+	/**
+	 * @return True if this is an interface or an annotation type.
+	 */
+	boolean isInterface()
+	{
+		return (aAccess & ACC_INTERFACE) != 0;
+	}
+	
+	/**
+	 * @return True if the class was generated by the compiler.
+	 */
+	boolean isSynthetic()
+	{
+		return (aAccess & ACC_SYNTHETIC) != 0;
+	}
+	
+	/**
+	 * @return The name of the superclass, or empty for java.lang.Object and modules.
+	 */
+	Optional<String> superclass()
+	{
+		return aSuperclass;
+	}
+	
+	/**
+	 * @return The names of the interfaces the class implements or extends, in order.
+	 */
+	List<String> interfaces()
+	{
+		return aInterfaces;
+	}
+	
+	/**
+	 * @return The fields declared in the class, in order.
+	 */
+	List<Member> fields()
+	{
+		return aFields;
+	}
+	
+	/**
+	 * @return The methods and constructors declared in the class, in order.
+	 */
+	List<Member> methods()
+	{
+		return aMethods;
+	}
+	
+	/**
+	 * @return The names of all the classes that this class refers to, including
+	 *     itself and its supertypes.
+	 */
+	Set<String> references()
+	{
+		return aReferences;
+	}
+	
+	/**
+	 * Adds the names of the classes in a field or method descriptor, or in a 
+	 * generic signature, to pNames.
+	 * 
+	 * @param pDescriptor A descriptor such as (ILjava/util/List;)V, or a signature 
+	 *     such as Ljava/util/List&lt;Ljava/lang/String;&gt;;
+	 * @param pNames The names found so far.
+	 * @pre pDescriptor != null && pNames != null
+	 */
+	static void addClassNames(String pDescriptor, Set<String> pNames)
+	{
+		assert pDescriptor != null && pNames != null;
+		int start = nextClassName(pDescriptor, 0);
+		while( start >= 0 )
+		{
+			int end = start + 1;
+			while( end < pDescriptor.length() && pDescriptor.charAt(end) != ';' && pDescriptor.charAt(end) != '<' )
+			{
+				end++;
+			}
+			pNames.add(pDescriptor.substring(start + 1, end).replace('/', '.'));
+			start = nextClassName(pDescriptor, end);
+		}
+	}
+	
+	/*
+	 * The index of the L that starts the next class name after pIndex, or -1.
+	 * Type variables start with T and end with a semicolon, and the simple names 
+	 * of inner classes in signatures start with a dot and end before their type 
+	 * arguments or a semicolon.
+	 */
+	private static int nextClassName(String pDescriptor, int pIndex)
+	{
+		for( int i = pIndex; i < pDescriptor.length(); i++ )
+		{
+			char character = pDescriptor.charAt(i);
+			if( character == 'L' )
+			{
+				return i;
+			}
+			else if( character == 'T' || character == '.' )
+			{
+				while( i + 1 < pDescriptor.length() && pDescriptor.charAt(i + 1) != ';' && pDescriptor.charAt(i + 1) != '<' )
+				{
+					i++;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * A field or method of a class.
+	 */
+	@Immutable
+	static final class Member
+	{
+		private final int aAccess;
+		private final String aName;
+		private final String aDescriptor;
+		private final Optional<String> aSignature;
+		
+		Member(int pAccess, String pName, String pDescriptor, Optional<String> pSignature)
+		{
+			aAccess = pAccess;
+			aName = pName;
+			aDescriptor = pDescriptor;
+			aSignature = pSignature;
+		}
+		
+		/**
+		 * @return The access flags of the member.
+		 */
+		int access()
+		{
+			return aAccess;
+		}
+		
+		/**
+		 * @return The name of the member, which is &lt;init&gt; for constructors.
+		 */
+		String name()
+		{
+			return aName;
+		}
+		
+		/**
+		 * @return The descriptor of the type of a field, or of the parameters and 
+		 *     return type of a method.
+		 */
+		String descriptor()
+		{
+			return aDescriptor;
+		}
+		
+		/**
+		 * @return The generic signature of a field, if it has a generic type.
+		 */
+		Optional<String> signature()
+		{
+			return aSignature;
+		}
+		
+		/**
+		 * @return True if the member was generated by the compiler.
+		 */
+		boolean isSynthetic()
+		{
+			return (aAccess & (ACC_SYNTHETIC | ACC_BRIDGE)) != 0;
+		}
+	}
+	
+	/*
+	 * Reads a class file in order, and only decodes the strings of the 
+	 * constant pool that are used.
+	 */
+	private static final class Parser
+	{
+		private final ByteBuffer aBuffer;
+		private int[] aOffsets; // The position of each constant in the buffer
+		private String[] aStrings; // The decoded UTF-8 constants
+		
+		Parser(ByteBuffer pBuffer)
+		{
+			aBuffer = pBuffer;
+		}
+		
+		ClassFile parse()
+		{
+			if( aBuffer.getInt() != MAGIC )
+			{
+				throw new IllegalArgumentException();
+			}
+			aBuffer.getInt(); // Minor and major versions
+			readConstantPool();
+			int access = unsignedShort();
+			String name = className(unsignedShort());
+			int superIndex = unsignedShort();
+			Optional<String> superclass = Optional.empty();
+			if( superIndex != 0 )
+			{
+				superclass = Optional.of(className(superIndex));
+			}
+			List<String> interfaces = new ArrayList<>();
+			for( int count = unsignedShort(); count > 0; count-- )
+			{
+				interfaces.add(className(unsignedShort()));
+			}
+			List<Member> fields = readMembers();
+			List<Member> methods = readMembers();
+			
+			Set<String> references = new LinkedHashSet<>();
+			for( int index = 1; index < aOffsets.length; index++ )
+			{
+				if( aOffsets[index] > 0 && aBuffer.get(aOffsets[index]) == CONSTANT_CLASS )
+				{
+					addClassConstant(index, references);
+				}
+			}
+			for( Member member : fields )
+			{
+				addClassNames(member.descriptor(), references);
+				member.signature().ifPresent(signature -> addClassNames(signature, references));
+			}
+			for( Member method : methods )
+			{
+				addClassNames(method.descriptor(), references);
+			}
+			return new ClassFile(name, access, superclass, Collections.unmodifiableList(interfaces), 
+					fields, methods, Collections.unmodifiableSet(references));
+		}
+		
+		private void readConstantPool()
+		{
+			int count = unsignedShort();
+			aOffsets = new int[count];
+			aStrings = new String[count];
+			for( int index = 1; index < count; index++ )
+			{
+				aOffsets[index] = aBuffer.position();
+				int tag = aBuffer.get();
+				if( tag == CONSTANT_UTF8 )
+				{
+					skip(unsignedShort());
+				}
+				else if( tag == CONSTANT_CLASS || tag == CONSTANT_STRING || tag == CONSTANT_METHOD_TYPE || 
+						tag == CONSTANT_MODULE || tag == CONSTANT_PACKAGE )
+				{
+					skip(2);
+				}
+				else if( tag == CONSTANT_METHOD_HANDLE )
+				{
+					skip(3);
+				}
+				else if( tag == CONSTANT_INTEGER || tag == CONSTANT_FLOAT || tag == CONSTANT_FIELDREF || 
+						tag == CONSTANT_METHODREF || tag == CONSTANT_INTERFACE_METHODREF || 
+						tag == CONSTANT_NAME_AND_TYPE || tag == CONSTANT_DYNAMIC || tag == CONSTANT_INVOKE_DYNAMIC )
+				{
+					skip(4);
+				}
+				else if( tag == CONSTANT_LONG || tag == CONSTANT_DOUBLE )
+				{
+					skip(8);
+					index++; // Longs and doubles take two entries
+				}
+				else
+				{
+					throw new IllegalArgumentException("Unknown constant tag " + tag);
+				}
+			}
+		}
+		
+		private List<Member> readMembers()
+		{
+			int count = unsignedShort();
+			List<Member> result = new ArrayList<>(count);
+			for( int i = 0; i < count; i++ )
+			{
+				int access = unsignedShort();
+				String name = utf8(unsignedShort());
+				String descriptor = utf8(unsignedShort());
+				Optional<String> signature = Optional.empty();
+				for( int attributes = unsignedShort(); attributes > 0; attributes-- )
+				{
+					int attributeName = unsignedShort();
+					int length = aBuffer.getInt();
+					if( SIGNATURE.equals(utf8(attributeName)) )
+					{
+						signature = Optional.of(utf8(unsignedShort()));
+					}
+					else
+					{
+						skip(length);
+					}
+				}
+				result.add(new Member(access, name, descriptor, signature));
+			}
+			return Collections.unmodifiableList(result);
+		}
+		
+		/*
+		 * Adds the class name of CONSTANT_Class entry pIndex, or the names in 
+		 * its descriptor if it is an array class.
+		 */
+		private void addClassConstant(int pIndex, Set<String> pNames)
+		{
+			String name = utf8(aBuffer.getShort(aOffsets[pIndex] + 1) & 0xFFFF);
+			if( name.startsWith("[") )
+			{
+				addClassNames(name, pNames);
+			}
+			else
+			{
+				pNames.add(name.replace('/', '.'));
+			}
+		}
+		
+		private String className(int pIndex)
+		{
+			if( aBuffer.get(aOffsets[pIndex]) != CONSTANT_CLASS )
+			{
+				throw new IllegalArgumentException();
+			}
+			return utf8(aBuffer.getShort(aOffsets[pIndex] + 1) & 0xFFFF).replace('/', '.');
+		}
+		
+		/*
+		 * Decodes the modified UTF-8 of constant pIndex, in which supplementary 
+		 * characters are already encoded as surrogate pairs.
+		 */
+		private String utf8(int pIndex)
+		{
+			if( aStrings[pIndex] != null )
+			{
+				return aStrings[pIndex];
+			}
+			int offset = aOffsets[pIndex];
+			if( aBuffer.get(offset) != CONSTANT_UTF8 )
+			{
+				throw new IllegalArgumentException();
+			}
+			int length = aBuffer.getShort(offset + 1) & 0xFFFF;
+			char[] characters = new char[length];
+			int size = 0;
+			int position = offset + 3;
+			int end = position + length;
+			while( position < end )
+			{
+				int first = aBuffer.get(position++) & 0xFF;
+				if( first < 0x80 )
+				{
+					characters[size++] = (char) first;
+				}
+				else if( first < 0xE0 )
+				{
+					characters[size++] = (char) ((first & 0x1F) << 6 | aBuffer.get(position++) & 0x3F);
+				}
+				else
+				{
+					int second = aBuffer.get(position++) & 0x3F;
+					characters[size++] = (char) ((first & 0x0F) << 12 | second << 6 | aBuffer.get(position++) & 0x3F);
+				}
+			}
+			aStrings[pIndex] = new String(characters, 0, size);
+			return aStrings[pIndex];
+		}
+		
+		private int unsignedShort()
+		{
+			return aBuffer.getShort() & 0xFFFF;
+		}
+		
+		private void skip(int pBytes)
+		{
+			aBuffer.position(aBuffer.position() + pBytes);
+		}
+	}
+}
@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+
+/**
+ * Reads and parses all the class files in a directory tree or a jar file, 
+ * in parallel.
+ * 
+ * The central directory of a jar file is read directly, and each class file
+ * is then read at its offset with a positional read of the file channel, so that
+ * the entries are read in parallel without going through ZipFile. Jar files 
+ * that need the ZIP64 extensions are read through ZipFile instead.
+ */
+final class ClassFileReader
+{
+	private static final String CLASS_EXTENSION = ".class";
+	private static final String METADATA_DIRECTORY = "META-INF/";
+	
+	private static final int END_SIGNATURE = 0x06054b50;
+	private static final int END_SIZE = 22;
+	private static final int MAX_END_SIZE = END_SIZE + 0xFFFF;
+	private static final int ENTRY_SIGNATURE = 0x02014b50;
+	private static final int ENTRY_HEADER_SIZE = 46;
+	private static final int LOCAL_HEADER_SIZE = 30;
+	private static final int ENCRYPTED = 0x1;
+	private static final int STORED = 0;
+	private static final int DEFLATED = 8;
+	private static final int ZIP64_ENTRIES = 0xFFFF;
+	private static final long ZIP64_OFFSET = 0xFFFFFFFFL;
+	
+	private ClassFileReader() {}
+	
+	/**
+	 * @param pSource A directory or a jar file.
+	 * @param pFilter Selects the classes to return, by the fully-qualified name stored 
+	 *     in their class file, which does not depend on where the file is in pSource.
+	 * @return The classes in pSource accepted by pFilter, in no particular order.
+	 * @throws IOException If a file cannot be read.
+	 * @pre pSource != null && pFilter != null
+	 */
+	static List<ClassFile> read(Path pSource, Predicate<String> pFilter) throws IOException
+	{
+		assert pSource != null && pFilter != null;
+		try
+		{
+			List<ClassFile> classes;
+			if( Files.isDirectory(pSource) )
+			{
+				classes = readDirectory(pSource);
+			}
+			else
+			{
+				classes = readJar(pSource);
+			}
+			return classes.stream()
+					.filter(classFile -> pFilter.test(classFile.name()))
+					.collect(Collectors.toList());
+		}
+		catch(UncheckedIOException exception)
+		{
+			throw exception.getCause();
+		}
+	}
+	
+	/**
+	 * @param pPath The path of a file in a directory tree or jar file, with slashes as separators.
+	 * @return True if the file is a class file that does not only hold module or 
+	 *     package information, and is not a version of a class for another release
+	 *     of Java in a multi-release jar.
+	 * @pre pPath != null
+	 */
+	static boolean isClassFile(String pPath)
+	{
+		assert pPath != null;
+		return pPath.endsWith(CLASS_EXTENSION) && !pPath.startsWith(METADATA_DIRECTORY) && 
+				!pPath.endsWith("module-info.class") && !pPath.endsWith("package-info.class");
+	}
+	
+	private static List<ClassFile> readDirectory(Path pDirectory) throws IOException
+	{
+		List<Path> files;
+		try( Stream<Path> paths = Files.walk(pDirectory) )
+		{
+			files = paths
+					.filter(path -> isClassFile(pDirectory.relativize(path).toString().replace('\\', '/')))
+					.filter(Files::isRegularFile)
+					.collect(Collectors.toList());
+		}
+		return files.parallelStream()
+				.map(path -> ClassFile.parse(ByteBuffer.wrap(readAllBytes(path))))
+				.collect(Collectors.toList());
+	}
+	
+	private static byte[] readAllBytes(Path pPath)
+	{
+		try
+		{
+			return Files.readAllBytes(pPath);
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	private static List<ClassFile> readJar(Path pJar) throws IOException
+	{
+		try( FileChannel channel = FileChannel.open(pJar, StandardOpenOption.READ) )
+		{
+			if( channel.size() > Integer.MAX_VALUE )
+			{
+				return readZipFile(pJar);
+			}
+			Optional<List<Entry>> entries;
+			try
+			{
+				entries = readCentralDirectory(channel);
+			}
+			catch(IndexOutOfBoundsException | IllegalArgumentException exception)
+			{
+				throw new ZipException("Invalid central directory");
+			}
+			if( entries.isEmpty() )
+			{
+				return readZipFile(pJar);
+			}
+			return entries.get().parallelStream()
+					.map(entry -> ClassFile.parse(entry.contents(channel)))
+					.collect(Collectors.toList());
+		}
+	}
+	
+	/*
+	 * The entries for class files in the central directory of the jar file
+	 * read by pChannel, or empty if the jar file needs the ZIP64 extensions.
+	 */
+	private static Optional<List<Entry>> readCentralDirectory(FileChannel pChannel) throws IOException
+	{
+		long size = pChannel.size();
+		int tailSize = (int) Math.min(size, MAX_END_SIZE);
+		ByteBuffer tail = read(pChannel, size - tailSize, tailSize).order(ByteOrder.LITTLE_ENDIAN);
+		int end = findEndOfCentralDirectory(tail);
+		int entries = tail.getShort(end + 10) & 0xFFFF;
+		long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+		long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+		if( entries == ZIP64_ENTRIES || directoryOffset == ZIP64_OFFSET )
+		{
+			return Optional.empty();
+		}
+		if( directoryOffset + directorySize > size )
+		{
+			throw new ZipException("Invalid central directory");
+		}
+		ByteBuffer directory = read(pChannel, directoryOffset, (int) directorySize).order(ByteOrder.LITTLE_ENDIAN);
+		List<Entry> selected = new ArrayList<>();
+		int position = 0;
+		for( int i = 0; i < entries; i++ )
+		{
+			if( directory.getInt(position) != ENTRY_SIGNATURE )
+			{
+				throw new ZipException("Invalid central directory");
+			}
+			int nameLength = directory.getShort(position + 28) & 0xFFFF;
+			String name = new String(bytes(directory, position + ENTRY_HEADER_SIZE, nameLength), StandardCharsets.UTF_8);
+			if( isClassFile(name) )
+			{
+				selected.add(new Entry(directory, position));
+			}
+			position += ENTRY_HEADER_SIZE + nameLength + (directory.getShort(position + 30) & 0xFFFF) + 
+					(directory.getShort(position + 32) & 0xFFFF);
+		}
+		return Optional.of(selected);
+	}
+	
+	private static int findEndOfCentralDirectory(ByteBuffer pTail) throws ZipException
+	{
+		for( int position = pTail.limit() - END_SIZE; position >= 0; position-- )
+		{
+			if( pTail.getInt(position) == END_SIGNATURE )
+			{
+				return position;
+			}
+		}
+		throw new ZipException("Not a jar file");
+	}
+	
+	/*
+	 * Reads pLength bytes at pPosition in the file of pChannel, without changing
+	 * the position of the channel, so that several threads can read the file at once.
+	 */
+	private static ByteBuffer read(FileChannel pChannel, long pPosition, int pLength) throws IOException
+	{
+		ByteBuffer result = ByteBuffer.allocate(pLength);
+		while( result.hasRemaining() )
+		{
+			if( pChannel.read(result, pPosition + result.position()) < 0 )
+			{
+				throw new ZipException("Truncated jar file");
+			}
+		}
+		return result.flip();
+	}
+	
+	private static byte[] bytes(ByteBuffer pBuffer, int pPosition, int pLength)
+	{
+		byte[] result = new byte[pLength];
+		pBuffer.get(pPosition, result);
+		return result;
+	}
+	
+	private static List<ClassFile> readZipFile(Path pJar) throws IOException
+	{
+		try( ZipFile zipFile = new ZipFile(pJar.toFile()) )
+		{
+			List<ZipEntry> entries = zipFile.stream()
+					.filter(entry -> isClassFile(entry.getName()))
+					.collect(Collectors.toList());
+			return entries.parallelStream()
+					.map(entry -> ClassFile.parse(ByteBuffer.wrap(readAllBytes(zipFile, entry))))
+					.collect(Collectors.toList());
+		}
+	}
+	
+	private static byte[] readAllBytes(ZipFile pZipFile, ZipEntry pEntry)
+	{
+		try( InputStream input = pZipFile.getInputStream(pEntry) )
+		{
+			return input.readAllBytes();
+		}
+		catch(IOException exception)
+		{
+			throw new UncheckedIOException(exception);
+		}
+	}
+	
+	/*
+	 * The location of a class file in a jar file, read from its 
+	 * entry in the central directory.
+	 */
+	private static final class Entry
+	{
+		private final int aFlags;
+		private final int aMethod;
+		private final int aCompressedSize;
+		private final int aSize;
+		private final int aLocalHeader;
+		
+		Entry(ByteBuffer pDirectory, int pPosition)
+		{
+			aFlags = pDirectory.getShort(pPosition + 8) & 0xFFFF;
+			aMethod = pDirectory.getShort(pPosition + 10) & 0xFFFF;
+			aCompressedSize = pDirectory.getInt(pPosition + 20);
+			aSize = pDirectory.getInt(pPosition + 24);
+			aLocalHeader = pDirectory.getInt(pPosition + 42);
+		}
+		
+		/*
+		 * The contents of the entry, read from the jar file of pChannel.
+		 */
+		ByteBuffer contents(FileChannel pChannel)
+		{
+			try
+			{
+				return readContents(pChannel);
+			}
+			catch(IndexOutOfBoundsException | IllegalArgumentException exception)
+			{
+				throw new UncheckedIOException(new ZipException("Invalid jar entry"));
+			}
+			catch(IOException exception)
+			{
+				throw new UncheckedIOException(exception);
+			}
+		}
+		
+		private ByteBuffer readContents(FileChannel pChannel) throws IOException
+		{
+			if( (aFlags & ENCRYPTED) != 0 || aCompressedSize < 0 || aSize < 0 || aLocalHeader < 0 )
+			{
+				throw new ZipException("Unsupported jar entry");
+			}
+			ByteBuffer header = read(pChannel, aLocalHeader, LOCAL_HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			long data = aLocalHeader + LOCAL_HEADER_SIZE + (header.getShort(26) & 0xFFFF) + 
+					(header.getShort(28) & 0xFFFF);
+			if( data + aCompressedSize > pChannel.size() )
+			{
+				throw new ZipException("Truncated jar entry");
+			}
+			ByteBuffer compressed = read(pChannel, data, aCompressedSize); // Big-endian, like class files
+			if( aMethod == STORED )
+			{
+				return compressed;
+			}
+			else if( aMethod == DEFLATED )
+			{
+				return inflate(compressed);
+			}
+			else
+			{
+				throw new ZipException("Unsupported compression method " + aMethod);
+			}
+		}
+		
+		private ByteBuffer inflate(ByteBuffer pCompressed)
+		{
+			Inflater inflater = new Inflater(true);
+			try
+			{
+				ByteBuffer result = ByteBuffer.allocate(aSize);
+				inflater.setInput(pCompressed);
+				while( !inflater.finished() && result.hasRemaining() )
+				{
+					if( inflater.inflate(result) == 0 && (inflater.needsInput() || inflater.needsDictionary()) )
+					{
+						throw new ZipException("Truncated jar entry");
+					}
+				}
+				return result.flip();
+			}
+			catch(DataFormatException | ZipException exception)
+			{
+				throw new UncheckedIOException(new ZipException(exception.getMessage()));
+			}
+			finally
+			{
+				inflater.end();
+			}
+		}
+	}
+}
@@ -40,6 +40,22 @@ public final class JsonParser
      */
     public static JsonObject parse(String pInput)
     {
-    	return PARSER.parse(new ParsableCharacterBuffer(pInput));
+    	return parse(pInput, new StringTable());
+    }
+    
+    /**
+     * Parses a string into a JsonObject, using a single instance for equal 
+     * strings. The strings already in pStrings are used instead of equal 
+     * strings in the input.
+     * 
+     * @param pInput The input string, in JSON.
+     * @param pStrings The table of canonical strings to use for this parse.
+     * @return The JsonObject represented by the string.
+     * @pre pStrings != null
+     */
+    public static JsonObject parse(String pInput, StringTable pStrings)
+    {
+    	assert pStrings != null;
+    	return PARSER.parse(new ParsableCharacterBuffer(pInput, pStrings));
     }
 }
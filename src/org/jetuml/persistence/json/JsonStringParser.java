@@ -123,7 +123,8 @@ final class JsonStringParser implements JsonValueParser
 	 * quote character '"' (\u0022), but it is not necessary for the last
 	 * character to also be a quote. Characters beyond the closing quote will
 	 * simply not be read. The buffer will be left at the position of the
-	 * closing quote.
+	 * closing quote. Equal strings parsed from the same buffer are the same
+	 * instance.
 	 * 
 	 * @param pInput A buffer from which to read a string.
 	 * @return A valid string
@@ -137,7 +138,7 @@ final class JsonStringParser implements JsonValueParser
 		assert pInput != null;
 		pInput.consume(CHAR_QUOTE);
 
-		StringBuilder result = new StringBuilder();
+		StringBuilder result = pInput.stringBuilder();
 		while (pInput.hasMore())
 		{
 			char next = pInput.next();
@@ -152,7 +153,7 @@ final class JsonStringParser implements JsonValueParser
 			}
 			else if (next == CHAR_QUOTE)
 			{
-				return result.toString();
+				return pInput.strings().canonical(result);
 			}
 			else
 			{
@@ -27,6 +27,9 @@ package org.jetuml.persistence.json;
  */
 class ParsableCharacterBuffer extends CharacterBuffer
 {
+	private final StringTable aStrings;
+	private final StringBuilder aStringBuilder = new StringBuilder();
+	
 	/**
 	 * Creates a new ParsableCharacterBuffer with no character read.
 	 * 
@@ -34,8 +37,41 @@ class ParsableCharacterBuffer extends CharacterBuffer
 	 * @pre pInput != null
 	 */
 	ParsableCharacterBuffer(String pInput)
+	{
+		this(pInput, new StringTable());
+	}
+	
+	/**
+	 * Creates a new ParsableCharacterBuffer with no character read, whose
+	 * strings are made canonical with pStrings.
+	 * 
+	 * @param pInput The string to use as character sequence.
+	 * @param pStrings The table of canonical strings.
+	 * @pre pInput != null && pStrings != null
+	 */
+	ParsableCharacterBuffer(String pInput, StringTable pStrings)
 	{
 		super(pInput);
+		assert pStrings != null;
+		aStrings = pStrings;
+	}
+	
+	/**
+	 * @return The table of canonical strings for the strings parsed from this buffer.
+	 */
+	StringTable strings()
+	{
+		return aStrings;
+	}
+	
+	/**
+	 * @return An empty string builder, reused for every string parsed
+	 *     from this buffer.
+	 */
+	StringBuilder stringBuilder()
+	{
+		aStringBuilder.setLength(0);
+		return aStringBuilder;
 	}
 	
 	/**
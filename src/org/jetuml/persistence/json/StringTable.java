@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import java.util.Collection;
+
+/**
+ * A table of canonical strings, so that equal strings parsed from the
+ * same document are represented by a single String instance. The table
+ * can be seeded with strings known to occur in most documents, such as
+ * property names, so that the instances parsed are the same as those
+ * of the constants of the application.
+ * 
+ * A string table is only expected to be used for a single parse, by a
+ * single thread.
+ */
+public final class StringTable
+{
+	private static final int INITIAL_CAPACITY = 256;
+	
+	// Open addressing with linear probing. The capacity is a power of two
+	// and the table is kept at most half full.
+	private String[] aStrings = new String[INITIAL_CAPACITY];
+	private int aSize = 0;
+	
+	/**
+	 * Creates an empty table.
+	 */
+	public StringTable()
+	{}
+	
+	/**
+	 * Creates a table that initially contains pStrings.
+	 * 
+	 * @param pStrings The strings to use as canonical instances.
+	 * @pre pStrings != null
+	 */
+	public StringTable(Collection<String> pStrings)
+	{
+		assert pStrings != null;
+		for( String string : pStrings )
+		{
+			canonical(string);
+		}
+	}
+	
+	/**
+	 * @return The number of distinct strings in the table.
+	 */
+	public int size()
+	{
+		return aSize;
+	}
+	
+	/**
+	 * Returns the string in the table whose characters are those of
+	 * pCharacters, adding a new one if there is none. No string is 
+	 * created if the table already contains the characters.
+	 * 
+	 * @param pCharacters The characters of the string.
+	 * @return The canonical string with the characters of pCharacters.
+	 * @pre pCharacters != null
+	 */
+	String canonical(CharSequence pCharacters)
+	{
+		assert pCharacters != null;
+		int mask = aStrings.length - 1;
+		int index = hash(pCharacters) & mask;
+		while( aStrings[index] != null )
+		{
+			if( aStrings[index].contentEquals(pCharacters) )
+			{
+				return aStrings[index];
+			}
+			index = (index + 1) & mask;
+		}
+		String string = pCharacters.toString();
+		aStrings[index] = string;
+		aSize++;
+		if( aSize * 2 > aStrings.length )
+		{
+			grow();
+		}
+		return string;
+	}
+	
+	/*
+	 * The same hash as String.hashCode(), computed without creating a string.
+	 */
+	private static int hash(CharSequence pCharacters)
+	{
+		int hash = 0;
+		for( int i = 0; i < pCharacters.length(); i++ )
+		{
+			hash = 31 * hash + pCharacters.charAt(i);
+		}
+		return hash;
+	}
+	
+	private void grow()
+	{
+		String[] strings = aStrings;
+		aStrings = new String[strings.length * 2];
+		int mask = aStrings.length - 1;
+		for( String string : strings )
+		{
+			if( string != null )
+			{
+				int index = string.hashCode() & mask;
+				while( aStrings[index] != null )
+				{
+					index = (index + 1) & mask;
+				}
+				aStrings[index] = string;
+			}
+		}
+	}
+}
@@ -17,10 +17,16 @@
  ******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Set;
 
+import org.jetuml.diagnostics.FrameStatistics;
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.jetuml.diagnostics.MemoryEstimator;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -50,6 +56,10 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 {
 	private final IdentityHashMap<Class<? extends DiagramElement>, DiagramElementRenderer> aRenderers = new IdentityHashMap<>();
 	private final Diagram aDiagram;
+	private LevelOfDetail aLevelOfDetail = LevelOfDetail.FULL;
+	private FrameStatistics aFrameStatistics = new FrameStatistics();
+	// The nodes moved in the current interaction, with their descendants
+	private final Set<Node> aMovingNodes = new HashSet<>();
 	
 	/*
 	 * Add renderers for elements that are present in all diagrams. 
@@ -158,15 +168,98 @@ public abstract class AbstractDiagramRenderer implements DiagramRenderer
 	{
 		assert pGraphics != null;
 		activateNodeStorages();
-		aDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics));
-		aDiagram.edges().forEach(edge -> draw(edge, pGraphics));
+		aFrameStatistics.time(Phase.NODES, () -> aDiagram.rootNodes().forEach(node -> drawNode(node, pGraphics)));
+		aFrameStatistics.time(Phase.EDGES, () -> aDiagram.edges().forEach(edge -> draw(edge, pGraphics)));
 		deactivateAndClearNodeStorages();
 	}
 
 	@Override
 	public void draw(DiagramElement pElement, GraphicsContext pGraphics)
 	{
-		aRenderers.get(pElement.getClass()).draw(pElement, pGraphics);
+		LevelOfDetail levelOfDetail = levelOfDetailOf(pElement);
+		if( levelOfDetail == LevelOfDetail.FULL )
+		{
+			aRenderers.get(pElement.getClass()).draw(pElement, pGraphics);
+		}
+		else
+		{
+			aRenderers.get(pElement.getClass()).drawSimplified(pElement, pGraphics, levelOfDetail);
+		}
+	}
+	
+	/*
+	 * Moving nodes are drawn with at most their name, and the edges attached 
+	 * to them as straight lines, which do not depend on the layout of the diagram.
+	 */
+	private LevelOfDetail levelOfDetailOf(DiagramElement pElement)
+	{
+		if( pElement instanceof Edge && (aMovingNodes.contains(((Edge)pElement).start()) || 
+				aMovingNodes.contains(((Edge)pElement).end())) )
+		{
+			return LevelOfDetail.OUTLINE;
+		}
+		else if( aLevelOfDetail == LevelOfDetail.FULL && aMovingNodes.contains(pElement) )
+		{
+			return LevelOfDetail.NAMES;
+		}
+		return aLevelOfDetail;
+	}
+	
+	@Override
+	public void startInteraction(Collection<Node> pNodes)
+	{
+		assert pNodes != null;
+		aMovingNodes.clear();
+		pNodes.forEach(this::addMovingNode);
+	}
+	
+	private void addMovingNode(Node pNode)
+	{
+		aMovingNodes.add(pNode);
+		pNode.getChildren().forEach(this::addMovingNode);
+	}
+	
+	@Override
+	public void endInteraction()
+	{
+		aMovingNodes.clear();
+	}
+	
+	@Override
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		assert pEstimator != null;
+		aRenderers.values().forEach(renderer -> renderer.estimateMemory(pEstimator));
+	}
+	
+	/**
+	 * @return True if nodes are being moved in an interaction.
+	 */
+	protected boolean isInteracting()
+	{
+		return !aMovingNodes.isEmpty();
+	}
+	
+	@Override
+	public void setLevelOfDetail(LevelOfDetail pLevelOfDetail)
+	{
+		assert pLevelOfDetail != null;
+		aLevelOfDetail = pLevelOfDetail;
+	}
+	
+	@Override
+	public void setFrameStatistics(FrameStatistics pStatistics)
+	{
+		assert pStatistics != null;
+		aFrameStatistics = pStatistics;
+	}
+	
+	/**
+	 * @return The statistics in which to record the time taken by each phase of the drawing.
+	 */
+	protected FrameStatistics frameStatistics()
+	{
+		return aFrameStatistics;
 	}
 
 	@Override
@@ -23,14 +23,23 @@ package org.jetuml.rendering;
 import static java.util.stream.Collectors.toList;
 import static org.jetuml.rendering.EdgePriority.priorityOf;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.jetuml.diagnostics.LayoutEvent;
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryEstimator.Category;
 import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
@@ -68,14 +77,33 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	private static final int TWENTY_PIXELS = 20;
 	private static final int TEN_PIXELS = 10;
 	
+	// The number of edges from which the connected components of a diagram are laid out in parallel
+	private static final int PARALLEL_LAYOUT_THRESHOLD = 200;
+	
+	// The farthest a connection point can be from the bounds of its node
+	private static final int CONNECTION_POINT_MARGIN = 50;
+	
 	private final EdgeStorage aEdgeStorage = new EdgeStorage();
 	
+	// Precomputed node geometry, only for renderers that lay out a connected component
+	private final Map<Node, NodeGeometry> aGeometry;
+	
 	/**
 	 * @param pDiagram The diagram being rendered.
 	 */
 	public ClassDiagramRenderer(Diagram pDiagram)
 	{
-		super(pDiagram);
+		this(pDiagram, Map.of());
+	}
+	
+	/*
+	 * Creates a renderer that lays out the edges of pComponent, one of the connected
+	 * components of a diagram, using the bounds and faces in pGeometry.
+	 */
+	private ClassDiagramRenderer(Diagram pComponent, Map<Node, NodeGeometry> pGeometry)
+	{
+		super(pComponent);
+		aGeometry = pGeometry;
 		addElementRenderer(ClassNode.class, new TypeNodeRenderer(this));
 		addElementRenderer(InterfaceNode.class, new InterfaceNodeRenderer(this));
 		addElementRenderer(PackageNode.class, new PackageNodeRenderer(this));
@@ -101,13 +129,17 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	{
 		//draw and store nodes 
 		activateNodeStorages();
-		diagram().rootNodes().forEach(node -> drawNode(node, pGraphics));
+		frameStatistics().time(Phase.NODES, () -> diagram().rootNodes().forEach(node -> drawNode(node, pGraphics)));
 		
-		//plan edge paths using Layouter
-		layout();
+		//plan edge paths using Layouter, except during an interaction, where the
+		//edges attached to moving nodes are straight lines and the others do not change
+		if( !isInteracting() )
+		{
+			frameStatistics().time(Phase.LAYOUT, this::layout);
+		}
 		
 		//draw edges using plan from EdgeStorage
-		diagram().edges().forEach(edge -> draw(edge, pGraphics));
+		frameStatistics().time(Phase.EDGES, () -> diagram().edges().forEach(edge -> draw(edge, pGraphics)));
 		deactivateAndClearNodeStorages();
 	}
 	
@@ -123,6 +155,17 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		}
 		return super.getBounds();
 	}
+	
+	@Override
+	public Rectangle getBounds(DiagramElement pElement)
+	{
+		NodeGeometry geometry = aGeometry.get(pElement);
+		if( geometry != null )
+		{
+			return geometry.aBounds;
+		}
+		return super.getBounds(pElement);
+	}
 
 	/**
 	 * Uses positional information of nodes and stored edges to layout and 
@@ -134,13 +177,204 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	{
 		assert diagram().getType() == DiagramType.CLASS;
 		aEdgeStorage.clearStorage();
-		layoutSegmentedEdges(EdgePriority.INHERITANCE);	
-		layoutSegmentedEdges(EdgePriority.IMPLEMENTATION);
-		layoutSegmentedEdges(EdgePriority.AGGREGATION);
-		layoutSegmentedEdges(EdgePriority.COMPOSITION);
-		layoutSegmentedEdges(EdgePriority.ASSOCIATION);
-		layoutDependencyEdges();
-		layoutSelfEdges();
+		if( diagram().edges().size() >= PARALLEL_LAYOUT_THRESHOLD )
+		{
+			layoutComponentsInParallel();
+		}
+		else
+		{
+			layoutEdges();
+		}
+	}
+	
+	@Override
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		super.estimateMemory(pEstimator);
+		pEstimator.add(Category.EDGE_CACHE, aEdgeStorage);
+	}
+	
+	/*
+	 * Lays out the edges of the diagram one priority level at a time.
+	 */
+	private void layoutEdges()
+	{
+		layoutPhase("inheritance", () -> layoutSegmentedEdges(EdgePriority.INHERITANCE));
+		layoutPhase("implementation", () -> layoutSegmentedEdges(EdgePriority.IMPLEMENTATION));
+		layoutPhase("aggregation", () -> layoutSegmentedEdges(EdgePriority.AGGREGATION));
+		layoutPhase("composition", () -> layoutSegmentedEdges(EdgePriority.COMPOSITION));
+		layoutPhase("association", () -> layoutSegmentedEdges(EdgePriority.ASSOCIATION));
+		layoutPhase("dependency", this::layoutDependencyEdges);
+		layoutPhase("self edges", this::layoutSelfEdges);
+	}
+	
+	private void layoutPhase(String pName, Runnable pPhase)
+	{
+		layoutPhase(pName, () -> 
+		{
+			pPhase.run();
+			return null;
+		});
+	}
+	
+	/*
+	 * Runs pPhase, and records it as a layout event of this diagram.
+	 */
+	private <T> T layoutPhase(String pName, Supplier<T> pPhase)
+	{
+		LayoutEvent event = new LayoutEvent();
+		event.begin();
+		T result = pPhase.get();
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setPhase(pName);
+			event.setDiagram(diagram());
+			event.commit();
+		}
+		return result;
+	}
+	
+	/*
+	 * Lays out the edges of each connected component of the diagram in a different
+	 * task of the common fork-join pool, then stores the paths of the edges component 
+	 * by component. Because the edges of different components cannot influence each other's 
+	 * paths, the result is identical to the one of layoutEdges(). The geometry of the nodes 
+	 * is computed beforehand in this thread, because computing it measures text with 
+	 * JavaFX objects that cannot be shared between threads.
+	 */
+	private void layoutComponentsInParallel()
+	{
+		Map<Node, NodeGeometry> geometry = layoutPhase("geometry", this::computeGeometry);
+		List<Diagram> components = layoutPhase("connected components", () -> connectedComponents(geometry));
+		if( components.size() < 2 )
+		{
+			layoutEdges();
+			return;
+		}
+		List<ClassDiagramRenderer> renderers = components.stream()
+				.map(component -> new ClassDiagramRenderer(component, geometry))
+				.collect(toList());
+		renderers.parallelStream().forEach(ClassDiagramRenderer::layoutEdges);
+		for( ClassDiagramRenderer renderer : renderers )
+		{
+			for( Edge edge : renderer.diagram().edges() )
+			{
+				aEdgeStorage.store(edge, renderer.getEdgePath(edge));
+			}
+		}
+	}
+	
+	private static boolean isLaidOut(Edge pEdge)
+	{
+		return priorityOf(pEdge) != EdgePriority.OTHER;
+	}
+	
+	/*
+	 * Computes the bounds and faces of all the nodes attached to edges that are laid out.
+	 */
+	private Map<Node, NodeGeometry> computeGeometry()
+	{
+		Map<Node, NodeGeometry> geometry = new IdentityHashMap<>();
+		for( Edge edge : diagram().edges() )
+		{
+			if( isLaidOut(edge) )
+			{
+				geometry.computeIfAbsent(edge.start(), this::geometryOf);
+				geometry.computeIfAbsent(edge.end(), this::geometryOf);
+			}
+		}
+		return geometry;
+	}
+	
+	private NodeGeometry geometryOf(Node pNode)
+	{
+		Map<Side, Line> faces = new EnumMap<>(Side.class);
+		for( Side side : Side.values() )
+		{
+			faces.put(side, getFace(pNode, side));
+		}
+		return new NodeGeometry(getBounds(pNode), faces);
+	}
+	
+	/*
+	 * Partitions the edges that are laid out into diagrams whose edges cannot influence 
+	 * each other's paths. Edges are in the same component if they are connected to the 
+	 * same node, or to nodes close enough for their connection points to coincide, such 
+	 * as a package and the nodes it contains. The components are in the order of their 
+	 * first edge in the diagram, and the edges of each component are in diagram order.
+	 */
+	private List<Diagram> connectedComponents(Map<Node, NodeGeometry> pGeometry)
+	{
+		Map<Node, Node> parents = new IdentityHashMap<>();
+		for( Edge edge : diagram().edges() )
+		{
+			if( isLaidOut(edge) )
+			{
+				union(parents, edge.start(), edge.end());
+			}
+		}
+		// Sweep the nodes from left to right, comparing each node with the nodes that overlap it horizontally
+		List<Node> nodes = new ArrayList<>(pGeometry.keySet());
+		nodes.sort(Comparator.comparingInt(node -> pGeometry.get(node).aBounds.getX()));
+		List<Node> active = new ArrayList<>();
+		for( Node node : nodes )
+		{
+			Rectangle bounds = pGeometry.get(node).aBounds;
+			active.removeIf(other -> pGeometry.get(other).aBounds.getMaxX() + 2 * CONNECTION_POINT_MARGIN < bounds.getX());
+			for( Node other : active )
+			{
+				Rectangle otherBounds = pGeometry.get(other).aBounds;
+				if( otherBounds.getY() <= bounds.getMaxY() + 2 * CONNECTION_POINT_MARGIN && 
+						bounds.getY() <= otherBounds.getMaxY() + 2 * CONNECTION_POINT_MARGIN )
+				{
+					union(parents, node, other);
+				}
+			}
+			active.add(node);
+		}
+		Map<Node, Diagram> components = new IdentityHashMap<>();
+		List<Diagram> result = new ArrayList<>();
+		for( Edge edge : diagram().edges() )
+		{
+			if( isLaidOut(edge) )
+			{
+				components.computeIfAbsent(find(parents, edge.start()), root -> 
+				{
+					Diagram component = new Diagram(DiagramType.CLASS);
+					result.add(component);
+					return component;
+				}).addEdge(edge);
+			}
+		}
+		return result;
+	}
+	
+	private static Node find(Map<Node, Node> pParents, Node pNode)
+	{
+		Node root = pNode;
+		while( pParents.containsKey(root) )
+		{
+			root = pParents.get(root);
+		}
+		Node node = pNode;
+		while( node != root )
+		{
+			Node parent = pParents.get(node);
+			pParents.put(node, root);
+			node = parent;
+		}
+		return root;
+	}
+	
+	private static void union(Map<Node, Node> pParents, Node pNode1, Node pNode2)
+	{
+		Node root1 = find(pParents, pNode1);
+		Node root2 = find(pParents, pNode2);
+		if( root1 != root2 )
+		{
+			pParents.put(root1, root2);
+		}
 	}
 	
 	/**
@@ -755,11 +989,12 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	private List<Edge> storedConflictingEdges(Side pNodeSide, Node pNode, Edge pEdge)
 	{
 		assert pEdge.start() == pNode || pEdge.end() == pNode;
+		int indexSign = getIndexSign(pEdge, pNode, pNodeSide);
 		return aEdgeStorage.edgesConnectedTo(pNode).stream()
-			.filter(edge -> attachedSideFromStorage(edge, pNode) == pNodeSide)
+			.filter(edge -> edge != pEdge)
 			.filter(edge -> EdgePriority.isSegmented(edge))
-			.filter(edge -> getIndexSign(edge, pNode, pNodeSide) == getIndexSign(pEdge, pNode, pNodeSide))
-			.filter(edge -> !edge.equals(pEdge))
+			.filter(edge -> attachedSideFromStorage(edge, pNode) == pNodeSide)
+			.filter(edge -> getIndexSign(edge, pNode, pNodeSide) == indexSign)
 			.collect(toList());
 	}
 	
@@ -794,6 +1029,11 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 	
 	private Line getFace(Node pNode, Side pSide)
 	{
+		NodeGeometry geometry = aGeometry.get(pNode);
+		if( geometry != null )
+		{
+			return geometry.aFaces.get(pSide);
+		}
 		return ((NodeRenderer)rendererFor(pNode.getClass())).getFace(pNode, pSide);
 	}
 	
@@ -931,17 +1171,17 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		{
 			return true;
 		}
+		Side side = attachedSide(pEdge1, pNode);
 		//Return true if there are no other stored edges connected to the same side of pNode as pEdge1 and pEdge2
 		if(aEdgeStorage.edgesConnectedTo(pNode).stream()
-					.filter(edge -> attachedSide(edge, pNode) == attachedSide(pEdge1, pNode))
-					.collect(toList()).isEmpty()) 
+					.noneMatch(edge -> attachedSide(edge, pNode) == side)) 
 		{
 			return true;
 		}
 		else
 		{	//Compare the center point of pNode to the center points of the other nodes of pEdge1 and pEdge2:
 			return nodesOnSameSideOfCommonNode(getOtherNode(pEdge1, pNode), getOtherNode(pEdge2, pNode), 
-					pNode, attachedSide(pEdge1, pNode));
+					pNode, side);
 		}
 	}
 	
@@ -1307,31 +1547,23 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		Rectangle otherNodeBounds = getBounds(getOtherNode(pEdge, pNode));
 		if(pAttachedSide == Side.TOP)
 		{ //Consider the middle segments of edges attached to pNode
-			return !storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
-					.filter(edge -> otherNodeBounds.getY() < getEdgePath(edge).getPointByIndex(1).getY() - TEN_PIXELS)
-					.collect(toList())
-					.isEmpty();
+			return storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
+					.anyMatch(edge -> otherNodeBounds.getY() < getEdgePath(edge).getPointByIndex(1).getY() - TEN_PIXELS);
 		}
 		else if(pAttachedSide == Side.BOTTOM)
 		{//Consider the middle segments of edges attached to pNode
-			return !storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
-					.filter(edge -> otherNodeBounds.getMaxY() > getEdgePath(edge).getPointByIndex(1).getY() + TEN_PIXELS)
-					.collect(toList())
-					.isEmpty();
+			return storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
+					.anyMatch(edge -> otherNodeBounds.getMaxY() > getEdgePath(edge).getPointByIndex(1).getY() + TEN_PIXELS);
 		}
 		else if(pAttachedSide == Side.RIGHT)
 		{//Consider the middle segments of edges attached to pNode
-			return !storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
-					.filter(edge -> otherNodeBounds.getMaxX() > getEdgePath(edge).getPointByIndex(1).getX() - TEN_PIXELS)
-					.collect(toList())
-					.isEmpty();
+			return storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
+					.anyMatch(edge -> otherNodeBounds.getMaxX() > getEdgePath(edge).getPointByIndex(1).getX() - TEN_PIXELS);
 		}
 		else //Direction is LEFT
 		{//Consider the middle segments of edges attached to pNode
-			return !storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
-					.filter(edge -> otherNodeBounds.getX() < getEdgePath(edge).getPointByIndex(1).getX() + TEN_PIXELS)
-					.collect(toList())
-					.isEmpty();
+			return storedConflictingEdges(pAttachedSide.mirrored(), pNode, pEdge).stream()
+					.anyMatch(edge -> otherNodeBounds.getX() < getEdgePath(edge).getPointByIndex(1).getX() + TEN_PIXELS);
 		}
 	}
 	
@@ -1400,5 +1632,21 @@ public final class ClassDiagramRenderer extends AbstractDiagramRenderer
 		}
 		return new Point[] {startPoint, endPoint};
 	}
+	
+	/*
+	 * The bounds and faces of a node, computed before the edges of its 
+	 * connected component are laid out in another thread.
+	 */
+	private static final class NodeGeometry
+	{
+		private final Rectangle aBounds;
+		private final Map<Side, Line> aFaces;
+		
+		NodeGeometry(Rectangle pBounds, Map<Side, Line> pFaces)
+		{
+			aBounds = pBounds;
+			aFaces = pFaces;
+		}
+	}
 }
 
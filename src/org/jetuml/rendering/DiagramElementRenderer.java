@@ -20,6 +20,7 @@
  *******************************************************************************/
 package org.jetuml.rendering;
 
+import org.jetuml.diagnostics.MemoryEstimator;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.geom.Point;
@@ -70,6 +71,17 @@ public interface DiagramElementRenderer
 	 */
    	void draw(DiagramElement pElement, GraphicsContext pGraphics);
    	
+   	/**
+   	 * Draws a simplified version of the element, for when the diagram is
+   	 * shown too small for all its details to be visible. 
+   	 * 
+   	 * @param pElement The element to draw.
+   	 * @param pGraphics the graphics context
+   	 * @param pLevelOfDetail How much of the element to draw.
+   	 * @pre pElement != null && pLevelOfDetail != LevelOfDetail.FULL
+   	 */
+   	void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail);
+   	
    	/**
      * Draw selection handles around the element.
      * @param pElement The target element
@@ -77,4 +89,12 @@ public interface DiagramElementRenderer
      * @pre pElement != null && pGraphics != null
 	 */
    	void drawSelectionHandles(DiagramElement pElement, GraphicsContext pGraphics);  	
+   	
+   	/**
+   	 * Adds the memory retained by the caches of this renderer to pEstimator.
+   	 * 
+   	 * @param pEstimator The estimator that counts the memory.
+   	 * @pre pEstimator != null
+   	 */
+   	void estimateMemory(MemoryEstimator pEstimator);
 }
\ No newline at end of file
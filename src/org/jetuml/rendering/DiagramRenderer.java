@@ -20,8 +20,11 @@
  ******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.Collection;
 import java.util.Optional;
 
+import org.jetuml.diagnostics.FrameStatistics;
+import org.jetuml.diagnostics.MemoryEstimator;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
@@ -65,6 +68,50 @@ public interface DiagramRenderer
      * @pre pElement != null
 	 */
    	void draw(DiagramElement pElement, GraphicsContext pGraphics);
+   	
+   	/**
+   	 * Sets how much of each element subsequent calls to draw should draw.
+   	 * A new renderer draws elements in full.
+   	 * 
+   	 * @param pLevelOfDetail The level of detail.
+   	 * @pre pLevelOfDetail != null
+   	 */
+   	void setLevelOfDetail(LevelOfDetail pLevelOfDetail);
+   	
+   	/**
+   	 * Sets the statistics in which subsequent calls to draw record the time
+   	 * taken by each phase of the drawing. A new renderer has its own statistics.
+   	 * 
+   	 * @param pStatistics The statistics of the canvas the diagram is drawn on.
+   	 * @pre pStatistics != null
+   	 */
+   	void setFrameStatistics(FrameStatistics pStatistics);
+   	
+   	/**
+   	 * Starts an interaction in which pNodes are moved. Until the interaction
+   	 * ends, the moving nodes and their descendants are drawn as outlines, the 
+   	 * edges attached to them as straight lines, and the layout of the diagram 
+   	 * is only computed where it is required to place nodes.
+   	 * 
+   	 * @param pNodes The nodes being moved.
+   	 * @pre pNodes != null
+   	 */
+   	void startInteraction(Collection<Node> pNodes);
+   	
+   	/**
+   	 * Ends the current interaction, if any, so that the next call to draw
+   	 * lays out and draws the entire diagram.
+   	 */
+   	void endInteraction();
+   	
+   	/**
+   	 * Adds the memory retained by the caches of this renderer and of its 
+   	 * element renderers to pEstimator.
+   	 * 
+   	 * @param pEstimator The estimator that counts the memory.
+   	 * @pre pEstimator != null
+   	 */
+   	void estimateMemory(MemoryEstimator pEstimator);
 	
 	/**
 	 * Returns the edge underneath the given point, if it exists.
@@ -20,6 +20,10 @@
  *******************************************************************************/
 package org.jetuml.rendering;
 
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jetuml.diagnostics.CacheStatistics;
 import org.jetuml.geom.Dimension;
 
 import javafx.geometry.Bounds;
@@ -48,12 +52,20 @@ import javafx.scene.text.Text;
  * Hence, upon calling getHeight(), to get tight bounds, one should subtract
  * off the leading value (found by getting the max Y value of a one-lined text
  * box)
+ * 
+ * Measuring a string lays out a text node, so the dimensions of the most recently
+ * measured strings are kept. The lookups of all the FontMetrics objects
+ * are counted in a single CacheStatistics.
  */
 public class FontMetrics 
 {
 	public static final int DEFAULT_FONT_SIZE = 12;
 	private static final String BLANK = "";
+	private static final int CACHE_CAPACITY = 1024;
+	private static final CacheStatistics STATISTICS = new CacheStatistics();
+	
 	private Text aTextNode;
+	private final Map<String, Dimension> aDimensions = new HashMap<>();
 
 	/**
 	 * Creates a new FontMetrics object.
@@ -77,6 +89,33 @@ public class FontMetrics
 	{
 		assert pString != null;
 		
+		Dimension dimension = aDimensions.get(pString);
+		if( dimension != null )
+		{
+			STATISTICS.hit();
+			return dimension;
+		}
+		STATISTICS.miss();
+		if( aDimensions.size() == CACHE_CAPACITY )
+		{
+			aDimensions.clear();
+		}
+		dimension = measure(pString);
+		aDimensions.put(pString, dimension);
+		return dimension;
+	}
+	
+	/**
+	 * @return The hits and misses of the lookups of string dimensions in all 
+	 *     the FontMetrics objects.
+	 */
+	public static CacheStatistics statistics()
+	{
+		return STATISTICS;
+	}
+	
+	private Dimension measure(String pString)
+	{
 		aTextNode.setText(pString);
 		Bounds bounds = aTextNode.getLayoutBounds();
 		aTextNode.setText(BLANK);
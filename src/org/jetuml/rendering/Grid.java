@@ -24,8 +24,13 @@ package org.jetuml.rendering;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 
+import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
 import javafx.scene.paint.Paint;
 
 /**
@@ -37,30 +42,81 @@ public final class Grid
 	private static final Color GRID_COLOR = Color.rgb(220, 220, 220);
 	private static final double GRID_SIZE = 10;
 	
+	// One cell of the grid, shared by all the canvases, with the line width and output scale it was drawn for.
+	private static Image aTile;
+	private static double aTileLineWidth;
+	private static double aTileScale;
+	
 	private Grid() {}
 	
 	/**
-     * Draws this grid inside a rectangle.
+     * Draws this grid inside a rectangle, by filling it with a
+     * pattern of grid cells. The cells have one pixel per pixel of the
+     * screen that shows the canvas, so the grid stays sharp on high-density screens.
      * @param pGraphics the graphics context
      * @param pBounds the bounding rectangle
      */
 	public static void draw(GraphicsContext pGraphics, Rectangle pBounds)
 	{
-		Paint oldStroke = pGraphics.getStroke();
-		pGraphics.setStroke(GRID_COLOR);
-		int x1 = pBounds.getX();
-		int y1 = pBounds.getY();
-		int x2 = pBounds.getMaxX();
-		int y2 = pBounds.getMaxY();
-		for(int x = x1; x < x2; x += GRID_SIZE)
+		double scale = outputScale(pGraphics.getCanvas());
+		if( aTile == null || aTileLineWidth != pGraphics.getLineWidth() || aTileScale != scale )
+		{
+			aTileLineWidth = pGraphics.getLineWidth();
+			aTileScale = scale;
+			aTile = createTile(aTileLineWidth, aTileScale);
+		}
+		Paint oldFill = pGraphics.getFill();
+		pGraphics.setFill(new ImagePattern(aTile, pBounds.getX(), pBounds.getY(), GRID_SIZE, GRID_SIZE, false));
+		pGraphics.fillRect(pBounds.getX(), pBounds.getY(), pBounds.getWidth(), pBounds.getHeight());
+		pGraphics.setFill(oldFill);
+	}
+	
+	private static double outputScale(Canvas pCanvas)
+	{
+		if( pCanvas.getScene() == null || pCanvas.getScene().getWindow() == null )
+		{
+			return 1;
+		}
+		return pCanvas.getScene().getWindow().getOutputScaleX();
+	}
+	
+	/*
+	 * A cell with a line along its top and left sides, with pScale pixels per unit. 
+	 * A line drawn in the middle of the first unit partially covers some pixels, so 
+	 * each pixel is drawn with the opacity of the part of it the lines cover, and 
+	 * more where the two lines cross.
+	 */
+	private static Image createTile(double pLineWidth, double pScale)
+	{
+		int size = (int) Math.ceil(GRID_SIZE * pScale);
+		double pixelsPerUnit = size / GRID_SIZE;
+		double[] coverage = new double[size];
+		for( int i = 0; i < size; i++ )
 		{
-			ToolGraphics.strokeSharpLine(pGraphics, x, y1, x, y2);
+			coverage[i] = coverage(i, (0.5 - pLineWidth / 2) * pixelsPerUnit, (0.5 + pLineWidth / 2) * pixelsPerUnit);
 		}
-		for(int y = y1; y < y2; y += GRID_SIZE)
+		WritableImage tile = new WritableImage(size, size);
+		PixelWriter writer = tile.getPixelWriter();
+		for( int x = 0; x < size; x++ )
 		{
-			ToolGraphics.strokeSharpLine(pGraphics, x1, y, x2, y);
+			for( int y = 0; y < size; y++ )
+			{
+				double opacity = 1 - (1 - coverage[x]) * (1 - coverage[y]);
+				if( opacity > 0 )
+				{
+					writer.setColor(x, y, GRID_COLOR.deriveColor(0, 1, 1, opacity));
+				}
+			}
 		}
-		pGraphics.setStroke(oldStroke);
+		return tile;
+	}
+	
+	/*
+	 * The fraction of pixel pPixel between pStart and pEnd.
+	 */
+	private static double coverage(int pPixel, double pStart, double pEnd)
+	{
+		return Math.max(0, Math.min(pPixel + 1, pEnd) - Math.max(pPixel, pStart));
 	}
 
 	
@@ -0,0 +1,69 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+
+/**
+ * How much of a diagram to draw. When a diagram is zoomed out, text becomes
+ * too small to read, so drawing less of it makes large diagrams faster to draw
+ * without changing what the user can see.
+ */
+public enum LevelOfDetail
+{
+	/** All the elements, with all their labels. */
+	FULL,
+
+	/** Nodes as boxes with only their name, and edges without labels or decorations. */
+	NAMES,
+
+	/** Nodes as boxes without any text, and edges as straight segments. */
+	OUTLINE;
+
+	private static final double PERCENT = 100;
+
+	/**
+	 * The level of detail to draw a diagram at pScale. The scales below which names only
+	 * and outlines are drawn are the user preferences namesOnlyZoom and outlineZoom,
+	 * in percent.
+	 *
+	 * @param pScale The scale at which the diagram is shown.
+	 * @return The level of detail for pScale.
+	 * @pre pScale > 0
+	 */
+	public static LevelOfDetail forScale(double pScale)
+	{
+		assert pScale > 0;
+		if( pScale * PERCENT < UserPreferences.instance().getInteger(IntegerPreference.outlineZoom) )
+		{
+			return OUTLINE;
+		}
+		else if( pScale * PERCENT < UserPreferences.instance().getInteger(IntegerPreference.namesOnlyZoom) )
+		{
+			return NAMES;
+		}
+		else
+		{
+			return FULL;
+		}
+	}
+}
@@ -30,6 +30,10 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.jetuml.diagnostics.LayoutEvent;
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryEstimator.Category;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
@@ -104,16 +108,33 @@ public final class SequenceDiagramRenderer extends AbstractDiagramRenderer
 	@Override
 	public void draw(GraphicsContext pGraphics)
 	{
-		layout();
+		frameStatistics().time(Phase.LAYOUT, this::layout);
 		super.draw(pGraphics); 
 	}
 	
+	@Override
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		super.estimateMemory(pEstimator);
+		pEstimator.add(Category.SEQUENCE_LAYOUT, aCallNodeTopCoordinate);
+		pEstimator.add(Category.SEQUENCE_LAYOUT, aCallNodeBottomCoordinate);
+	}
+	
 	/*
 	 * Computes the position of the nodes in the sequence diagram, except the note nodes.
 	 */
 	private void layout()
 	{
+		LayoutEvent event = new LayoutEvent();
+		event.begin();
 		computeYPositions();
+		event.end();
+		if( event.shouldCommit() )
+		{
+			event.setPhase("y positions");
+			event.setDiagram(diagram());
+			event.commit();
+		}
 	}
 	
 	/**
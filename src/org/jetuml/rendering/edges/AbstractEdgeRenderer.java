@@ -17,9 +17,14 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryEstimator.Category;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.Edge;
 import org.jetuml.geom.Dimension;
@@ -28,11 +33,11 @@ import org.jetuml.geom.Line;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.ToolGraphics;
 import org.jetuml.rendering.StringRenderer.Alignment;
 
-import javafx.geometry.Bounds;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.shape.LineTo;
 import javafx.scene.shape.MoveTo;
@@ -54,6 +59,10 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 	
 	private final DiagramRenderer aParent;
 	
+	// The geometry of the shape of each edge, with the key it was computed for.
+	// Edges are compared by identity, and removed when they are garbage-collected.
+	private final Map<Edge, CachedShape> aShapes = new WeakHashMap<>();
+	
 	protected AbstractEdgeRenderer(DiagramRenderer pParent)
 	{
 		aParent = pParent;
@@ -83,6 +92,48 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 		return path;
 	}
 	
+	/**
+	 * Returns a value that determines the shape of pEdge: if the key of an edge
+	 * is equal to the key it had when its shape was last computed, the shape is
+	 * unchanged. The default is the connection points of the edge, which determine
+	 * the shape returned by the default implementation of getShape.
+	 * 
+	 * @param pEdge The edge whose shape we want.
+	 * @return A value with a proper implementation of equals.
+	 * @pre pEdge != null
+	 */
+	protected Object getShapeKey(Edge pEdge)
+	{
+		assert pEdge != null;
+		return getConnectionPoints(pEdge);
+	}
+	
+	/**
+	 * @param pEdge The edge whose shape we want.
+	 * @return The geometry of the shape of pEdge, computed again only 
+	 *     if the shape key of pEdge changed.
+	 * @pre pEdge != null
+	 */
+	EdgeShape getEdgeShape(Edge pEdge)
+	{
+		assert pEdge != null;
+		Object key = getShapeKey(pEdge);
+		CachedShape cached = aShapes.get(pEdge);
+		if( cached == null || !cached.aKey.equals(key) )
+		{
+			cached = new CachedShape(key, EdgeShape.of(getShape(pEdge)));
+			aShapes.put(pEdge, cached);
+		}
+		return cached.aShape;
+	}
+	
+	@Override
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		assert pEstimator != null;
+		pEstimator.add(Category.EDGE_CACHE, aShapes);
+	}
+	
 	/**
 	 * @param pText Some text to test.
 	 * @return The width and height of the text.
@@ -103,16 +154,13 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 			return false;
 		}
 
-		Shape fatPath = getShape(edge);
-		fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-		return fatPath.contains(pPoint.getX(), pPoint.getY());
+		return getEdgeShape(edge).isNear(pPoint, MAX_DISTANCE);
 	}
 	
 	@Override
 	public Rectangle getBounds(DiagramElement pElement)
 	{
-		Bounds bounds = getShape((Edge)pElement).getBoundsInLocal();
-		return new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(), (int)bounds.getWidth(), (int)bounds.getHeight());
+		return getEdgeShape((Edge)pElement).getBounds();
 	}
 	
 	/*
@@ -124,6 +172,15 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 	 */
 	@Override
 	public Line getConnectionPoints(Edge pEdge)
+	{
+		return getStraightConnectionPoints(pEdge);
+	}
+	
+	/*
+	 * The connection points of a straight line between the current bounds of 
+	 * the nodes of pEdge, which does not depend on a stored path.
+	 */
+	private Line getStraightConnectionPoints(Edge pEdge)
 	{
 		Rectangle startBounds = parent().getBounds(pEdge.start());
 		Rectangle endBounds = parent().getBounds(pEdge.end());
@@ -134,6 +191,28 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 				parent().getConnectionPoints(pEdge.end(), toEnd.rotatedBy(DEGREES_180)));
 	}
 
+	/*
+	 * With names, a simplified edge is its shape without labels or arrow heads.
+	 * With outlines only, it is a straight line between its nodes, computed from 
+	 * their current bounds so that it follows nodes that are being moved even if 
+	 * the stored path of the edge is not updated.
+	 */
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		Edge edge = (Edge) pElement;
+		if( pLevelOfDetail == LevelOfDetail.NAMES )
+		{
+			getEdgeShape(edge).draw(pGraphics);
+		}
+		else
+		{
+			Line connectionPoints = getStraightConnectionPoints(edge);
+			ToolGraphics.strokeSharpLine(pGraphics, connectionPoints.getX1(), connectionPoints.getY1(), 
+					connectionPoints.getX2(), connectionPoints.getY2());
+		}
+	}
+	
 	@Override
 	public void drawSelectionHandles(DiagramElement pElement, GraphicsContext pGraphics)
 	{
@@ -155,4 +234,16 @@ public abstract class AbstractEdgeRenderer implements EdgeRenderer
 		}
 		return StringRenderer.wrapString(pString, lineLength);
 	}
+	
+	private static final class CachedShape
+	{
+		private final Object aKey;
+		private final EdgeShape aShape;
+		
+		CachedShape(Object pKey, EdgeShape pShape)
+		{
+			aKey = pKey;
+			aShape = pShape;
+		}
+	}
 }
@@ -17,10 +17,11 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.rendering.edges;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
@@ -86,6 +87,12 @@ public final class CallEdgeRenderer extends AbstractEdgeRenderer
 		return path;
 	}
 	
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return Arrays.asList(getPoints(pEdge));
+	}
+	
 	@Override
 	public Line getConnectionPoints(Edge pEdge)
 	{
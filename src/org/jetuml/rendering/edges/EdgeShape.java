@@ -0,0 +1,235 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.edges;
+
+import java.util.Arrays;
+
+import org.jetuml.annotations.Immutable;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+
+import javafx.geometry.Bounds;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.shape.Arc;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.QuadCurveTo;
+import javafx.scene.shape.Shape;
+
+/**
+ * The geometry of the shape of an edge, as a sequence of line segments
+ * that approximate its curves, together with its bounds. Testing whether
+ * a point is near the shape only involves arithmetic, so an edge shape can
+ * be kept instead of the JavaFX shape it is created from.
+ */
+@Immutable
+final class EdgeShape
+{
+	private static final int SEGMENTS_PER_CURVE = 16;
+
+	// The coordinates x1, y1, x2, y2 of each segment, in sequence
+	private final double[] aSegments;
+	private final Rectangle aBounds;
+
+	private EdgeShape(double[] pSegments, Rectangle pBounds)
+	{
+		aSegments = pSegments;
+		aBounds = pBounds;
+	}
+
+	/**
+	 * Creates the geometry of pShape.
+	 *
+	 * @param pShape A path made of MoveTo, LineTo, and QuadCurveTo elements, or an arc.
+	 * @return The geometry of pShape.
+	 * @pre pShape instanceof Path || pShape instanceof Arc
+	 */
+	static EdgeShape of(Shape pShape)
+	{
+		assert pShape instanceof Path || pShape instanceof Arc;
+		Bounds bounds = pShape.getBoundsInLocal();
+		Rectangle rectangle = new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(),
+				(int)bounds.getWidth(), (int)bounds.getHeight());
+		Segments segments = new Segments();
+		if( pShape instanceof Path )
+		{
+			flatten((Path) pShape, segments);
+		}
+		else
+		{
+			flatten((Arc) pShape, segments);
+		}
+		return new EdgeShape(segments.toArray(), rectangle);
+	}
+
+	/**
+	 * @return The bounds of the shape, including the width of its stroke.
+	 */
+	Rectangle getBounds()
+	{
+		return aBounds;
+	}
+
+	/**
+	 * @param pPoint The point to test.
+	 * @param pDistance The maximal distance.
+	 * @return True if the distance between pPoint and the shape is at most pDistance.
+	 * @pre pPoint != null
+	 */
+	boolean isNear(Point pPoint, double pDistance)
+	{
+		assert pPoint != null;
+		double squaredDistance = pDistance * pDistance;
+		for( int i = 0; i < aSegments.length; i += 4 )
+		{
+			if( squaredDistanceToSegment(pPoint.getX(), pPoint.getY(),
+					aSegments[i], aSegments[i+1], aSegments[i+2], aSegments[i+3]) <= squaredDistance )
+			{
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Strokes the segments of the shape with the current stroke of pGraphics.
+	 * 
+	 * @param pGraphics The graphics context.
+	 * @pre pGraphics != null
+	 */
+	void draw(GraphicsContext pGraphics)
+	{
+		assert pGraphics != null;
+		for( int i = 0; i < aSegments.length; i += 4 )
+		{
+			pGraphics.strokeLine(aSegments[i] + 0.5, aSegments[i+1] + 0.5, aSegments[i+2] + 0.5, aSegments[i+3] + 0.5);
+		}
+	}
+	
+	/*
+	 * The square of the distance between point (pX, pY) and the closest
+	 * point of the segment between (pX1, pY1) and (pX2, pY2).
+	 */
+	private static double squaredDistanceToSegment(double pX, double pY, double pX1, double pY1, double pX2, double pY2)
+	{
+		double dx = pX2 - pX1;
+		double dy = pY2 - pY1;
+		double squaredLength = dx * dx + dy * dy;
+		double t = 0;
+		if( squaredLength > 0 )
+		{
+			t = Math.max(0, Math.min(1, ((pX - pX1) * dx + (pY - pY1) * dy) / squaredLength));
+		}
+		double closestX = pX1 + t * dx - pX;
+		double closestY = pY1 + t * dy - pY;
+		return closestX * closestX + closestY * closestY;
+	}
+
+	private static void flatten(Path pPath, Segments pSegments)
+	{
+		double x = 0;
+		double y = 0;
+		for( PathElement element : pPath.getElements() )
+		{
+			if( element instanceof MoveTo )
+			{
+				MoveTo moveTo = (MoveTo) element;
+				x = moveTo.getX();
+				y = moveTo.getY();
+			}
+			else if( element instanceof LineTo )
+			{
+				LineTo lineTo = (LineTo) element;
+				pSegments.add(x, y, lineTo.getX(), lineTo.getY());
+				x = lineTo.getX();
+				y = lineTo.getY();
+			}
+			else
+			{
+				assert element instanceof QuadCurveTo;
+				QuadCurveTo curve = (QuadCurveTo) element;
+				double previousX = x;
+				double previousY = y;
+				for( int i = 1; i <= SEGMENTS_PER_CURVE; i++ )
+				{
+					double t = i / (double) SEGMENTS_PER_CURVE;
+					double u = 1 - t;
+					double nextX = u * u * x + 2 * u * t * curve.getControlX() + t * t * curve.getX();
+					double nextY = u * u * y + 2 * u * t * curve.getControlY() + t * t * curve.getY();
+					pSegments.add(previousX, previousY, nextX, nextY);
+					previousX = nextX;
+					previousY = nextY;
+				}
+				x = curve.getX();
+				y = curve.getY();
+			}
+		}
+	}
+
+	/*
+	 * Angles are in degrees, counterclockwise, with the y axis pointing down.
+	 */
+	private static void flatten(Arc pArc, Segments pSegments)
+	{
+		double previousX = 0;
+		double previousY = 0;
+		for( int i = 0; i <= SEGMENTS_PER_CURVE; i++ )
+		{
+			double angle = Math.toRadians(pArc.getStartAngle() + pArc.getLength() * i / SEGMENTS_PER_CURVE);
+			double x = pArc.getCenterX() + pArc.getRadiusX() * Math.cos(angle);
+			double y = pArc.getCenterY() - pArc.getRadiusY() * Math.sin(angle);
+			if( i > 0 )
+			{
+				pSegments.add(previousX, previousY, x, y);
+			}
+			previousX = x;
+			previousY = y;
+		}
+	}
+
+	/*
+	 * A growable array of segment coordinates.
+	 */
+	private static final class Segments
+	{
+		private double[] aCoordinates = new double[4 * SEGMENTS_PER_CURVE];
+		private int aSize = 0;
+
+		void add(double pX1, double pY1, double pX2, double pY2)
+		{
+			if( aSize + 4 > aCoordinates.length )
+			{
+				aCoordinates = Arrays.copyOf(aCoordinates, aCoordinates.length * 2);
+			}
+			aCoordinates[aSize++] = pX1;
+			aCoordinates[aSize++] = pY1;
+			aCoordinates[aSize++] = pX2;
+			aCoordinates[aSize++] = pY2;
+		}
+
+		double[] toArray()
+		{
+			return Arrays.copyOf(aCoordinates, aSize);
+		}
+	}
+}
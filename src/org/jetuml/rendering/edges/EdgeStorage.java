@@ -21,10 +21,10 @@
 package org.jetuml.rendering.edges;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
@@ -33,10 +33,20 @@ import org.jetuml.geom.Point;
 
 /**
  * Stores the EdgePaths of Edges for class diagrams.
+ * 
+ * The edges are indexed by node, by pair of nodes, and by end point,
+ * so that queries take time proportional to the number of edges 
+ * connected to a node rather than to the number of stored edges.
+ * Edges are indexed with the nodes they are connected to when they
+ * are stored.
  */
 public class EdgeStorage
 {
 	private Map<Edge, EdgePath> aEdgePaths = new IdentityHashMap<>();
+	private final Map<Node, List<Edge>> aEdgesByNode = new IdentityHashMap<>();
+	private final Map<NodePair, List<Edge>> aEdgesByNodePair = new HashMap<>();
+	// The number of stored paths that start or end at each point
+	private final Map<Point, Integer> aEndPoints = new HashMap<>();
  	
  	/**
  	 * Adds pEdge and pEdgePath into storage.
@@ -48,7 +58,33 @@ public class EdgeStorage
  	public void store(Edge pEdge, EdgePath pEdgePath)
  	{
  		assert pEdge!=null && pEdgePath!=null;
- 		aEdgePaths.put(pEdge, pEdgePath);
+ 		EdgePath previous = aEdgePaths.put(pEdge, pEdgePath);
+ 		if( previous == null )
+ 		{
+ 			index(pEdge);
+ 		}
+ 		else
+ 		{
+ 			countEndPoint(previous.getStartPoint(), -1);
+ 			countEndPoint(previous.getEndPoint(), -1);
+ 		}
+ 		countEndPoint(pEdgePath.getStartPoint(), 1);
+ 		countEndPoint(pEdgePath.getEndPoint(), 1);
+ 	}
+ 	
+ 	private void index(Edge pEdge)
+ 	{
+ 		aEdgesByNode.computeIfAbsent(pEdge.start(), node -> new ArrayList<>()).add(pEdge);
+ 		if( pEdge.end() != pEdge.start() )
+ 		{
+ 			aEdgesByNode.computeIfAbsent(pEdge.end(), node -> new ArrayList<>()).add(pEdge);
+ 		}
+ 		aEdgesByNodePair.computeIfAbsent(new NodePair(pEdge.start(), pEdge.end()), pair -> new ArrayList<>()).add(pEdge);
+ 	}
+ 	
+ 	private void countEndPoint(Point pPoint, int pDelta)
+ 	{
+ 		aEndPoints.merge(pPoint, pDelta, (count, delta) -> count + delta == 0 ? null : count + delta);
  	}
  
  	
@@ -97,15 +133,7 @@ public class EdgeStorage
 	public List<Edge> edgesConnectedTo(Node pNode)
 	{
 		assert pNode != null;
-		List<Edge> result = new ArrayList<>();
-		for( Edge edge : aEdgePaths.keySet() )
-		{
-			if( edge.start() == pNode || edge.end() == pNode )
-			{
-				result.add(edge);
-			}
-		}
-		return result;
+		return new ArrayList<>(aEdgesByNode.getOrDefault(pNode, List.of()));
 	}
 	
 	/**
@@ -117,29 +145,26 @@ public class EdgeStorage
 	public boolean connectionPointIsAvailable(Point pConnectionPoint)
 	{
 		assert pConnectionPoint !=null;
-		for( EdgePath path : aEdgePaths.values() )
-		{
-			if (path.getStartPoint().equals(pConnectionPoint) || path.getEndPoint().equals(pConnectionPoint))
-			{
-				return false;
-			}
-		}
-		return true;
+		return !aEndPoints.containsKey(pConnectionPoint);
 	}
 	
 	/**
 	 * Returns a list of edges which share the same two attached nodes as pEdge, reffered to as "shared-node edges".
 	 * Based on diagram constraints, this list will typically either be empty or contain a maximum of 1 edge. 
+	 * Self-edges on either node of pEdge are also included.
 	 * @param pEdge the edge of interest
 	 * @return a list of edges from storage which are also attached to pEdge.getStart() and pEdge.getEnd(). 	 
 	 */
 	public List<Edge> getEdgesWithSameNodes(Edge pEdge)
 	{
-		return aEdgePaths.keySet().stream()
-				.filter(edge -> edge.start() == pEdge.start() || edge.start() == pEdge.end())
-				.filter(edge -> edge.end() == pEdge.start() || edge.end() == pEdge.end())
-				.filter(edge -> !edge.equals(pEdge))
-				.collect(Collectors.toList());
+		List<Edge> result = new ArrayList<>(aEdgesByNodePair.getOrDefault(new NodePair(pEdge.start(), pEdge.end()), List.of()));
+		if( pEdge.start() != pEdge.end() )
+		{
+			result.addAll(aEdgesByNodePair.getOrDefault(new NodePair(pEdge.start(), pEdge.start()), List.of()));
+			result.addAll(aEdgesByNodePair.getOrDefault(new NodePair(pEdge.end(), pEdge.end()), List.of()));
+		}
+		result.remove(pEdge);
+		return result;
 	}
 	
 	/**
@@ -148,5 +173,45 @@ public class EdgeStorage
 	public void clearStorage()
 	{
 		aEdgePaths.clear();
+		aEdgesByNode.clear();
+		aEdgesByNodePair.clear();
+		aEndPoints.clear();
+	}
+	
+	/*
+	 * An unordered pair of nodes, compared by identity.
+	 */
+	private static final class NodePair
+	{
+		private final Node aFirst;
+		private final Node aSecond;
+		
+		NodePair(Node pFirst, Node pSecond)
+		{
+			aFirst = pFirst;
+			aSecond = pSecond;
+		}
+		
+		@Override
+		public int hashCode()
+		{
+			return System.identityHashCode(aFirst) + System.identityHashCode(aSecond);
+		}
+		
+		@Override
+		public boolean equals(Object pObject)
+		{
+			if( this == pObject )
+			{
+				return true;
+			}
+			if( pObject == null || pObject.getClass() != getClass() )
+			{
+				return false;
+			}
+			NodePair other = (NodePair) pObject;
+			return aFirst == other.aFirst && aSecond == other.aSecond || 
+					aFirst == other.aSecond && aSecond == other.aFirst;
+		}
 	}
 }
@@ -20,6 +20,8 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.List;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
@@ -68,6 +70,12 @@ public final class ObjectReferenceEdgeRenderer extends AbstractEdgeRenderer
 		}			
 	}
 	
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return List.of(getConnectionPoints(pEdge), isSShaped(pEdge));
+	}
+	
 	private static Path getSShape(Line pConnectionPoints)
 	{
 		final int x1 = pConnectionPoints.getX1() + ENDSIZE;
@@ -17,9 +17,11 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import java.util.List;
+
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Edge;
@@ -276,6 +278,12 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 		}
 	}
 	
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		return List.of(getConnectionPoints(pEdge), getPosition(pEdge));
+	}
+	
 	private static boolean isSelfEdge(Edge pEdge)
 	{
 		return pEdge.start() == pEdge.end();
@@ -283,39 +291,81 @@ public final class StateTransitionEdgeRenderer extends AbstractEdgeRenderer
 	
 	private Shape getSelfEdgeShape(Edge pEdge)
 	{
-		Line line = getSelfEdgeConnectionPoints(pEdge);
+		Point center = getSelfEdgeCenter(pEdge);
 		Arc arc = new Arc();
 		arc.setRadiusX(SELF_EDGE_OFFSET*2);
 		arc.setRadiusY(SELF_EDGE_OFFSET*2);
 		arc.setLength(DEGREES_270);
 		arc.setType(ArcType.OPEN);
+		arc.setCenterX(center.getX());
+		arc.setCenterY(center.getY());
+		arc.setStartAngle(getSelfEdgeStartAngle(pEdge));
+		return arc;
+	}
+	
+	private Point getSelfEdgeCenter(Edge pEdge)
+	{
+		Line line = getSelfEdgeConnectionPoints(pEdge);
 		if( getPosition(pEdge) == 1 )
 		{
-			arc.setCenterX(line.getX1());
-			arc.setCenterY(line.getY1()-SELF_EDGE_OFFSET);
-			arc.setStartAngle(DEGREES_270);
+			return new Point(line.getX1(), line.getY1()-SELF_EDGE_OFFSET);
 		}
 		else
 		{		
-			arc.setCenterX(line.getX1()-SELF_EDGE_OFFSET);
-			arc.setCenterY(line.getY1()-SELF_EDGE_OFFSET*2);
-			arc.setStartAngle(1);
+			return new Point(line.getX1()-SELF_EDGE_OFFSET, line.getY1()-SELF_EDGE_OFFSET*2);
+		}
+	}
+	
+	private int getSelfEdgeStartAngle(Edge pEdge)
+	{
+		if( getPosition(pEdge) == 1 )
+		{
+			return DEGREES_270;
+		}
+		else
+		{
+			return 1;
 		}
-		return arc;
 	}
 	
 	@Override
 	public boolean contains(DiagramElement pElement, Point pPoint)
 	{
-		boolean result = super.contains(pElement, pPoint);
-		if (getShape((Edge)pElement) instanceof Arc)
+		Edge edge = (Edge) pElement;
+		if( isSelfEdge(edge) )
+		{
+			return openArcContains(getSelfEdgeCenter(edge), SELF_EDGE_OFFSET*2 + 2*MAX_DISTANCE, 
+					getSelfEdgeStartAngle(edge), DEGREES_270, pPoint);
+		}
+		return super.contains(pElement, pPoint);
+	}
+	
+	/*
+	 * Returns true if pPoint is in the region enclosed by an open circular arc and 
+	 * the chord between its end points, that is, in the disk of the arc except for 
+	 * the part of the disk cut off by the chord. Angles are in degrees, counterclockwise, 
+	 * with the y axis pointing down.
+	 * @pre pLength >= 180
+	 */
+	private static boolean openArcContains(Point pCenter, double pRadius, double pStartAngle, double pLength, Point pPoint)
+	{
+		assert pLength >= 180;
+		double dx = pPoint.getX() - pCenter.getX();
+		double dy = pCenter.getY() - pPoint.getY();
+		if( dx * dx + dy * dy > pRadius * pRadius )
+		{
+			return false;
+		}
+		double angle = Math.toDegrees(Math.atan2(dy, dx)) - pStartAngle;
+		angle = ((angle % 360) + 360) % 360;
+		if( angle <= pLength )
 		{
-			Arc arc = (Arc) getShape((Edge)pElement);
-			arc.setRadiusX(arc.getRadiusX() + 2 * MAX_DISTANCE);
-			arc.setRadiusY(arc.getRadiusY() + 2 * MAX_DISTANCE);
-			result = arc.contains(pPoint.getX(), pPoint.getY());
+			return true;
 		}
-		return result;
+		// The point is between the radii to the ends of the arc, on the side not covered by the arc
+		double halfGap = Math.toRadians((360 - pLength) / 2);
+		double bisector = Math.toRadians(pStartAngle + pLength) + halfGap;
+		return dx * Math.cos(bisector) + dy * Math.sin(bisector) <= pRadius * Math.cos(halfGap);
 	}
 	
 	/** 
@@ -419,6 +419,13 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 		assert pEdge != null;
 		return getSegmentPath(pEdge);
 	}
+	
+	@Override
+	protected Object getShapeKey(Edge pEdge)
+	{
+		assert pEdge != null;
+		return getStoredEdgePath(pEdge);
+	}
 
 	@Override
 	public void draw(DiagramElement pElement, GraphicsContext pGraphics) 
@@ -501,9 +508,7 @@ public class StoredEdgeRenderer extends AbstractEdgeRenderer
 			{
 				return true;
 			}
-			Shape fatPath = getShape((Edge)pElement);
-			fatPath.setStrokeWidth(2 * MAX_DISTANCE);
-			return fatPath.contains(pPoint.getX(), pPoint.getY());
+			return getEdgeShape((Edge)pElement).isNear(pPoint, MAX_DISTANCE);
 		}
 	}
 
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.Grid;
+
+/**
+ * Computes new positions for all the nodes of a class or object diagram. 
+ * 
+ * The children of each package are laid out first, then the package is laid out 
+ * as a single block with its children, so packages keep their content. The nodes 
+ * at each level are laid out with a layered layout if most of the edges between
+ * them are generalizations, and with a force-directed layout otherwise. An edge
+ * between nodes in different packages is considered an edge between the 
+ * outermost packages that separate them.
+ */
+public final class AutoLayout
+{
+	private static final int MARGIN = 20;
+	
+	private final DiagramRenderer aRenderer;
+	private final List<Link> aRootLinks = new ArrayList<>();
+	private final Map<Node, List<Link>> aLinks = new IdentityHashMap<>();
+	
+	private AutoLayout(DiagramRenderer pRenderer)
+	{
+		aRenderer = pRenderer;
+		for( Edge edge : pRenderer.diagram().edges() )
+		{
+			addLink(edge);
+		}
+	}
+	
+	/**
+	 * @param pType A type of diagram.
+	 * @return True if diagrams of type pType can be laid out automatically.
+	 * @pre pType != null
+	 */
+	public static boolean supports(DiagramType pType)
+	{
+		assert pType != null;
+		return pType == DiagramType.CLASS || pType == DiagramType.OBJECT;
+	}
+	
+	/**
+	 * Computes the new position of every node of the diagram of pRenderer.
+	 * The diagram is laid out by moving its nodes, to measure the packages
+	 * whose children have been laid out, but all the nodes are back at their 
+	 * original position when this method returns.
+	 * 
+	 * @param pRenderer The renderer of the diagram to lay out.
+	 * @return The new position of every node in the diagram.
+	 * @pre pRenderer != null && supports(pRenderer.diagram().getType())
+	 */
+	public static Map<Node, Point> computePositions(DiagramRenderer pRenderer)
+	{
+		assert pRenderer != null && supports(pRenderer.diagram().getType());
+		Diagram diagram = pRenderer.diagram();
+		Map<Node, Point> original = new IdentityHashMap<>();
+		diagram.allNodes().forEach(node -> original.put(node, node.position()));
+		try
+		{
+			AutoLayout layout = new AutoLayout(pRenderer);
+			layout.layout(diagram.rootNodes(), layout.aRootLinks);
+			Map<Node, Point> result = new IdentityHashMap<>();
+			original.keySet().forEach(node -> result.put(node, node.position()));
+			return result;
+		}
+		finally
+		{
+			original.forEach(Node::moveTo);
+		}
+	}
+	
+	/*
+	 * Records pEdge as a link between the two nodes that contain its endpoints 
+	 * and share the same parent, if the endpoints are different.
+	 */
+	private void addLink(Edge pEdge)
+	{
+		List<Node> start = ancestors(pEdge.start());
+		List<Node> end = ancestors(pEdge.end());
+		int level = 0;
+		while( level < start.size() && level < end.size() && start.get(level) == end.get(level) )
+		{
+			level++;
+		}
+		if( level == start.size() || level == end.size() )
+		{
+			return; // Between a node and itself or one of its descendants
+		}
+		Link link = new Link(start.get(level), end.get(level), pEdge instanceof GeneralizationEdge);
+		if( level == 0 )
+		{
+			aRootLinks.add(link);
+		}
+		else
+		{
+			aLinks.computeIfAbsent(start.get(level - 1), node -> new ArrayList<>()).add(link);
+		}
+	}
+	
+	/*
+	 * Returns pNode and its ancestors, starting with its root node.
+	 */
+	private static List<Node> ancestors(Node pNode)
+	{
+		List<Node> result = new ArrayList<>();
+		Node node = pNode;
+		result.add(node);
+		while( node.hasParent() )
+		{
+			node = node.getParent();
+			result.add(node);
+		}
+		Collections.reverse(result);
+		return result;
+	}
+	
+	/*
+	 * Lays out the children of the packages in pNodes, then pNodes.
+	 */
+	private void layout(List<Node> pNodes, List<Link> pLinks)
+	{
+		for( Node node : pNodes )
+		{
+			if( node instanceof PackageNode && !node.getChildren().isEmpty() )
+			{
+				layout(node.getChildren(), aLinks.getOrDefault(node, List.of()));
+			}
+		}
+		if( pNodes.isEmpty() )
+		{
+			return;
+		}
+		Map<Node, Integer> indices = new IdentityHashMap<>();
+		Rectangle[] bounds = new Rectangle[pNodes.size()];
+		int[] widths = new int[pNodes.size()];
+		int[] heights = new int[pNodes.size()];
+		for( int i = 0; i < pNodes.size(); i++ )
+		{
+			indices.put(pNodes.get(i), i);
+			bounds[i] = aRenderer.getBounds(pNodes.get(i));
+			widths[i] = bounds[i].getWidth();
+			heights[i] = bounds[i].getHeight();
+		}
+		LayoutGraph graph = new LayoutGraph(widths, heights);
+		for( Link link : pLinks )
+		{
+			graph.addLink(indices.get(link.aStart), indices.get(link.aEnd), link.aIsGeneralization);
+		}
+		Point[] positions;
+		if( graph.isMostlyHierarchy() )
+		{
+			positions = LayeredLayout.layout(graph);
+		}
+		else
+		{
+			positions = ForceDirectedLayout.layout(graph);
+		}
+		int minX = Integer.MAX_VALUE;
+		int minY = Integer.MAX_VALUE;
+		for( Point position : positions )
+		{
+			minX = Math.min(minX, position.getX());
+			minY = Math.min(minY, position.getY());
+		}
+		for( int i = 0; i < positions.length; i++ )
+		{
+			Point target = Grid.snapped(new Point(positions[i].getX() - minX + MARGIN, positions[i].getY() - minY + MARGIN));
+			pNodes.get(i).translate(target.getX() - bounds[i].getX(), target.getY() - bounds[i].getY());
+		}
+	}
+	
+	/*
+	 * An edge between two nodes with the same parent, or two root nodes.
+	 */
+	private static final class Link
+	{
+		private final Node aStart;
+		private final Node aEnd;
+		private final boolean aIsGeneralization;
+		
+		Link(Node pStart, Node pEnd, boolean pIsGeneralization)
+		{
+			aStart = pStart;
+			aEnd = pEnd;
+			aIsGeneralization = pIsGeneralization;
+		}
+	}
+}
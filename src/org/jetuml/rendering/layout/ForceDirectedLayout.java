@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import org.jetuml.geom.Point;
+
+/**
+ * Places the blocks of a graph by simulating linked blocks that attract each
+ * other and blocks that all repel each other, in the manner of Fruchterman and 
+ * Reingold. The repulsion is approximated with the Barnes-Hut method, and the 
+ * forces on the blocks are computed in parallel. A weak attraction towards 
+ * the center keeps the unconnected parts of the graph together. Blocks that
+ * overlap at the end of the simulation are then moved apart.
+ */
+final class ForceDirectedLayout
+{
+	private static final int GAP = 40;
+	private static final int ITERATIONS = 200;
+	private static final double THETA = 0.9;
+	private static final double GRAVITY = 1;
+	
+	private final LayoutGraph aGraph;
+	private final double aDistance; // The ideal distance between linked blocks
+	private final int[] aOffsets; // The neighbors of block i are at aOffsets[i] until aOffsets[i+1]
+	private final int[] aNeighbors;
+	private final double[] aX; // Centers of the blocks
+	private final double[] aY;
+	private final double[] aDisplacementX;
+	private final double[] aDisplacementY;
+	
+	private ForceDirectedLayout(LayoutGraph pGraph)
+	{
+		aGraph = pGraph;
+		int size = pGraph.size();
+		double sum = 0;
+		for( int i = 0; i < size; i++ )
+		{
+			sum += Math.max(pGraph.width(i), pGraph.height(i));
+		}
+		aDistance = sum / size + GAP;
+		aOffsets = new int[size + 1];
+		for( int link = 0; link < pGraph.numberOfLinks(); link++ )
+		{
+			aOffsets[pGraph.start(link) + 1]++;
+			aOffsets[pGraph.end(link) + 1]++;
+		}
+		for( int i = 0; i < size; i++ )
+		{
+			aOffsets[i + 1] += aOffsets[i];
+		}
+		aNeighbors = new int[aOffsets[size]];
+		int[] next = Arrays.copyOf(aOffsets, size);
+		for( int link = 0; link < pGraph.numberOfLinks(); link++ )
+		{
+			aNeighbors[next[pGraph.start(link)]++] = pGraph.end(link);
+			aNeighbors[next[pGraph.end(link)]++] = pGraph.start(link);
+		}
+		aX = new double[size];
+		aY = new double[size];
+		aDisplacementX = new double[size];
+		aDisplacementY = new double[size];
+	}
+	
+	/**
+	 * @param pGraph The graph to lay out.
+	 * @return The position of the top-left corner of each block.
+	 * @pre pGraph != null && pGraph.size() > 0
+	 */
+	static Point[] layout(LayoutGraph pGraph)
+	{
+		assert pGraph != null && pGraph.size() > 0;
+		ForceDirectedLayout layout = new ForceDirectedLayout(pGraph);
+		layout.placeOnGrid();
+		layout.simulate();
+		return layout.removeOverlaps();
+	}
+	
+	/*
+	 * Places the blocks on a square grid in breadth-first order, so that
+	 * the simulation starts with most linked blocks close to each other.
+	 */
+	private void placeOnGrid()
+	{
+		int columns = (int) Math.ceil(Math.sqrt(aGraph.size()));
+		boolean[] visited = new boolean[aGraph.size()];
+		Deque<Integer> queue = new ArrayDeque<>();
+		int cell = 0;
+		for( int root = 0; root < aGraph.size(); root++ )
+		{
+			if( visited[root] )
+			{
+				continue;
+			}
+			visited[root] = true;
+			queue.add(root);
+			while( !queue.isEmpty() )
+			{
+				int block = queue.remove();
+				aX[block] = cell % columns * aDistance;
+				aY[block] = cell / columns * aDistance;
+				cell++;
+				for( int i = aOffsets[block]; i < aOffsets[block + 1]; i++ )
+				{
+					if( !visited[aNeighbors[i]] )
+					{
+						visited[aNeighbors[i]] = true;
+						queue.add(aNeighbors[i]);
+					}
+				}
+			}
+		}
+	}
+	
+	/*
+	 * The maximal displacement of a block decreases linearly with each iteration.
+	 */
+	private void simulate()
+	{
+		double initialTemperature = aDistance * (1 + Math.sqrt(aGraph.size()) / 4);
+		for( int iteration = 0; iteration < ITERATIONS; iteration++ )
+		{
+			QuadTree tree = new QuadTree(aX, aY);
+			double centerX = Arrays.stream(aX).average().getAsDouble();
+			double centerY = Arrays.stream(aY).average().getAsDouble();
+			IntStream.range(0, aGraph.size()).parallel()
+				.forEach(block -> computeDisplacement(block, tree, centerX, centerY));
+			double temperature = initialTemperature * (ITERATIONS - iteration) / ITERATIONS;
+			IntStream.range(0, aGraph.size()).parallel().forEach(block -> move(block, temperature));
+		}
+	}
+	
+	private void computeDisplacement(int pBlock, QuadTree pTree, double pCenterX, double pCenterY)
+	{
+		double[] force = new double[2];
+		pTree.addRepulsion(pBlock, aDistance * aDistance, THETA, force);
+		for( int i = aOffsets[pBlock]; i < aOffsets[pBlock + 1]; i++ )
+		{
+			// The attraction is d^2 / k along the unit vector (dx, dy) / d
+			double dx = aX[aNeighbors[i]] - aX[pBlock];
+			double dy = aY[aNeighbors[i]] - aY[pBlock];
+			double distance = Math.sqrt(dx * dx + dy * dy);
+			force[0] += dx * distance / aDistance;
+			force[1] += dy * distance / aDistance;
+		}
+		force[0] += (pCenterX - aX[pBlock]) * GRAVITY;
+		force[1] += (pCenterY - aY[pBlock]) * GRAVITY;
+		aDisplacementX[pBlock] = force[0];
+		aDisplacementY[pBlock] = force[1];
+	}
+	
+	private void move(int pBlock, double pTemperature)
+	{
+		double length = Math.sqrt(aDisplacementX[pBlock] * aDisplacementX[pBlock] + 
+				aDisplacementY[pBlock] * aDisplacementY[pBlock]);
+		if( length > 0 )
+		{
+			double factor = Math.min(length, pTemperature) / length;
+			aX[pBlock] += aDisplacementX[pBlock] * factor;
+			aY[pBlock] += aDisplacementY[pBlock] * factor;
+		}
+	}
+	
+	/*
+	 * Places the blocks from top to bottom, moving each block that overlaps an 
+	 * already placed block to the right of it. Placed blocks are found with a 
+	 * uniform grid of buckets.
+	 */
+	private Point[] removeOverlaps()
+	{
+		int size = aGraph.size();
+		int[] left = new int[size];
+		int[] top = new int[size];
+		for( int i = 0; i < size; i++ )
+		{
+			left[i] = (int) Math.round(aX[i] - aGraph.width(i) / 2.0);
+			top[i] = (int) Math.round(aY[i] - aGraph.height(i) / 2.0);
+		}
+		Integer[] order = new Integer[size];
+		Arrays.setAll(order, i -> i);
+		Arrays.sort(order, Comparator.comparingInt((Integer block) -> top[block]).thenComparingInt(block -> left[block]));
+		
+		int bucketSize = (int) Math.ceil(aDistance);
+		Map<Long, List<Integer>> buckets = new HashMap<>();
+		for( int block : order )
+		{
+			int overlapping = findOverlapping(block, left, top, buckets, bucketSize);
+			while( overlapping >= 0 )
+			{
+				left[block] = left[overlapping] + aGraph.width(overlapping) + GAP;
+				overlapping = findOverlapping(block, left, top, buckets, bucketSize);
+			}
+			for( long key : bucketKeys(left[block], top[block], aGraph.width(block), aGraph.height(block), bucketSize) )
+			{
+				buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(block);
+			}
+		}
+		
+		Point[] result = new Point[size];
+		for( int i = 0; i < size; i++ )
+		{
+			result[i] = new Point(left[i], top[i]);
+		}
+		return result;
+	}
+	
+	/*
+	 * Returns a placed block that is closer than GAP / 2 to pBlock, or -1.
+	 */
+	private int findOverlapping(int pBlock, int[] pLeft, int[] pTop, Map<Long, List<Integer>> pBuckets, int pBucketSize)
+	{
+		int margin = GAP / 2;
+		for( long key : bucketKeys(pLeft[pBlock] - margin, pTop[pBlock] - margin, 
+				aGraph.width(pBlock) + 2 * margin, aGraph.height(pBlock) + 2 * margin, pBucketSize) )
+		{
+			for( int other : pBuckets.getOrDefault(key, List.of()) )
+			{
+				if( pLeft[pBlock] - margin < pLeft[other] + aGraph.width(other) && 
+						pLeft[other] < pLeft[pBlock] + aGraph.width(pBlock) + margin &&
+						pTop[pBlock] - margin < pTop[other] + aGraph.height(other) && 
+						pTop[other] < pTop[pBlock] + aGraph.height(pBlock) + margin )
+				{
+					return other;
+				}
+			}
+		}
+		return -1;
+	}
+	
+	private static long[] bucketKeys(int pLeft, int pTop, int pWidth, int pHeight, int pBucketSize)
+	{
+		int firstColumn = Math.floorDiv(pLeft, pBucketSize);
+		int lastColumn = Math.floorDiv(pLeft + pWidth, pBucketSize);
+		int firstRow = Math.floorDiv(pTop, pBucketSize);
+		int lastRow = Math.floorDiv(pTop + pHeight, pBucketSize);
+		long[] keys = new long[(lastColumn - firstColumn + 1) * (lastRow - firstRow + 1)];
+		int index = 0;
+		for( int column = firstColumn; column <= lastColumn; column++ )
+		{
+			for( int row = firstRow; row <= lastRow; row++ )
+			{
+				keys[index++] = (long) column << Integer.SIZE | row & 0xFFFFFFFFL;
+			}
+		}
+		return keys;
+	}
+}
@@ -0,0 +1,349 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+
+import org.jetuml.geom.Point;
+
+/**
+ * Places the blocks of a graph in layers, so that every subtype is in a layer
+ * below all its supertypes, then orders the blocks in each layer to reduce the
+ * number of crossings, using the barycenter heuristic. Blocks without hierarchy
+ * links are placed in rows below the layers.
+ */
+final class LayeredLayout
+{
+	private static final int HORIZONTAL_GAP = 40;
+	private static final int VERTICAL_GAP = 80;
+	private static final int SWEEPS = 4;
+	
+	private static final int NEW = 0;
+	private static final int ACTIVE = 1;
+	private static final int DONE = 2;
+	
+	private final LayoutGraph aGraph;
+	private final List<List<Integer>> aSupertypes = new ArrayList<>();
+	private final List<List<Integer>> aSubtypes = new ArrayList<>();
+	private final List<List<Integer>> aLayers = new ArrayList<>();
+	private final List<Integer> aUnrelated = new ArrayList<>();
+	private final int[] aLayerOf;
+	private final double[] aRanks; // Relative position of a block in its layer, between 0 and 1
+	private final double[] aX;
+	private final double[] aY;
+	
+	private LayeredLayout(LayoutGraph pGraph)
+	{
+		aGraph = pGraph;
+		aLayerOf = new int[pGraph.size()];
+		aRanks = new double[pGraph.size()];
+		aX = new double[pGraph.size()];
+		aY = new double[pGraph.size()];
+		for( int i = 0; i < pGraph.size(); i++ )
+		{
+			aSupertypes.add(new ArrayList<>());
+			aSubtypes.add(new ArrayList<>());
+		}
+	}
+	
+	/**
+	 * @param pGraph The graph to lay out.
+	 * @return The position of the top-left corner of each block.
+	 * @pre pGraph != null
+	 */
+	static Point[] layout(LayoutGraph pGraph)
+	{
+		assert pGraph != null;
+		LayeredLayout layout = new LayeredLayout(pGraph);
+		layout.removeCycles();
+		layout.assignLayers();
+		for( int i = 0; i < SWEEPS; i++ )
+		{
+			layout.sweepDown();
+			layout.sweepUp();
+		}
+		layout.placeLayers();
+		layout.placeUnrelated();
+		Point[] result = new Point[pGraph.size()];
+		for( int i = 0; i < result.length; i++ )
+		{
+			result[i] = new Point((int) Math.round(layout.aX[i]), (int) Math.round(layout.aY[i]));
+		}
+		return result;
+	}
+	
+	/*
+	 * Keeps the hierarchy links that do not close a cycle, found with a depth-first
+	 * search that follows links from subtypes to supertypes. The search is iterative
+	 * because hierarchies can be deeper than the call stack.
+	 */
+	private void removeCycles()
+	{
+		List<List<Integer>> links = new ArrayList<>();
+		for( int i = 0; i < aGraph.size(); i++ )
+		{
+			links.add(new ArrayList<>());
+		}
+		for( int link = 0; link < aGraph.numberOfLinks(); link++ )
+		{
+			if( aGraph.isHierarchy(link) )
+			{
+				links.get(aGraph.start(link)).add(aGraph.end(link));
+			}
+		}
+		int[] states = new int[aGraph.size()];
+		int[] next = new int[aGraph.size()];
+		Deque<Integer> stack = new ArrayDeque<>();
+		for( int root = 0; root < aGraph.size(); root++ )
+		{
+			if( states[root] != NEW )
+			{
+				continue;
+			}
+			states[root] = ACTIVE;
+			stack.push(root);
+			while( !stack.isEmpty() )
+			{
+				int block = stack.peek();
+				if( next[block] < links.get(block).size() )
+				{
+					int supertype = links.get(block).get(next[block]++);
+					if( states[supertype] != ACTIVE )
+					{
+						aSupertypes.get(block).add(supertype);
+						aSubtypes.get(supertype).add(block);
+						if( states[supertype] == NEW )
+						{
+							states[supertype] = ACTIVE;
+							stack.push(supertype);
+						}
+					}
+				}
+				else
+				{
+					states[block] = DONE;
+					stack.pop();
+				}
+			}
+		}
+	}
+	
+	/*
+	 * Places each block one layer below its lowest supertype.
+	 */
+	private void assignLayers()
+	{
+		int[] remaining = new int[aGraph.size()];
+		Deque<Integer> ready = new ArrayDeque<>();
+		for( int i = 0; i < aGraph.size(); i++ )
+		{
+			remaining[i] = aSupertypes.get(i).size();
+			if( remaining[i] == 0 && !aSubtypes.get(i).isEmpty() )
+			{
+				ready.add(i);
+			}
+			else if( remaining[i] == 0 )
+			{
+				aUnrelated.add(i);
+			}
+		}
+		while( !ready.isEmpty() )
+		{
+			int block = ready.remove();
+			while( aLayers.size() <= aLayerOf[block] )
+			{
+				aLayers.add(new ArrayList<>());
+			}
+			aLayers.get(aLayerOf[block]).add(block);
+			for( int subtype : aSubtypes.get(block) )
+			{
+				aLayerOf[subtype] = Math.max(aLayerOf[subtype], aLayerOf[block] + 1);
+				remaining[subtype]--;
+				if( remaining[subtype] == 0 )
+				{
+					ready.add(subtype);
+				}
+			}
+		}
+		aLayers.forEach(this::updateRanks);
+	}
+	
+	private void updateRanks(List<Integer> pLayer)
+	{
+		for( int i = 0; i < pLayer.size(); i++ )
+		{
+			aRanks[pLayer.get(i)] = (i + 0.5) / pLayer.size();
+		}
+	}
+	
+	/*
+	 * Orders each layer by the average rank of the supertypes of its blocks.
+	 */
+	private void sweepDown()
+	{
+		for( int layer = 1; layer < aLayers.size(); layer++ )
+		{
+			order(aLayers.get(layer), aSupertypes);
+		}
+	}
+	
+	/*
+	 * Orders each layer by the average rank of the subtypes of its blocks.
+	 */
+	private void sweepUp()
+	{
+		for( int layer = aLayers.size() - 2; layer >= 0; layer-- )
+		{
+			order(aLayers.get(layer), aSubtypes);
+		}
+	}
+	
+	private void order(List<Integer> pLayer, List<List<Integer>> pNeighbors)
+	{
+		double[] barycenters = new double[aGraph.size()];
+		for( int block : pLayer )
+		{
+			barycenters[block] = barycenter(pNeighbors.get(block), aRanks, aRanks[block]);
+		}
+		pLayer.sort(Comparator.comparingDouble(block -> barycenters[block]));
+		updateRanks(pLayer);
+	}
+	
+	private static double barycenter(List<Integer> pBlocks, double[] pValues, double pDefault)
+	{
+		if( pBlocks.isEmpty() )
+		{
+			return pDefault;
+		}
+		double sum = 0;
+		for( int block : pBlocks )
+		{
+			sum += pValues[block];
+		}
+		return sum / pBlocks.size();
+	}
+	
+	/*
+	 * Places the blocks of each layer left to right, as close as possible to the 
+	 * center of their supertypes, then moves the supertypes as close as possible
+	 * to the center of their subtypes.
+	 */
+	private void placeLayers()
+	{
+		double y = 0;
+		for( List<Integer> layer : aLayers )
+		{
+			int height = 0;
+			for( int block : layer )
+			{
+				aY[block] = y;
+				height = Math.max(height, aGraph.height(block));
+			}
+			y += height + VERTICAL_GAP;
+		}
+		double[] centers = new double[aGraph.size()];
+		for( List<Integer> layer : aLayers )
+		{
+			place(layer, aSupertypes, centers);
+		}
+		for( int layer = aLayers.size() - 2; layer >= 0; layer-- )
+		{
+			place(aLayers.get(layer), aSubtypes, centers);
+		}
+		double minX = Double.MAX_VALUE;
+		for( List<Integer> layer : aLayers )
+		{
+			if( !layer.isEmpty() )
+			{
+				minX = Math.min(minX, aX[layer.get(0)]);
+			}
+		}
+		for( List<Integer> layer : aLayers )
+		{
+			for( int block : layer )
+			{
+				aX[block] -= minX;
+			}
+		}
+	}
+	
+	private void place(List<Integer> pLayer, List<List<Integer>> pNeighbors, double[] pCenters)
+	{
+		boolean first = true;
+		double next = 0;
+		for( int block : pLayer )
+		{
+			double width = aGraph.width(block);
+			double center = barycenter(pNeighbors.get(block), pCenters, Math.max(pCenters[block], next + width / 2));
+			aX[block] = center - width / 2;
+			if( !first )
+			{
+				aX[block] = Math.max(aX[block], next);
+			}
+			first = false;
+			next = aX[block] + width + HORIZONTAL_GAP;
+			pCenters[block] = aX[block] + width / 2;
+		}
+	}
+	
+	/*
+	 * Places the blocks without hierarchy links in rows below the layers,
+	 * at most as wide as the layers or as a square of the same area.
+	 */
+	private void placeUnrelated()
+	{
+		double top = 0;
+		double maxWidth = 0;
+		for( List<Integer> layer : aLayers )
+		{
+			for( int block : layer )
+			{
+				top = Math.max(top, aY[block] + aGraph.height(block) + VERTICAL_GAP);
+				maxWidth = Math.max(maxWidth, aX[block] + aGraph.width(block));
+			}
+		}
+		double area = 0;
+		for( int block : aUnrelated )
+		{
+			area += (aGraph.width(block) + HORIZONTAL_GAP) * (double) (aGraph.height(block) + VERTICAL_GAP);
+		}
+		maxWidth = Math.max(maxWidth, Math.sqrt(area));
+		double x = 0;
+		double rowHeight = 0;
+		for( int block : aUnrelated )
+		{
+			if( x > 0 && x + aGraph.width(block) > maxWidth )
+			{
+				x = 0;
+				top += rowHeight + VERTICAL_GAP;
+				rowHeight = 0;
+			}
+			aX[block] = x;
+			aY[block] = top;
+			x += aGraph.width(block) + HORIZONTAL_GAP;
+			rowHeight = Math.max(rowHeight, aGraph.height(block));
+		}
+	}
+}
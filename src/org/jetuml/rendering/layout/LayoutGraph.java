@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import java.util.Arrays;
+
+/**
+ * The input of a layout algorithm: a number of rectangular blocks, identified
+ * by their index, and the links between them. Hierarchy links go from a subtype
+ * to its supertype. 
+ */
+final class LayoutGraph
+{
+	private final int[] aWidths;
+	private final int[] aHeights;
+	private int[] aStarts = new int[0];
+	private int[] aEnds = new int[0];
+	private boolean[] aHierarchy = new boolean[0];
+	private int aNumberOfLinks = 0;
+	
+	/**
+	 * Creates a graph of pWidths.length blocks, without links.
+	 * 
+	 * @param pWidths The width of each block.
+	 * @param pHeights The height of each block.
+	 * @pre pWidths != null && pHeights != null && pWidths.length == pHeights.length
+	 */
+	LayoutGraph(int[] pWidths, int[] pHeights)
+	{
+		assert pWidths != null && pHeights != null && pWidths.length == pHeights.length;
+		aWidths = pWidths;
+		aHeights = pHeights;
+	}
+	
+	/**
+	 * Adds a link between two different blocks.
+	 * 
+	 * @param pStart The index of the start block.
+	 * @param pEnd The index of the end block.
+	 * @param pHierarchy True if pStart is a subtype of pEnd.
+	 * @pre pStart != pEnd && both are valid indices.
+	 */
+	void addLink(int pStart, int pEnd, boolean pHierarchy)
+	{
+		assert pStart != pEnd && pStart >= 0 && pStart < size() && pEnd >= 0 && pEnd < size();
+		if( aNumberOfLinks == aStarts.length )
+		{
+			int capacity = Math.max(2 * aStarts.length, size());
+			aStarts = Arrays.copyOf(aStarts, capacity);
+			aEnds = Arrays.copyOf(aEnds, capacity);
+			aHierarchy = Arrays.copyOf(aHierarchy, capacity);
+		}
+		aStarts[aNumberOfLinks] = pStart;
+		aEnds[aNumberOfLinks] = pEnd;
+		aHierarchy[aNumberOfLinks] = pHierarchy;
+		aNumberOfLinks++;
+	}
+	
+	/**
+	 * @return The number of blocks.
+	 */
+	int size()
+	{
+		return aWidths.length;
+	}
+	
+	int width(int pBlock)
+	{
+		return aWidths[pBlock];
+	}
+	
+	int height(int pBlock)
+	{
+		return aHeights[pBlock];
+	}
+	
+	/**
+	 * @return The number of links.
+	 */
+	int numberOfLinks()
+	{
+		return aNumberOfLinks;
+	}
+	
+	int start(int pLink)
+	{
+		return aStarts[pLink];
+	}
+	
+	int end(int pLink)
+	{
+		return aEnds[pLink];
+	}
+	
+	boolean isHierarchy(int pLink)
+	{
+		return aHierarchy[pLink];
+	}
+	
+	/**
+	 * @return True if most links are hierarchy links.
+	 */
+	boolean isMostlyHierarchy()
+	{
+		int hierarchy = 0;
+		for( int i = 0; i < aNumberOfLinks; i++ )
+		{
+			if( aHierarchy[i] )
+			{
+				hierarchy++;
+			}
+		}
+		return hierarchy > 0 && 2 * hierarchy >= aNumberOfLinks;
+	}
+}
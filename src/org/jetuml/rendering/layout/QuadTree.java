@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import java.util.Arrays;
+
+/**
+ * A region quadtree of points, where each cell records the number of points 
+ * it contains and their center of mass, to approximate the repulsion of 
+ * distant groups of points with the Barnes-Hut method. Once built, a tree 
+ * can be queried concurrently.
+ */
+final class QuadTree
+{
+	// Beyond this depth, points are so close that they are grouped in the same leaf.
+	private static final int MAX_DEPTH = 30;
+	private static final int EMPTY = -1;
+	private static final int INTERNAL = -2;
+	private static final int QUADRANTS = 4;
+	
+	private final double[] aPointsX;
+	private final double[] aPointsY;
+	
+	// For each cell: its square region, the mass and the sum of the coordinates of its
+	// points, the point it contains if it is a leaf, and the index of its first child,
+	// the four children of a cell being consecutive.
+	private double[] aLeft;
+	private double[] aTop;
+	private double[] aSize;
+	private double[] aMass;
+	private double[] aSumX;
+	private double[] aSumY;
+	private int[] aPoint;
+	private int[] aChildren;
+	private int aNumberOfCells = 0;
+	
+	/**
+	 * Builds the tree of the points whose coordinates are in pX and pY.
+	 * 
+	 * @param pX The x coordinate of each point.
+	 * @param pY The y coordinate of each point.
+	 * @pre pX != null && pY != null && pX.length == pY.length
+	 */
+	QuadTree(double[] pX, double[] pY)
+	{
+		assert pX != null && pY != null && pX.length == pY.length;
+		aPointsX = pX;
+		aPointsY = pY;
+		int capacity = Math.max(QUADRANTS, 2 * pX.length);
+		aLeft = new double[capacity];
+		aTop = new double[capacity];
+		aSize = new double[capacity];
+		aMass = new double[capacity];
+		aSumX = new double[capacity];
+		aSumY = new double[capacity];
+		aPoint = new int[capacity];
+		aChildren = new int[capacity];
+		
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		for( int i = 0; i < pX.length; i++ )
+		{
+			minX = Math.min(minX, pX[i]);
+			minY = Math.min(minY, pY[i]);
+			maxX = Math.max(maxX, pX[i]);
+			maxY = Math.max(maxY, pY[i]);
+		}
+		newCell(minX, minY, Math.max(maxX - minX, maxY - minY) + 1);
+		for( int i = 0; i < pX.length; i++ )
+		{
+			insert(i);
+		}
+	}
+	
+	private int newCell(double pLeft, double pTop, double pSize)
+	{
+		if( aNumberOfCells == aLeft.length )
+		{
+			int capacity = 2 * aLeft.length;
+			aLeft = Arrays.copyOf(aLeft, capacity);
+			aTop = Arrays.copyOf(aTop, capacity);
+			aSize = Arrays.copyOf(aSize, capacity);
+			aMass = Arrays.copyOf(aMass, capacity);
+			aSumX = Arrays.copyOf(aSumX, capacity);
+			aSumY = Arrays.copyOf(aSumY, capacity);
+			aPoint = Arrays.copyOf(aPoint, capacity);
+			aChildren = Arrays.copyOf(aChildren, capacity);
+		}
+		int cell = aNumberOfCells++;
+		aLeft[cell] = pLeft;
+		aTop[cell] = pTop;
+		aSize[cell] = pSize;
+		aMass[cell] = 0;
+		aSumX[cell] = 0;
+		aSumY[cell] = 0;
+		aPoint[cell] = EMPTY;
+		aChildren[cell] = EMPTY;
+		return cell;
+	}
+	
+	private void insert(int pPoint)
+	{
+		int cell = 0;
+		int depth = 0;
+		while( true )
+		{
+			aMass[cell]++;
+			aSumX[cell] += aPointsX[pPoint];
+			aSumY[cell] += aPointsY[pPoint];
+			if( aPoint[cell] == EMPTY )
+			{
+				aPoint[cell] = pPoint;
+				return;
+			}
+			if( aPoint[cell] >= 0 )
+			{
+				if( depth == MAX_DEPTH )
+				{
+					return;
+				}
+				split(cell);
+			}
+			cell = aChildren[cell] + quadrant(cell, pPoint);
+			depth++;
+		}
+	}
+	
+	/*
+	 * Turns a leaf into an internal cell, and moves its point to a child.
+	 */
+	private void split(int pCell)
+	{
+		double half = aSize[pCell] / 2;
+		int first = newCell(aLeft[pCell], aTop[pCell], half);
+		newCell(aLeft[pCell] + half, aTop[pCell], half);
+		newCell(aLeft[pCell], aTop[pCell] + half, half);
+		newCell(aLeft[pCell] + half, aTop[pCell] + half, half);
+		aChildren[pCell] = first;
+		int point = aPoint[pCell];
+		int child = first + quadrant(pCell, point);
+		aMass[child] = 1;
+		aSumX[child] = aPointsX[point];
+		aSumY[child] = aPointsY[point];
+		aPoint[child] = point;
+		aPoint[pCell] = INTERNAL;
+	}
+	
+	private int quadrant(int pCell, int pPoint)
+	{
+		double half = aSize[pCell] / 2;
+		int quadrant = 0;
+		if( aPointsX[pPoint] >= aLeft[pCell] + half )
+		{
+			quadrant += 1;
+		}
+		if( aPointsY[pPoint] >= aTop[pCell] + half )
+		{
+			quadrant += 2;
+		}
+		return quadrant;
+	}
+	
+	private boolean contains(int pCell, double pX, double pY)
+	{
+		return aLeft[pCell] <= pX && pX < aLeft[pCell] + aSize[pCell] && 
+				aTop[pCell] <= pY && pY < aTop[pCell] + aSize[pCell];
+	}
+	
+	/**
+	 * Adds to pForce the repulsion of all the other points on point pPoint, where
+	 * the repulsion of a point at distance d is pStrength / d. Groups of points whose
+	 * cell is seen from pPoint under a ratio size / distance smaller than pTheta
+	 * are approximated by their center of mass.
+	 * 
+	 * @param pPoint The index of the point.
+	 * @param pStrength The strength of the repulsion.
+	 * @param pTheta The accuracy of the approximation, 0 being exact.
+	 * @param pForce The x and y components of the force, to add to.
+	 * @pre pForce.length == 2
+	 */
+	void addRepulsion(int pPoint, double pStrength, double pTheta, double[] pForce)
+	{
+		assert pForce != null && pForce.length == 2;
+		double x = aPointsX[pPoint];
+		double y = aPointsY[pPoint];
+		int[] stack = new int[QUADRANTS * MAX_DEPTH + 1];
+		int top = 0;
+		stack[top++] = 0;
+		while( top > 0 )
+		{
+			int cell = stack[--top];
+			double mass = aMass[cell];
+			if( aPoint[cell] >= 0 && contains(cell, x, y) )
+			{
+				mass--; // A leaf that contains pPoint, and possibly other points at the same place
+			}
+			if( mass == 0 )
+			{
+				continue;
+			}
+			double dx = x - aSumX[cell] / aMass[cell];
+			double dy = y - aSumY[cell] / aMass[cell];
+			double squaredDistance = dx * dx + dy * dy;
+			if( aPoint[cell] != INTERNAL || aSize[cell] * aSize[cell] < pTheta * pTheta * squaredDistance )
+			{
+				if( squaredDistance < 1 )
+				{
+					// Separates coincident points in a direction that depends on their index
+					dx = Math.cos(pPoint);
+					dy = Math.sin(pPoint);
+					squaredDistance = 1;
+				}
+				// The force is pStrength * mass / d along the unit vector (dx, dy) / d
+				double factor = pStrength * mass / squaredDistance;
+				pForce[0] += dx * factor;
+				pForce[1] += dy * factor;
+			}
+			else
+			{
+				for( int i = 0; i < QUADRANTS; i++ )
+				{
+					stack[top++] = aChildren[cell] + i;
+				}
+			}
+		}
+	}
+}
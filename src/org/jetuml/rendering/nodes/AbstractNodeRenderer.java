@@ -20,9 +20,12 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
+import org.jetuml.diagnostics.MemoryEstimator;
+import org.jetuml.diagnostics.MemoryEstimator.Category;
 import org.jetuml.diagram.DiagramElement;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.NamedNode;
 import org.jetuml.geom.Direction;
 import org.jetuml.geom.GeomUtils;
 import org.jetuml.geom.Line;
@@ -30,6 +33,11 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.geom.Side;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
+import org.jetuml.rendering.RenderingUtils;
+import org.jetuml.rendering.StringRenderer;
+import org.jetuml.rendering.StringRenderer.Alignment;
+import org.jetuml.rendering.StringRenderer.TextDecoration;
 import org.jetuml.rendering.ToolGraphics;
 
 import javafx.scene.canvas.Canvas;
@@ -44,6 +52,9 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 	public static final int BUTTON_SIZE = 25;
 	public static final int OFFSET = 3;
 	
+	// Never underlined, so that drawing a name does not require measuring it
+	private static final StringRenderer SIMPLIFIED_NAME_VIEWER = StringRenderer.get(Alignment.CENTER_CENTER, TextDecoration.BOLD);
+	
 	private NodeStorage aNodeStorage = new NodeStorage();
 	private final DiagramRenderer aParent;
 	
@@ -79,6 +90,39 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 		return GeomUtils.intersectRectangle(getBounds(pNode), pDirection);
 	}
 	
+	/*
+	 * By default, a simplified node is its bounds without a shadow,
+	 * with the name of the node in the middle if it has one.
+	 */
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		Rectangle bounds = getBounds(pElement);
+		RenderingUtils.drawRectangle(pGraphics, Color.BLACK, Color.WHITE, 
+				bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+		if( pElement instanceof NamedNode )
+		{
+			drawSimplifiedName(((NamedNode)pElement).getName(), pGraphics, bounds, pLevelOfDetail);
+		}
+	}
+	
+	/**
+	 * Draws pName in the middle of pBounds, if names are visible at pLevelOfDetail.
+	 * 
+	 * @param pName The name to draw.
+	 * @param pGraphics The graphics context.
+	 * @param pBounds The rectangle in which to center the name.
+	 * @param pLevelOfDetail The level of detail of the diagram.
+	 */
+	protected static void drawSimplifiedName(String pName, GraphicsContext pGraphics, Rectangle pBounds, 
+			LevelOfDetail pLevelOfDetail)
+	{
+		if( pLevelOfDetail == LevelOfDetail.NAMES )
+		{
+			SIMPLIFIED_NAME_VIEWER.draw(pName, pGraphics, pBounds);
+		}
+	}
+	
 	@Override
 	public void drawSelectionHandles(DiagramElement pElement, GraphicsContext pGraphics)
 	{
@@ -123,6 +167,13 @@ public abstract class AbstractNodeRenderer implements NodeRenderer
 		aNodeStorage.deactivateAndClear();
 	}
 	
+	@Override
+	public void estimateMemory(MemoryEstimator pEstimator)
+	{
+		assert pEstimator != null;
+		pEstimator.add(Category.NODE_CACHE, aNodeStorage);
+	}
+	
 	/**
      * Gets the smallest rectangle that bounds this element.
      * The bounding rectangle contains all labels.
@@ -32,12 +32,14 @@ import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.geom.Side;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
 
 /**
  * Common functionality to view the different types of package nodes.
@@ -78,6 +80,19 @@ public abstract class AbstractPackageNodeRenderer extends AbstractNodeRenderer
 				topBounds.getY(), topBounds.getWidth(), topBounds.getHeight()));
 	}
 	
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		assert pElement instanceof AbstractPackageNode;
+		Rectangle topBounds = getTopBounds((AbstractPackageNode)pElement);
+		Rectangle bottomBounds = getBottomBounds((AbstractPackageNode)pElement);
+		RenderingUtils.drawRectangle(pGraphics, Color.BLACK, Color.WHITE, 
+				topBounds.getX(), topBounds.getY(), topBounds.getWidth(), topBounds.getHeight());
+		RenderingUtils.drawRectangle(pGraphics, Color.BLACK, Color.WHITE, 
+				bottomBounds.getX(), bottomBounds.getY(), bottomBounds.getWidth(), bottomBounds.getHeight());
+		drawSimplifiedName(((AbstractPackageNode)pElement).getName(), pGraphics, topBounds, pLevelOfDetail);
+	}
+	
 	@Override
 	public Point getConnectionPoint(Node pNode, Direction pDirection)
 	{
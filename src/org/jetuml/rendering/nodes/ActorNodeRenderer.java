@@ -26,6 +26,7 @@ import org.jetuml.diagram.nodes.ActorNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.ToolGraphics;
@@ -91,6 +92,15 @@ public final class ActorNodeRenderer extends AbstractNodeRenderer
 		ToolGraphics.strokeSharpPath(pGraphics, createStickManPath(node), LineStyle.SOLID);
 	}
 	
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		Rectangle bounds = getBounds(pElement);
+		ToolGraphics.strokeSharpPath(pGraphics, createStickManPath((Node) pElement), LineStyle.SOLID);
+		drawSimplifiedName(((ActorNode)pElement).getName(), pGraphics, new Rectangle(bounds.getX(), 
+				bounds.getY() + HEIGHT, bounds.getWidth(), bounds.getHeight() - HEIGHT), pLevelOfDetail);
+	}
+	
 	private static Path createStickManPath(Node pNode)
 	{
 		Path path = new Path();
@@ -28,6 +28,7 @@ import org.jetuml.geom.GeomUtils;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.RenderingUtils;
 
 import javafx.scene.canvas.GraphicsContext;
@@ -73,6 +74,15 @@ public final class CircularStateNodeRenderer extends AbstractNodeRenderer
 		}
 	}
 	
+	/*
+	 * A circular state has no text to leave out.
+	 */
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		draw(pElement, pGraphics);
+	}
+	
 	@Override
 	public Point getConnectionPoint(Node pNode, Direction pDirection)
 	{
@@ -30,6 +30,7 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.StringRenderer.Alignment;
 
@@ -85,6 +86,15 @@ public final class FieldNodeRenderer extends AbstractNodeRenderer
 				pGraphics, new Rectangle(split + midOffset, bounds.getY(), rightWidth(node), bounds.getHeight()));
 	}
 	
+	/*
+	 * A field is only text, so the object node that contains it is enough.
+	 */
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		// Do nothing
+	}
+	
 	private static int getSplitPosition(Node pNode)
 	{
 		ObjectNode parent = (ObjectNode)pNode.getParent();
@@ -31,6 +31,7 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.SequenceDiagramRenderer;
@@ -84,6 +85,16 @@ public final class ImplicitParameterNodeRenderer extends AbstractNodeRenderer
 		RenderingUtils.drawLine(pGraphics, xmid,  top.getMaxY(), xmid, getBounds(pElement).getMaxY(), LineStyle.DOTTED);
 	}
 	
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		Rectangle top = getTopRectangle((Node)pElement);
+		RenderingUtils.drawRectangle(pGraphics, Color.BLACK, Color.WHITE, top.getX(), top.getY(), top.getWidth(), top.getHeight());
+		drawSimplifiedName(((ImplicitParameterNode)pElement).getName(), pGraphics, top, pLevelOfDetail);
+		int xmid = top.getCenter().getX();
+		RenderingUtils.drawLine(pGraphics, xmid,  top.getMaxY(), xmid, getBounds(pElement).getMaxY(), LineStyle.DOTTED);
+	}
+	
 	@Override
 	public boolean contains(DiagramElement pElement, Point pPoint)
 	{
@@ -24,16 +24,28 @@ package org.jetuml.rendering.nodes;
  import java.util.Map;
  import java.util.function.Function;
 
+import org.jetuml.diagnostics.CacheStatistics;
 import org.jetuml.diagram.Node;
 import org.jetuml.geom.Rectangle;
 
  /**
-  * Stores the bounds of nodes. 
+  * Stores the bounds of nodes. The lookups in all the storages while they are
+  * activated are counted in a single CacheStatistics.
   */
  public class NodeStorage 
  {
+ 	private static final CacheStatistics STATISTICS = new CacheStatistics();
+ 	
  	private Map<Node, Rectangle> aNodeBounds = new IdentityHashMap<>();
  	private boolean aIsActivated = false;
+ 	
+ 	/**
+ 	 * @return The hits and misses of the lookups in activated node storages.
+ 	 */
+ 	public static CacheStatistics statistics()
+ 	{
+ 		return STATISTICS;
+ 	}
 
  	/**
  	 * Returns the bounds of the current node either from the storage or from the calculator.
@@ -49,10 +61,12 @@ import org.jetuml.geom.Rectangle;
  		}
  		else if (aIsActivated && aNodeBounds.containsKey(pNode))
  		{
+ 			STATISTICS.hit();
  			return aNodeBounds.get(pNode);
  		}
  		else
  		{
+ 			STATISTICS.miss();
  			Rectangle computedBounds = pBoundCalculator.apply(pNode);
  			aNodeBounds.put(pNode, computedBounds);
  			return computedBounds;
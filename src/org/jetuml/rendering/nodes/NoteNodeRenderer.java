@@ -26,6 +26,7 @@ import org.jetuml.diagram.nodes.NoteNode;
 import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.StringRenderer;
 import org.jetuml.rendering.ToolGraphics;
 import org.jetuml.rendering.StringRenderer.Alignment;
@@ -72,6 +73,15 @@ public final class NoteNodeRenderer extends AbstractNodeRenderer
 				new Rectangle(node.position().getX(), node.position().getY(), DEFAULT_WIDTH, DEFAULT_HEIGHT));
 	}
 	
+	/*
+	 * The text of a note is not its name, so it is never drawn.
+	 */
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		ToolGraphics.strokeAndFillSharpPath(pGraphics, createNotePath((Node) pElement), NOTE_COLOR, false);
+	}
+	
 	private Path createNotePath(Node pNode)
 	{
 		Path path = new Path();
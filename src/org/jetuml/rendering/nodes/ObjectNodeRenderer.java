@@ -28,6 +28,7 @@ import org.jetuml.geom.Dimension;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
 import org.jetuml.rendering.Grid;
+import org.jetuml.rendering.LevelOfDetail;
 import org.jetuml.rendering.LineStyle;
 import org.jetuml.rendering.RenderingUtils;
 import org.jetuml.rendering.StringRenderer;
@@ -35,6 +36,7 @@ import org.jetuml.rendering.StringRenderer.Alignment;
 import org.jetuml.rendering.StringRenderer.TextDecoration;
 
 import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.paint.Color;
 
 /**
  * An object to render an object in an object diagram.
@@ -79,6 +81,16 @@ public final class ObjectNodeRenderer extends AbstractNodeRenderer
 				new Rectangle(bounds.getX(), bounds.getY(), bounds.getWidth(), topRectangle.getHeight()));
 	}
 	
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		final Rectangle bounds = getBounds(pElement);
+		RenderingUtils.drawRectangle(pGraphics, Color.BLACK, Color.WHITE, 
+				bounds.getX(), bounds.getY(), bounds.getWidth(), bounds.getHeight());
+		drawSimplifiedName(((ObjectNode)pElement).getName(), pGraphics, new Rectangle(bounds.getX(), bounds.getY(), 
+				bounds.getWidth(), getTopRectangle((Node) pElement).getHeight()), pLevelOfDetail);
+	}
+	
 	private static Rectangle getTopRectangle(Node pNode)
 	{
 		Dimension bounds = NAME_VIEWER.getDimension(((ObjectNode)pNode).getName() + TEXT_HORIZONTAL_MARGIN); 
@@ -27,6 +27,7 @@ import org.jetuml.geom.Direction;
 import org.jetuml.geom.Point;
 import org.jetuml.geom.Rectangle;
 import org.jetuml.rendering.DiagramRenderer;
+import org.jetuml.rendering.LevelOfDetail;
 
 import javafx.scene.canvas.GraphicsContext;
 
@@ -74,4 +75,10 @@ public final class PointNodeRenderer extends AbstractNodeRenderer
 	{
 		// Do nothing, a point is invisible.
 	}
+	
+	@Override
+	public void drawSimplified(DiagramElement pElement, GraphicsContext pGraphics, LevelOfDetail pLevelOfDetail)
+	{
+		// Do nothing, a point is invisible.
+	}
 }
@@ -0,0 +1,134 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.application;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jetuml.application.AutosaveService.Recovery;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.persistence.JsonEncoder;
+import org.jetuml.persistence.OperationJournal;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestAutosaveService
+{
+	private static final Path PATH_TEMPORARY_DIRECTORY = Path.of("testdata", "tmpautosave");
+
+	private AutosaveService aService;
+
+	@BeforeEach
+	public void setup()
+	{
+		aService = new AutosaveService(PATH_TEMPORARY_DIRECTORY);
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		aService.shutdown();
+		for( String name : OperationJournal.list(PATH_TEMPORARY_DIRECTORY) )
+		{
+			OperationJournal.delete(PATH_TEMPORARY_DIRECTORY, name);
+		}
+		Files.deleteIfExists(PATH_TEMPORARY_DIRECTORY);
+	}
+
+	@Test
+	public void testRecordSnapshotsOncePerBatch() throws Exception
+	{
+		AtomicInteger snapshots = new AtomicInteger();
+		CountDownLatch snapshotTaken = new CountDownLatch(1);
+		Executor diagramThread = runnable ->
+		{
+			snapshots.incrementAndGet();
+			runnable.run();
+			snapshotTaken.countDown();
+		};
+		AutosaveService.Journal journal = aService.createJournal(diagramThread);
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		journal.record(diagram);
+		journal.record(diagram);
+		journal.record(diagram);
+		assertTrue(snapshotTaken.await(5, SECONDS));
+		assertEquals(1, snapshots.get());
+	}
+
+	@Test
+	public void testShutdownDiscardsJournals() throws Exception
+	{
+		CountDownLatch snapshotTaken = new CountDownLatch(1);
+		AutosaveService.Journal journal = aService.createJournal(runnable ->
+		{
+			runnable.run();
+			snapshotTaken.countDown();
+		});
+		journal.record(new Diagram(DiagramType.CLASS));
+		assertTrue(snapshotTaken.await(5, SECONDS));
+		aService.shutdown();
+		assertTrue(OperationJournal.list(PATH_TEMPORARY_DIRECTORY).isEmpty());
+	}
+
+	@Test
+	public void testRecoverKeepsJournals() throws IOException
+	{
+		String state = JsonEncoder.encode(new Diagram(DiagramType.CLASS)).toString();
+		new OperationJournal(PATH_TEMPORARY_DIRECTORY, "leftover", state).close();
+		List<Recovery> recoveries = aService.recover();
+		assertEquals(1, recoveries.size());
+		assertEquals("leftover", recoveries.get(0).name());
+		assertEquals(state, recoveries.get(0).encoding());
+		assertEquals(List.of("leftover"), OperationJournal.list(PATH_TEMPORARY_DIRECTORY));
+		assertEquals(1, aService.recover().size()); // Still offered if the recovery is declined
+	}
+
+	@Test
+	public void testSupersededJournalDeletedOnceWritten() throws Exception
+	{
+		String state = JsonEncoder.encode(new Diagram(DiagramType.CLASS)).toString();
+		new OperationJournal(PATH_TEMPORARY_DIRECTORY, "leftover", state).close();
+		Recovery recovery = aService.recover().get(0);
+		AutosaveService.Journal journal = aService.createJournal(Runnable::run);
+		journal.supersede(recovery);
+		journal.record(new Diagram(DiagramType.CLASS));
+		long deadline = System.nanoTime() + SECONDS.toNanos(5);
+		while( OperationJournal.list(PATH_TEMPORARY_DIRECTORY).contains("leftover") && System.nanoTime() < deadline )
+		{
+			Thread.sleep(10);
+		}
+		List<String> journals = OperationJournal.list(PATH_TEMPORARY_DIRECTORY);
+		assertFalse(journals.contains("leftover"));
+		assertEquals(1, journals.size()); // The journal of the recovered diagram
+	}
+}
@@ -214,6 +214,31 @@ public class TestClipboard
 		assertThat(getClipboardEdges(), isEmpty );
 	}
 	
+	@Test
+	void testCopyNodeWithEdgeBetweenChildren()
+	{
+		PackageNode pn = new PackageNode();
+		pn.addChild(aNode1);
+		pn.addChild(aNode2);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode1, aNode2);
+		aClipboard.copy(Arrays.asList(pn, edge));
+		
+		PackageNode node = (PackageNode)getClipboardNodes().get(0);
+		List<Edge> edges = getClipboardEdges();
+		assertThat(edges, hasSize, 1);
+		assertSame(node.getChildren().get(0), edges.get(0).start());
+		assertSame(node.getChildren().get(1), edges.get(0).end());
+		
+		List<DiagramElement> elements = new ArrayList<>();
+		aClipboard.getElements().forEach(elements::add);
+		Edge pastedEdge = (Edge) elements.get(0);
+		PackageNode pastedNode = (PackageNode) elements.get(1);
+		assertNotSame(node, pastedNode);
+		assertSame(pastedNode.getChildren().get(0), pastedEdge.start());
+		assertSame(pastedNode.getChildren().get(1), pastedEdge.end());
+	}
+	
 	@Test
 	void testCopyNodeWithOneParent()
 	{
@@ -24,6 +24,7 @@ import static org.jetuml.testutils.CollectionAssertions.assertThat;
 import static org.jetuml.testutils.CollectionAssertions.hasNoNullElements;
 import static org.jetuml.testutils.CollectionAssertions.hasSize;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -49,7 +50,9 @@ public class TestFileExtensions
 	@Test
 	void all_Values_size()
 	{
-		FileExtensions.all().forEach( ext -> assertEquals(1, ext.getExtensions().size() ));
+		List<ExtensionFilter> filters = FileExtensions.all();
+		filters.subList(0, filters.size() - 1).forEach( ext -> assertEquals(2, ext.getExtensions().size() ));
+		assertEquals(1, filters.get(filters.size() - 1).getExtensions().size());
 	}
 	
 	@Test
@@ -65,6 +68,15 @@ public class TestFileExtensions
 		assertEquals("*.*", filters.get(6).getExtensions().get(0));
 	}
 	
+	@Test
+	void all_Values_compressed()
+	{
+		List<ExtensionFilter> filters = FileExtensions.all();
+		assertEquals("*.jet.gz", filters.get(0).getExtensions().get(1));
+		assertEquals("*.class.jet.gz", filters.get(1).getExtensions().get(1));
+		assertEquals("*.usecase.jet.gz", filters.get(5).getExtensions().get(1));
+	}
+	
 	@Test
 	void test_forDiagram()
 	{
@@ -88,4 +100,18 @@ public class TestFileExtensions
 		assertNotSame(file, FileExtensions.clipApplicationExtension(file));
 		assertEquals(new File("XXX").getAbsolutePath(), FileExtensions.clipApplicationExtension(file).getAbsolutePath());
 	}
+	
+	@Test
+	void testClipApplicationExtension_compressed()
+	{
+		File file = new File("XXX.class.jet.gz");
+		assertEquals(new File("XXX.class").getAbsolutePath(), FileExtensions.clipApplicationExtension(file).getAbsolutePath());
+	}
+	
+	@Test
+	void testIsCompressed()
+	{
+		assertTrue(FileExtensions.isCompressed(new File("XXX.class.jet.gz")));
+		assertFalse(FileExtensions.isCompressed(new File("XXX.class.jet")));
+	}
 }
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.application;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.application.SaveService.SaveReport;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.PersistenceService;
+import org.jetuml.persistence.PersistenceService.Format;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestSaveService
+{
+	private static final Path PATH_TEMPORARY_FILE = Path.of("testdata", "tmpsave.class.jet");
+
+	private Diagram aDiagram;
+
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	@BeforeEach
+	public void setup() throws Exception
+	{
+		aDiagram = PersistenceService.read(Path.of("testdata", "test1.class.jet").toFile());
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		Files.deleteIfExists(PATH_TEMPORARY_FILE);
+	}
+
+	@Test
+	public void testSave() throws Exception
+	{
+		SaveReport report = SaveService.instance().save(aDiagram, PATH_TEMPORARY_FILE.toFile()).get();
+		assertFalse(report.skipped());
+		assertEquals(Files.size(PATH_TEMPORARY_FILE), report.bytes());
+		assertFalse(Files.exists(Path.of(PATH_TEMPORARY_FILE + ".tmp")));
+		Diagram diagram = PersistenceService.read(PATH_TEMPORARY_FILE.toFile());
+		assertEquals(aDiagram.rootNodes().size(), diagram.rootNodes().size());
+		assertEquals(aDiagram.edges().size(), diagram.edges().size());
+	}
+
+	@Test
+	public void testSaveBinary() throws Exception
+	{
+		SaveService.instance().save(aDiagram, PATH_TEMPORARY_FILE.toFile(), Format.BINARY).get();
+		assertEquals(Format.BINARY, PersistenceService.formatOf(PATH_TEMPORARY_FILE.toFile()));
+		assertEquals(aDiagram.rootNodes().size(), PersistenceService.read(PATH_TEMPORARY_FILE.toFile()).rootNodes().size());
+	}
+
+	@Test
+	public void testSaveUnchanged() throws Exception
+	{
+		SaveService.instance().save(aDiagram, PATH_TEMPORARY_FILE.toFile()).get();
+		SaveReport report = SaveService.instance().save(aDiagram.duplicate(), PATH_TEMPORARY_FILE.toFile()).get();
+		assertTrue(report.skipped());
+		assertEquals(0, report.bytes());
+	}
+
+	@Test
+	public void testSaveUnchangedFileModified() throws Exception
+	{
+		SaveService.instance().save(aDiagram, PATH_TEMPORARY_FILE.toFile()).get();
+		Files.writeString(PATH_TEMPORARY_FILE, "modified");
+		SaveReport report = SaveService.instance().save(aDiagram, PATH_TEMPORARY_FILE.toFile()).get();
+		assertFalse(report.skipped());
+		assertEquals(aDiagram.rootNodes().size(), PersistenceService.read(PATH_TEMPORARY_FILE.toFile()).rootNodes().size());
+	}
+
+	@Test
+	public void testSaveFailure()
+	{
+		File file = Path.of("testdata", "nonexistent", "tmpsave.class.jet").toFile();
+		ExecutionException exception = assertThrows(ExecutionException.class,
+				() -> SaveService.instance().save(aDiagram, file).get());
+		assertTrue(exception.getCause() instanceof UncheckedIOException);
+	}
+}
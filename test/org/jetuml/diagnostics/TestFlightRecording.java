@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Map;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import jdk.jfr.Configuration;
+
+public class TestFlightRecording
+{
+	@ParameterizedTest
+	@ValueSource(strings = {"Paint", "Layout", "Persistence", "Save", "JsonParse", "Operation", "Clipboard"})
+	void testProfileEnablesEvent(String pEvent) throws IOException, ParseException
+	{
+		try( Reader reader = new InputStreamReader(FlightRecording.class.getResourceAsStream("JetUML.jfc"), 
+				StandardCharsets.UTF_8) )
+		{
+			Map<String, String> settings = Configuration.create(reader).getSettings();
+			assertEquals("true", settings.get("org.jetuml." + pEvent + "#enabled"));
+			assertEquals("0 ms", settings.get("org.jetuml." + pEvent + "#threshold"));
+		}
+	}
+}
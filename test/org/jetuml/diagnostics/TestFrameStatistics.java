@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.diagnostics.FrameStatistics.Phase;
+import org.junit.jupiter.api.Test;
+
+public class TestFrameStatistics
+{
+	private static final int FRAMES = 60;
+	private static final long PAUSE = 5;
+	
+	private static void pause()
+	{
+		try
+		{
+			Thread.sleep(PAUSE);
+		}
+		catch(InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Test
+	void testNoFrames()
+	{
+		FrameStatistics statistics = new FrameStatistics();
+		assertEquals(0, statistics.frames());
+		assertEquals(0, statistics.averageFrameMillis());
+		assertEquals(0, statistics.averageMillis(Phase.NODES));
+	}
+	
+	@Test
+	void testAverages()
+	{
+		FrameStatistics statistics = new FrameStatistics();
+		for( int i = 0; i < FRAMES; i++ )
+		{
+			long start = System.nanoTime();
+			statistics.time(Phase.NODES, TestFrameStatistics::pause);
+			statistics.endFrame(start);
+		}
+		assertEquals(FRAMES, statistics.frames());
+		assertTrue(statistics.averageMillis(Phase.NODES) >= PAUSE);
+		assertTrue(statistics.averageFrameMillis() >= statistics.averageMillis(Phase.NODES));
+		assertEquals(0, statistics.averageMillis(Phase.LAYOUT));
+	}
+	
+	@Test
+	void testPhasesAccumulateUntilEndOfFrame()
+	{
+		FrameStatistics statistics = new FrameStatistics();
+		for( int i = 0; i < FRAMES; i++ )
+		{
+			long start = System.nanoTime();
+			statistics.time(Phase.EDGES, TestFrameStatistics::pause);
+			statistics.time(Phase.EDGES, TestFrameStatistics::pause);
+			statistics.endFrame(start);
+		}
+		assertTrue(statistics.averageMillis(Phase.EDGES) >= 2 * PAUSE);
+		assertEquals(0, statistics.averageMillis(Phase.NODES));
+	}
+}
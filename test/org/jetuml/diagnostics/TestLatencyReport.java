@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestLatencyReport
+{
+	private static final long MILLI = 1_000_000;
+	
+	private final LatencyReport aReport = new LatencyReport();
+	
+	@Test
+	void testPercentiles()
+	{
+		for( int i = 100; i >= 1; i-- )
+		{
+			aReport.record("pressed", i * MILLI);
+		}
+		assertEquals(100, aReport.count("pressed"));
+		assertEquals(1, aReport.percentile("pressed", 1), 0);
+		assertEquals(50, aReport.percentile("pressed", 50), 0);
+		assertEquals(90, aReport.percentile("pressed", 90), 0);
+		assertEquals(100, aReport.percentile("pressed", 100), 0);
+	}
+	
+	@Test
+	void testNearestRank()
+	{
+		aReport.record("paste", 10 * MILLI);
+		aReport.record("paste", 20 * MILLI);
+		aReport.record("paste", 30 * MILLI);
+		assertEquals(20, aReport.percentile("paste", 50), 0);
+		assertEquals(30, aReport.percentile("paste", 90), 0);
+	}
+	
+	@Test
+	void testCategories()
+	{
+		aReport.record("pressed", MILLI);
+		aReport.record("dragged", 2 * MILLI);
+		aReport.record("pressed", 3 * MILLI);
+		assertEquals(List.of(LatencyReport.ALL, "pressed", "dragged"), List.copyOf(aReport.categories()));
+		assertEquals(3, aReport.count(LatencyReport.ALL));
+		assertEquals(3, aReport.percentile(LatencyReport.ALL, 100), 0);
+		assertEquals(0, aReport.count("paste"));
+		assertTrue(aReport.toString().contains("dragged"));
+	}
+}
@@ -0,0 +1,116 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagnostics.MemoryEstimator.Category;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.builder.DiagramOperationProcessor;
+import org.jetuml.diagram.builder.SimpleOperation;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.junit.jupiter.api.Test;
+
+public class TestMemoryEstimator
+{
+	private final MemoryEstimator aEstimator = new MemoryEstimator();
+	
+	@Test
+	void testStrings()
+	{
+		aEstimator.add(Category.MODEL, new String(""));
+		assertEquals(40, aEstimator.report().get(Category.MODEL));
+		aEstimator.add(Category.HISTORY, new String("abcdefghi"));
+		assertEquals(56, aEstimator.report().get(Category.HISTORY));
+		assertEquals(96, aEstimator.report().total());
+	}
+	
+	@Test
+	void testPrimitiveArray()
+	{
+		aEstimator.add(Category.CANVAS, new int[5]);
+		assertEquals(40, aEstimator.report().get(Category.CANVAS));
+	}
+	
+	@Test
+	void testSharedObjectsCountedOnce()
+	{
+		String shared = new String("shared");
+		List<String> list = new ArrayList<>(List.of(shared, shared));
+		aEstimator.add(Category.MODEL, list);
+		long model = aEstimator.report().get(Category.MODEL);
+		aEstimator.add(Category.HISTORY, shared);
+		aEstimator.add(Category.HISTORY, list);
+		assertEquals(model, aEstimator.report().get(Category.MODEL));
+		assertEquals(0, aEstimator.report().get(Category.HISTORY));
+	}
+	
+	@Test
+	void testExclude()
+	{
+		String excluded = new String("excluded");
+		aEstimator.exclude(excluded);
+		aEstimator.add(Category.MODEL, excluded);
+		assertEquals(0, aEstimator.report().total());
+	}
+	
+	@Test
+	void testModelGrowsWithNodes()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		aEstimator.add(Category.MODEL, diagram);
+		long empty = aEstimator.report().get(Category.MODEL);
+		
+		MemoryEstimator estimator = new MemoryEstimator();
+		diagram.addRootNode(new ClassNode());
+		estimator.add(Category.MODEL, diagram);
+		assertTrue(estimator.report().get(Category.MODEL) > empty);
+	}
+	
+	/*
+	 * A node removed from the diagram is only retained by the operation that can add it back.
+	 */
+	@Test
+	void testHistoryRetainsRemovedNodes()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassNode node = new ClassNode();
+		diagram.addRootNode(node);
+		ClassNode removed = new ClassNode();
+		assertTrue(history(diagram, removed) > history(diagram, node));
+	}
+	
+	private static long history(Diagram pDiagram, ClassNode pNode)
+	{
+		DiagramOperationProcessor processor = new DiagramOperationProcessor();
+		processor.storeAlreadyExecutedOperation(new SimpleOperation(() -> pDiagram.removeRootNode(pNode), 
+				() -> pDiagram.addRootNode(pNode)));
+		MemoryEstimator estimator = new MemoryEstimator();
+		estimator.add(Category.MODEL, pDiagram);
+		estimator.add(Category.HISTORY, processor);
+		return estimator.report().get(Category.HISTORY);
+	}
+}
@@ -67,6 +67,29 @@ public class TestDiagram
 		assertFalse(aDiagram.containsAsRoot(aNode1));
 	}
 	
+	@Test
+	void testRemoveRootNodes()
+	{
+		aDiagram.addRootNode(aNode1);
+		aDiagram.addRootNode(aNode2);
+		aDiagram.addRootNode(aNode3);
+		aDiagram.removeRootNodes(List.of(aNode3, aNode1));
+		assertThat(aDiagram.rootNodes(), hasElementsSameAs, aNode2);
+	}
+	
+	@Test
+	void testRemoveEdges()
+	{
+		Edge edge1 = new DependencyEdge();
+		edge1.connect(aNode1, aNode2);
+		Edge edge2 = new DependencyEdge();
+		edge2.connect(aNode2, aNode1);
+		aDiagram.addEdge(edge1);
+		aDiagram.addEdge(edge2);
+		aDiagram.removeEdges(List.of(edge1));
+		assertThat(aDiagram.edges(), hasElementsSameAs, edge2);
+	}
+	
 	@ParameterizedTest
 	@MethodSource("argumentsForFileExtensions")
 	public void testFileExtensions(Diagram pDiagram, String pExtension)
@@ -24,6 +24,9 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.jetuml.diagram.edges.DependencyEdge;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.diagram.nodes.PackageNode;
@@ -136,4 +139,49 @@ public class TestDiagramDuplicate
 		assertSame(n1Copy, edgeCopy.start());
 		assertSame(n2Copy, edgeCopy.end());
 	}
+	
+	/*
+	 * 1000 packages of 9 classes each, plus the packages, with each class 
+	 * depending on the next one. Checks that every node and edge is copied, 
+	 * and that each copied edge connects the copies of its original nodes.
+	 */
+	@Test
+	public void test_largeDiagram()
+	{
+		final int packages = 1000;
+		final int classesPerPackage = 9;
+		List<ClassNode> classes = new ArrayList<>();
+		for( int i = 0; i < packages; i++ )
+		{
+			PackageNode packageNode = new PackageNode();
+			for( int j = 0; j < classesPerPackage; j++ )
+			{
+				ClassNode classNode = new ClassNode();
+				classNode.setName("C" + classes.size());
+				packageNode.addChild(classNode);
+				classes.add(classNode);
+			}
+			aClassDiagram.addRootNode(packageNode);
+		}
+		for( int i = 1; i < classes.size(); i++ )
+		{
+			DependencyEdge edge = new DependencyEdge();
+			edge.connect(classes.get(i-1), classes.get(i));
+			aClassDiagram.addEdge(edge);
+		}
+		
+		Diagram copy = aClassDiagram.duplicate();
+		
+		assertEquals(packages * (classesPerPackage + 1), copy.allNodes().size());
+		assertEquals(classes.size() - 1, copy.edges().size());
+		for( int i = 0; i < copy.edges().size(); i++ )
+		{
+			Edge edge = copy.edges().get(i);
+			Node expectedStart = copy.rootNodes().get(i / classesPerPackage).getChildren().get(i % classesPerPackage);
+			Node expectedEnd = copy.rootNodes().get((i+1) / classesPerPackage).getChildren().get((i+1) % classesPerPackage);
+			assertSame(expectedStart, edge.start());
+			assertSame(expectedEnd, edge.end());
+			assertEquals("C" + i, ((ClassNode) edge.start()).getName());
+		}
+	}
 }
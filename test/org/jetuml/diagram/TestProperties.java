@@ -17,7 +17,7 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.diagram;
 
 import static org.jetuml.testutils.CollectionAssertions.assertThat;
@@ -26,6 +26,7 @@ import static org.jetuml.testutils.CollectionAssertions.hasElementsEqualTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.Iterator;
 import java.util.List;
@@ -37,15 +38,33 @@ import org.junit.jupiter.api.Test;
 
 public class TestProperties
 {
-	static class Stub { String aValue = ""; }
+	static class Stub implements DiagramElement
+	{ 
+		String aValue = ""; 
+		
+		@Override
+		public Properties properties()
+		{
+			return null;
+		}
+	}
+	
 	private Stub aStub;
+	private PropertySchema.Builder aSchema;
 	private Properties aProperties;
 	
 	@BeforeEach
 	public void setup()
 	{
 		aStub = new Stub();
-		aProperties = new Properties();
+		aSchema = new PropertySchema.Builder();
+		build();
+	}
+	
+	/* Rebuilds the properties of aStub from the schema built so far */
+	private void build()
+	{
+		aProperties = new Properties(aSchema.build(), aStub);
 	}
 	
 	/* Convenience accessor */
@@ -65,7 +84,8 @@ public class TestProperties
 	@Test
 	public void testAddOne()
 	{
-		aProperties.add(PropertyName.AGGREGATION_TYPE, () -> aStub.aValue, val -> aStub.aValue = (String) val);
+		aSchema.add(PropertyName.AGGREGATION_TYPE, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		build();
 		assertEquals(1, size());
 		Property prop = aProperties.get(PropertyName.AGGREGATION_TYPE);
 		assertEquals(PropertyName.AGGREGATION_TYPE, prop.name());
@@ -75,13 +95,15 @@ public class TestProperties
 	@Test
 	public void testAddTwo()
 	{
-		aProperties.add(PropertyName.AGGREGATION_TYPE, () -> aStub.aValue, val -> aStub.aValue = (String) val);
+		aSchema.add(PropertyName.AGGREGATION_TYPE, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		build();
 		assertEquals(1, size());
 		Property prop = aProperties.get(PropertyName.AGGREGATION_TYPE);
 		assertSame(PropertyName.AGGREGATION_TYPE, prop.name());
 		assertEquals("", prop.get());
 		
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue + "X", val -> aStub.aValue = (String) val + "X");
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue + "X", (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue + "X");
+		build();
 		assertEquals(2, size());
 		prop = aProperties.get(PropertyName.ATTRIBUTES);
 		assertSame(PropertyName.ATTRIBUTES, prop.name());
@@ -91,7 +113,8 @@ public class TestProperties
 	@Test
 	public void testAddAt0()
 	{
-		aProperties.addAt(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val, 0);
+		aSchema.addAt(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 0);
+		build();
 		assertEquals(1, size());
 		Property prop = aProperties.iterator().next();
 		assertEquals(PropertyName.ATTRIBUTES, prop.name());
@@ -101,56 +124,88 @@ public class TestProperties
 	@Test
 	public void testAddAt0of2()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val, 0);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 0);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.CONTENTS, PropertyName.ATTRIBUTES);
 	}
 	
 	@Test
 	public void testAddAt1of2()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val, 1);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 1);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.ATTRIBUTES, PropertyName.CONTENTS);
 	}
 	
 	@Test
 	public void testAddAt0of3()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.add(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.DIRECTIONALITY, () -> aStub.aValue, val -> aStub.aValue = (String) val, 0);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.add(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.DIRECTIONALITY, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 0);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.DIRECTIONALITY, PropertyName.ATTRIBUTES, PropertyName.CONTENTS);
 	}
 	
 	@Test
 	public void testAddAt1of3()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.add(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.DIRECTIONALITY, () -> aStub.aValue, val -> aStub.aValue = (String) val, 1);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.add(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.DIRECTIONALITY, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 1);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.ATTRIBUTES, PropertyName.DIRECTIONALITY, PropertyName.CONTENTS);
 	}
 	
 	@Test
 	public void testAddAt2of3()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.add(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.DIRECTIONALITY, () -> aStub.aValue, val -> aStub.aValue = (String) val, 2);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.add(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.DIRECTIONALITY, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 2);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.ATTRIBUTES, PropertyName.CONTENTS, PropertyName.DIRECTIONALITY);
 	}
 	
 	@Test
 	public void testAddAt1of3AndSome()
 	{
-		aProperties.add(PropertyName.ATTRIBUTES, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.add(PropertyName.CONTENTS, () -> aStub.aValue, val -> aStub.aValue = (String) val);
-		aProperties.addAt(PropertyName.DIRECTIONALITY, () -> aStub.aValue, val -> aStub.aValue = (String) val, 1);
-		aProperties.add(PropertyName.END_LABEL, () -> aStub.aValue, val -> aStub.aValue = (String) val);
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.add(PropertyName.CONTENTS, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.addAt(PropertyName.DIRECTIONALITY, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue, 1);
+		aSchema.add(PropertyName.END_LABEL, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		build();
 		assertThat(extract(getProperties(), Property::name), hasElementsEqualTo, PropertyName.ATTRIBUTES, PropertyName.DIRECTIONALITY, PropertyName.CONTENTS, PropertyName.END_LABEL);
 	}
 	
+	@Test
+	public void testGetIsIndexedByName()
+	{
+		aSchema.add(PropertyName.ATTRIBUTES, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		aSchema.add(PropertyName.CONTENTS, (Stub pStub) -> "C", (Stub pStub, Object pValue) -> {});
+		PropertySchema schema = aSchema.build();
+		assertTrue(schema.contains(PropertyName.CONTENTS));
+		assertFalse(schema.contains(PropertyName.NAME));
+		aProperties = new Properties(schema, aStub);
+		aProperties.get(PropertyName.ATTRIBUTES).set("A");
+		assertEquals("A", aStub.aValue);
+		assertEquals("C", aProperties.get(PropertyName.CONTENTS).get());
+	}
+	
+	@Test
+	public void testSchemaSharedByElements()
+	{
+		aSchema.add(PropertyName.NAME, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue);
+		PropertySchema schema = aSchema.build();
+		Stub other = new Stub();
+		new Properties(schema, aStub).get(PropertyName.NAME).set("A");
+		new Properties(schema, other).get(PropertyName.NAME).set("B");
+		assertEquals("A", aStub.aValue);
+		assertEquals("B", other.aValue);
+	}
+	
 	private int size()
 	{
 		int size = 0;
@@ -29,9 +29,21 @@ public class TestProperty
 	@Test
 	public void testProperty()
 	{
-		class Stub { String aValue = "value"; }
+		class Stub implements DiagramElement
+		{ 
+			String aValue = "value";
+			
+			@Override
+			public Properties properties()
+			{
+				return null;
+			}
+		}
+		PropertySchema schema = new PropertySchema.Builder()
+				.add(PropertyName.NAME, (Stub pStub) -> pStub.aValue, (Stub pStub, Object pValue) -> pStub.aValue = (String) pValue)
+				.build();
 		Stub stub = new Stub();
-		Property property = new Property(PropertyName.NAME, () -> stub.aValue, newval -> stub.aValue = (String) newval);
+		Property property = new Property(schema, 0, stub);
 		assertEquals(PropertyName.NAME, property.name());
 		assertEquals("value", property.get());
 		
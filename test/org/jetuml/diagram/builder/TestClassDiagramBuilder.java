@@ -113,6 +113,33 @@ public class TestClassDiagramBuilder
 		assertEquals(0, numberOfRootNodes());
 	}
 	
+	@Test
+	void testCreateAddElementsOperation()
+	{
+		ClassNode existing = new ClassNode();
+		aDiagram.addRootNode(existing);
+		ClassNode node1 = new ClassNode();
+		ClassNode node2 = new ClassNode();
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(node1, node2);
+		DiagramOperation operation = aBuilder.createAddElementsOperation(List.of(node1, edge, node2));
+		operation.execute();
+		assertEquals(3, numberOfRootNodes());
+		assertSame(node1, getRootNode(1));
+		assertSame(node2, getRootNode(2));
+		assertEquals(1, numberOfEdges());
+		operation.undo();
+		assertEquals(1, numberOfRootNodes());
+		assertSame(existing, getRootNode(0));
+		assertEquals(0, numberOfEdges());
+	}
+	
+	@Test
+	void testCreateAddElementsOperationEmpty()
+	{
+		assertTrue(((CompoundOperation)aBuilder.createAddElementsOperation(List.of())).isEmpty());
+	}
+	
 	/*
 	 * Adding a node that can't be a child to the root
 	 * of the diagram, so, no over any other node.
@@ -395,4 +422,54 @@ public class TestClassDiagramBuilder
 		assertTrue(innerParent.getChildren().contains(child));
 		assertSame(innerParent, child.getParent());
 	}
+	
+	@Test
+	void testCreateImportOperation()
+	{
+		ClassNode existing = new ClassNode();
+		aDiagram.addRootNode(existing);
+		ImportBatch batch = new ImportBatch();
+		List<ClassNode> nodes = new ArrayList<>();
+		for( int i = 0; i < 100; i++ )
+		{
+			ClassNode node = new ClassNode();
+			// Positions outside the canvas are kept as is
+			batch.addNode(node, new Point(i * 200, 2000));
+			nodes.add(node);
+		}
+		for( int i = 1; i < 100; i++ )
+		{
+			batch.addEdge(new DependencyEdge(), nodes.get(i), nodes.get(i - 1));
+		}
+		batch.addEdge(new DependencyEdge(), nodes.get(0), existing);
+		
+		DiagramOperation operation = aBuilder.createImportOperation(batch);
+		assertEquals(1, numberOfRootNodes());
+		operation.execute();
+		assertEquals(101, numberOfRootNodes());
+		assertEquals(100, numberOfEdges());
+		assertEquals(new Point(19800, 2000), nodes.get(99).position());
+		assertSame(existing, aDiagram.edges().get(99).end());
+		assertTrue(DiagramType.newValidatorInstanceFor(aDiagram).isValid());
+		operation.undo();
+		assertEquals(1, numberOfRootNodes());
+		assertEquals(0, numberOfEdges());
+	}
+	
+	@Test
+	void testCreateImportOperationWithChildren()
+	{
+		PackageNode packageNode = new PackageNode();
+		ClassNode child = new ClassNode();
+		packageNode.addChild(child);
+		ImportBatch batch = new ImportBatch();
+		batch.addNode(packageNode, new Point(10, 10));
+		ClassNode node = new ClassNode();
+		batch.addNode(node, new Point(300, 10));
+		batch.addEdge(new DependencyEdge(), node, child);
+		aBuilder.createImportOperation(batch).execute();
+		assertEquals(2, numberOfRootNodes());
+		assertTrue(aDiagram.contains(child));
+		assertEquals(1, numberOfEdges());
+	}
 }
@@ -280,4 +280,40 @@ public class TestDiagramOperationProcessor
 		aProcessor.redoLastUndoneOperation();
 		assertFalse(aProcessor.hasUnsavedOperations());
 	}
+
+	@Test
+	public void testSavePoint_NoIntermediateOperation()
+	{
+		aProcessor.executeNewOperation(createOperation('A'));
+		Runnable savePoint = aProcessor.savePoint();
+		assertTrue(aProcessor.hasUnsavedOperations());
+		savePoint.run();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+	
+	@Test
+	public void testSavePoint_IntermediateOperation()
+	{
+		aProcessor.executeNewOperation(createOperation('A'));
+		Runnable savePoint = aProcessor.savePoint();
+		aProcessor.executeNewOperation(createOperation('B'));
+		savePoint.run();
+		assertTrue(aProcessor.hasUnsavedOperations());
+		aProcessor.undoLastExecutedOperation();
+		assertFalse(aProcessor.hasUnsavedOperations());
+	}
+
+	@Test
+	public void testObserverNotified()
+	{
+		StringBuilder notifications = new StringBuilder();
+		aProcessor.addObserver(() -> notifications.append(aBuilder.toString()).append(';'));
+		aProcessor.executeNewOperation(createOperation('A'));
+		aProcessor.executeNewOperation(createOperation('B'));
+		aProcessor.undoLastExecutedOperation();
+		aProcessor.redoLastUndoneOperation();
+		aBuilder.append('C');
+		aProcessor.storeAlreadyExecutedOperation(createOperation('C'));
+		assertEquals("A;AB;A;AB;ABC;", notifications.toString());
+	}
 }
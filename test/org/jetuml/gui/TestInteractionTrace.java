@@ -0,0 +1,118 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagnostics.LatencyReport;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
+import org.jetuml.gui.InteractionTrace.Interaction;
+import org.jetuml.gui.InteractionTrace.Type;
+import org.jetuml.persistence.DeserializationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestInteractionTrace
+{
+	private static final Path PATH_TRACES = Path.of("testdata", "traces");
+	private static final Path PATH_TEMPORARY_FILE = PATH_TRACES.resolve("tmp.class.trace");
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		Files.deleteIfExists(PATH_TEMPORARY_FILE);
+	}
+	
+	@Test
+	void testSaveAndLoad() throws IOException
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		diagram.addRootNode(new ClassNode());
+		InteractionTrace trace = new InteractionTrace(diagram);
+		trace.add(Interaction.key(10, "2"));
+		trace.add(Interaction.pressed(20, new Point(100, 50), true, 1, 1, false));
+		trace.add(Interaction.mouse(Type.DRAGGED, 30, new Point(110, 60), true));
+		trace.add(Interaction.mouse(Type.RELEASED, 40, new Point(110, 60), false));
+		trace.add(Interaction.command(Type.SELECT_ALL, 50));
+		trace.save(PATH_TEMPORARY_FILE);
+		
+		InteractionTrace loaded = InteractionTrace.load(PATH_TEMPORARY_FILE);
+		assertEquals(1, loaded.diagram().rootNodes().size());
+		List<Interaction> interactions = loaded.interactions();
+		assertEquals(5, interactions.size());
+		assertEquals(Type.KEY, interactions.get(0).type());
+		assertEquals("2", interactions.get(0).character());
+		Interaction pressed = interactions.get(1);
+		assertEquals(Type.PRESSED, pressed.type());
+		assertEquals(20, pressed.time());
+		assertEquals(new Point(100, 50), pressed.point());
+		assertTrue(pressed.isControlDown());
+		assertEquals(1, pressed.tool());
+		assertEquals(1, pressed.clicks());
+		assertEquals(new Point(110, 60), interactions.get(2).point());
+		assertEquals(Type.RELEASED, interactions.get(3).type());
+		assertEquals(Type.SELECT_ALL, interactions.get(4).type());
+		assertEquals(50, interactions.get(4).time());
+	}
+	
+	@Test
+	void testLoadInvalidTrace() throws IOException
+	{
+		Files.writeString(PATH_TEMPORARY_FILE, "{\"interactions\":[]}", StandardCharsets.UTF_8);
+		assertThrows(DeserializationException.class, () -> InteractionTrace.load(PATH_TEMPORARY_FILE));
+	}
+	
+	/*
+	 * The trace creates two classes, connects them with a dependency, selects 
+	 * them with a lasso, copies and pastes them, moves a class, and undoes and
+	 * redoes the move.
+	 */
+	@Test
+	void testReplay() throws IOException
+	{
+		InteractionTrace trace = InteractionTrace.load(PATH_TRACES.resolve("create-connect-lasso-paste-move.class.trace"));
+		LatencyReport report = new LatencyReport();
+		Diagram diagram = TraceReplayer.replay(trace, report);
+		assertEquals(4, diagram.rootNodes().size());
+		assertEquals(2, diagram.edges().size());
+		assertEquals(trace.interactions().size(), report.count(LatencyReport.ALL));
+		assertEquals(1, report.count(Type.PASTE.externalName()));
+	}
+}
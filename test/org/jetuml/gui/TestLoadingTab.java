@@ -0,0 +1,103 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javafx.application.Platform;
+
+public class TestLoadingTab
+{
+	private static final long PAUSE = 100; // milliseconds
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	/*
+	 * Waits until all the tasks posted so far to the JavaFX application thread have run.
+	 */
+	private static void waitForFXThread() throws InterruptedException
+	{
+		CountDownLatch done = new CountDownLatch(1);
+		Platform.runLater(done::countDown);
+		assertTrue(done.await(5, SECONDS));
+	}
+	
+	/*
+	 * The loader completes before the tab is cancelled, but the handlers
+	 * cannot run until the JavaFX application thread is released.
+	 */
+	@Test
+	void testCancelAfterCompletion() throws InterruptedException
+	{
+		AtomicBoolean handled = new AtomicBoolean();
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch cancelled = new CountDownLatch(1);
+		Platform.runLater(() -> 
+		{
+			LoadingTab tab = new LoadingTab(new File("Test.class.jet"), () -> 
+			{
+				loaded.countDown();
+				return new Diagram(DiagramType.CLASS);
+			}, 
+			(loadingTab, diagram) -> handled.set(true), 
+			(loadingTab, exception) -> handled.set(true));
+			try
+			{
+				loaded.await(5, SECONDS);
+				Thread.sleep(PAUSE); // Lets the task complete
+			}
+			catch(InterruptedException exception)
+			{
+				Thread.currentThread().interrupt();
+			}
+			tab.cancel();
+			cancelled.countDown();
+		});
+		assertTrue(cancelled.await(5, SECONDS));
+		waitForFXThread();
+		assertFalse(handled.get());
+	}
+	
+	@Test
+	void testLoaded() throws InterruptedException
+	{
+		CountDownLatch handled = new CountDownLatch(1);
+		Platform.runLater(() -> new LoadingTab(new File("Test.class.jet"), () -> new Diagram(DiagramType.CLASS), 
+				(loadingTab, diagram) -> handled.countDown(), (loadingTab, exception) -> {}));
+		assertTrue(handled.await(5, SECONDS));
+	}
+}
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagnostics.LatencyReport;
+import org.jetuml.persistence.DeserializationException;
+
+import javafx.application.Platform;
+
+/**
+ * Replays the interaction traces in the files passed as arguments, or the 
+ * traces of the test data if there are none, and prints the percentiles 
+ * of their latencies, by type of interaction. Can run without a display 
+ * with a headless JavaFX platform such as Monocle.
+ */
+public final class TestReplayPerformance
+{
+	private static final int WARMUP_REPLAYS = 1;
+	private static final int REPLAYS = 5;
+	private static final Path PATH_TRACES = Path.of("testdata", "traces", "create-connect-lasso-paste-move.class.trace");
+	
+	private TestReplayPerformance() {}
+	
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs)
+	{
+		List<Path> files = new ArrayList<>();
+		for( String argument : pArgs )
+		{
+			files.add(Path.of(argument));
+		}
+		if( files.isEmpty() )
+		{
+			files.add(PATH_TRACES);
+		}
+		Platform.startup(() -> 
+		{
+			for( Path file : files )
+			{
+				report(file);
+			}
+			Platform.exit();
+		});
+	}
+	
+	private static void report(Path pFile)
+	{
+		try
+		{
+			InteractionTrace trace = InteractionTrace.load(pFile);
+			for( int i = 0; i < WARMUP_REPLAYS; i++ )
+			{
+				TraceReplayer.replay(trace, new LatencyReport());
+			}
+			LatencyReport report = new LatencyReport();
+			for( int i = 0; i < REPLAYS; i++ )
+			{
+				TraceReplayer.replay(trace, report);
+			}
+			System.out.printf("%s (%d replays, latencies in ms)%n%s%n", pFile, REPLAYS, report);
+		}
+		catch(IOException | DeserializationException exception)
+		{
+			System.err.printf("%s: %s%n", pFile, exception.getMessage());
+		}
+	}
+}
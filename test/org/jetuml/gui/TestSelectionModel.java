@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.gui;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestSelectionModel
+{
+	private int aNotifications = 0;
+	private SelectionModel aModel = new SelectionModel(() -> aNotifications++);
+	private Diagram aDiagram = new Diagram(DiagramType.CLASS);
+	private PackageNode aOuter = new PackageNode();
+	private PackageNode aInner = new PackageNode();
+	private ClassNode aClass1 = new ClassNode();
+	private ClassNode aClass2 = new ClassNode();
+	private DependencyEdge aEdge = new DependencyEdge();
+
+	/*
+	 * aOuter contains aInner, which contains aClass1. aClass2 is a root node.
+	 */
+	@BeforeEach
+	void setup()
+	{
+		aInner.addChild(aClass1);
+		aOuter.addChild(aInner);
+		aDiagram.addRootNode(aOuter);
+		aDiagram.addRootNode(aClass2);
+		aEdge.connect(aClass1, aClass2);
+		aDiagram.addEdge(aEdge);
+	}
+
+	private List<DiagramElement> selection()
+	{
+		List<DiagramElement> result = new ArrayList<>();
+		aModel.forEach(result::add);
+		return result;
+	}
+
+	@Test
+	void testEmpty()
+	{
+		assertTrue(aModel.isEmpty());
+		assertTrue(aModel.getLastSelected().isEmpty());
+		assertTrue(aModel.getSelectedNodes().isEmpty());
+	}
+
+	@Test
+	void testAddKeepsOrder()
+	{
+		aModel.add(aClass2);
+		aModel.add(aEdge);
+		aModel.add(aClass1);
+		assertEquals(asList(aClass2, aEdge, aClass1), selection());
+		assertSame(aClass1, aModel.getLastSelected().get());
+		assertEquals(asList(aClass2, aClass1), aModel.getSelectedNodes());
+		assertEquals(3, aNotifications);
+	}
+
+	@Test
+	void testAddAgainMovesToEnd()
+	{
+		aModel.add(aClass2);
+		aModel.add(aEdge);
+		aModel.add(aClass2);
+		assertEquals(asList(aEdge, aClass2), selection());
+		assertSame(aClass2, aModel.getLastSelected().get());
+	}
+
+	@Test
+	void testAddWithSelectedAncestor()
+	{
+		aModel.add(aOuter);
+		aModel.add(aClass1);
+		assertEquals(asList(aOuter), selection());
+		assertFalse(aModel.contains(aClass1));
+	}
+
+	@Test
+	void testAddRemovesSelectedDescendants()
+	{
+		aModel.add(aClass1);
+		aModel.add(aClass2);
+		aModel.add(aInner);
+		assertEquals(asList(aClass2, aInner), selection());
+		aModel.add(aOuter);
+		assertEquals(asList(aClass2, aOuter), selection());
+	}
+
+	@Test
+	void testRemoveDescendantThenAddAncestor()
+	{
+		aModel.add(aClass1);
+		aModel.remove(aClass1);
+		aModel.add(aOuter);
+		aModel.add(aClass1);
+		assertEquals(asList(aOuter), selection());
+	}
+
+	@Test
+	void testAddAllNotifiesOnce()
+	{
+		aModel.addAll(asList(aOuter, aInner, aClass1, aClass2, aEdge));
+		assertEquals(asList(aOuter, aClass2, aEdge), selection());
+		assertEquals(1, aNotifications);
+	}
+
+	@Test
+	void testSetReplacesSelection()
+	{
+		aModel.add(aClass2);
+		aModel.set(asList(aClass1, aEdge));
+		assertEquals(asList(aClass1, aEdge), selection());
+		aModel.set(aOuter);
+		assertEquals(asList(aOuter), selection());
+		assertEquals(3, aNotifications);
+	}
+
+	@Test
+	void testClear()
+	{
+		aModel.addAll(asList(aClass1, aClass2));
+		aModel.clear();
+		assertTrue(aModel.isEmpty());
+		aModel.add(aOuter);
+		assertEquals(asList(aOuter), selection());
+	}
+
+	@Test
+	void testSynchronizeWithRemovesMissingElements()
+	{
+		aModel.addAll(asList(aClass1, aClass2, aEdge));
+		aDiagram.removeEdge(aEdge);
+		aDiagram.removeRootNode(aClass2);
+		int notifications = aNotifications;
+		aModel.synchronizeWith(aDiagram);
+		assertEquals(asList(aClass1), selection());
+		assertEquals(notifications, aNotifications);
+	}
+
+	@Test
+	void testSynchronizeWithMovedNode()
+	{
+		aModel.add(aClass1);
+		aOuter.addChild(aClass1);
+		aModel.synchronizeWith(aDiagram);
+		aModel.add(aInner);
+		assertEquals(asList(aClass1, aInner), selection());
+	}
+}
@@ -17,7 +17,7 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.persistence;
 
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -25,13 +25,14 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.Edge;
 import org.jetuml.diagram.Node;
 import org.jetuml.diagram.Properties;
-import org.jetuml.diagram.Property;
 import org.jetuml.diagram.PropertyName;
 import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonObject;
@@ -45,15 +46,14 @@ public final class PersistenceTestUtils
 	private PersistenceTestUtils() {}
 	
 	/**
-	 * Creates a properties object with keys as even arguments and values as odd arguments.
+	 * Creates a map of property values with keys as even arguments and values as odd arguments.
 	 */
-	static Properties build(Object... pInput)
+	static Map<PropertyName, Object> build(Object... pInput)
 	{
-		Properties properties = new Properties();
+		Map<PropertyName, Object> properties = new EnumMap<>(PropertyName.class);
 		for( int i = 0; i < pInput.length; i+=2 )
 		{
-			final int j = i;
-			properties.add((PropertyName)pInput[i], () -> pInput[j+1], p -> {});
+			properties.put((PropertyName)pInput[i], pInput[i+1]);
 		}
 		return properties;
 	}
@@ -97,22 +97,22 @@ public final class PersistenceTestUtils
 	/*
 	 * Finds the object in an array with the specified properties
 	 */
-	static JsonObject find(JsonArray pArray, String pType, Properties pProperties)
+	static JsonObject find(JsonArray pArray, String pType, Map<PropertyName, Object> pProperties)
 	{
 		JsonObject found = null;
 		for( int i = 0; i < pArray.size(); i++ )
 		{
 			boolean match = true;
 			JsonObject object = pArray.getJsonObject(i);
-			for( Property property : pProperties )
+			for( Map.Entry<PropertyName, Object> property : pProperties.entrySet() )
 			{
-				if( !object.hasProperty(property.name().external()))
+				if( !object.hasProperty(property.getKey().external()))
 				{
 					match = false;
 				}
 				else
 				{
-					if(!object.get(property.name().external()).equals(property.get()))
+					if(!object.get(property.getKey().external()).equals(property.getValue()))
 					{
 						match = false;
 					}
@@ -128,7 +128,7 @@ public final class PersistenceTestUtils
 		return found;
 	}
 	
-	static Node findRootNode(Diagram pDiagram, Class<?> pClass, Properties pProperties)
+	static Node findRootNode(Diagram pDiagram, Class<?> pClass, Map<PropertyName, Object> pProperties)
 	{
 		for( Node node : pDiagram.rootNodes() )
 		{
@@ -136,9 +136,9 @@ public final class PersistenceTestUtils
 			{
 				boolean match = true;
 				Properties nodeProperties = node.properties();
-				for( Property property : pProperties )
+				for( Map.Entry<PropertyName, Object> property : pProperties.entrySet() )
 				{
-					if( !nodeProperties.get(property.name()).get().equals(property.get()))
+					if( !nodeProperties.get(property.getKey()).get().equals(property.getValue()))
 					{
 						match = false;
 						break;
@@ -167,7 +167,7 @@ public final class PersistenceTestUtils
 		return null;
 	}
 	
-	static Edge findEdge(Diagram pDiagram, Class<?> pClass, Properties pProperties)
+	static Edge findEdge(Diagram pDiagram, Class<?> pClass, Map<PropertyName, Object> pProperties)
 	{
 		for( Edge edge : pDiagram.edges() )
 		{
@@ -175,9 +175,9 @@ public final class PersistenceTestUtils
 			{
 				boolean match = true;
 				Properties edgeProperties = edge.properties();
-				for( Property property : pProperties )
+				for( Map.Entry<PropertyName, Object> property : pProperties.entrySet() )
 				{
-					if( !edgeProperties.get(property.name()).get().equals(property.get()))
+					if( !edgeProperties.get(property.getKey()).get().equals(property.getValue()))
 					{
 						match = false;
 						break;
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.persistence.DeserializationException.Category;
+import org.jetuml.persistence.PersistenceService.Format;
+import org.jetuml.persistence.json.JsonArray;
+import org.jetuml.persistence.json.JsonObject;
+import org.jetuml.persistence.json.JsonParser;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class TestBinaryEncoding
+{
+	private static final Path PATH_TEST_FILES = Path.of("testdata");
+	private static final Path PATH_TEMPORARY_FILE = PATH_TEST_FILES.resolve("tmpbinary.class.jet");
+
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		Files.deleteIfExists(PATH_TEMPORARY_FILE);
+	}
+
+	private static JsonObject readJson(String pFileName) throws IOException
+	{
+		return JsonParser.parse(Files.readString(PATH_TEST_FILES.resolve(pFileName), StandardCharsets.UTF_8).trim());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet",
+							"testPersistenceService2.class.jet",
+							"testPersistenceService.sequence.jet",
+							"testPersistenceService.state.jet",
+							"testPersistenceService.object.jet",
+							"testPersistenceService.usecase.jet"})
+	public void testRoundTrip(String pFileName) throws IOException
+	{
+		JsonObject json = readJson(pFileName);
+		byte[] binary = BinaryEncoder.encode(json);
+		assertTrue(binary.length < json.toString().length());
+		assertTrue(BinaryDecoder.isBinary(ByteBuffer.wrap(binary)));
+		assertEquals(json.toString(), BinaryDecoder.decode(ByteBuffer.wrap(binary)).toString());
+	}
+
+	@Test
+	public void testRoundTripValues()
+	{
+		JsonObject node = new JsonObject();
+		node.put("x", -5);
+		node.put("y", Integer.MIN_VALUE);
+		node.put("z", Integer.MAX_VALUE);
+		node.put("flag", false);
+		node.put("name", "été\n");
+		JsonArray nodes = new JsonArray();
+		nodes.add(node);
+		JsonObject json = new JsonObject();
+		json.put("version", "3.6");
+		json.put("diagram", "ClassDiagram");
+		json.put("nodes", nodes);
+		json.put("edges", new JsonArray());
+		assertEquals(json.toString(), BinaryDecoder.decode(ByteBuffer.wrap(BinaryEncoder.encode(json))).toString());
+	}
+
+	@Test
+	public void testIsBinary_Json() throws IOException
+	{
+		assertFalse(BinaryDecoder.isBinary(ByteBuffer.wrap(Files.readAllBytes(PATH_TEST_FILES.resolve("testPersistenceService.class.jet")))));
+		assertFalse(BinaryDecoder.isBinary(ByteBuffer.allocate(0)));
+	}
+
+	@Test
+	public void testDecode_Truncated() throws IOException
+	{
+		byte[] binary = BinaryEncoder.encode(readJson("testPersistenceService.class.jet"));
+		ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(binary, binary.length - 3));
+		DeserializationException exception = assertThrows(DeserializationException.class, () -> BinaryDecoder.decode(truncated));
+		assertEquals(Category.SYNTACTIC, exception.category());
+	}
+
+	@Test
+	public void testSaveAndRead() throws IOException
+	{
+		Diagram diagram = PersistenceService.read(PATH_TEST_FILES.resolve("testPersistenceService.class.jet").toFile());
+		PersistenceService.save(diagram, PATH_TEMPORARY_FILE.toFile(), Format.BINARY);
+		Diagram binary = PersistenceService.read(PATH_TEMPORARY_FILE.toFile());
+		assertEquals(JsonEncoder.encode(diagram).toString(), JsonEncoder.encode(binary).toString());
+	}
+}
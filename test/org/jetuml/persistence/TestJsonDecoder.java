@@ -20,9 +20,18 @@
  *******************************************************************************/
 package org.jetuml.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
+import java.util.List;
+
 import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.persistence.json.JsonArray;
 import org.jetuml.persistence.json.JsonObject;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -58,4 +67,61 @@ public class TestJsonDecoder
 		object.put("diagram", "StateDiagram");
 		assertThrows(DeserializationException.class, () -> new JsonDecoder(object).decode());
 	}
+	
+	private static JsonObject classDiagram(String pNodeType, String pEdgeType)
+	{
+		JsonObject object = new JsonObject();
+		object.put("version", "3.0");
+		object.put("diagram", "ClassDiagram");
+		JsonArray nodes = new JsonArray();
+		for( int id = 0; id < 2; id++ )
+		{
+			JsonObject node = new JsonObject();
+			node.put("type", pNodeType);
+			node.put("id", id);
+			node.put("x", 10 * id);
+			node.put("y", 20 * id);
+			node.put("name", "Name");
+			node.put("attributes", "");
+			node.put("methods", "");
+			nodes.add(node);
+		}
+		object.put("nodes", nodes);
+		JsonArray edges = new JsonArray();
+		JsonObject edge = new JsonObject();
+		edge.put("type", pEdgeType);
+		edge.put("start", 0);
+		edge.put("end", 1);
+		edge.put("middleLabel", "");
+		edge.put("directionality", "Unidirectional");
+		edges.add(edge);
+		object.put("edges", edges);
+		return object;
+	}
+	
+	@Test
+	public void testDecodedNodesAreNewInstances()
+	{
+		Diagram diagram = new JsonDecoder(classDiagram("ClassNode", "DependencyEdge")).decode();
+		List<Node> nodes = diagram.rootNodes();
+		assertEquals(2, nodes.size());
+		assertSame(ClassNode.class, nodes.get(0).getClass());
+		assertNotSame(nodes.get(0), nodes.get(1));
+		assertEquals(20, nodes.get(1).position().getY());
+		assertEquals(1, diagram.edges().size());
+	}
+	
+	@Test
+	public void testUnknownNodeType()
+	{
+		assertThrows(DeserializationException.class, 
+				() -> new JsonDecoder(classDiagram("AbstractNode", "DependencyEdge")).decode());
+	}
+	
+	@Test
+	public void testEdgeTypeForNode()
+	{
+		assertThrows(DeserializationException.class, 
+				() -> new JsonDecoder(classDiagram("DependencyEdge", "DependencyEdge")).decode());
+	}
 }
@@ -0,0 +1,130 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+
+import org.jetuml.persistence.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class TestOperationJournal
+{
+	private static final Path PATH_TEMPORARY_DIRECTORY = Path.of("testdata", "tmpjournal");
+	private static final String NAME = "journal";
+
+	@AfterEach
+	public void tearDown() throws IOException
+	{
+		OperationJournal.delete(PATH_TEMPORARY_DIRECTORY, NAME);
+		Files.deleteIfExists(PATH_TEMPORARY_DIRECTORY);
+	}
+
+	@Test
+	public void testDeltaMiddle()
+	{
+		JsonObject delta = OperationJournal.delta("{\"x\":10,\"y\":20}", "{\"x\":150,\"y\":20}", 1);
+		assertEquals(5, delta.getInt("keep"));
+		assertEquals(7, delta.getInt("tail"));
+		assertEquals("150", delta.getString("text"));
+		assertEquals("{\"x\":150,\"y\":20}", OperationJournal.apply("{\"x\":10,\"y\":20}", delta));
+	}
+
+	@Test
+	public void testDeltaRepeatedCharacters()
+	{
+		JsonObject delta = OperationJournal.delta("aaaa", "aa", 1);
+		assertEquals("aa", OperationJournal.apply("aaaa", delta));
+		delta = OperationJournal.delta("aa", "aaaa", 1);
+		assertEquals("aaaa", OperationJournal.apply("aa", delta));
+		delta = OperationJournal.delta("", "abc", 1);
+		assertEquals("abc", OperationJournal.apply("", delta));
+	}
+
+	@Test
+	public void testRecoverInitialState() throws IOException
+	{
+		OperationJournal journal = new OperationJournal(PATH_TEMPORARY_DIRECTORY, NAME, "initial");
+		journal.close();
+		assertEquals(Optional.of("initial"), OperationJournal.recover(PATH_TEMPORARY_DIRECTORY, NAME));
+	}
+
+	@Test
+	public void testRecoverAfterAppends() throws IOException
+	{
+		OperationJournal journal = new OperationJournal(PATH_TEMPORARY_DIRECTORY, NAME, "initial");
+		journal.append("initial state");
+		journal.append("final state");
+		journal.append("final state"); // No change, nothing is appended
+		assertEquals(2, journal.size());
+		journal.synchronize();
+		journal.close();
+		assertEquals(Optional.of("final state"), OperationJournal.recover(PATH_TEMPORARY_DIRECTORY, NAME));
+	}
+
+	@Test
+	public void testCompaction() throws IOException
+	{
+		OperationJournal journal = new OperationJournal(PATH_TEMPORARY_DIRECTORY, NAME, "", 3);
+		journal.append("a");
+		journal.append("ab");
+		assertEquals(2, journal.size());
+		journal.append("abc");
+		assertEquals(0, journal.size());
+		journal.append("abcd");
+		journal.close();
+		assertEquals(Optional.of("abcd"), OperationJournal.recover(PATH_TEMPORARY_DIRECTORY, NAME));
+	}
+
+	@Test
+	public void testRecoverIgnoresTornWrite() throws IOException
+	{
+		OperationJournal journal = new OperationJournal(PATH_TEMPORARY_DIRECTORY, NAME, "one");
+		journal.append("two");
+		journal.close();
+		Files.writeString(PATH_TEMPORARY_DIRECTORY.resolve(NAME + ".journal"), "{\"seq\":2,\"keep\":0,\"ta",
+				StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+		assertEquals(Optional.of("two"), OperationJournal.recover(PATH_TEMPORARY_DIRECTORY, NAME));
+	}
+
+	@Test
+	public void testListAndDelete() throws IOException
+	{
+		assertFalse(OperationJournal.list(PATH_TEMPORARY_DIRECTORY).contains(NAME));
+		OperationJournal journal = new OperationJournal(PATH_TEMPORARY_DIRECTORY, NAME, "one");
+		assertTrue(OperationJournal.list(PATH_TEMPORARY_DIRECTORY).contains(NAME));
+		assertTrue(OperationJournal.isInUse(PATH_TEMPORARY_DIRECTORY, NAME));
+		journal.close();
+		assertFalse(OperationJournal.isInUse(PATH_TEMPORARY_DIRECTORY, NAME));
+		journal.delete();
+		assertFalse(OperationJournal.list(PATH_TEMPORARY_DIRECTORY).contains(NAME));
+		assertEquals(Optional.empty(), OperationJournal.recover(PATH_TEMPORARY_DIRECTORY, NAME));
+	}
+}
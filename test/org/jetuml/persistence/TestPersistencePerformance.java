@@ -0,0 +1,114 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.PersistenceService.Format;
+
+/**
+ * Compares the size of the saved files and the time to load them,
+ * for each combination of format and compression.
+ */
+public final class TestPersistencePerformance
+{
+	private static final int NUMBER_OF_TRIALS = 10;
+	private static final int NUMBER_OF_SYNTHETIC_NODES = 10000;
+	private static final Path PATH_TEST_FILES = Path.of("testdata");
+
+	private TestPersistencePerformance() {}
+
+	/**
+	 * Test method.
+	 */
+	public static void main(String[] pArgs) throws Exception
+	{
+		benchmark("performanceDiagram.class.jet",
+				PersistenceService.read(PATH_TEST_FILES.resolve("performanceDiagram.class.jet").toFile()));
+		benchmark("synthetic diagram with " + NUMBER_OF_SYNTHETIC_NODES + " nodes", createSyntheticDiagram());
+	}
+
+	private static void benchmark(String pName, Diagram pDiagram) throws Exception
+	{
+		System.out.println("Test PersistenceService.read(file) for " + pName + " : ");
+		for( Format format : Format.values() )
+		{
+			benchmark(pDiagram, format, PATH_TEST_FILES.resolve("tmpperformance.class.jet").toFile());
+			benchmark(pDiagram, format, PATH_TEST_FILES.resolve("tmpperformance.class.jet.gz").toFile());
+		}
+	}
+
+	private static void benchmark(Diagram pDiagram, Format pFormat, File pFile) throws Exception
+	{
+		PersistenceService.save(pDiagram, pFile, pFormat);
+		double avgExecutionTime = 0.0;
+		for( int i = 0; i < NUMBER_OF_TRIALS + 1; i++ )
+		{
+			Instant start = Instant.now();
+			PersistenceService.read(pFile);
+			Instant stop = Instant.now();
+			if( i > 0 ) // The first trial warms up the virtual machine
+			{
+				avgExecutionTime += Duration.between(start, stop).toMillis();
+			}
+		}
+		avgExecutionTime = avgExecutionTime / NUMBER_OF_TRIALS;
+		System.out.println(String.format("  %-6s %-12s %10d bytes, average duration (ms) of %d trials : %.1f",
+				pFormat, pFile.getName().endsWith(".gz") ? "compressed" : "uncompressed",
+				pFile.length(), NUMBER_OF_TRIALS, avgExecutionTime));
+		pFile.delete();
+	}
+
+	/*
+	 * A grid of class nodes, each depending on its predecessor.
+	 */
+	private static Diagram createSyntheticDiagram()
+	{
+		Diagram diagram = new Diagram(DiagramType.CLASS);
+		ClassNode previous = null;
+		for( int i = 0; i < NUMBER_OF_SYNTHETIC_NODES; i++ )
+		{
+			ClassNode node = new ClassNode();
+			node.setName("GeneratedClass" + i);
+			node.setAttributes("- aValue" + i + " : int\n- aName : String");
+			node.setMethods("+ getValue" + i + "() : int\n+ getName() : String");
+			node.moveTo(new Point((i % 100) * 150, (i / 100) * 100));
+			diagram.addRootNode(node);
+			if( previous != null )
+			{
+				Edge edge = new DependencyEdge();
+				edge.connect(previous, node);
+				diagram.addEdge(edge);
+			}
+			previous = node;
+		}
+		return diagram;
+	}
+}
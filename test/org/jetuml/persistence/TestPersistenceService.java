@@ -17,12 +17,14 @@
  *
  * You should have received a copy of the GNU General Public License
  * along with this program.  If not, see http://www.gnu.org/licenses.
- *******************************************************************************/
+ *******************************************************************************/
 package org.jetuml.persistence;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.File;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.Map;
@@ -40,10 +42,12 @@ import org.jetuml.diagram.nodes.CallNode;
 import org.jetuml.diagram.nodes.NoteNode;
 import org.jetuml.diagram.nodes.PointNode;
 import org.jetuml.geom.Rectangle;
+import org.jetuml.persistence.PersistenceService.Format;
 import org.jetuml.rendering.DiagramRenderer;
 import org.jetuml.rendering.SequenceDiagramRenderer;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
 
 /*
@@ -102,6 +106,47 @@ public class TestPersistenceService
 		diagram2.edges().forEach( edge -> assertEquals(bounds.get(hash(diagram2, edge)), renderer2.getBounds(edge), hash(diagram2, edge)));
 	}
 	
+	@ParameterizedTest
+	@EnumSource(Format.class)
+	public void testCompressed(Format pFormat) throws Exception
+	{
+		Diagram diagram = PersistenceService.read(PATH_TEST_FILES.resolve("testPersistenceService.class.jet").toFile());
+		File compressedFile = PATH_TEST_FILES.resolve("tmp.class.jet.gz").toFile();
+		PersistenceService.save(diagram, compressedFile, pFormat);
+		byte[] content = Files.readAllBytes(compressedFile.toPath());
+		Diagram diagram2 = PersistenceService.read(compressedFile);
+		compressedFile.delete();
+		
+		assertEquals((byte) 0x1f, content[0]);
+		assertEquals((byte) 0x8b, content[1]);
+		assertTrue(content.length < PersistenceService.encode(diagram, pFormat).length);
+		assertEquals(JsonEncoder.encode(diagram).toString(), JsonEncoder.encode(diagram2).toString());
+	}
+	
+	@ParameterizedTest
+	@EnumSource(Format.class)
+	public void testFormatOf(Format pFormat) throws Exception
+	{
+		Diagram diagram = PersistenceService.read(PATH_TEST_FILES.resolve("testPersistenceService.class.jet").toFile());
+		File file = PATH_TEMPORARY_FILE.toFile();
+		File compressedFile = PATH_TEST_FILES.resolve("tmp.class.jet.gz").toFile();
+		PersistenceService.save(diagram, file, pFormat);
+		PersistenceService.save(diagram, compressedFile, pFormat);
+		try
+		{
+			assertEquals(pFormat, PersistenceService.formatOf(file));
+			assertEquals(pFormat, PersistenceService.formatOf(compressedFile));
+			// A file that was read can be replaced
+			PersistenceService.save(PersistenceService.read(file), file, pFormat);
+			assertEquals(pFormat, PersistenceService.formatOf(file));
+		}
+		finally
+		{
+			file.delete();
+			compressedFile.delete();
+		}
+	}
+	
 	/*
 	 * @return A string that is intended to uniquely represent the diagram element within a diagram,
 	 * in a way that is resilient to serialization.
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramElement;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.AbstractNode;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.InterfaceNode;
+import org.jetuml.diagram.nodes.NamedNode;
+import org.jetuml.diagram.nodes.TypeNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.bytecode.ClassFile.Member;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestBytecodeImporter
+{
+	private static final List<Class<?>> CLASSES = List.of(ClassNode.class, TypeNode.class, NamedNode.class, 
+			AbstractNode.class, Node.class, DiagramElement.class);
+	
+	@TempDir
+	Path aDirectory;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private void writeClasses() throws IOException
+	{
+		for( Class<?> type : CLASSES )
+		{
+			Path file = aDirectory.resolve(type.getName().replace('.', '/') + ".class");
+			Files.createDirectories(file.getParent());
+			Files.write(file, TestClassFile.bytes(type));
+		}
+	}
+	
+	private static Map<String, TypeNode> nodesByName(Diagram pDiagram)
+	{
+		Map<String, TypeNode> result = new HashMap<>();
+		for( Node node : pDiagram.rootNodes() )
+		{
+			result.put(((TypeNode) node).getName(), (TypeNode) node);
+		}
+		return result;
+	}
+	
+	private static Optional<Edge> edge(Diagram pDiagram, Node pStart, Node pEnd)
+	{
+		return pDiagram.edges().stream()
+				.filter(edge -> edge.start() == pStart && edge.end() == pEnd)
+				.findFirst();
+	}
+	
+	private static void assertGeneralization(Diagram pDiagram, Node pStart, Node pEnd, GeneralizationEdge.Type pType)
+	{
+		Edge edge = edge(pDiagram, pStart, pEnd).get();
+		assertTrue(edge instanceof GeneralizationEdge);
+		assertEquals(pType, ((GeneralizationEdge) edge).getType());
+	}
+	
+	@Test
+	void testSimpleName()
+	{
+		assertEquals("Point", BytecodeImporter.simpleName("org.jetuml.geom.Point"));
+		assertEquals("Map.Entry", BytecodeImporter.simpleName("java.util.Map$Entry"));
+		assertEquals("Main", BytecodeImporter.simpleName("Main"));
+	}
+	
+	@Test
+	void testTypeName()
+	{
+		int[] end = new int[1];
+		assertEquals("int", BytecodeImporter.typeName("I", 0, end));
+		assertEquals(1, end[0]);
+		assertEquals("Map.Entry[][]", BytecodeImporter.typeName("J[[Ljava/util/Map$Entry;Z", 1, end));
+		assertEquals(23, end[0]);
+	}
+	
+	@Test
+	void testMalformedDescriptors()
+	{
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.typeName("Ljava/util/List", 0, new int[1]));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.typeName("[[", 0, new int[1]));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.typeName("Q", 0, new int[1]));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.attribute(new Member(0, "aCount", "", Optional.empty())));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.method(
+				new Member(0, "get", "(I", Optional.empty()), "Store"));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.method(
+				new Member(0, "get", "(I)", Optional.empty()), "Store"));
+		assertThrows(DeserializationException.class, () -> BytecodeImporter.method(
+				new Member(0, "get", "I)V", Optional.empty()), "Store"));
+	}
+	
+	@Test
+	void testMembers()
+	{
+		assertEquals("-aNames : List", BytecodeImporter.attribute(
+				new Member(ClassFile.ACC_PRIVATE, "aNames", "Ljava/util/List;", Optional.of("Ljava/util/List<Ljava/lang/String;>;"))));
+		assertEquals("~aCount : int", BytecodeImporter.attribute(new Member(0, "aCount", "I", Optional.empty())));
+		assertEquals("+get(int, String[]) : Object", BytecodeImporter.method(
+				new Member(ClassFile.ACC_PUBLIC, "get", "(I[Ljava/lang/String;)Ljava/lang/Object;", Optional.empty()), "Store"));
+		assertEquals("#Store()", BytecodeImporter.method(
+				new Member(ClassFile.ACC_PROTECTED, "<init>", "()V", Optional.empty()), "Store"));
+	}
+	
+	@Test
+	void testInPackages()
+	{
+		Predicate<String> all = BytecodeImporter.inPackages(List.of());
+		assertTrue(all.test("Main"));
+		Predicate<String> filter = BytecodeImporter.inPackages(List.of("org.jetuml.diagram", "java.util"));
+		assertTrue(filter.test("org.jetuml.diagram.Node"));
+		assertTrue(filter.test("org.jetuml.diagram.nodes.ClassNode"));
+		assertTrue(filter.test("java.util.Map$Entry"));
+		assertFalse(filter.test("org.jetuml.diagrams.Node"));
+		assertFalse(filter.test("java.util2.List"));
+		assertFalse(filter.test("Main"));
+	}
+	
+	@Test
+	void testImportClasses() throws IOException
+	{
+		writeClasses();
+		Diagram diagram = BytecodeImporter.importClasses(aDirectory, List.of());
+		assertEquals(DiagramType.CLASS, diagram.getType());
+		assertTrue(diagram.rootNodes().stream().allMatch(node -> node.position().equals(new Point(0, 0))));
+		Map<String, TypeNode> nodes = nodesByName(diagram);
+		assertEquals(Set.of("ClassNode", "TypeNode", "NamedNode", "AbstractNode", "Node", "DiagramElement"), nodes.keySet());
+		assertTrue(nodes.get("Node") instanceof InterfaceNode);
+		ClassNode classNode = (ClassNode) nodes.get("ClassNode");
+		assertTrue(classNode.getAttributes().contains("-aAttributes : String"));
+		List<String> methods = List.of(classNode.getMethods().split("\n"));
+		assertTrue(methods.contains("+ClassNode()"));
+		assertTrue(methods.contains("+setAttributes(String) : void"));
+		
+		assertGeneralization(diagram, nodes.get("ClassNode"), nodes.get("TypeNode"), GeneralizationEdge.Type.Inheritance);
+		assertGeneralization(diagram, nodes.get("AbstractNode"), nodes.get("Node"), GeneralizationEdge.Type.Implementation);
+		assertGeneralization(diagram, nodes.get("Node"), nodes.get("DiagramElement"), GeneralizationEdge.Type.Inheritance);
+		Set<List<Node>> connected = new HashSet<>();
+		for( Edge edge : diagram.edges() )
+		{
+			assertTrue(connected.add(List.of(edge.start(), edge.end())));
+			assertTrue(edge.start() != edge.end());
+		}
+		BytecodeImporter.arrange(diagram);
+		assertEquals(nodes.size(), nodes.values().stream().map(Node::position).distinct().count());
+	}
+	
+	@Test
+	void testImportPackage() throws IOException
+	{
+		writeClasses();
+		Diagram diagram = BytecodeImporter.importClasses(aDirectory, List.of("org.jetuml.diagram.nodes"));
+		assertEquals(Set.of("ClassNode", "TypeNode", "NamedNode", "AbstractNode"), nodesByName(diagram).keySet());
+	}
+}
@@ -0,0 +1,132 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.persistence.DeserializationException;
+import org.jetuml.persistence.bytecode.ClassFile.Member;
+import org.junit.jupiter.api.Test;
+
+public class TestClassFile
+{
+	static byte[] bytes(Class<?> pClass) throws IOException
+	{
+		try( InputStream input = pClass.getResourceAsStream(pClass.getSimpleName() + ".class") )
+		{
+			return input.readAllBytes();
+		}
+	}
+	
+	private static ClassFile parse(Class<?> pClass) throws IOException
+	{
+		return ClassFile.parse(ByteBuffer.wrap(bytes(pClass)));
+	}
+	
+	private static Optional<Member> member(List<Member> pMembers, String pName)
+	{
+		return pMembers.stream().filter(member -> member.name().equals(pName)).findFirst();
+	}
+	
+	@Test
+	void testClass() throws IOException
+	{
+		ClassFile classFile = parse(ClassNode.class);
+		assertEquals("org.jetuml.diagram.nodes.ClassNode", classFile.name());
+		assertFalse(classFile.isInterface());
+		assertFalse(classFile.isSynthetic());
+		assertEquals(Optional.of("org.jetuml.diagram.nodes.TypeNode"), classFile.superclass());
+		assertTrue(classFile.interfaces().isEmpty());
+		Member field = member(classFile.fields(), "aAttributes").get();
+		assertEquals("Ljava/lang/String;", field.descriptor());
+		assertTrue((field.access() & ClassFile.ACC_PRIVATE) != 0);
+		assertEquals("(Ljava/lang/String;)V", member(classFile.methods(), "setAttributes").get().descriptor());
+		assertTrue(member(classFile.methods(), "<init>").isPresent());
+		assertTrue(classFile.references().contains("org.jetuml.diagram.PropertyName"));
+		assertTrue(classFile.references().contains("java.lang.String"));
+	}
+	
+	@Test
+	void testInterface() throws IOException
+	{
+		ClassFile classFile = parse(Node.class);
+		assertTrue(classFile.isInterface());
+		assertEquals(Optional.of("java.lang.Object"), classFile.superclass());
+		assertEquals(List.of("org.jetuml.diagram.DiagramElement"), classFile.interfaces());
+		assertTrue(classFile.fields().isEmpty());
+	}
+	
+	@Test
+	void testGenericSignature() throws IOException
+	{
+		ClassFile classFile = parse(TestClassFile.class);
+		assertTrue(member(classFile.methods(), "member").isPresent());
+		assertTrue(classFile.references().contains("org.jetuml.persistence.bytecode.ClassFile$Member"));
+		assertTrue(classFile.references().contains("java.util.Optional"));
+	}
+	
+	@Test
+	void testAddClassNames()
+	{
+		Set<String> names = new LinkedHashSet<>();
+		ClassFile.addClassNames("(I[Ljava/lang/String;J)Ljava/util/List;", names);
+		assertEquals(List.of("java.lang.String", "java.util.List"), List.copyOf(names));
+		
+		names.clear();
+		ClassFile.addClassNames("Ljava/util/Map<TK;Ljava/util/List<+Lorg/Lib;>;>;", names);
+		assertEquals(List.of("java.util.Map", "java.util.List", "org.Lib"), List.copyOf(names));
+		
+		names.clear();
+		ClassFile.addClassNames("Lorg/Outer<TLIST;>.Inner<Lorg/Lib;>;", names);
+		assertEquals(List.of("org.Outer", "org.Lib"), List.copyOf(names));
+		
+		names.clear();
+		ClassFile.addClassNames("[[D", names);
+		assertTrue(names.isEmpty());
+	}
+	
+	@Test
+	void testNotAClassFile()
+	{
+		assertThrows(DeserializationException.class, () -> ClassFile.parse(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8})));
+	}
+	
+	@Test
+	void testTruncatedClassFile() throws IOException
+	{
+		byte[] bytes = bytes(ClassNode.class);
+		assertThrows(DeserializationException.class, () -> ClassFile.parse(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length / 2))));
+	}
+}
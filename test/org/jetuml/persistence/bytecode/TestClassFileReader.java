@@ -0,0 +1,197 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.bytecode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.TypeNode;
+import org.jetuml.geom.Point;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestClassFileReader
+{
+	private static final List<Class<?>> CLASSES = List.of(ClassNode.class, TypeNode.class, Node.class, Point.class);
+	private static final Set<String> ALL = names(ClassNode.class, TypeNode.class, Node.class, Point.class);
+	
+	@TempDir
+	Path aDirectory;
+	
+	private static Set<String> names(Class<?>... pClasses)
+	{
+		Set<String> result = new TreeSet<>();
+		for( Class<?> type : pClasses )
+		{
+			result.add(type.getName());
+		}
+		return result;
+	}
+	
+	private static Set<String> names(List<ClassFile> pClasses)
+	{
+		return pClasses.stream().map(ClassFile::name).collect(Collectors.toCollection(TreeSet::new));
+	}
+	
+	private static String path(Class<?> pClass)
+	{
+		return pClass.getName().replace('.', '/') + ".class";
+	}
+	
+	/*
+	 * Creates a jar with the class files of CLASSES under pPrefix, a manifest, 
+	 * and a resource. The first class is stored and the others are compressed.
+	 */
+	private Path createJar(String pPrefix) throws IOException
+	{
+		Path jar = aDirectory.resolve("test.jar");
+		try( JarOutputStream output = new JarOutputStream(Files.newOutputStream(jar)) )
+		{
+			for( Class<?> type : CLASSES )
+			{
+				byte[] bytes = TestClassFile.bytes(type);
+				ZipEntry entry = new ZipEntry(pPrefix + path(type));
+				if( type == CLASSES.get(0) )
+				{
+					CRC32 crc = new CRC32();
+					crc.update(bytes);
+					entry.setMethod(ZipEntry.STORED);
+					entry.setSize(bytes.length);
+					entry.setCrc(crc.getValue());
+				}
+				output.putNextEntry(entry);
+				output.write(bytes);
+				output.closeEntry();
+			}
+			output.putNextEntry(new ZipEntry("META-INF/versions/11/org/jetuml/geom/Point.class"));
+			output.write(TestClassFile.bytes(Point.class));
+			output.putNextEntry(new ZipEntry("org/jetuml/JetUML.properties"));
+			output.write(1);
+			output.setComment("A comment after the central directory");
+		}
+		return jar;
+	}
+	
+	private Path createDirectory() throws IOException
+	{
+		Path directory = aDirectory.resolve("classes");
+		for( Class<?> type : CLASSES )
+		{
+			Path file = directory.resolve(path(type));
+			Files.createDirectories(file.getParent());
+			try( OutputStream output = Files.newOutputStream(file) )
+			{
+				output.write(TestClassFile.bytes(type));
+			}
+		}
+		Files.writeString(directory.resolve("org/jetuml/geom/readme.txt"), "Not a class");
+		return directory;
+	}
+	
+	@Test
+	void testIsClassFile()
+	{
+		assertTrue(ClassFileReader.isClassFile("org/jetuml/geom/Point.class"));
+		assertTrue(ClassFileReader.isClassFile("Outer$Inner.class"));
+		assertFalse(ClassFileReader.isClassFile("org/jetuml/geom/Point.java"));
+		assertFalse(ClassFileReader.isClassFile("META-INF/versions/11/org/jetuml/geom/Point.class"));
+		assertFalse(ClassFileReader.isClassFile("module-info.class"));
+		assertFalse(ClassFileReader.isClassFile("org/jetuml/package-info.class"));
+	}
+	
+	@Test
+	void testReadJar() throws IOException
+	{
+		Path jar = createJar("");
+		assertEquals(ALL, names(ClassFileReader.read(jar, name -> true)));
+		assertEquals(names(Point.class), names(ClassFileReader.read(jar, name -> name.startsWith("org.jetuml.geom."))));
+	}
+	
+	@Test
+	void testReadDirectory() throws IOException
+	{
+		Path directory = createDirectory();
+		assertEquals(ALL, names(ClassFileReader.read(directory, name -> true)));
+		assertEquals(names(ClassNode.class, TypeNode.class), 
+				names(ClassFileReader.read(directory, name -> name.startsWith("org.jetuml.diagram.nodes."))));
+	}
+	
+	/*
+	 * The filter applies to the names of the classes, not to the paths of 
+	 * their files.
+	 */
+	@Test
+	void testReadJarWithPrefix() throws IOException
+	{
+		Path jar = createJar("BOOT-INF/classes/");
+		assertEquals(names(Point.class), names(ClassFileReader.read(jar, name -> name.startsWith("org.jetuml.geom."))));
+	}
+	
+	@Test
+	void testReadSubdirectory() throws IOException
+	{
+		Path directory = createDirectory().resolve("org/jetuml");
+		assertEquals(names(ClassNode.class, TypeNode.class), 
+				names(ClassFileReader.read(directory, name -> name.startsWith("org.jetuml.diagram.nodes."))));
+	}
+	
+	@Test
+	void testInvalidCentralDirectory() throws IOException
+	{
+		Path jar = createJar("");
+		ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(jar)).order(ByteOrder.LITTLE_ENDIAN);
+		int end = bytes.limit() - 22;
+		while( bytes.getInt(end) != 0x06054b50 )
+		{
+			end--;
+		}
+		bytes.putInt(end + 16, bytes.limit() - 10); // The offset of the central directory
+		Files.write(jar, bytes.array());
+		assertThrows(ZipException.class, () -> ClassFileReader.read(jar, name -> true));
+	}
+	
+	@Test
+	void testNotAJar() throws IOException
+	{
+		Path file = aDirectory.resolve("test.jar");
+		Files.writeString(file, "Not a jar");
+		assertThrows(ZipException.class, () -> ClassFileReader.read(file, name -> true));
+	}
+}
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.persistence.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TestStringTable
+{
+	private final StringTable aTable = new StringTable();
+	
+	@Test
+	void testCanonicalOfEqualCharacters()
+	{
+		String first = aTable.canonical(new StringBuilder("name"));
+		assertEquals("name", first);
+		assertSame(first, aTable.canonical(new StringBuilder("name")));
+		assertEquals(1, aTable.size());
+	}
+	
+	@Test
+	void testInitialStrings()
+	{
+		String name = new String("name");
+		StringTable table = new StringTable(List.of(name, "type"));
+		assertEquals(2, table.size());
+		assertSame(name, table.canonical(new StringBuilder("name")));
+		assertNotSame(name, table.canonical(new StringBuilder("names")));
+	}
+	
+	@Test
+	void testGrow()
+	{
+		for( int i = 0; i < 1000; i++ )
+		{
+			aTable.canonical(Integer.toString(i));
+		}
+		assertEquals(1000, aTable.size());
+		for( int i = 0; i < 1000; i++ )
+		{
+			String string = Integer.toString(i);
+			assertEquals(string, aTable.canonical(string));
+		}
+		assertEquals(1000, aTable.size());
+	}
+	
+	@Test
+	void testParseSharesEqualStrings()
+	{
+		JsonObject object = JsonParser.parse("{\"a\": {\"name\": \"x\"}, \"b\": {\"name\": \"x\"}}");
+		JsonObject first = object.getJsonObject("a");
+		JsonObject second = object.getJsonObject("b");
+		assertSame(first.getString("name"), second.getString("name"));
+		assertSame(first.properties().iterator().next(), second.properties().iterator().next());
+	}
+	
+	@Test
+	void testParseUsesInitialStrings()
+	{
+		String type = new String("type");
+		JsonObject object = JsonParser.parse("{\"type\": \"type\"}", new StringTable(List.of(type)));
+		assertSame(type, object.getString("type"));
+		assertSame(type, object.properties().iterator().next());
+	}
+}
@@ -0,0 +1,181 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.fail;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.AggregationEdge;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.DependencyEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.persistence.PersistenceService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Tests that laying out the connected components of a class diagram
+ * in parallel produces the same paths as laying out the whole diagram.
+ */
+public class TestComponentLayout
+{
+	private static final int CLUSTERS = 12;
+
+	private final Diagram aDiagram = new Diagram(DiagramType.CLASS);
+
+	/*
+	 * Adds a cluster of three connected classes at pX, pY, with edges of each priority.
+	 */
+	private void addCluster(int pX, int pY)
+	{
+		ClassNode top = classAt(pX + 100, pY);
+		ClassNode left = classAt(pX, pY + 150);
+		ClassNode right = classAt(pX + 200, pY + 150);
+		connect(new GeneralizationEdge(), left, top);
+		connect(new GeneralizationEdge(), right, top);
+		connect(new AggregationEdge(), top, left);
+		connect(new AssociationEdge(), left, right);
+		connect(new DependencyEdge(), right, top);
+		connect(new AssociationEdge(), top, top);
+	}
+
+	private ClassNode classAt(int pX, int pY)
+	{
+		ClassNode node = new ClassNode();
+		node.moveTo(new Point(pX, pY));
+		aDiagram.addRootNode(node);
+		return node;
+	}
+
+	private void connect(Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
+	}
+
+	@Test
+	void testSeparateClusters()
+	{
+		for( int i = 0; i < CLUSTERS; i++ )
+		{
+			addCluster(i % 4 * 500, i / 4 * 500);
+		}
+		assertEquals(CLUSTERS, connectedComponents(aDiagram).size());
+		assertSameLayout(aDiagram);
+	}
+
+	/*
+	 * Clusters that are not connected by edges, but close enough for
+	 * connection points to coincide, are in the same component.
+	 */
+	@Test
+	void testCloseClusters()
+	{
+		addCluster(0, 0);
+		addCluster(320, 0);
+		addCluster(1000, 0);
+		assertEquals(2, connectedComponents(aDiagram).size());
+		assertSameLayout(aDiagram);
+	}
+
+	@Test
+	void testPackageWithEdgeToChild()
+	{
+		PackageNode packageNode = new PackageNode();
+		ClassNode child = new ClassNode();
+		child.moveTo(new Point(20, 40));
+		packageNode.addChild(child);
+		aDiagram.addRootNode(packageNode);
+		ClassNode outside = classAt(400, 300);
+		connect(new DependencyEdge(), packageNode, child);
+		connect(new GeneralizationEdge(), outside, child);
+		addCluster(1000, 1000);
+		assertEquals(2, connectedComponents(aDiagram).size());
+		assertSameLayout(aDiagram);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = {"testPersistenceService.class.jet", "testPersistenceService2.class.jet",
+			"test1.class.jet", "performanceDiagram.class.jet"})
+	void testDiagramFiles(String pFileName) throws IOException
+	{
+		assertSameLayout(PersistenceService.read(Path.of("testdata", pFileName).toFile()));
+	}
+
+	private static void assertSameLayout(Diagram pDiagram)
+	{
+		ClassDiagramRenderer sequential = new ClassDiagramRenderer(pDiagram);
+		ClassDiagramRenderer parallel = new ClassDiagramRenderer(pDiagram);
+		invoke(sequential, "layoutEdges");
+		invoke(parallel, "layoutComponentsInParallel");
+		for( Edge edge : pDiagram.edges() )
+		{
+			assertEquals(sequential.getStoredEdgePath(edge), parallel.getStoredEdgePath(edge));
+		}
+	}
+
+	private static void invoke(ClassDiagramRenderer pRenderer, String pMethodName)
+	{
+		try
+		{
+			Method method = ClassDiagramRenderer.class.getDeclaredMethod(pMethodName);
+			method.setAccessible(true);
+			method.invoke(pRenderer);
+		}
+		catch(ReflectiveOperationException e)
+		{
+			fail();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static List<Diagram> connectedComponents(Diagram pDiagram)
+	{
+		try
+		{
+			ClassDiagramRenderer renderer = new ClassDiagramRenderer(pDiagram);
+			Method computeGeometry = ClassDiagramRenderer.class.getDeclaredMethod("computeGeometry");
+			computeGeometry.setAccessible(true);
+			Method connectedComponents = ClassDiagramRenderer.class.getDeclaredMethod("connectedComponents", Map.class);
+			connectedComponents.setAccessible(true);
+			return (List<Diagram>) connectedComponents.invoke(renderer, computeGeometry.invoke(renderer));
+		}
+		catch(ReflectiveOperationException e)
+		{
+			fail();
+			return null;
+		}
+	}
+}
@@ -21,17 +21,35 @@
 package org.jetuml.rendering;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.jetuml.JavaFXLoader;
 import org.jetuml.diagram.Diagram;
 import org.jetuml.diagram.DiagramType;
 import org.jetuml.diagram.Node;
+import org.jetuml.diagram.edges.DependencyEdge;
 import org.jetuml.diagram.nodes.ClassNode;
 import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.EdgePath;
 import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import javafx.application.Platform;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+
 public class TestDiagramRenderer
 {
 	private Diagram aDiagram = new Diagram(DiagramType.CLASS);
@@ -43,6 +61,91 @@ public class TestDiagramRenderer
 		aDiagram.addRootNode(aNode);
 	}
 	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	private static WritableImage snapshot(Canvas pCanvas) throws Exception
+	{
+		CompletableFuture<WritableImage> image = new CompletableFuture<>();
+		Platform.runLater(() -> image.complete(pCanvas.snapshot(null, null)));
+		return image.get(10, TimeUnit.SECONDS);
+	}
+	
+	/*
+	 * The points drawn on pImage that are not within pBounds, or close to them.
+	 */
+	private static List<Point> pointsOutside(WritableImage pImage, Rectangle... pBounds)
+	{
+		final int margin = 2;
+		List<Point> result = new ArrayList<>();
+		PixelReader pixels = pImage.getPixelReader();
+		for( int x = 0; x < (int) pImage.getWidth(); x++ )
+		{
+			for( int y = 0; y < (int) pImage.getHeight(); y++ )
+			{
+				boolean outside = true;
+				for( Rectangle bounds : pBounds )
+				{
+					outside = outside && (x < bounds.getX() - margin || x > bounds.getMaxX() + margin || 
+							y < bounds.getY() - margin || y > bounds.getMaxY() + margin);
+				}
+				if( outside && pixels.getColor(x, y).getBrightness() < 0.9 )
+				{
+					result.add(new Point(x, y));
+				}
+			}
+		}
+		return result;
+	}
+	
+	private static int distance(Point pPoint, Rectangle pBounds)
+	{
+		int dx = Math.max(0, Math.max(pBounds.getX() - pPoint.getX(), pPoint.getX() - pBounds.getMaxX()));
+		int dy = Math.max(0, Math.max(pBounds.getY() - pPoint.getY(), pPoint.getY() - pBounds.getMaxY()));
+		return Math.max(dx, dy);
+	}
+	
+	/*
+	 * During an interaction, the stored path of an edge attached to a moving node 
+	 * does not change, but the edge is drawn as a line that follows the node.
+	 */
+	@Test
+	void testDrawDuringInteraction() throws Exception
+	{
+		ClassNode other = new ClassNode();
+		other.translate(300, 0);
+		aDiagram.addRootNode(other);
+		DependencyEdge edge = new DependencyEdge();
+		edge.connect(aNode, other);
+		aDiagram.addEdge(edge);
+		GraphicsContext graphics = new Canvas(600, 400).getGraphicsContext2D();
+		aRenderer.draw(graphics);
+		EdgePath path = aRenderer.getStoredEdgePath(edge).get();
+		
+		aRenderer.startInteraction(List.of(other));
+		other.translate(0, 200);
+		Canvas canvas = new Canvas(600, 400);
+		aRenderer.draw(canvas.getGraphicsContext2D());
+		assertEquals(path, aRenderer.getStoredEdgePath(edge).get());
+		Rectangle startBounds = aRenderer.getBounds(aNode);
+		Rectangle endBounds = aRenderer.getBounds(other);
+		List<Point> line = pointsOutside(snapshot(canvas), startBounds, endBounds);
+		assertFalse(line.isEmpty());
+		// Nothing is drawn along the stored path between the nodes, and the line reaches the moved node
+		assertTrue(line.stream()
+				.filter(point -> point.getX() >= 150 && point.getX() <= 250)
+				.allMatch(point -> point.getY() > startBounds.getMaxY()));
+		assertTrue(line.stream().anyMatch(point -> distance(point, endBounds) <= 3));
+		assertTrue(line.stream().anyMatch(point -> distance(point, startBounds) <= 3));
+		
+		aRenderer.endInteraction();
+		aRenderer.draw(graphics);
+		assertNotEquals(path, aRenderer.getStoredEdgePath(edge).get());
+	}
+	
 	@Test
 	void testNodeAt_NoneShallow()
 	{
@@ -24,6 +24,7 @@ import static org.jetuml.rendering.FontMetrics.DEFAULT_FONT_SIZE;
 import static org.jetuml.testutils.GeometryUtils.osDependent;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.stream.Stream;
 
@@ -64,4 +65,16 @@ public class TestFontMetrics {
 		assertEquals(new Dimension(osDependent(95, 92, 92), osDependent(13, 12, 12)), aMetrics.getDimension("Single-Line-String"));
 		assertEquals(new Dimension(osDependent(31, 30, 30), osDependent(45, 40, 45)), aMetrics.getDimension("Multi\nLine\nString"));
 	}
+	
+	@Test
+	public void testDimensionsAreCached()
+	{
+		FontMetrics metrics = new FontMetrics(Font.font("System", DEFAULT_FONT_SIZE));
+		long hits = FontMetrics.statistics().hits();
+		long misses = FontMetrics.statistics().misses();
+		Dimension dimension = metrics.getDimension("Cached");
+		assertSame(dimension, metrics.getDimension("Cached"));
+		assertEquals(hits + 1, FontMetrics.statistics().hits());
+		assertEquals(misses + 1, FontMetrics.statistics().misses());
+	}
 }
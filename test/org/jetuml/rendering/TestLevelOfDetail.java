@@ -0,0 +1,63 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.jetuml.application.UserPreferences;
+import org.jetuml.application.UserPreferences.IntegerPreference;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestLevelOfDetail
+{
+	private static int userDefinedNamesOnlyZoom;
+	private static int userDefinedOutlineZoom;
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		userDefinedNamesOnlyZoom = UserPreferences.instance().getInteger(IntegerPreference.namesOnlyZoom);
+		userDefinedOutlineZoom = UserPreferences.instance().getInteger(IntegerPreference.outlineZoom);
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, 50);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, 30);
+	}
+	
+	@AfterAll
+	public static void restorePreferences()
+	{
+		UserPreferences.instance().setInteger(IntegerPreference.namesOnlyZoom, userDefinedNamesOnlyZoom);
+		UserPreferences.instance().setInteger(IntegerPreference.outlineZoom, userDefinedOutlineZoom);
+	}
+	
+	@Test
+	void testForScale()
+	{
+		assertEquals(LevelOfDetail.FULL, LevelOfDetail.forScale(1.5625));
+		assertEquals(LevelOfDetail.FULL, LevelOfDetail.forScale(1));
+		assertEquals(LevelOfDetail.FULL, LevelOfDetail.forScale(0.5));
+		assertEquals(LevelOfDetail.NAMES, LevelOfDetail.forScale(0.49));
+		assertEquals(LevelOfDetail.NAMES, LevelOfDetail.forScale(0.3));
+		assertEquals(LevelOfDetail.OUTLINE, LevelOfDetail.forScale(0.29));
+		assertEquals(LevelOfDetail.OUTLINE, LevelOfDetail.forScale(0.01));
+	}
+}
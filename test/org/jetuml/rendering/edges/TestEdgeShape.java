@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.edges;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.edges.NoteEdge;
+import org.jetuml.diagram.nodes.NoteNode;
+import org.jetuml.diagram.nodes.PointNode;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javafx.geometry.Bounds;
+import javafx.scene.shape.Arc;
+import javafx.scene.shape.ArcType;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.QuadCurveTo;
+import javafx.scene.shape.Shape;
+
+public class TestEdgeShape
+{
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+
+	private static Path path(double pX, double pY)
+	{
+		Path path = new Path();
+		path.getElements().add(new MoveTo(pX, pY));
+		return path;
+	}
+
+	private static void assertSameBounds(Shape pShape, EdgeShape pEdgeShape)
+	{
+		Bounds bounds = pShape.getBoundsInLocal();
+		assertEquals(new Rectangle((int)bounds.getMinX(), (int)bounds.getMinY(), (int)bounds.getWidth(),
+				(int)bounds.getHeight()), pEdgeShape.getBounds());
+	}
+
+	@Test
+	void testPolyline()
+	{
+		Path path = path(0, 0);
+		path.getElements().addAll(new LineTo(100, 0), new LineTo(100, 50));
+		EdgeShape shape = EdgeShape.of(path);
+		assertSameBounds(path, shape);
+		assertTrue(shape.isNear(new Point(50, 3), 3));
+		assertTrue(shape.isNear(new Point(97, 25), 3));
+		assertFalse(shape.isNear(new Point(50, 4), 3));
+		assertFalse(shape.isNear(new Point(50, 25), 3));
+		assertFalse(shape.isNear(new Point(100, 54), 3));
+	}
+
+	@Test
+	void testDiagonal()
+	{
+		Path path = path(0, 0);
+		path.getElements().add(new LineTo(100, 100));
+		EdgeShape shape = EdgeShape.of(path);
+		assertTrue(shape.isNear(new Point(52, 50), 3));
+		assertFalse(shape.isNear(new Point(55, 50), 3));
+	}
+
+	@Test
+	void testQuadCurve()
+	{
+		// The middle of the curve is at (50, 25)
+		Path path = path(0, 0);
+		path.getElements().add(new QuadCurveTo(50, 50, 100, 0));
+		EdgeShape shape = EdgeShape.of(path);
+		assertSameBounds(path, shape);
+		assertTrue(shape.isNear(new Point(50, 25), 1));
+		assertTrue(shape.isNear(new Point(50, 28), 3));
+		assertFalse(shape.isNear(new Point(50, 50), 3));
+		assertFalse(shape.isNear(new Point(50, 0), 3));
+	}
+
+	@Test
+	void testArc()
+	{
+		// A quarter circle from (120, 100) to (100, 80)
+		Arc arc = new Arc(100, 100, 20, 20, 0, 90);
+		arc.setType(ArcType.OPEN);
+		EdgeShape shape = EdgeShape.of(arc);
+		assertSameBounds(arc, shape);
+		assertTrue(shape.isNear(new Point(114, 86), 1));
+		assertFalse(shape.isNear(new Point(86, 114), 3));
+		assertFalse(shape.isNear(new Point(100, 100), 3));
+	}
+
+	@Test
+	void testCachedUntilNodesMove()
+	{
+		NoteNode noteNode = new NoteNode();
+		PointNode pointNode = new PointNode();
+		pointNode.translate(100, 20);
+		NoteEdge edge = new NoteEdge();
+		edge.connect(noteNode, pointNode);
+		NoteEdgeRenderer renderer = new NoteEdgeRenderer(DiagramType.newRendererInstanceFor(new Diagram(DiagramType.CLASS)));
+
+		EdgeShape shape = renderer.getEdgeShape(edge);
+		assertSame(shape, renderer.getEdgeShape(edge));
+		assertTrue(renderer.contains(edge, new Point(80, 21)));
+
+		pointNode.translate(0, 40);
+		assertNotSame(shape, renderer.getEdgeShape(edge));
+		assertFalse(renderer.contains(edge, new Point(80, 21)));
+	}
+}
@@ -20,6 +20,7 @@
  *******************************************************************************/
 package org.jetuml.rendering.edges;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -129,6 +130,30 @@ public class TestEdgeStorage
 		assertFalse(aEdgeStorage.connectionPointIsAvailable(new Point(100,100)));
 	}
 	
+	@Test
+	void testConnectionPointIsAvailable_AfterUpdate()
+	{
+		aEdgeStorage.store(edge1, path1);
+		aEdgeStorage.store(edge3, path3);
+		aEdgeStorage.store(edge1, path2);
+		assertTrue(aEdgeStorage.connectionPointIsAvailable(new Point(0,0)));
+		assertFalse(aEdgeStorage.connectionPointIsAvailable(new Point(300,300)));
+		// Still the end point of path3
+		assertFalse(aEdgeStorage.connectionPointIsAvailable(new Point(100,100)));
+		aEdgeStorage.store(edge3, path2);
+		assertTrue(aEdgeStorage.connectionPointIsAvailable(new Point(100,100)));
+	}
+	
+	@Test
+	void testEdgesConnectedTo_SelfEdge()
+	{
+		edge1.connect(nodeA, nodeA);
+		aEdgeStorage.store(edge1, path1);
+		aEdgeStorage.store(edge1, path2);
+		assertEquals(List.of(edge1), aEdgeStorage.edgesConnectedTo(nodeA));
+		assertTrue(aEdgeStorage.edgesConnectedTo(nodeB).isEmpty());
+	}
+	
 	@Test
 	void testEdgesWithSameNodes()
 	{
@@ -145,6 +170,19 @@ public class TestEdgeStorage
 		assertTrue(sameNodes.contains(edge2));
 	}
 	
+	@Test
+	void testEdgesWithSameNodes_SelfEdges()
+	{
+		edge1.connect(nodeA, nodeB);
+		edge2.connect(nodeB, nodeB);
+		edge3.connect(nodeC, nodeC);
+		aEdgeStorage.store(edge1, path1);
+		aEdgeStorage.store(edge2, path2);
+		aEdgeStorage.store(edge3, path3);
+		assertEquals(List.of(edge2), aEdgeStorage.getEdgesWithSameNodes(edge1));
+		assertTrue(aEdgeStorage.getEdgesWithSameNodes(edge2).isEmpty());
+	}
+	
 	@Test
 	void testClearStorage()
 	{
@@ -155,5 +193,6 @@ public class TestEdgeStorage
 		assertFalse(aEdgeStorage.contains(edge1));
 		assertFalse(aEdgeStorage.contains(edge2));
 		assertFalse(aEdgeStorage.contains(edge3));
+		assertTrue(aEdgeStorage.connectionPointIsAvailable(new Point(0,0)));
 	}	
 }
\ No newline at end of file
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jetuml.JavaFXLoader;
+import org.jetuml.diagram.Diagram;
+import org.jetuml.diagram.DiagramType;
+import org.jetuml.diagram.Edge;
+import org.jetuml.diagram.Node;
+import org.jetuml.diagram.builder.ClassDiagramBuilder;
+import org.jetuml.diagram.builder.DiagramOperation;
+import org.jetuml.diagram.edges.AssociationEdge;
+import org.jetuml.diagram.edges.GeneralizationEdge;
+import org.jetuml.diagram.nodes.ClassNode;
+import org.jetuml.diagram.nodes.PackageNode;
+import org.jetuml.geom.Point;
+import org.jetuml.geom.Rectangle;
+import org.jetuml.rendering.DiagramRenderer;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+public class TestAutoLayout
+{
+	private final Diagram aDiagram = new Diagram(DiagramType.CLASS);
+	private final ClassDiagramBuilder aBuilder = new ClassDiagramBuilder(aDiagram);
+	private final DiagramRenderer aRenderer = aBuilder.renderer();
+	private final ClassNode aBase = new ClassNode();
+	private final ClassNode aSub1 = new ClassNode();
+	private final ClassNode aSub2 = new ClassNode();
+	private final PackageNode aPackage = new PackageNode();
+	private final ClassNode aInside1 = new ClassNode();
+	private final ClassNode aInside2 = new ClassNode();
+	
+	@BeforeAll
+	public static void setupClass()
+	{
+		JavaFXLoader.load();
+	}
+	
+	/*
+	 * All the nodes are on top of each other. aSub1 and aSub2 extend aBase, aInside1 
+	 * and aInside2 are in aPackage and associated, and aInside1 extends aBase.
+	 */
+	private void createDiagram()
+	{
+		aDiagram.addRootNode(aBase);
+		aDiagram.addRootNode(aSub1);
+		aDiagram.addRootNode(aSub2);
+		aPackage.addChild(aInside1);
+		aPackage.addChild(aInside2);
+		aDiagram.addRootNode(aPackage);
+		connect(new GeneralizationEdge(), aSub1, aBase);
+		connect(new GeneralizationEdge(), aSub2, aBase);
+		connect(new GeneralizationEdge(), aInside1, aBase);
+		connect(new AssociationEdge(), aInside1, aInside2);
+	}
+	
+	private void connect(Edge pEdge, Node pStart, Node pEnd)
+	{
+		pEdge.connect(pStart, pEnd);
+		aDiagram.addEdge(pEdge);
+	}
+	
+	private void assertNoOverlap(List<Node> pNodes)
+	{
+		for( int i = 0; i < pNodes.size(); i++ )
+		{
+			for( int j = i + 1; j < pNodes.size(); j++ )
+			{
+				Rectangle bounds1 = aRenderer.getBounds(pNodes.get(i));
+				Rectangle bounds2 = aRenderer.getBounds(pNodes.get(j));
+				assertTrue(bounds1.getMaxX() <= bounds2.getX() || bounds2.getMaxX() <= bounds1.getX() ||
+						bounds1.getMaxY() <= bounds2.getY() || bounds2.getMaxY() <= bounds1.getY());
+			}
+		}
+	}
+	
+	@Test
+	void testSupports()
+	{
+		assertTrue(AutoLayout.supports(DiagramType.CLASS));
+		assertTrue(AutoLayout.supports(DiagramType.OBJECT));
+		assertFalse(AutoLayout.supports(DiagramType.SEQUENCE));
+	}
+	
+	@Test
+	void testComputePositionsDoesNotMoveNodes()
+	{
+		createDiagram();
+		Map<Node, Point> positions = AutoLayout.computePositions(aRenderer);
+		assertEquals(6, positions.size());
+		for( Node node : aDiagram.allNodes() )
+		{
+			assertEquals(new Point(0, 0), node.position());
+		}
+		assertFalse(positions.get(aSub1).equals(positions.get(aSub2)));
+	}
+	
+	@Test
+	void testLayoutOperation()
+	{
+		createDiagram();
+		DiagramOperation operation = aBuilder.createLayoutOperation();
+		operation.execute();
+		assertNoOverlap(aDiagram.rootNodes());
+		assertNoOverlap(aPackage.getChildren());
+		Rectangle packageBounds = aRenderer.getBounds(aPackage);
+		assertTrue(packageBounds.contains(aRenderer.getBounds(aInside1)));
+		assertTrue(packageBounds.contains(aRenderer.getBounds(aInside2)));
+		// The layers of the hierarchy
+		assertTrue(aRenderer.getBounds(aBase).getMaxY() < aRenderer.getBounds(aSub1).getY());
+		assertEquals(aSub1.position().getY(), aSub2.position().getY());
+		assertTrue(aRenderer.getBounds(aBase).getMaxY() < packageBounds.getY());
+		
+		operation.undo();
+		for( Node node : aDiagram.allNodes() )
+		{
+			assertEquals(new Point(0, 0), node.position());
+		}
+	}
+}
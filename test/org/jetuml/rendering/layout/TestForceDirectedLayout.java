@@ -0,0 +1,113 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+
+import org.jetuml.geom.Point;
+import org.junit.jupiter.api.Test;
+
+public class TestForceDirectedLayout
+{
+	private static LayoutGraph randomGraph(int pSize, long pSeed)
+	{
+		Random random = new Random(pSeed);
+		int[] widths = new int[pSize];
+		int[] heights = new int[pSize];
+		for( int i = 0; i < pSize; i++ )
+		{
+			widths[i] = 100 + random.nextInt(150);
+			heights[i] = 60 + random.nextInt(120);
+		}
+		LayoutGraph graph = new LayoutGraph(widths, heights);
+		for( int i = 1; i < pSize; i++ )
+		{
+			graph.addLink(i, random.nextInt(i), false);
+		}
+		return graph;
+	}
+	
+	private static boolean overlap(LayoutGraph pGraph, Point[] pPositions, int pBlock1, int pBlock2)
+	{
+		return pPositions[pBlock1].getX() < pPositions[pBlock2].getX() + pGraph.width(pBlock2) &&
+				pPositions[pBlock2].getX() < pPositions[pBlock1].getX() + pGraph.width(pBlock1) &&
+				pPositions[pBlock1].getY() < pPositions[pBlock2].getY() + pGraph.height(pBlock2) &&
+				pPositions[pBlock2].getY() < pPositions[pBlock1].getY() + pGraph.height(pBlock1);
+	}
+	
+	@Test
+	void testNoOverlaps()
+	{
+		LayoutGraph graph = randomGraph(300, 1);
+		Point[] positions = ForceDirectedLayout.layout(graph);
+		for( int i = 0; i < graph.size(); i++ )
+		{
+			for( int j = i + 1; j < graph.size(); j++ )
+			{
+				assertFalse(overlap(graph, positions, i, j));
+			}
+		}
+	}
+	
+	@Test
+	void testDeterministic()
+	{
+		LayoutGraph graph = randomGraph(200, 2);
+		assertArrayEquals(ForceDirectedLayout.layout(graph), ForceDirectedLayout.layout(graph));
+	}
+	
+	@Test
+	void testLinkedBlocksAreCloser()
+	{
+		// Two triangles, linked by a single link
+		LayoutGraph graph = new LayoutGraph(new int[] {100, 100, 100, 100, 100, 100}, new int[] {60, 60, 60, 60, 60, 60});
+		graph.addLink(0, 1, false);
+		graph.addLink(1, 2, false);
+		graph.addLink(2, 0, false);
+		graph.addLink(3, 4, false);
+		graph.addLink(4, 5, false);
+		graph.addLink(5, 3, false);
+		graph.addLink(2, 3, false);
+		Point[] positions = ForceDirectedLayout.layout(graph);
+		assertTrue(positions[0].distance(positions[1]) < positions[0].distance(positions[5]));
+		assertTrue(positions[4].distance(positions[5]) < positions[4].distance(positions[1]));
+	}
+	
+	@Test
+	void testManyBlocks()
+	{
+		LayoutGraph graph = randomGraph(5000, 3);
+		Point[] positions = ForceDirectedLayout.layout(graph);
+		assertEquals(graph.size(), positions.length);
+		for( int i = 0; i < graph.size(); i++ )
+		{
+			for( int j = i + 1; j < graph.size(); j++ )
+			{
+				assertFalse(overlap(graph, positions, i, j));
+			}
+		}
+	}
+}
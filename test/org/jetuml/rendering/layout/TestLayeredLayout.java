@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+
+import org.jetuml.geom.Point;
+import org.junit.jupiter.api.Test;
+
+public class TestLayeredLayout
+{
+	private static LayoutGraph graph(int pSize)
+	{
+		int[] widths = new int[pSize];
+		int[] heights = new int[pSize];
+		Arrays.fill(widths, 100);
+		Arrays.fill(heights, 60);
+		return new LayoutGraph(widths, heights);
+	}
+	
+	private static boolean overlap(LayoutGraph pGraph, Point[] pPositions, int pBlock1, int pBlock2)
+	{
+		return pPositions[pBlock1].getX() < pPositions[pBlock2].getX() + pGraph.width(pBlock2) &&
+				pPositions[pBlock2].getX() < pPositions[pBlock1].getX() + pGraph.width(pBlock1) &&
+				pPositions[pBlock1].getY() < pPositions[pBlock2].getY() + pGraph.height(pBlock2) &&
+				pPositions[pBlock2].getY() < pPositions[pBlock1].getY() + pGraph.height(pBlock1);
+	}
+	
+	@Test
+	void testSubtypesBelowSupertypes()
+	{
+		// 0 <- 1, 0 <- 2, 1 <- 3, 1 <- 4, 2 <- 4
+		LayoutGraph graph = graph(5);
+		graph.addLink(1, 0, true);
+		graph.addLink(2, 0, true);
+		graph.addLink(3, 1, true);
+		graph.addLink(4, 1, true);
+		graph.addLink(4, 2, true);
+		Point[] positions = LayeredLayout.layout(graph);
+		assertEquals(0, positions[0].getY());
+		assertEquals(positions[1].getY(), positions[2].getY());
+		assertTrue(positions[0].getY() + 60 < positions[1].getY());
+		assertTrue(positions[1].getY() + 60 < positions[3].getY());
+		assertEquals(positions[3].getY(), positions[4].getY());
+		for( int i = 0; i < 5; i++ )
+		{
+			for( int j = i + 1; j < 5; j++ )
+			{
+				assertFalse(overlap(graph, positions, i, j));
+			}
+		}
+	}
+	
+	@Test
+	void testCycle()
+	{
+		LayoutGraph graph = graph(3);
+		graph.addLink(0, 1, true);
+		graph.addLink(1, 2, true);
+		graph.addLink(2, 0, true);
+		Point[] positions = LayeredLayout.layout(graph);
+		assertEquals(3, Arrays.stream(positions).map(Point::getY).distinct().count());
+	}
+	
+	@Test
+	void testUnrelatedBlocksBelow()
+	{
+		LayoutGraph graph = graph(4);
+		graph.addLink(1, 0, true);
+		graph.addLink(2, 3, false);
+		Point[] positions = LayeredLayout.layout(graph);
+		assertTrue(positions[2].getY() > positions[1].getY() + 60);
+		assertTrue(positions[3].getY() > positions[1].getY() + 60);
+		assertFalse(overlap(graph, positions, 2, 3));
+	}
+}
@@ -0,0 +1,93 @@
+/*******************************************************************************
+ * JetUML - A desktop application for fast UML diagramming.
+ *
+ * Copyright (C) 2023 by McGill University.
+ *
+ * See: https://github.com/prmr/JetUML
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see http://www.gnu.org/licenses.
+ *******************************************************************************/
+package org.jetuml.rendering.layout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TestQuadTree
+{
+	private static double[] exactRepulsion(double[] pX, double[] pY, int pPoint)
+	{
+		double[] result = new double[2];
+		for( int i = 0; i < pX.length; i++ )
+		{
+			if( i != pPoint )
+			{
+				double dx = pX[pPoint] - pX[i];
+				double dy = pY[pPoint] - pY[i];
+				double squaredDistance = dx * dx + dy * dy;
+				result[0] += dx / squaredDistance;
+				result[1] += dy / squaredDistance;
+			}
+		}
+		return result;
+	}
+	
+	@Test
+	void testExactWithZeroTheta()
+	{
+		double[] x = {0, 100, 0, 100, 50};
+		double[] y = {0, 0, 100, 100, 20};
+		QuadTree tree = new QuadTree(x, y);
+		for( int i = 0; i < x.length; i++ )
+		{
+			double[] force = new double[2];
+			tree.addRepulsion(i, 1, 0, force);
+			double[] expected = exactRepulsion(x, y, i);
+			assertEquals(expected[0], force[0], 1e-12);
+			assertEquals(expected[1], force[1], 1e-12);
+		}
+	}
+	
+	@Test
+	void testApproximation()
+	{
+		Random random = new Random(0);
+		double[] x = new double[1000];
+		double[] y = new double[1000];
+		for( int i = 0; i < x.length; i++ )
+		{
+			x[i] = random.nextDouble() * 10000;
+			y[i] = random.nextDouble() * 10000;
+		}
+		QuadTree tree = new QuadTree(x, y);
+		double[] force = new double[2];
+		tree.addRepulsion(0, 1, 0.5, force);
+		double[] expected = exactRepulsion(x, y, 0);
+		double magnitude = Math.hypot(expected[0], expected[1]);
+		assertEquals(0, Math.hypot(force[0] - expected[0], force[1] - expected[1]) / magnitude, 0.05);
+	}
+	
+	@Test
+	void testCoincidentPoints()
+	{
+		double[] x = {10, 10, 10};
+		double[] y = {10, 10, 10};
+		QuadTree tree = new QuadTree(x, y);
+		double[] force = new double[2];
+		tree.addRepulsion(1, 1, 0.5, force);
+		assertEquals(2, Math.hypot(force[0], force[1]), 1e-9);
+	}
+}
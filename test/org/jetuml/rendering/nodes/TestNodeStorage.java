@@ -20,6 +20,7 @@
  *******************************************************************************/
 package org.jetuml.rendering.nodes;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertSame;
 
@@ -85,6 +86,21 @@ public class TestNodeStorage
 		assertNotSame(boundsBeforeDeactivation, boundsAfterDeactivation);
 	}
 
+	@Test
+	public void testStatisticsCountLookupsOnlyWhenNodeStorageIsActive()
+	{
+		Node node = new NoteNode();
+		long hits = NodeStorage.statistics().hits();
+		long misses = NodeStorage.statistics().misses();
+		aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		aNodeStorage.activate();
+		aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		aNodeStorage.getBounds(node, createDefaultBoundCalculator());
+		assertEquals(hits + 2, NodeStorage.statistics().hits());
+		assertEquals(misses + 1, NodeStorage.statistics().misses());
+	}
+
 	private static Function<Node, Rectangle> createDefaultBoundCalculator()
 	{
 		return new Function<>()